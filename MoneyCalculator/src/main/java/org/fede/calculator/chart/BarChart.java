@@ -55,7 +55,7 @@ public class BarChart {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
         for (var item : items) {
-            dataset.addValue(item.value(), item.yearMonth(), item.currency().name());
+            dataset.addValue(item.value().doubleValue(), item.yearMonth(), item.currency().name());
         }
         this.create(chartName, categoriesName, dataset, filename);
 
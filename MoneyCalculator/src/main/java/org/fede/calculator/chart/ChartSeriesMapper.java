@@ -25,6 +25,8 @@ import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeTableXYDataset;
 
 /**
+ * Charts are in the analytics tier, values are handed to the datasets as
+ * doubles once instead of being converted on every render.
  *
  * @author fede
  */
@@ -35,7 +37,7 @@ public class ChartSeriesMapper {
         final var nextMonth = YearMonth.now().plusMonths(1);
         for (var dp : series) {
             if (dp.ym().isBefore(nextMonth)) {
-                ts.add(day(dp.ym().atEndOfMonth()), dp.value());
+                ts.add(day(dp.ym().atEndOfMonth()), dp.value().doubleValue());
             }
         }
         return ts;
@@ -50,7 +52,7 @@ public class ChartSeriesMapper {
         final TimeSeries ts = new TimeSeries(series.getName());
         series.forEach((ym, ma) -> {
             if (ym.isBefore(seriesEnd)) {
-                ts.add(day(ym.atEndOfMonth()), ma.amount());
+                ts.add(day(ym.atEndOfMonth()), ma.amount().doubleValue());
             }
         });
         return ts;
@@ -63,7 +65,7 @@ public class ChartSeriesMapper {
         for (var s : series) {
             s.forEach((ym, ma) -> {
                 if (ym.isBefore(nextMonth)) {
-                    dataset.add(day(ym.atEndOfMonth()), ma.amount(), s.getName(), false);
+                    dataset.add(day(ym.atEndOfMonth()), ma.amount().doubleValue(), s.getName(), false);
                 }
             }
             );
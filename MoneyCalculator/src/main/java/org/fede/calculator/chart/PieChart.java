@@ -72,7 +72,7 @@ public class PieChart {
         items
                 .stream()
                 .sorted(this.largerFirst)
-                .forEach(item -> ds.setValue(item.label(), item.value()));
+                .forEach(item -> ds.setValue(item.label(), item.value().doubleValue()));
 
         JFreeChart chart = ChartFactory.createPieChart(chartTitle, ds);
         chart.setAntiAlias(SeriesReader.readBoolean("chart.antialias"));
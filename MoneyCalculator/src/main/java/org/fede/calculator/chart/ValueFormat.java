@@ -28,32 +28,32 @@ public enum ValueFormat {
     PERCENTAGE {
         @Override
         public Format format() {
-            return ValueFormat.PCT;
+            return (Format) ValueFormat.PCT.clone();
         }
 
     },
     CURRENCY {
         @Override
         public Format format() {
-            return ValueFormat.CURR;
+            return (Format) ValueFormat.CURR.clone();
         }
     },
     CURRENCY_DECIMALS {
         @Override
         public Format format() {
-            return ValueFormat.CURR_DEC;
+            return (Format) ValueFormat.CURR_DEC.clone();
         }
     },
     NUMBER {
         @Override
         public Format format() {
-            return NUM;
+            return (Format) NUM.clone();
         }
     },
     DATE {
         @Override
         public Format format() {
-            return DATE_FMT;
+            return (Format) DATE_FMT.clone();
         }
     };
 
@@ -73,6 +73,11 @@ public enum ValueFormat {
         CURR.setMaximumFractionDigits(0);
     }
 
+    /**
+     * Formats are not thread safe, so every call gets its own copy.
+     *
+     * @return
+     */
     public abstract Format format();
 
 }
@@ -4,7 +4,7 @@ import java.math.BigDecimal;
 import java.util.List;
 import org.fede.calculator.money.series.MoneyAmountItem;
 import org.fede.calculator.money.series.MoneyAmountSeries;
-import org.fede.calculator.money.series.SortedMapMoneyAmountSeries;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
 
 /**
  * Accumulator: running (prefix) aggregations from the beginning of a series.
@@ -14,7 +14,7 @@ public class Accumulator implements Aggregator {
     @Override
     public MoneyAmountSeries average(MoneyAmountSeries series) {
         final var currency = series.getCurrency();
-        MoneyAmountSeries result = new SortedMapMoneyAmountSeries(currency, series.getName() + " avg");
+        MoneyAmountSeries result = new ArrayMoneyAmountSeries(currency, series.getName() + " avg");
 
         List<MoneyAmountItem> items = series.items().toList();
 
@@ -37,7 +37,7 @@ public class Accumulator implements Aggregator {
     @Override
     public MoneyAmountSeries sum(MoneyAmountSeries series) {
         final var currency = series.getCurrency();
-        MoneyAmountSeries result = new SortedMapMoneyAmountSeries(currency, series.getName() + " sum");
+        MoneyAmountSeries result = new ArrayMoneyAmountSeries(currency, series.getName() + " sum");
 
         List<MoneyAmountItem> items = series.items().toList();
 
@@ -55,13 +55,12 @@ public class Accumulator implements Aggregator {
     }
 
     private void extendToInflationEnd(MoneyAmountSeries result) {
-        var last = result.getAmount(result.getTo());
-        var ym = result.getTo();
-        var inflationEnd = Inflation.usdInflation().getTo();
+        final int to = result.toIndex();
+        final var last = result.getAmount(to);
+        final int inflationEnd = Inflation.usdInflation().toIndex();
 
-        while (ym.isBefore(inflationEnd)) {
-            ym = ym.plusMonths(1);
-            result.putAmount(ym, last);
+        for (int month = to + 1; month <= inflationEnd; month++) {
+            result.putAmount(month, last);
         }
     }
 
@@ -18,8 +18,9 @@ package org.fede.calculator.money;
 
 import java.time.LocalDate;
 import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.MonthIndex;
 import org.fede.calculator.money.series.SeriesSupport;
-import org.fede.calculator.money.series.SortedMapMoneyAmountSeries;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
 import java.time.YearMonth;
 
 /**
@@ -29,15 +30,15 @@ import java.time.YearMonth;
 abstract class BaseInflation extends SeriesSupport implements Inflation {
 
     @Override
-    public final MoneyAmountSeries adjust(MoneyAmountSeries series, YearMonth reference) {
-        final YearMonth maxFrom = this.maximumFrom(series);
-        final YearMonth minTo = series.getTo();
+    public MoneyAmountSeries adjust(MoneyAmountSeries series, YearMonth reference) {
+        final int maxFrom = MonthIndex.of(this.maximumFrom(series));
+        final int minTo = series.toIndex();
+        final int to = MonthIndex.of(reference);
 
-        final MoneyAmountSeries answer = new SortedMapMoneyAmountSeries(this.getCurrency(), series.getName());
-
-        for (YearMonth ym = maxFrom; !ym.isAfter(minTo); ym = ym.plusMonths(1)) {
-            answer.putAmount(ym, this.adjust(series.getAmount(ym), ym, reference));
+        final MoneyAmountSeries answer = new ArrayMoneyAmountSeries(this.getCurrency(), series.getName(), maxFrom, minTo);
 
+        for (int month = maxFrom; month <= minTo; month++) {
+            answer.putAmount(month, this.adjust(series.getAmount(month), month, to));
         }
 
         return answer;
@@ -46,11 +47,12 @@ abstract class BaseInflation extends SeriesSupport implements Inflation {
     @Override
     public final MoneyAmountSeries adjust(MoneyAmount amount, YearMonth reference) {
 
-        MoneyAmountSeries answer = new SortedMapMoneyAmountSeries(this.getCurrency(), amount.currency().name() + " series");
-
-        for (YearMonth ym = this.getFrom(); !ym.isAfter(this.getTo()); ym = ym.plusMonths(1)) {
-            answer.putAmount(ym, this.adjust(amount, reference, ym));
+        MoneyAmountSeries answer = new ArrayMoneyAmountSeries(this.getCurrency(), amount.currency().name() + " series", this.getFrom(), this.getTo());
 
+        final int from = MonthIndex.of(reference);
+        final int last = this.toIndex();
+        for (int month = this.fromIndex(); month <= last; month++) {
+            answer.putAmount(month, this.adjust(amount, from, month));
         }
 
         return answer;
@@ -59,7 +61,7 @@ abstract class BaseInflation extends SeriesSupport implements Inflation {
 
     @Override
     public final MoneyAmount adjust(MoneyAmount amount, LocalDate from, LocalDate to) {
-        return this.adjust(amount, YearMonth.from(from), YearMonth.from(to));
+        return this.adjust(amount, MonthIndex.of(from), MonthIndex.of(to));
     }
 
 }
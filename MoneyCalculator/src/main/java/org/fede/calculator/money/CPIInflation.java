@@ -18,27 +18,211 @@ package org.fede.calculator.money;
 
 import org.fede.calculator.money.series.IndexSeries;
 import java.math.BigDecimal;
+import static java.math.BigDecimal.ONE;
 import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
+import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.MonthIndex;
+import org.fede.calculator.money.series.SeriesReader;
+import org.fede.util.Lazy;
 
 /**
+ * Adjusts with an index table. The index value of every month of the series
+ * is copied once into an array by {@link MonthIndex}. Months after the last
+ * one get its value, like in the series. Months before the first one have no
+ * data and throw {@link NoSeriesDataFoundException}.
+ *
+ * Reports adjust to the last month of the series, {@link #getTo()}, so the
+ * factors index(last) / index(from) of every month are computed once, on
+ * first use, and adjusting to that month, or any later one, is one
+ * multiplication. Adjusting to an earlier month multiplies and divides by the
+ * two indexes. The series and its tables are replaced together when they are
+ * invalidated.
  *
  * @author fede
  */
 public final class CPIInflation extends BaseInflation {
 
-    private final IndexSeries series;
+    private record State(IndexSeries series, int base, BigDecimal[] index, Lazy<BigDecimal[]> toLast, Lazy<long[]> fixedIndex) {
+
+        BigDecimal index(int month) {
+            return this.index[this.offset(month)];
+        }
+
+        int offset(int month) {
+            final int i = month - this.base;
+            if (i < 0) {
+                throw new NoSeriesDataFoundException("No CPI data for " + MonthIndex.yearMonth(month)
+                        + ". It starts in " + MonthIndex.yearMonth(this.base) + ".");
+            }
+            return Math.min(i, this.index.length - 1);
+        }
+
+        boolean last(int month) {
+            return month - this.base >= this.index.length - 1;
+        }
+
+        /**
+         * @return index(last) / index(from).
+         */
+        BigDecimal toLast(int from) {
+            return this.toLast.get()[this.offset(from)];
+        }
+    }
+
+    private final Lazy<State> state;
     private final Currency currency;
 
     public CPIInflation(IndexSeries cpiSeries, Currency currency) {
-        this.series = cpiSeries;
+        this(() -> cpiSeries, currency);
+    }
+
+    public CPIInflation(Supplier<IndexSeries> cpiSeriesSupplier, Currency currency) {
+        this.state = new Lazy<>(() -> {
+            final var series = cpiSeriesSupplier.get();
+            final var index = indexTable(series);
+            return new State(
+                    series,
+                    series.fromIndex(),
+                    index,
+                    new Lazy<>(() -> toLast(index)),
+                    new Lazy<>(() -> fixedIndex(index)));
+        });
         this.currency = currency;
     }
 
+    /**
+     * An inflation that reads the index series again, and forgets its index
+     * table, when the file is invalidated in {@link SeriesReader}.
+     *
+     * @param name the index series file.
+     * @param currency
+     * @return
+     */
+    public static CPIInflation reloading(String name, Currency currency) {
+        final var answer = new CPIInflation(() -> SeriesReader.readIndexSeries(name), currency);
+        SeriesReader.addInvalidationListener(n -> {
+            if (n.equals(name)) {
+                answer.invalidate();
+            }
+        });
+        return answer;
+    }
+
+    void invalidate() {
+        this.state.reset();
+    }
+
+    /**
+     * Loads the index series now instead of on first use.
+     */
+    void preload() {
+        this.state.get();
+    }
+
+    private State state() {
+        return this.state.get();
+    }
+
+    private static BigDecimal[] indexTable(IndexSeries series) {
+        final int from = series.fromIndex();
+        final var answer = new BigDecimal[series.toIndex() - from + 1];
+        for (int i = 0; i < answer.length; i++) {
+            answer[i] = series.getIndex(from + i);
+        }
+        return answer;
+    }
+
+    private static BigDecimal[] toLast(BigDecimal[] index) {
+        final var last = index[index.length - 1];
+        final var answer = new BigDecimal[index.length];
+        for (int i = 0; i < answer.length; i++) {
+            answer[i] = last.divide(index[i], MathConstants.C);
+        }
+        return answer;
+    }
+
+    private static long[] fixedIndex(BigDecimal[] index) {
+        final var answer = new long[index.length];
+        for (int i = 0; i < answer.length; i++) {
+            answer[i] = FixedMoneyAmount.rate(index[i]);
+        }
+        return answer;
+    }
+
+    @Override
+    public long[] fixedIndex(int from, int to) {
+        final var current = this.state();
+        final var series = current.series();
+        if (!inRange(series, from) || !inRange(series, to)) {
+            throw new NoSeriesDataFoundException("No CPI data from " + MonthIndex.yearMonth(from) + " to " + MonthIndex.yearMonth(to));
+        }
+        final int base = current.base();
+        return Arrays.copyOfRange(current.fixedIndex().get(), from - base, to - base + 1);
+    }
+
+    private static boolean inRange(IndexSeries series, int month) {
+        return month >= series.fromIndex() && month <= series.toIndex();
+    }
+
+    /**
+     * @param from
+     * @param to
+     * @return index(to) / index(from).
+     */
+    public BigDecimal factor(YearMonth from, YearMonth to) {
+        final var current = this.state();
+        final int f = MonthIndex.of(from);
+        final int t = MonthIndex.of(to);
+        return current.last(t)
+                ? current.toLast(f)
+                : current.index(t).divide(current.index(f), MathConstants.C);
+    }
+
     @Override
     public final MoneyAmount adjust(MoneyAmount amount, YearMonth from, YearMonth to) {
-        BigDecimal divisor = this.series.getIndex(from);
-        BigDecimal factor = this.series.getIndex(to);
-        return amount.adjust(divisor, factor);
+        return this.adjust(amount, MonthIndex.of(from), MonthIndex.of(to));
+    }
+
+    @Override
+    public final MoneyAmount adjust(MoneyAmount amount, int from, int to) {
+        FlightRecording.adjusted();
+        final var current = this.state();
+        // looked up before the shortcuts so months without data always throw
+        final var divisor = current.index(from);
+        final var factor = current.index(to);
+        if (amount.isZero() || from == to) {
+            return amount;
+        }
+        return current.last(to)
+                ? amount.adjust(ONE, current.toLast(from))
+                : amount.adjust(divisor, factor);
+    }
+
+    @Override
+    public MoneyAmountSeries adjust(MoneyAmountSeries series, YearMonth reference) {
+        final var current = this.state();
+        final int from = MonthIndex.of(this.maximumFrom(series));
+        final int last = series.toIndex();
+
+        final int to = MonthIndex.of(reference);
+        final var factor = current.index(to);
+        final MoneyAmountSeries answer = new ArrayMoneyAmountSeries(this.getCurrency(), series.getName(), from, last);
+
+        FlightRecording.adjusted(last - from + 1);
+        if (current.last(to)) {
+            for (int month = from; month <= last; month++) {
+                answer.putAmount(month, series.getAmount(month).adjust(ONE, current.toLast(month)));
+            }
+        } else {
+            for (int month = from; month <= last; month++) {
+                answer.putAmount(month, series.getAmount(month).adjust(current.index(month), factor));
+            }
+        }
+
+        return answer;
     }
 
     @Override
@@ -48,12 +232,12 @@ public final class CPIInflation extends BaseInflation {
 
     @Override
     public YearMonth getFrom() {
-        return this.series.getFrom();
+        return this.state().series().getFrom();
     }
 
     @Override
     public YearMonth getTo() {
-        return this.series.getTo();
+        return this.state().series().getTo();
     }
 
 }
@@ -35,6 +35,11 @@ public class CompoundForeignExchange extends SeriesSupport implements ForeignExc
         this.second = second;
     }
 
+    @Override
+    public int routeLength() {
+        return this.first.routeLength() + this.second.routeLength();
+    }
+
     @Override
     public YearMonth getFrom() {
         if (this.first.getFrom().compareTo(this.second.getFrom()) >= 0) {
@@ -57,6 +62,12 @@ public class CompoundForeignExchange extends SeriesSupport implements ForeignExc
                 this.first.exchange(amount, this.getFirstTargetCurrency(amount.currency()), reference), targetCurrency, reference);
     }
 
+    @Override
+    public MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, int month) {
+        return this.second.exchange(
+                this.first.exchange(amount, this.getFirstTargetCurrency(amount.currency()), month), targetCurrency, month);
+    }
+
     @Override
     public MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, LocalDate moment) {
         return this.second.exchange(this.first.exchange(amount, this.getFirstTargetCurrency(amount.currency()), moment), targetCurrency, moment);
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import org.fede.calculator.money.series.SeriesReader;
+import static org.fede.calculator.money.Currency.*;
+
+/**
+ * Fixed point money amount. The value is a long number of units at a scale
+ * that depends on the currency. Arithmetic never allocates a BigDecimal and
+ * throws {@link ArithmeticException} on overflow so callers can fall back to
+ * {@link MoneyAmount}. Exchange rates and inflation indexes are longs too,
+ * applied with an exact 128 bit product and a single rounding, half even like
+ * {@link MathConstants#RM}.
+ *
+ * @author fede
+ */
+public record FixedMoneyAmount(long units, Currency currency) {
+
+    private static final int FIAT_SCALE = 6;
+    private static final int ASSET_SCALE = 8;
+
+    private static final Map<Currency, Integer> SCALES = new EnumMap<>(Map.of(
+            USD, FIAT_SCALE,
+            ARS, FIAT_SCALE,
+            EUR, FIAT_SCALE,
+            DAI, FIAT_SCALE));
+
+    /**
+     * Decimals of the fixed point exchange rates and inflation indexes.
+     */
+    public static final int RATE_SCALE = 12;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+        10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L};
+
+    private static final long HALF_WORD = 1L << 32;
+    private static final long LOW_WORD = HALF_WORD - 1L;
+
+    /**
+     * Fixed point arithmetic is opt-in through the fixedPointMath environment
+     * property.
+     *
+     * @return true if reports should try the fixed point paths first.
+     */
+    public static boolean enabled() {
+        return SeriesReader.readBoolean("fixedPointMath");
+    }
+
+    public static int scale(Currency currency) {
+        return SCALES.getOrDefault(currency, ASSET_SCALE);
+    }
+
+    /**
+     * Rounds an exchange rate or an index to {@link #RATE_SCALE} decimals.
+     *
+     * @param value
+     * @return
+     * @throws ArithmeticException if the value does not fit in a long.
+     */
+    public static long rate(BigDecimal value) {
+        return value.setScale(RATE_SCALE, MathConstants.RM)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    public static FixedMoneyAmount zero(Currency currency) {
+        return new FixedMoneyAmount(0L, currency);
+    }
+
+    /**
+     * Converts a money amount rounding to the scale of its currency.
+     *
+     * @param amount
+     * @return
+     * @throws ArithmeticException if the amount does not fit in a long.
+     */
+    public static FixedMoneyAmount of(MoneyAmount amount) {
+        return new FixedMoneyAmount(
+                amount.amount()
+                        .setScale(scale(amount.currency()), MathConstants.RM)
+                        .unscaledValue()
+                        .longValueExact(),
+                amount.currency());
+    }
+
+    /**
+     * Converts a money amount without rounding.
+     *
+     * @param amount
+     * @return
+     * @throws ArithmeticException if the amount has more decimals than the
+     * currency scale or does not fit in a long.
+     */
+    public static FixedMoneyAmount ofExact(MoneyAmount amount) {
+        return new FixedMoneyAmount(
+                amount.amount()
+                        .movePointRight(scale(amount.currency()))
+                        .longValueExact(),
+                amount.currency());
+    }
+
+    public MoneyAmount toMoneyAmount() {
+        return this.units == 0L
+                ? MoneyAmount.zero(this.currency)
+                : new MoneyAmount(BigDecimal.valueOf(this.units, scale(this.currency)), this.currency);
+    }
+
+    public FixedMoneyAmount add(FixedMoneyAmount other) {
+        if (other.currency() != this.currency()) {
+            throw new IllegalArgumentException("Money amounts must be in the same currency.");
+        }
+        return new FixedMoneyAmount(Math.addExact(this.units, other.units()), this.currency);
+    }
+
+    public FixedMoneyAmount subtract(FixedMoneyAmount other) {
+        if (other.currency() != this.currency()) {
+            throw new IllegalArgumentException("Money amounts must be in the same currency.");
+        }
+        return new FixedMoneyAmount(Math.subtractExact(this.units, other.units()), this.currency);
+    }
+
+    public FixedMoneyAmount negate() {
+        return new FixedMoneyAmount(Math.negateExact(this.units), this.currency);
+    }
+
+    public FixedMoneyAmount divide(long divisor) {
+        return new FixedMoneyAmount(divide(this.units, divisor), this.currency);
+    }
+
+    /**
+     * Integer division rounding half even, like {@link MathConstants#RM}.
+     *
+     * @param dividend
+     * @param divisor
+     * @return
+     */
+    public static long divide(long dividend, long divisor) {
+        final long quotient = dividend / divisor;
+        final long remainder = dividend % divisor;
+        if (remainder == 0L) {
+            return quotient;
+        }
+        final long twiceRemainder = Math.abs(remainder) * 2L;
+        final long absDivisor = Math.abs(divisor);
+        final boolean roundAway = twiceRemainder > absDivisor
+                || (twiceRemainder == absDivisor && (quotient & 1L) != 0L);
+        if (!roundAway) {
+            return quotient;
+        }
+        return (dividend < 0) == (divisor < 0)
+                ? quotient + 1L
+                : quotient - 1L;
+    }
+
+    /**
+     * a * b / c with the product in 128 bits, rounding half even.
+     *
+     * @param a
+     * @param b
+     * @param c positive.
+     * @return
+     * @throws ArithmeticException if the answer does not fit in a long.
+     */
+    public static long mulDiv(long a, long b, long c) {
+        if (c <= 0L) {
+            throw new IllegalArgumentException("Divisor must be positive.");
+        }
+        // the absolute value of Long.MIN_VALUE is right as an unsigned long
+        final long x = Math.abs(a);
+        final long y = Math.abs(b);
+        final long high = Math.unsignedMultiplyHigh(x, y);
+        final long low = x * y;
+        if (Long.compareUnsigned(high, c) >= 0) {
+            throw new ArithmeticException("Fixed point overflow.");
+        }
+        long quotient = divideUnsigned(high, low, c);
+        final long remainder = low - quotient * c;
+        final int half = Long.compareUnsigned(remainder << 1, c);
+        if (half > 0 || (half == 0 && (quotient & 1L) != 0L)) {
+            quotient++;
+        }
+        if (quotient < 0L) {
+            throw new ArithmeticException("Fixed point overflow.");
+        }
+        return (a < 0L) != (b < 0L)
+                ? -quotient
+                : quotient;
+    }
+
+    /**
+     * Unsigned high:low / divisor when high < divisor, from Hacker's Delight
+     * divlu: two steps of schoolbook division with 32 bit digits.
+     */
+    private static long divideUnsigned(long high, long low, long divisor) {
+        final int shift = Long.numberOfLeadingZeros(divisor);
+        final long v = divisor << shift;
+        final long v1 = v >>> 32;
+        final long v0 = v & LOW_WORD;
+        final long u32 = shift == 0
+                ? high
+                : (high << shift) | (low >>> (64 - shift));
+        final long u10 = low << shift;
+        final long u1 = u10 >>> 32;
+        final long u0 = u10 & LOW_WORD;
+
+        long q1 = Long.divideUnsigned(u32, v1);
+        long rhat = Long.remainderUnsigned(u32, v1);
+        while (Long.compareUnsigned(q1, HALF_WORD) >= 0
+                || Long.compareUnsigned(q1 * v0, (rhat << 32) | u1) > 0) {
+            q1--;
+            rhat += v1;
+            if (Long.compareUnsigned(rhat, HALF_WORD) >= 0) {
+                break;
+            }
+        }
+
+        final long u21 = ((u32 << 32) | u1) - q1 * v;
+        long q0 = Long.divideUnsigned(u21, v1);
+        rhat = Long.remainderUnsigned(u21, v1);
+        while (Long.compareUnsigned(q0, HALF_WORD) >= 0
+                || Long.compareUnsigned(q0 * v0, (rhat << 32) | u0) > 0) {
+            q0--;
+            rhat += v1;
+            if (Long.compareUnsigned(rhat, HALF_WORD) >= 0) {
+                break;
+            }
+        }
+        return (q1 << 32) | q0;
+    }
+
+    /**
+     * @param newCurrency
+     * @param exchangeRate at {@link #RATE_SCALE} decimals.
+     * @return
+     * @throws ArithmeticException on overflow.
+     */
+    public FixedMoneyAmount exchange(Currency newCurrency, long exchangeRate) {
+        return new FixedMoneyAmount(
+                mulDiv(this.units, exchangeRate, POWERS_OF_TEN[RATE_SCALE + scale(this.currency) - scale(newCurrency)]),
+                newCurrency);
+    }
+
+    /**
+     * Like {@link MoneyAmount#adjust(BigDecimal, BigDecimal)}.
+     *
+     * @param divisor the index of the month of the amount.
+     * @param factor the index of the target month.
+     * @return
+     * @throws ArithmeticException on overflow.
+     */
+    public FixedMoneyAmount adjust(long divisor, long factor) {
+        return new FixedMoneyAmount(mulDiv(this.units, factor, divisor), this.currency);
+    }
+
+    public boolean isZero() {
+        return this.units == 0L;
+    }
+
+}
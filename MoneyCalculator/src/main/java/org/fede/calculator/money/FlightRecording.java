@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Gate for the custom Flight Recorder events. Loading an event class starts
+ * the recorder, which takes longer than most reports, so event classes are
+ * only touched while a recording is running: started with
+ * -XX:StartFlightRecording, with jcmd or by the REPL profiler. Once every
+ * recording stops, like after :profile off, events are not created anymore.
+ * Events are committed by static methods of their classes so callers don't
+ * load them.
+ *
+ * @author fede
+ */
+public final class FlightRecording {
+
+    private static final LongAdder ADJUSTMENTS = new LongAdder();
+
+    // ids of the recordings running
+    private static final Set<Long> RUNNING = ConcurrentHashMap.newKeySet();
+
+    private static volatile boolean recording;
+
+    static {
+        // does not start the recorder, it is told when it starts
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                recorder.getRecordings().forEach(FlightRecording::changed);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording r) {
+                changed(r);
+            }
+        });
+    }
+
+    private FlightRecording() {
+    }
+
+    private static void changed(Recording r) {
+        if (r.getState() == RecordingState.RUNNING) {
+            RUNNING.add(r.getId());
+        } else {
+            RUNNING.remove(r.getId());
+        }
+        recording = !RUNNING.isEmpty();
+    }
+
+    /**
+     * @return true if events should be committed.
+     */
+    public static boolean enabled() {
+        if (recording) {
+            Periodic.register();
+            return true;
+        }
+        return false;
+    }
+
+    static void adjusted() {
+        ADJUSTMENTS.increment();
+    }
+
+    static void adjusted(int count) {
+        ADJUSTMENTS.add(count);
+    }
+
+    /**
+     * @return inflation adjustments since the JVM started, counted whether the
+     * recorder runs or not.
+     */
+    public static long adjustments() {
+        return ADJUSTMENTS.sum();
+    }
+
+    private static final class Periodic {
+
+        static {
+            FlightRecorder.addPeriodicEvent(InflationAdjustmentsEvent.class, InflationAdjustmentsEvent::emit);
+        }
+
+        static void register() {
+            // the class initializer registers the periodic events once
+        }
+    }
+}
@@ -16,8 +16,10 @@
  */
 package org.fede.calculator.money;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.MonthIndex;
 import org.fede.calculator.money.series.Series;
 import java.time.YearMonth;
 
@@ -31,6 +33,16 @@ public interface ForeignExchange extends Series {
 
     MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, LocalDate moment);
 
+    /**
+     * @param amount
+     * @param targetCurrency
+     * @param month a {@link MonthIndex}.
+     * @return
+     */
+    default MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, int month) {
+        return this.exchange(amount, targetCurrency, MonthIndex.yearMonth(month));
+    }
+
     /**
      * Convierte cada money amount de la serie a la moneda especificada según el
      * tipo de cambio de la fecha de cada money amount de la serie. Útil para
@@ -44,6 +56,33 @@ public interface ForeignExchange extends Series {
      */
     MoneyAmountSeries exchange(MoneyAmountSeries series, Currency targetCurrency);
 
+    /**
+     * Exchange rates of every month, for fixed point conversions.
+     *
+     * @param sourceCurrency
+     * @param targetCurrency
+     * @param from a {@link MonthIndex}.
+     * @param to a {@link MonthIndex}.
+     * @return the rate of each month from from to to, at
+     * {@link FixedMoneyAmount#RATE_SCALE} decimals.
+     * @throws ArithmeticException if a rate does not fit in a long.
+     */
+    default long[] fixedRates(Currency sourceCurrency, Currency targetCurrency, int from, int to) {
+        final var one = new MoneyAmount(BigDecimal.ONE, sourceCurrency);
+        final var answer = new long[to - from + 1];
+        for (int month = from; month <= to; month++) {
+            answer[month - from] = FixedMoneyAmount.rate(this.exchange(one, targetCurrency, month).amount());
+        }
+        return answer;
+    }
+
+    /**
+     * @return how many direct exchange rates are chained.
+     */
+    default int routeLength() {
+        return 1;
+    }
+
     Currency getTargetCurrency();
 
     Currency getSourceCurrency();
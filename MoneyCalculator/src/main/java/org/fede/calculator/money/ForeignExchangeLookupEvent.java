@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *
+ * @author fede
+ */
+@Name("org.fede.ForeignExchangeLookup")
+@Label("Foreign Exchange Lookup")
+@Category({"MoneyCalculator", "Foreign Exchange"})
+@Description("A foreign exchange looked up in ForeignExchanges, whether or not it is used to convert.")
+final class ForeignExchangeLookupEvent extends Event {
+
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+
+    @Label("Route Length")
+    @Description("Direct exchange rates chained, zero for the identity.")
+    int routeLength;
+
+    static void commit(Currency from, Currency to, int routeLength) {
+        final var event = new ForeignExchangeLookupEvent();
+        event.from = from.name();
+        event.to = to.name();
+        event.routeLength = routeLength;
+        event.commit();
+    }
+}
@@ -21,6 +21,8 @@ import java.time.LocalDate;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.function.BiFunction;
 import org.fede.calculator.money.series.IndexSeriesSupport;
 import org.fede.calculator.money.series.Investment;
@@ -31,6 +33,7 @@ import org.fede.calculator.money.series.SeriesReader;
 import java.time.YearMonth;
 import java.util.EnumMap;
 import static org.fede.calculator.money.Currency.*;
+import org.fede.util.SingleFlightCache;
 
 /**
  *
@@ -38,10 +41,15 @@ import static org.fede.calculator.money.Currency.*;
  */
 public class ForeignExchanges {
 
-    private static final Map<FromTo, BiFunction<MoneyAmount, YearMonth, MoneyAmount>> FX_FUNCTION_CACHE = HashMap.newHashMap(32);
+    // routes longer than this, like the ones between constant series, are not materialized
+    private static final int MAX_MATERIALIZED_MONTHS = 1200;
+
+    private static final Map<FromTo, BiFunction<MoneyAmount, YearMonth, MoneyAmount>> FX_FUNCTION_CACHE = new ConcurrentHashMap<>(32);
 
     private static final Map<Currency, ForeignExchange> IDENTITY_FX = new EnumMap<>(Currency.class);
 
+    private static final SingleFlightCache<FromTo, ForeignExchange> ROUTES = new SingleFlightCache<>(64, ForeignExchanges::materializedRoute);
+
     private static final Map<Currency, Currency> INTERMEDIATE_FOREIGN_EXCHANGES = new EnumMap<>(
             Map.ofEntries(
                     Map.entry(UVA, ARS),
@@ -169,6 +177,48 @@ public class ForeignExchanges {
 
         DIRECT_FOREIGN_EXCHANGES = Collections.unmodifiableMap(temporalMap);
 
+        for (var c : Currency.values()) {
+            IDENTITY_FX.put(c, getIdentityForeignExchange(c));
+        }
+
+        SeriesReader.addInvalidationListener(name -> {
+            if (name.startsWith("index/")) {
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * Forgets every resolved route and every loaded exchange rate series.
+     * Called when index series are reloaded.
+     */
+    public static void invalidate() {
+        ROUTES.invalidateAll();
+        DIRECT_FOREIGN_EXCHANGES.values()
+                .stream()
+                .filter(SimpleForeignExchange.class::isInstance)
+                .map(SimpleForeignExchange.class::cast)
+                .forEach(SimpleForeignExchange::invalidate);
+    }
+
+    /**
+     * Loads every exchange rate series in parallel, instead of one by one on
+     * first use. Series that cannot be read are left to fail when they are
+     * used.
+     */
+    public static void preload() {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            DIRECT_FOREIGN_EXCHANGES.values()
+                    .stream()
+                    .distinct()
+                    .filter(SimpleForeignExchange.class::isInstance)
+                    .map(SimpleForeignExchange.class::cast)
+                    .forEach(fx -> executor.submit(fx::preload));
+        }
+    }
+
+    public static SingleFlightCache.Stats routeCacheStats() {
+        return ROUTES.stats();
     }
 
     public static BiFunction<MoneyAmount, YearMonth, MoneyAmount> getMoneyAmountForeignExchange(Currency from, Currency to) {
@@ -181,8 +231,43 @@ public class ForeignExchanges {
 
     public static ForeignExchange getForeignExchange(Currency from, Currency to) {
 
+        final ForeignExchange answer = from == to
+                ? IDENTITY_FX.get(to)
+                : ROUTES.get(new FromTo(from, to));
+
+        if (FlightRecording.enabled()) {
+            ForeignExchangeLookupEvent.commit(from, to, from == to ? 0 : answer.routeLength());
+        }
+        return answer;
+    }
+
+    private static ForeignExchange materializedRoute(FromTo fromTo) {
+        final var route = route(fromTo.from(), fromTo.to());
+        if (MaterializedForeignExchange.months(route) > MAX_MATERIALIZED_MONTHS) {
+            return route;
+        }
+        try {
+            return new MaterializedForeignExchange(route, fromTo.from(), fromTo.to());
+        } catch (IllegalArgumentException | NoSeriesDataFoundException ex) {
+            // some routes only work in one direction, let them fail when used
+            return route;
+        }
+    }
+
+    /**
+     * The route between two currencies built from the direct exchanges, with
+     * no precomputed cross rates at any step. Use
+     * {@link #getForeignExchange(Currency, Currency)} to convert amounts;
+     * this one is for comparing against it.
+     *
+     * @param from
+     * @param to
+     * @return
+     */
+    public static ForeignExchange route(Currency from, Currency to) {
+
         if (from == to) {
-            return IDENTITY_FX.computeIfAbsent(to, ForeignExchanges::getIdentityForeignExchange);
+            return IDENTITY_FX.get(to);
         }
 
         ForeignExchange answer = DIRECT_FOREIGN_EXCHANGES.get(new FromTo(from, to));
@@ -202,7 +287,7 @@ public class ForeignExchanges {
 
         return new CompoundForeignExchange(
                 DIRECT_FOREIGN_EXCHANGES.get(new FromTo(from, intermediate)),
-                getForeignExchange(intermediate, to)
+                route(intermediate, to)
         );
     }
 
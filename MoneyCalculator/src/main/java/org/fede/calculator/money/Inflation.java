@@ -16,13 +16,14 @@
  */
 package org.fede.calculator.money;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Optional;
 import org.fede.calculator.money.series.Investment;
 import org.fede.calculator.money.series.InvestmentEvent;
 import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.MonthIndex;
 import org.fede.calculator.money.series.Series;
-import org.fede.calculator.money.series.SeriesReader;
 import java.time.YearMonth;
 
 /**
@@ -45,6 +46,36 @@ public interface Inflation extends Series {
 
     MoneyAmount adjust(MoneyAmount amount, LocalDate from, LocalDate to);
 
+    /**
+     * @param amount
+     * @param from a {@link MonthIndex}.
+     * @param to a {@link MonthIndex}.
+     * @return
+     */
+    default MoneyAmount adjust(MoneyAmount amount, int from, int to) {
+        return this.adjust(amount, MonthIndex.yearMonth(from), MonthIndex.yearMonth(to));
+    }
+
+    /**
+     * Index values of every month, for fixed point adjustments. Adjusting an
+     * amount from month m to month r is multiplying by index[r] and dividing by
+     * index[m], see {@link FixedMoneyAmount#adjust(long, long)}.
+     *
+     * @param from a {@link MonthIndex}.
+     * @param to a {@link MonthIndex}.
+     * @return the index of each month from from to to, at
+     * {@link FixedMoneyAmount#RATE_SCALE} decimals.
+     * @throws ArithmeticException if a value does not fit in a long.
+     */
+    default long[] fixedIndex(int from, int to) {
+        final var one = new MoneyAmount(BigDecimal.ONE, this.getCurrency());
+        final var answer = new long[to - from + 1];
+        for (int month = from; month <= to; month++) {
+            answer[month - from] = FixedMoneyAmount.rate(this.adjust(one, from, month).amount());
+        }
+        return answer;
+    }
+
     /**
      * Ajusta por inflación todos los valores de la serie
      *
@@ -114,20 +145,27 @@ public interface Inflation extends Series {
         return UsdHolder.INSTANCE;
     }
 
+    /**
+     * Reads the USD inflation ahead of its first use.
+     */
+    static void preload() {
+        UsdHolder.INSTANCE.preload();
+    }
+
     static Inflation anses() {
         return AnsesHolder.INSTANCE;
     }
 
     final class UsdHolder {
 
-        static final Inflation INSTANCE
-                = new CPIInflation(SeriesReader.readIndexSeries("index/bls.json"), Currency.USD);
+        static final CPIInflation INSTANCE
+                = CPIInflation.reloading("index/bls.json", Currency.USD);
     }
 
     final class AnsesHolder {
 
-        static final Inflation INSTANCE
-                = new CPIInflation(SeriesReader.readIndexSeries("index/anses.json"), Currency.ARS);
+        static final CPIInflation INSTANCE
+                = CPIInflation.reloading("index/anses.json", Currency.ARS);
     }
 
 }
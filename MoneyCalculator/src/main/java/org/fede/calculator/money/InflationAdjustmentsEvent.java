@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Adjustments are too many to record one by one, the count is sampled.
+ *
+ * @author fede
+ */
+@Name("org.fede.InflationAdjustments")
+@Label("Inflation Adjustments")
+@Category({"MoneyCalculator", "Inflation"})
+@Description("Amounts adjusted by CPI inflation since the JVM started.")
+@Period("1 s")
+final class InflationAdjustmentsEvent extends Event {
+
+    @Label("Count")
+    long count;
+
+    static void emit() {
+        final var event = new InflationAdjustmentsEvent();
+        event.count = FlightRecording.adjustments();
+        event.commit();
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
+import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.MonthIndex;
+import org.fede.calculator.money.series.SeriesSupport;
+import org.fede.util.Lazy;
+
+/**
+ * Precomputed cross rates of a foreign exchange route, in both directions.
+ * Converting an amount is one array lookup and one multiplication no matter
+ * how many exchanges the route has. Months outside of the route range are
+ * delegated to the route itself.
+ *
+ * @author fede
+ */
+public class MaterializedForeignExchange extends SeriesSupport implements ForeignExchange {
+
+    private final ForeignExchange route;
+    private final Currency fromCurrency;
+    private final Currency targetCurrency;
+    private final YearMonth from;
+    private final YearMonth to;
+    // month index of rates[0]
+    private final int base;
+    private final BigDecimal[] rates;
+    private final BigDecimal[] inverseRates;
+    private final Lazy<long[]> fixedRates;
+    private final Lazy<long[]> fixedInverseRates;
+
+    public MaterializedForeignExchange(ForeignExchange route, Currency fromCurrency, Currency targetCurrency) {
+        this.route = route;
+        this.fromCurrency = fromCurrency;
+        this.targetCurrency = targetCurrency;
+        this.from = route.getFrom();
+        this.to = route.getTo();
+        this.base = MonthIndex.of(this.from);
+
+        final int months = (int) this.from.until(this.to, ChronoUnit.MONTHS) + 1;
+        this.rates = new BigDecimal[months];
+        this.inverseRates = new BigDecimal[months];
+
+        final var one = new MoneyAmount(BigDecimal.ONE, fromCurrency);
+        for (int i = 0; i < months; i++) {
+            final var rate = route.exchange(one, targetCurrency, this.base + i).amount();
+            this.rates[i] = rate;
+            this.inverseRates[i] = inverse(rate);
+        }
+        this.fixedRates = new Lazy<>(() -> fixed(this.rates));
+        this.fixedInverseRates = new Lazy<>(() -> fixed(this.inverseRates));
+    }
+
+    private static long[] fixed(BigDecimal[] rates) {
+        final var answer = new long[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            // a missing inverse is left as zero and checked on use
+            answer[i] = rates[i] == null
+                    ? 0L
+                    : FixedMoneyAmount.rate(rates[i]);
+        }
+        return answer;
+    }
+
+    public static int months(ForeignExchange fx) {
+        return (int) fx.getFrom().until(fx.getTo(), ChronoUnit.MONTHS) + 1;
+    }
+
+    private int offset(int month) {
+        final int offset = month - this.base;
+        return offset < 0 || offset >= this.rates.length
+                ? -1
+                : offset;
+    }
+
+    @Override
+    public int routeLength() {
+        return this.route.routeLength();
+    }
+
+    @Override
+    public YearMonth getFrom() {
+        return this.from;
+    }
+
+    @Override
+    public YearMonth getTo() {
+        return this.to;
+    }
+
+    @Override
+    public MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, YearMonth ym) {
+        return this.exchange(amount, targetCurrency, MonthIndex.of(ym));
+    }
+
+    @Override
+    public MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, int month) {
+        if (amount.currency() == targetCurrency) {
+            return amount;
+        }
+        final int offset = this.offset(month);
+        if (amount.currency() == this.fromCurrency && targetCurrency == this.targetCurrency) {
+            return offset >= 0
+                    ? amount.exchange(targetCurrency, this.rates[offset])
+                    : this.route.exchange(amount, targetCurrency, month);
+        }
+        if (amount.currency() == this.targetCurrency && targetCurrency == this.fromCurrency) {
+            return amount.exchange(
+                    targetCurrency,
+                    offset >= 0 && this.inverseRates[offset] != null
+                    ? this.inverseRates[offset]
+                    : this.inverseRate(month));
+        }
+        return this.route.exchange(amount, targetCurrency, month);
+    }
+
+    @Override
+    public long[] fixedRates(Currency sourceCurrency, Currency targetCurrency, int from, int to) {
+        if (this.offset(from) < 0 || this.offset(to) < 0) {
+            return ForeignExchange.super.fixedRates(sourceCurrency, targetCurrency, from, to);
+        }
+        if (sourceCurrency == this.fromCurrency && targetCurrency == this.targetCurrency) {
+            return Arrays.copyOfRange(this.fixedRates.get(), this.offset(from), this.offset(to) + 1);
+        }
+        if (sourceCurrency == this.targetCurrency && targetCurrency == this.fromCurrency) {
+            final var answer = Arrays.copyOfRange(this.fixedInverseRates.get(), this.offset(from), this.offset(to) + 1);
+            for (int i = 0; i < answer.length; i++) {
+                if (answer[i] == 0L) {
+                    throw this.zeroRate(from + i);
+                }
+            }
+            return answer;
+        }
+        return ForeignExchange.super.fixedRates(sourceCurrency, targetCurrency, from, to);
+    }
+
+    private BigDecimal inverseRate(int month) {
+        final var inverse = inverse(this.route.exchange(new MoneyAmount(BigDecimal.ONE, this.fromCurrency), this.targetCurrency, month).amount());
+        if (inverse == null) {
+            throw this.zeroRate(month);
+        }
+        return inverse;
+    }
+
+    private ArithmeticException zeroRate(int month) {
+        return new ArithmeticException("Zero " + this.fromCurrency + " to " + this.targetCurrency
+                + " exchange rate in " + MonthIndex.yearMonth(month) + " has no inverse.");
+    }
+
+    /**
+     * @return the inverse of the rate, or null if the rate is zero.
+     */
+    private static BigDecimal inverse(BigDecimal rate) {
+        return rate.signum() == 0
+                ? null
+                : BigDecimal.ONE.divide(rate, MathConstants.C);
+    }
+
+    @Override
+    public MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, LocalDate moment) {
+        return this.exchange(amount, targetCurrency, MonthIndex.of(moment));
+    }
+
+    @Override
+    public MoneyAmountSeries exchange(MoneyAmountSeries series, Currency targetCurrency) {
+
+        final int start = MonthIndex.of(this.maximumFrom(series));
+        final int end = series.toIndex();
+
+        if (start > end) {
+            throw new IllegalArgumentException("From cannot be after to.");
+        }
+
+        final MoneyAmountSeries answer = new ArrayMoneyAmountSeries(targetCurrency, series.getName(), start, end);
+
+        for (int month = start; month <= end; month++) {
+            answer.putAmount(month, this.exchange(series.getAmount(month), targetCurrency, month));
+        }
+
+        return answer;
+    }
+
+    @Override
+    public Currency getTargetCurrency() {
+        return this.targetCurrency;
+    }
+
+    @Override
+    public Currency getSourceCurrency() {
+        return this.fromCurrency;
+    }
+
+}
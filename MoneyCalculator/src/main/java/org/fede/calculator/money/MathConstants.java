@@ -25,6 +25,9 @@ import java.math.RoundingMode;
  */
 public interface MathConstants {
 
+    /**
+     * The accounting tier of {@link Precision}.
+     */
     static final MathContext C = MathContext.DECIMAL128;
     static final int SCALE = 12;
     static final RoundingMode RM = C.getRoundingMode();
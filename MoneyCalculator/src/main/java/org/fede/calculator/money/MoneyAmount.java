@@ -17,7 +17,7 @@
 package org.fede.calculator.money;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 /**
@@ -26,10 +26,17 @@ import java.util.Map;
  */
 public record MoneyAmount(BigDecimal amount, Currency currency) {
 
-    private static final Map<Currency, MoneyAmount> ZERO_AMOUNTS = HashMap.newHashMap(Currency.values().length);
+    // populated eagerly so that concurrent readers never mutate it
+    private static final Map<Currency, MoneyAmount> ZERO_AMOUNTS = new EnumMap<>(Currency.class);
+
+    static {
+        for (var c : Currency.values()) {
+            ZERO_AMOUNTS.put(c, new MoneyAmount(BigDecimal.ZERO, c));
+        }
+    }
 
     public static MoneyAmount zero(Currency currency) {
-        return ZERO_AMOUNTS.computeIfAbsent(currency, c -> new MoneyAmount(BigDecimal.ZERO, c));
+        return ZERO_AMOUNTS.get(currency);
     }
 
     public MoneyAmount adjust(BigDecimal divisor, BigDecimal factor) {
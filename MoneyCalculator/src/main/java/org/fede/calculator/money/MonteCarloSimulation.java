@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Simulates portfolio paths month by month. Every month each asset gets a
+ * lognormal return, correlated with the others through the Cholesky factor of
+ * the correlation matrix, and the portfolio is rebalanced to the asset
+ * weights. The drift of each asset is (return - volatility² / 2) like in
+ * {@link PortfolioProjections}.
+ *
+ * Several plans are simulated on the same random returns, so they can be
+ * compared without sampling noise between them. Paths are split in chunks
+ * simulated in parallel, each chunk with its own generator split from the
+ * seed, so the results only depend on the seed.
+ *
+ * @author fede
+ */
+public final class MonteCarloSimulation {
+
+    private static final int CHUNK = 1024;
+
+    /**
+     * @param name
+     * @param weight fraction of the portfolio.
+     * @param annualReturn expected annual return.
+     * @param annualVolatility annual standard deviation of the returns.
+     */
+    public record Asset(String name, double weight, double annualReturn, double annualVolatility) {
+
+    }
+
+    /**
+     * Monthly cash flows. Contributions are added during the first
+     * contribution months, withdrawals are taken every month after them.
+     *
+     * @param monthlyContribution
+     * @param contributionMonths
+     * @param monthlyWithdrawal
+     */
+    public record Plan(double monthlyContribution, int contributionMonths, double monthlyWithdrawal) {
+
+        public static Plan withdrawal(double monthlyWithdrawal) {
+            return new Plan(0d, 0, monthlyWithdrawal);
+        }
+
+        private double flow(int month) {
+            return month < this.contributionMonths
+                    ? this.monthlyContribution
+                    : -this.monthlyWithdrawal;
+        }
+    }
+
+    /**
+     * The simulated paths of one plan. Values are kept at the start and at
+     * the end of every year.
+     */
+    public static final class Result {
+
+        private final int paths;
+        private final int years;
+        // value of every path at the end of every year, year by year
+        private final double[] values;
+        // month a path ran out of money, -1 if it did not
+        private final int[] depletion;
+
+        private Result(int paths, int years) {
+            this.paths = paths;
+            this.years = years;
+            this.values = new double[(years + 1) * paths];
+            this.depletion = new int[paths];
+        }
+
+        public int paths() {
+            return this.paths;
+        }
+
+        public int years() {
+            return this.years;
+        }
+
+        /**
+         * @return the fraction of paths that never ran out of money.
+         */
+        public double successProbability() {
+            return 1.0d - this.depletionProbability(Integer.MAX_VALUE);
+        }
+
+        /**
+         * @param months
+         * @return the fraction of paths that ran out of money within the first
+         * months.
+         */
+        public double depletionProbability(int months) {
+            int count = 0;
+            for (int d : this.depletion) {
+                if (d >= 0 && d < months) {
+                    count++;
+                }
+            }
+            return (double) count / this.paths;
+        }
+
+        /**
+         * @param year from 0, the initial value, to {@link #years()}.
+         * @param percentile between 0 and 1.
+         * @return the portfolio value at the end of the year.
+         */
+        public double percentile(int year, double percentile) {
+            if (year < 0 || year > this.years) {
+                throw new IllegalArgumentException("Year must be between 0 and " + this.years + ".");
+            }
+            if (percentile < 0d || percentile > 1d) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 1.");
+            }
+            final var slice = Arrays.copyOfRange(this.values, year * this.paths, (year + 1) * this.paths);
+            return select(slice, (int) Math.round(percentile * (this.paths - 1)));
+        }
+
+        public double finalPercentile(double percentile) {
+            return this.percentile(this.years, percentile);
+        }
+    }
+
+    private final List<String> names;
+    // only assets with volatility get random returns
+    private final double[] weights;
+    private final double[] drifts;
+    private final double[] volatilities;
+    private final double[][] cholesky;
+    // monthly growth of the assets without volatility, already weighted
+    private final double risklessGrowth;
+
+    /**
+     * @param assets
+     * @param correlations correlation matrix, in the order of the assets.
+     */
+    public MonteCarloSimulation(List<Asset> assets, double[][] correlations) {
+        final int n = assets.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("At least one asset is required.");
+        }
+        if (correlations.length != n) {
+            throw new IllegalArgumentException("Correlation matrix must be " + n + "x" + n + ".");
+        }
+        final double totalWeight = assets.stream().mapToDouble(Asset::weight).sum();
+        if (!(totalWeight > 0d)) {
+            throw new IllegalArgumentException("Asset weights must add up to a positive number.");
+        }
+        this.names = assets.stream().map(Asset::name).toList();
+
+        final int[] risky = IntStream.range(0, n)
+                .filter(i -> assets.get(i).annualVolatility() > 0d)
+                .toArray();
+        this.weights = new double[risky.length];
+        this.drifts = new double[risky.length];
+        this.volatilities = new double[risky.length];
+        final double[][] riskyCorrelations = new double[risky.length][risky.length];
+        for (int i = 0; i < risky.length; i++) {
+            final var asset = assets.get(risky[i]);
+            this.weights[i] = asset.weight() / totalWeight;
+            this.drifts[i] = drift(asset);
+            this.volatilities[i] = asset.annualVolatility() / Math.sqrt(12d);
+            for (int j = 0; j < risky.length; j++) {
+                riskyCorrelations[i][j] = correlations[risky[i]][risky[j]];
+            }
+        }
+        this.cholesky = cholesky(riskyCorrelations);
+        this.risklessGrowth = assets.stream()
+                .filter(asset -> !(asset.annualVolatility() > 0d))
+                .mapToDouble(asset -> asset.weight() / totalWeight * Math.exp(drift(asset)))
+                .sum();
+    }
+
+    private static double drift(Asset asset) {
+        return (asset.annualReturn() - asset.annualVolatility() * asset.annualVolatility() / 2d) / 12d;
+    }
+
+    public List<String> assetNames() {
+        return this.names;
+    }
+
+    /**
+     * Lower triangular L such that L·Lᵀ is the matrix. Non positive pivots,
+     * from perfectly correlated assets, are taken as zero.
+     */
+    private static double[][] cholesky(double[][] m) {
+        final int n = m.length;
+        final double[][] l = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            if (m[i].length != n) {
+                throw new IllegalArgumentException("Correlation matrix must be " + n + "x" + n + ".");
+            }
+            for (int j = 0; j <= i; j++) {
+                double sum = m[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                if (i == j) {
+                    l[i][i] = sum > 0d ? Math.sqrt(sum) : 0d;
+                } else {
+                    l[i][j] = l[j][j] > 0d ? sum / l[j][j] : 0d;
+                }
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Simulates every plan on the same paths.
+     *
+     * @param initialValue
+     * @param plans
+     * @param years
+     * @param paths
+     * @param seed
+     * @return one result per plan, in the same order.
+     */
+    public List<Result> run(double initialValue, List<Plan> plans, int years, int paths, long seed) {
+        if (years < 1 || paths < 1) {
+            throw new IllegalArgumentException("Years and paths must be positive.");
+        }
+        final var results = new Result[plans.size()];
+        // cash flow of every plan month by month, plan by plan
+        final var flows = new double[plans.size() * years * 12];
+        for (int p = 0; p < results.length; p++) {
+            results[p] = new Result(paths, years);
+            for (int month = 0; month < years * 12; month++) {
+                flows[p * years * 12 + month] = plans.get(p).flow(month);
+            }
+        }
+
+        final int chunks = (paths + CHUNK - 1) / CHUNK;
+        final var root = new SplittableRandom(seed);
+        final var randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+
+        IntStream.range(0, chunks)
+                .parallel()
+                .forEach(c -> this.simulate(
+                initialValue,
+                flows,
+                results,
+                years,
+                paths,
+                c * CHUNK,
+                Math.min(paths, (c + 1) * CHUNK),
+                randoms[c]));
+
+        return List.of(results);
+    }
+
+    public Result run(double initialValue, Plan plan, int years, int paths, long seed) {
+        return this.run(initialValue, List.of(plan), years, paths, seed).get(0);
+    }
+
+    private void simulate(
+            double initialValue,
+            double[] flows,
+            Result[] results,
+            int years,
+            int paths,
+            int fromPath,
+            int toPath,
+            SplittableRandom random) {
+
+        final int n = this.weights.length;
+        final int plans = results.length;
+        final int months = years * 12;
+        final double[] normals = new double[n];
+        final double[] portfolio = new double[plans];
+        final int[] depletion = new int[plans];
+
+        for (int path = fromPath; path < toPath; path++) {
+
+            Arrays.fill(portfolio, initialValue);
+            Arrays.fill(depletion, -1);
+            for (int p = 0; p < plans; p++) {
+                results[p].values[path] = initialValue;
+            }
+            int alive = plans;
+
+            // values of the years after every plan ran out stay zero
+            for (int month = 0; month < months && alive > 0; month++) {
+
+                for (int i = 0; i < n; i++) {
+                    normals[i] = random.nextGaussian();
+                }
+                double growth = this.risklessGrowth;
+                for (int i = 0; i < n; i++) {
+                    double shock = 0d;
+                    final var row = this.cholesky[i];
+                    for (int k = 0; k <= i; k++) {
+                        shock += row[k] * normals[k];
+                    }
+                    growth += this.weights[i] * Math.exp(this.drifts[i] + this.volatilities[i] * shock);
+                }
+
+                for (int p = 0; p < plans; p++) {
+                    if (depletion[p] >= 0) {
+                        continue;
+                    }
+                    final double value = portfolio[p] + flows[p * months + month];
+                    if (value <= 0d) {
+                        portfolio[p] = 0d;
+                        depletion[p] = month;
+                        alive--;
+                    } else {
+                        portfolio[p] = value * growth;
+                    }
+                }
+
+                if (month % 12 == 11) {
+                    final int offset = (month / 12 + 1) * paths + path;
+                    for (int p = 0; p < plans; p++) {
+                        results[p].values[offset] = portfolio[p];
+                    }
+                }
+            }
+            for (int p = 0; p < plans; p++) {
+                results[p].depletion[path] = depletion[p];
+            }
+        }
+    }
+
+    /**
+     * Sample correlation matrix of the columns.
+     *
+     * @param samples one row per observation, one column per asset.
+     * @return
+     */
+    public static double[][] correlations(double[][] samples) {
+        final int n = samples.length == 0 ? 0 : samples[0].length;
+        final double[] means = new double[n];
+        for (var row : samples) {
+            for (int i = 0; i < n; i++) {
+                means[i] += row[i] / samples.length;
+            }
+        }
+        final double[][] covariance = new double[n][n];
+        for (var row : samples) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j <= i; j++) {
+                    covariance[i][j] += (row[i] - means[i]) * (row[j] - means[j]);
+                }
+            }
+        }
+        final double[][] answer = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                final double denominator = Math.sqrt(covariance[i][i] * covariance[j][j]);
+                final double c = i == j
+                        ? 1d
+                        : denominator > 0d ? covariance[i][j] / denominator : 0d;
+                answer[i][j] = c;
+                answer[j][i] = c;
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Annualized standard deviation of monthly samples.
+     *
+     * @param samples one row per month, one column per asset.
+     * @return
+     */
+    public static double[] annualVolatilities(double[][] samples) {
+        final int n = samples.length == 0 ? 0 : samples[0].length;
+        final double[] answer = new double[n];
+        if (samples.length < 2) {
+            return answer;
+        }
+        for (int i = 0; i < n; i++) {
+            double mean = 0d;
+            for (var row : samples) {
+                mean += row[i] / samples.length;
+            }
+            double sum = 0d;
+            for (var row : samples) {
+                sum += (row[i] - mean) * (row[i] - mean);
+            }
+            answer[i] = Math.sqrt(12d * sum / (samples.length - 1));
+        }
+        return answer;
+    }
+
+    /**
+     * The k-th smallest value, partially reordering the array.
+     */
+    static double select(double[] a, int k) {
+        int lo = 0;
+        int hi = a.length - 1;
+        while (hi > lo) {
+            final double pivot = median(a[lo], a[(lo + hi) >>> 1], a[hi]);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    i++;
+                }
+                while (a[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    final double t = a[i];
+                    a[i] = a[j];
+                    a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return a[k];
+            }
+        }
+        return a[k];
+    }
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+}
@@ -22,6 +22,9 @@ import org.apache.commons.math3.distribution.NormalDistribution;
  * @author fede
  */
 public class PortfolioProjections {
+
+    private static final NormalDistribution STANDARD_NORMAL = new NormalDistribution();
+
       /**
      * Calculates the estimated portfolio value at a given percentile.
      * This model assumes that the portfolio returns follow a log-normal distribution.
@@ -39,8 +42,7 @@ public class PortfolioProjections {
         }
 
         // The Z-score for the desired percentile from the standard normal distribution.
-        NormalDistribution normalDistribution = new NormalDistribution();
-        double zScore = normalDistribution.inverseCumulativeProbability(percentile);
+        double zScore = STANDARD_NORMAL.inverseCumulativeProbability(percentile);
 
         // The expected log-return (drift) of the portfolio.
         // We adjust the CAGR by half of the variance to get the arithmetic mean return in the log-normal model.
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Precision tiers. Amounts that end up in balances, costs, taxes or
+ * conversions are computed in the accounting tier, {@link MathConstants#C}.
+ * Numbers that only feed bars, charts, sweeps or rankings are computed in the
+ * analytics tier, with 16 digits or with doubles.
+ *
+ * Running with -DverifyPrecision=true computes every analytics value again in
+ * the accounting tier and records the ones that differ by more than
+ * -DverifyPrecision.tolerance, relative to the value or absolute below one.
+ * They are recorded in the {@link Verification} the computing thread runs
+ * with, so concurrent reports do not see each other's. Values computed on
+ * threads without one, like warmup or parallel streams, are not recorded.
+ *
+ * @author fede
+ */
+public final class Precision {
+
+    public static final MathContext ACCOUNTING = MathConstants.C;
+    public static final MathContext ANALYTICS = MathContext.DECIMAL64;
+
+    private static final boolean VERIFY = Boolean.parseBoolean(System.getProperty("verifyPrecision", "false"));
+    private static final BigDecimal TOLERANCE = new BigDecimal(System.getProperty("verifyPrecision.tolerance", "1E-9"));
+
+    private static final ThreadLocal<Verification> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The largest difference found for a computation.
+     *
+     * @param name
+     * @param analytics
+     * @param accounting
+     * @param error relative to the accounting value, absolute below one.
+     */
+    public record Divergence(String name, BigDecimal analytics, BigDecimal accounting, BigDecimal error) {
+
+    }
+
+    /**
+     * The values verified while running a report.
+     */
+    public static final class Verification {
+
+        private final Map<String, Divergence> divergences = new ConcurrentHashMap<>();
+        private final LongAdder checks = new LongAdder();
+
+        /**
+         * @return how many analytics values were verified.
+         */
+        public long checks() {
+            return this.checks.sum();
+        }
+
+        /**
+         * @return the largest divergence of every computation above the
+         * tolerance, largest first.
+         */
+        public List<Divergence> divergences() {
+            return this.divergences.values()
+                    .stream()
+                    .sorted(Comparator.comparing(Divergence::error).reversed())
+                    .toList();
+        }
+
+        private void check(String name, BigDecimal analytics, BigDecimal accounting) {
+            this.checks.increment();
+            final var error = analytics.subtract(accounting, ACCOUNTING)
+                    .abs()
+                    .divide(accounting.abs().max(BigDecimal.ONE), ACCOUNTING);
+            if (error.compareTo(TOLERANCE) > 0) {
+                this.divergences.merge(
+                        name,
+                        new Divergence(name, analytics, accounting, error),
+                        (a, b) -> a.error().compareTo(b.error()) >= 0 ? a : b);
+            }
+        }
+    }
+
+    private Precision() {
+    }
+
+    public static boolean verifying() {
+        return VERIFY;
+    }
+
+    /**
+     * Computes in the analytics tier.
+     *
+     * @param name what is being computed, to report divergences.
+     * @param computation called with the math context of the tier.
+     * @return
+     */
+    public static BigDecimal analytics(String name, Function<MathContext, BigDecimal> computation) {
+        final var answer = computation.apply(ANALYTICS);
+        verify(name, answer, () -> computation.apply(ACCOUNTING));
+        return answer;
+    }
+
+    /**
+     * Computes in the analytics tier with doubles.
+     *
+     * @param name what is being computed, to report divergences.
+     * @param fast the double computation.
+     * @param exact the same computation in the accounting tier, only called
+     * when verifying.
+     * @return
+     */
+    public static double analytics(String name, DoubleSupplier fast, Supplier<BigDecimal> exact) {
+        final double answer = fast.getAsDouble();
+        verify(name, BigDecimal.valueOf(answer), exact);
+        return answer;
+    }
+
+    /**
+     * Compares a value computed in the analytics tier with the same value in
+     * the accounting tier, when verifying and the thread runs with a
+     * {@link Verification}.
+     *
+     * @param name what is being computed, to report divergences.
+     * @param analytics
+     * @param accounting only called when verifying.
+     */
+    public static void verify(String name, BigDecimal analytics, Supplier<BigDecimal> accounting) {
+        if (VERIFY) {
+            final var verification = CURRENT.get();
+            if (verification != null) {
+                verification.check(name, analytics, accounting.get());
+            }
+        }
+    }
+
+    /**
+     * Runs the task recording what it verifies in the verification.
+     *
+     * @param verification
+     * @param task
+     */
+    public static void run(Verification verification, Runnable task) {
+        final var previous = CURRENT.get();
+        CURRENT.set(verification);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @param task
+     * @return the task, to run on another thread with the verification of
+     * the calling thread.
+     */
+    public static Runnable bind(Runnable task) {
+        final var verification = CURRENT.get();
+        return verification == null
+                ? task
+                : () -> run(verification, task);
+    }
+}
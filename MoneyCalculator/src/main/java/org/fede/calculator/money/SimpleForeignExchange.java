@@ -21,9 +21,11 @@ import java.time.LocalDate;
 import java.util.function.Supplier;
 import org.fede.calculator.money.series.IndexSeries;
 import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.MonthIndex;
 import org.fede.calculator.money.series.SeriesSupport;
-import org.fede.calculator.money.series.SortedMapMoneyAmountSeries;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
 import java.time.YearMonth;
+import org.fede.util.Lazy;
 
 /**
  *
@@ -31,9 +33,7 @@ import java.time.YearMonth;
  */
 public class SimpleForeignExchange extends SeriesSupport implements ForeignExchange {
 
-    private final Supplier<IndexSeries> exchangeRatesSeriesSupplier;
-
-    private IndexSeries exchangeRatesSeries;
+    private final Lazy<IndexSeries> exchangeRatesSeries;
 
     private final Currency fromCurrency;
 
@@ -42,16 +42,27 @@ public class SimpleForeignExchange extends SeriesSupport implements ForeignExcha
     public SimpleForeignExchange(Supplier<IndexSeries> exchangeRatesSeriesSupplier,
             Currency fromCurrency,
             Currency targetCurrency) {
-        this.exchangeRatesSeriesSupplier = exchangeRatesSeriesSupplier;
+        this.exchangeRatesSeries = new Lazy<>(exchangeRatesSeriesSupplier);
         this.fromCurrency = fromCurrency;
         this.targetCurrency = targetCurrency;
     }
 
+    /**
+     * Forgets the loaded exchange rates so they are read again on next use.
+     */
+    void invalidate() {
+        this.exchangeRatesSeries.reset();
+    }
+
+    /**
+     * Loads the exchange rates now instead of on first use.
+     */
+    void preload() {
+        this.exchangeRatesSeries.get();
+    }
+
     private IndexSeries getSeries() {
-        if (this.exchangeRatesSeries == null) {
-            this.exchangeRatesSeries = this.exchangeRatesSeriesSupplier.get();
-        }
-        return this.exchangeRatesSeries;
+        return this.exchangeRatesSeries.get();
     }
 
     @Override
@@ -66,15 +77,20 @@ public class SimpleForeignExchange extends SeriesSupport implements ForeignExcha
 
     @Override
     public MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, YearMonth ym) {
+        return this.exchange(amount, targetCurrency, MonthIndex.of(ym));
+    }
+
+    @Override
+    public MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, int month) {
         if (amount.currency() == targetCurrency) {
             return amount;
         }
         if (this.targetCurrency == targetCurrency) {
-            return amount.exchange(targetCurrency, getSeries().getIndex(ym));
+            return amount.exchange(targetCurrency, getSeries().getIndex(month));
         }
 
         if (this.fromCurrency == targetCurrency) {
-            return amount.exchange(targetCurrency, BigDecimal.ONE.divide(getSeries().getIndex(ym), MathConstants.C));
+            return amount.exchange(targetCurrency, BigDecimal.ONE.divide(getSeries().getIndex(month), MathConstants.C));
         }
 
         throw new IllegalArgumentException("Unknown currency.");
@@ -83,18 +99,17 @@ public class SimpleForeignExchange extends SeriesSupport implements ForeignExcha
     @Override
     public MoneyAmountSeries exchange(MoneyAmountSeries series, Currency targetCurrency) {
 
-        YearMonth from = this.getSeries().maximumFrom(series);
-        YearMonth to = series.getTo();
+        final int from = MonthIndex.of(this.getSeries().maximumFrom(series));
+        final int to = series.toIndex();
 
-        if (from.compareTo(to) > 0) {
+        if (from > to) {
             throw new IllegalArgumentException("From cannot be after to.");
         }
 
-        final MoneyAmountSeries answer = new SortedMapMoneyAmountSeries(targetCurrency, series.getName());
-
-        for (YearMonth ym = from; !ym.isAfter(to); ym = ym.plusMonths(1)) {
-            answer.putAmount(ym, this.exchange(series.getAmount(ym), targetCurrency, ym));
+        final MoneyAmountSeries answer = new ArrayMoneyAmountSeries(targetCurrency, series.getName(), from, to);
 
+        for (int month = from; month <= to; month++) {
+            answer.putAmount(month, this.exchange(series.getAmount(month), targetCurrency, month));
         }
 
         return answer;
@@ -103,7 +118,7 @@ public class SimpleForeignExchange extends SeriesSupport implements ForeignExcha
 
     @Override
     public MoneyAmount exchange(MoneyAmount amount, Currency targetCurrency, LocalDate moment) {
-        return this.exchange(amount, targetCurrency, YearMonth.from(moment));
+        return this.exchange(amount, targetCurrency, MonthIndex.of(moment));
     }
 
     @Override
@@ -18,18 +18,21 @@ package org.fede.calculator.money;
 
 import java.math.BigDecimal;
 import java.text.MessageFormat;
-import java.util.SequencedCollection;
-import java.util.function.BiFunction;
-import java.util.stream.Gatherers;
-import java.util.stream.Stream;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import org.fede.calculator.money.series.IndexSeries;
 import org.fede.calculator.money.series.JSONDataPoint;
 import org.fede.calculator.money.series.JSONIndexSeries;
 import org.fede.calculator.money.series.MoneyAmountItem;
 import org.fede.calculator.money.series.MoneyAmountSeries;
-import org.fede.calculator.money.series.SortedMapMoneyAmountSeries;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
+import org.fede.calculator.money.series.FixedMoneyAmountSeries;
 
 /**
+ * Windows slide over the values of the series, padded with zeros up to the
+ * last month with inflation data. Aggregates keep a running total instead
+ * of summing every window again.
  *
  * @author fede
  */
@@ -51,7 +54,7 @@ public class SlidingWindow implements Aggregator, Differencer {
     @Override
     public MoneyAmountSeries average(MoneyAmountSeries series) {
 
-        return this.aggregate(series, "{0} avg(" + months + ")", this::avg);
+        return this.aggregate(series, "{0} avg(" + months + ")", true);
 
     }
 
@@ -64,23 +67,85 @@ public class SlidingWindow implements Aggregator, Differencer {
     @Override
     public MoneyAmountSeries sum(MoneyAmountSeries series) {
 
-        return this.aggregate(series, "{0} sum(" + months + ")", this::sum);
+        return this.aggregate(series, "{0} sum(" + months + ")", false);
 
     }
 
+    /**
+     * Averages over several windows in one pass, keeping a running total for
+     * each of them.
+     *
+     * @param series
+     * @param months the window sizes.
+     * @return one series per window size, in the same order.
+     */
+    public static List<MoneyAmountSeries> average(MoneyAmountSeries series, int... months) {
+
+        final Currency seriesCurrency = series.getCurrency();
+        final var items = padded(series);
+        final var windows = new int[months.length];
+        final var totals = new BigDecimal[months.length];
+        final List<MoneyAmountSeries> answer = new ArrayList<>(months.length);
+
+        for (int w = 0; w < months.length; w++) {
+            windows[w] = Math.min(months[w], items.size());
+            totals[w] = BigDecimal.ZERO;
+            answer.add(new ArrayMoneyAmountSeries(seriesCurrency, MessageFormat.format("{0} avg(" + months[w] + ")", series.getName())));
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            final var item = items.get(i);
+            for (int w = 0; w < windows.length; w++) {
+                totals[w] = slide(totals[w], items, i, windows[w]);
+                if (i >= windows[w] - 1) {
+                    answer.get(w).putAmount(item.ym(), average(totals[w], windows[w], seriesCurrency));
+                }
+            }
+        }
+        return answer;
+    }
+
     private MoneyAmountSeries aggregate(
             MoneyAmountSeries series,
             String nameFormat,
-            BiFunction<SequencedCollection<MoneyAmountItem>, Currency, MoneyAmount> operation) {
+            boolean average) {
         final Currency seriesCurrency = series.getCurrency();
-        MoneyAmountSeries result = new SortedMapMoneyAmountSeries(seriesCurrency, MessageFormat.format(nameFormat, series.getName()));
-        paddedStream(series)
-                .gather(Gatherers.windowSliding(months))
-                .forEach(window -> result.putAmount(window.getLast().ym(), operation.apply(window, seriesCurrency)));
+        final MoneyAmountSeries result = new ArrayMoneyAmountSeries(seriesCurrency, MessageFormat.format(nameFormat, series.getName()));
+        final var items = padded(series);
+        final int window = Math.min(this.months, items.size());
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < items.size(); i++) {
+            total = slide(total, items, i, window);
+            if (i >= window - 1) {
+                result.putAmount(
+                        items.get(i).ym(),
+                        average
+                                ? average(total, window, seriesCurrency)
+                                : new MoneyAmount(total, seriesCurrency));
+            }
+        }
 
         return result;
     }
 
+    /**
+     * Adds the i-th item to the total of the window and drops the one that
+     * falls out of it. Sums are exact so the total is the same as summing
+     * the window again.
+     */
+    private static BigDecimal slide(BigDecimal total, List<MoneyAmountItem> items, int i, int window) {
+        final var answer = total.add(items.get(i).amount().amount());
+        return i >= window
+                ? answer.subtract(items.get(i - window).amount().amount())
+                : answer;
+    }
+
+    private static MoneyAmount average(BigDecimal total, int window, Currency currency) {
+        return new MoneyAmount(total, currency)
+                .adjust(BigDecimal.valueOf(window), BigDecimal.ONE);
+    }
+
     /**
      * The difference in absolute value compared to the value right before the
      * start of the window.
@@ -91,14 +156,15 @@ public class SlidingWindow implements Aggregator, Differencer {
     @Override
     public MoneyAmountSeries change(MoneyAmountSeries series) {
 
-        MoneyAmountSeries result = new SortedMapMoneyAmountSeries(series.getCurrency(), series.getName() + " change (" + months + ")");
-        paddedStream(series)
-                .gather(Gatherers.windowSliding(months + 1))
-                .forEach(window
-                        -> result.putAmount(
-                        window.getLast().ym(),
-                        window.getLast().amount().subtract(window.getFirst().amount())
-                ));
+        final MoneyAmountSeries result = new ArrayMoneyAmountSeries(series.getCurrency(), series.getName() + " change (" + months + ")");
+        final var items = padded(series);
+        final int distance = Math.min(this.months, items.size() - 1);
+
+        for (int i = Math.max(0, distance); i < items.size(); i++) {
+            result.putAmount(
+                    items.get(i).ym(),
+                    items.get(i).amount().subtract(items.get(i - distance).amount()));
+        }
 
         return result;
 
@@ -106,7 +172,7 @@ public class SlidingWindow implements Aggregator, Differencer {
 
     /**
      * The difference in percentage compared to the value right before the start
-     * of the window.
+     * of the window. Computed in the {@link Precision} analytics tier.
      *
      * @param series
      * @return
@@ -114,52 +180,123 @@ public class SlidingWindow implements Aggregator, Differencer {
     @Override
     public IndexSeries percentChange(MoneyAmountSeries series) {
 
-        return new JSONIndexSeries(
-                paddedStream(series)
-                        .gather(Gatherers.windowSliding(months + 1))
-                        .map(
-                                window
-                                -> window.getFirst().amount().amount().signum() == 0
-                                ? new JSONDataPoint(window.getLast().ym(), BigDecimal.ZERO)
-                                : new JSONDataPoint(
-                                        window.getLast()
-                                                .ym(),
-                                        window.getLast()
-                                                .amount()
-                                                .subtract(window.getFirst().amount())
-                                                .amount()
-                                                .divide(window.getFirst().amount().amount(), MathConstants.C)))
-                        .toList()
-        );
+        final var items = padded(series);
+        final int distance = Math.min(this.months, items.size() - 1);
+        final List<JSONDataPoint> answer = new ArrayList<>(Math.max(0, items.size() - distance));
+
+        for (int i = Math.max(0, distance); i < items.size(); i++) {
+            final var first = items.get(i - distance).amount().amount();
+            final var last = items.get(i);
+            answer.add(first.signum() == 0
+                    ? new JSONDataPoint(last.ym(), BigDecimal.ZERO)
+                    : new JSONDataPoint(
+                            last.ym(),
+                            Precision.analytics("SlidingWindow.percentChange", mc -> last.amount().amount()
+                                    .subtract(first, mc)
+                                    .divide(first, mc))));
+        }
+
+        return new JSONIndexSeries(answer);
 
     }
 
-    private MoneyAmount avg(SequencedCollection<MoneyAmountItem> lastValues, Currency currency) {
-        return this.sum(lastValues, currency)
-                .adjust(BigDecimal.valueOf(lastValues.size()), BigDecimal.ONE);
+    /**
+     * Fixed point variant of {@link #average(MoneyAmountSeries)}.
+     *
+     * @param series
+     * @return
+     * @throws ArithmeticException on overflow.
+     */
+    public FixedMoneyAmountSeries average(FixedMoneyAmountSeries series) {
+        return this.aggregate(series, "{0} avg(" + months + ")", true);
+    }
 
+    /**
+     * Fixed point variant of {@link #sum(MoneyAmountSeries)}.
+     *
+     * @param series
+     * @return
+     * @throws ArithmeticException on overflow.
+     */
+    public FixedMoneyAmountSeries sum(FixedMoneyAmountSeries series) {
+        return this.aggregate(series, "{0} sum(" + months + ")", false);
     }
 
-    private MoneyAmount sum(SequencedCollection<MoneyAmountItem> lastValues, Currency c) {
-        BigDecimal total = BigDecimal.ZERO;
-        for (var item : lastValues) {
-            total = total.add(item.amount().amount());
+    private FixedMoneyAmountSeries aggregate(FixedMoneyAmountSeries series, String nameFormat, boolean average) {
+
+        final var padded = padded(series);
+        final int window = Math.min(months, padded.length);
+        final var result = new long[padded.length - window + 1];
+
+        long total = 0L;
+        for (int i = 0; i < padded.length; i++) {
+            total = Math.addExact(total, padded[i]);
+            if (i >= window) {
+                total = Math.subtractExact(total, padded[i - window]);
+            }
+            if (i >= window - 1) {
+                result[i - window + 1] = average
+                        ? FixedMoneyAmount.divide(total, window)
+                        : total;
+            }
         }
-        return new MoneyAmount(total, c);
+
+        return new FixedMoneyAmountSeries(
+                series.getCurrency(),
+                MessageFormat.format(nameFormat, series.getName()),
+                series.getFrom().plusMonths(window - 1),
+                result);
     }
 
-    private static Stream<MoneyAmountItem> paddedStream(MoneyAmountSeries series) {
+    /**
+     * Fixed point variant of {@link #change(MoneyAmountSeries)}.
+     *
+     * @param series
+     * @return
+     * @throws ArithmeticException on overflow.
+     */
+    public FixedMoneyAmountSeries change(FixedMoneyAmountSeries series) {
+
+        final var padded = padded(series);
+        final int distance = Math.min(months, padded.length - 1);
+        final var result = new long[padded.length - distance];
+
+        for (int i = distance; i < padded.length; i++) {
+            result[i - distance] = Math.subtractExact(padded[i], padded[i - distance]);
+        }
+
+        return new FixedMoneyAmountSeries(
+                series.getCurrency(),
+                series.getName() + " change (" + months + ")",
+                series.getFrom().plusMonths(distance),
+                result);
+    }
 
+    private static long[] padded(FixedMoneyAmountSeries series) {
         // pad with zeros after the end of the values and up until 
         // the last inflation data available.
-        var ym = series.getTo();
-        Stream.Builder<MoneyAmountItem> sb = Stream.builder();
-        while (ym.isBefore(Inflation.usdInflation().getTo())) {
-            ym = ym.plusMonths(1);
-            sb.add(new MoneyAmountItem(ym, MoneyAmount.zero(series.getCurrency())));
+        final var padding = Math.max(0L, series.getTo().until(Inflation.usdInflation().getTo(), ChronoUnit.MONTHS));
+        final var answer = new long[series.size() + (int) padding];
+        for (int i = 0; i < series.size(); i++) {
+            answer[i] = series.getUnits(i);
         }
+        return answer;
+    }
 
-        return Stream.concat(series.items(), sb.build());
+    private static List<MoneyAmountItem> padded(MoneyAmountSeries series) {
 
+        // pad with zeros after the end of the values and up until 
+        // the last inflation data available.
+        final var inflationTo = Inflation.usdInflation().getTo();
+        final var padding = Math.max(0L, series.getTo().until(inflationTo, ChronoUnit.MONTHS));
+        final List<MoneyAmountItem> answer = new ArrayList<>((int) (series.getFrom().until(series.getTo(), ChronoUnit.MONTHS) + 1 + padding));
+        series.forEach((ym, amount) -> answer.add(new MoneyAmountItem(ym, amount)));
+
+        final var zero = MoneyAmount.zero(series.getCurrency());
+        for (var ym = series.getTo(); ym.isBefore(inflationTo);) {
+            ym = ym.plusMonths(1);
+            answer.add(new MoneyAmountItem(ym, zero));
+        }
+        return answer;
     }
 }
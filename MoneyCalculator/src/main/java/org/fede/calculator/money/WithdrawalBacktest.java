@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Replays withdrawal rules over every complete historical window of monthly
+ * real returns. Each month the withdrawal is taken and then the rest grows with
+ * the return of the month, like in {@link MonteCarloSimulation}.
+ *
+ * Constant withdrawals use prefix products P of the returns and prefix sums Q
+ * of 1 / P, so the value of a window after any month is a closed formula and
+ * the depletion month is a binary search. Rules that depend on the portfolio
+ * value walk the window once. Windows are evaluated in parallel.
+ *
+ * Windows never wrap around, a history shorter than the horizon has no
+ * windows.
+ *
+ * @author fede
+ */
+public final class WithdrawalBacktest {
+
+    public enum Strategy {
+        /**
+         * The same real amount every month, the rate applied to the initial
+         * value.
+         */
+        FIXED,
+        /**
+         * Every year the rate is applied to the current value, like the CAEY
+         * safe withdrawal rate.
+         */
+        VARIABLE,
+        /**
+         * The same real amount, cut when the current rate goes above the
+         * upper guardrail and raised when it goes below the lower one.
+         */
+        GUARDRAILS
+    }
+
+    /**
+     * @param name
+     * @param strategy
+     * @param rate annual withdrawal rate.
+     * @param band guardrails distance from the rate, as a fraction of it.
+     * @param adjustment fraction the withdrawal is cut or raised.
+     */
+    public record Rule(String name, Strategy strategy, double rate, double band, double adjustment) {
+
+        public static Rule fixed(String name, double rate) {
+            return new Rule(name, Strategy.FIXED, rate, 0d, 0d);
+        }
+
+        public static Rule variable(String name, double rate) {
+            return new Rule(name, Strategy.VARIABLE, rate, 0d, 0d);
+        }
+
+        public static Rule guardrails(String name, double rate, double band, double adjustment) {
+            return new Rule(name, Strategy.GUARDRAILS, rate, band, adjustment);
+        }
+    }
+
+    /**
+     * @param start index of the first month in the history.
+     * @param depletionMonth month of the window the money ran out, -1 if it
+     * did not.
+     * @param ending value at the end of the window.
+     */
+    public record Window(int start, int depletionMonth, double ending) {
+
+        public boolean failed() {
+            return this.depletionMonth >= 0;
+        }
+    }
+
+    public static final class Result {
+
+        private final Rule rule;
+        private final double[] ending;
+        private final int[] depletion;
+
+        private Result(Rule rule, int windows) {
+            this.rule = rule;
+            this.ending = new double[windows];
+            this.depletion = new int[windows];
+        }
+
+        public Rule rule() {
+            return this.rule;
+        }
+
+        public int windows() {
+            return this.ending.length;
+        }
+
+        public int failures() {
+            return (int) Arrays.stream(this.depletion).filter(d -> d >= 0).count();
+        }
+
+        public double failureRate() {
+            return this.windows() == 0
+                    ? 0d
+                    : (double) this.failures() / this.windows();
+        }
+
+        /**
+         * @param percentile between 0 and 1.
+         * @return the ending value of the window at the percentile.
+         */
+        public double endingPercentile(double percentile) {
+            if (percentile < 0d || percentile > 1d) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 1.");
+            }
+            if (this.ending.length == 0) {
+                return 0d;
+            }
+            return MonteCarloSimulation.select(
+                    this.ending.clone(),
+                    (int) Math.round(percentile * (this.ending.length - 1)));
+        }
+
+        /**
+         * @param count
+         * @return the windows that ran out first, then the ones ending with
+         * less money.
+         */
+        public List<Window> worst(int count) {
+            return IntStream.range(0, this.windows())
+                    .mapToObj(i -> new Window(i, this.depletion[i], this.ending[i]))
+                    .sorted(Comparator
+                            .comparingInt((Window w) -> w.failed() ? w.depletionMonth() : Integer.MAX_VALUE)
+                            .thenComparingDouble(Window::ending))
+                    .limit(count)
+                    .toList();
+        }
+    }
+
+    private final double[] growth;
+    // prefix[i] product of the first i growths
+    private final double[] prefix;
+    // inversePrefix[i] sum of 1 / prefix[k] for k < i
+    private final double[] inversePrefix;
+
+    /**
+     * @param monthlyGrowth real gross return of every month of the history,
+     * 1.01 for 1%.
+     */
+    public WithdrawalBacktest(double[] monthlyGrowth) {
+        this.growth = monthlyGrowth.clone();
+        final int length = this.growth.length;
+        this.prefix = new double[length + 1];
+        this.inversePrefix = new double[length + 1];
+        this.prefix[0] = 1d;
+        for (int i = 0; i < length; i++) {
+            this.prefix[i + 1] = this.prefix[i] * this.growth[i];
+            this.inversePrefix[i + 1] = this.inversePrefix[i] + 1d / this.prefix[i];
+        }
+    }
+
+    /**
+     * @param months
+     * @return how many complete windows of the horizon there are.
+     */
+    public int windows(int months) {
+        return Math.max(0, this.growth.length - months + 1);
+    }
+
+    /**
+     * Runs every rule over every window.
+     *
+     * @param initialValue
+     * @param rules
+     * @param years
+     * @return one result per rule, in the same order.
+     */
+    public List<Result> run(double initialValue, List<Rule> rules, int years) {
+        final int months = years * 12;
+        final int windows = this.windows(months);
+        final var results = rules.stream().map(r -> new Result(r, windows)).toList();
+
+        IntStream.range(0, windows)
+                .parallel()
+                .forEach(start -> {
+                    for (var result : results) {
+                        this.replay(initialValue, result, start, months);
+                    }
+                });
+
+        return results;
+    }
+
+    private void replay(double initialValue, Result result, int start, int months) {
+        final var rule = result.rule();
+        if (rule.strategy() == Strategy.FIXED) {
+            this.fixed(initialValue, result, start, months);
+            return;
+        }
+
+        final double initialWithdrawal = initialValue * rule.rate() / 12d;
+        double withdrawal = initialWithdrawal;
+        double value = initialValue;
+        for (int month = 0; month < months; month++) {
+            if (month % 12 == 0 && month > 0) {
+                withdrawal = switch (rule.strategy()) {
+                    case VARIABLE ->
+                        value * rule.rate() / 12d;
+                    case GUARDRAILS ->
+                        guardrails(rule, withdrawal, value);
+                    default ->
+                        withdrawal;
+                };
+            }
+            value -= withdrawal;
+            if (value <= 0d) {
+                result.ending[start] = 0d;
+                result.depletion[start] = month;
+                return;
+            }
+            value *= this.growth[start + month];
+        }
+        result.ending[start] = value;
+        result.depletion[start] = -1;
+    }
+
+    private static double guardrails(Rule rule, double withdrawal, double value) {
+        final double currentRate = withdrawal * 12d / value;
+        if (currentRate > rule.rate() * (1d + rule.band())) {
+            return withdrawal * (1d - rule.adjustment());
+        }
+        if (currentRate < rule.rate() * (1d - rule.band())) {
+            return withdrawal * (1d + rule.adjustment());
+        }
+        return withdrawal;
+    }
+
+    /**
+     * After withdrawing in month k the window has
+     * P[s+k]/P[s] · (V0 - w · P[s] · (Q[s+k+1] - Q[s])), the parenthesis
+     * only decreases with k.
+     */
+    private void fixed(double initialValue, Result result, int start, int months) {
+        final double withdrawal = initialValue * result.rule().rate() / 12d;
+        final double p = this.prefix[start];
+        final double q = this.inversePrefix[start];
+
+        final double left = initialValue - withdrawal * p * (this.inversePrefix[start + months] - q);
+        if (left > 0d) {
+            result.ending[start] = this.prefix[start + months] / p * left;
+            result.depletion[start] = -1;
+            return;
+        }
+
+        // first month with nothing left
+        int lo = 0;
+        int hi = months - 1;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (initialValue - withdrawal * p * (this.inversePrefix[start + mid + 1] - q) <= 0d) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        result.ending[start] = 0d;
+        result.depletion[start] = lo;
+    }
+
+}
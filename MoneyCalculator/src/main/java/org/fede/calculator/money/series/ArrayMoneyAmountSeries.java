@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2026 Federico Tello Gentile <federicotg@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.NoSeriesDataFoundException;
+
+/**
+ * Monthly series backed by a contiguous array indexed by the month offset
+ * from the first month. Meant for series with no gaps, such as the ones read
+ * by {@link SeriesReader}, where lookups are O(1) instead of O(log n).
+ * Months are {@link MonthIndex} values.
+ *
+ * @author Federico Tello Gentile <federicotg@gmail.com>
+ */
+public class ArrayMoneyAmountSeries extends MoneyAmountSeriesSupport {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private MoneyAmount[] values;
+
+    // month index of values[0]
+    private int base;
+
+    // month index of the first and last values present
+    private int first;
+    private int last;
+
+    public ArrayMoneyAmountSeries(Currency currency, String name) {
+        this(currency, name, INITIAL_CAPACITY);
+    }
+
+    public ArrayMoneyAmountSeries(Currency currency, String name, YearMonth from, YearMonth to) {
+        this(currency, name, MonthIndex.of(from), MonthIndex.of(to));
+    }
+
+    /**
+     * @param currency
+     * @param name
+     * @param from a {@link MonthIndex}.
+     * @param to a {@link MonthIndex}.
+     */
+    public ArrayMoneyAmountSeries(Currency currency, String name, int from, int to) {
+        this(currency, name, Math.max(1, to - from + 1));
+        this.base = from;
+    }
+
+    private ArrayMoneyAmountSeries(Currency currency, String name, int capacity) {
+        super(currency, name);
+        this.values = new MoneyAmount[capacity];
+        this.first = Integer.MAX_VALUE;
+        this.last = Integer.MIN_VALUE;
+    }
+
+    private boolean isEmpty() {
+        return this.first > this.last;
+    }
+
+    @Override
+    protected MoneyAmountSeries createNew() {
+        return this.isEmpty()
+                ? new ArrayMoneyAmountSeries(this.getCurrency(), this.getName())
+                : new ArrayMoneyAmountSeries(this.getCurrency(), this.getName(), this.first, this.last);
+    }
+
+    private void checkNotEmpty() {
+        if (this.isEmpty()) {
+            throw new NoSeriesDataFoundException("Empty series " + this.getName());
+        }
+    }
+
+    @Override
+    public YearMonth getFrom() {
+        return MonthIndex.yearMonth(this.fromIndex());
+    }
+
+    @Override
+    public YearMonth getTo() {
+        return MonthIndex.yearMonth(this.toIndex());
+    }
+
+    @Override
+    public int fromIndex() {
+        this.checkNotEmpty();
+        return this.first;
+    }
+
+    @Override
+    public int toIndex() {
+        this.checkNotEmpty();
+        return this.last;
+    }
+
+    @Override
+    protected MoneyAmount getAmountOrNull(YearMonth ym) {
+        return this.getAmountOrNull(MonthIndex.of(ym));
+    }
+
+    @Override
+    protected MoneyAmount getAmountOrNull(int i) {
+        if (i < this.first || i > this.last) {
+            return null;
+        }
+        return this.values[i - this.base];
+    }
+
+    @Override
+    public void putAmount(YearMonth ym, MoneyAmount amount) {
+        this.putAmount(MonthIndex.of(ym), amount);
+    }
+
+    @Override
+    public void putAmount(int i, MoneyAmount amount) {
+        Objects.requireNonNull(amount);
+        this.ensureCapacity(i);
+        this.values[i - this.base] = amount;
+        this.first = Math.min(this.first, i);
+        this.last = Math.max(this.last, i);
+    }
+
+    private void ensureCapacity(int i) {
+        if (this.isEmpty() && (i < this.base || i >= this.base + this.values.length)) {
+            this.base = i;
+            return;
+        }
+        if (i >= this.base && i < this.base + this.values.length) {
+            return;
+        }
+        final int length = this.values.length;
+        if (i >= this.base + length) {
+            this.values = Arrays.copyOf(this.values, Math.max(length + (length >> 1), i - this.base + 1));
+            return;
+        }
+        // grow towards the past
+        final int headroom = Math.max(length >> 1, this.base - i);
+        final var newValues = new MoneyAmount[length + headroom];
+        System.arraycopy(this.values, 0, newValues, headroom, length);
+        this.values = newValues;
+        this.base -= headroom;
+    }
+
+    @Override
+    public void forEach(BiConsumer<YearMonth, MoneyAmount> consumer) {
+        for (int i = this.first; i <= this.last; i++) {
+            final var value = this.values[i - this.base];
+            if (value != null) {
+                consumer.accept(MonthIndex.yearMonth(i), value);
+            }
+        }
+    }
+
+    @Override
+    protected boolean hasValue(YearMonth moment) {
+        return this.getAmountOrNull(moment) != null;
+    }
+
+    private IntStream presentIndexes() {
+        if (this.isEmpty()) {
+            return IntStream.empty();
+        }
+        return IntStream.rangeClosed(this.first, this.last)
+                .filter(i -> this.values[i - this.base] != null);
+    }
+
+    @Override
+    public Stream<MoneyAmount> moneyAmountStream() {
+        return this.presentIndexes().mapToObj(i -> this.values[i - this.base]);
+    }
+
+    @Override
+    public Stream<MoneyAmount> filter(BiPredicate<YearMonth, MoneyAmount> predicate) {
+        return this.items()
+                .filter(item -> predicate.test(item.ym(), item.amount()))
+                .map(MoneyAmountItem::amount);
+    }
+
+    @Override
+    public Stream<YearMonth> yearMonthStream() {
+        return this.presentIndexes().mapToObj(MonthIndex::yearMonth);
+    }
+
+    @Override
+    public Stream<MoneyAmountItem> items() {
+        return this.presentIndexes().mapToObj(i -> new MoneyAmountItem(MonthIndex.yearMonth(i), this.values[i - this.base]));
+    }
+
+}
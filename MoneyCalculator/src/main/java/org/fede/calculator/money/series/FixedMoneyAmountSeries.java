@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.FixedMoneyAmount;
+import org.fede.calculator.money.ForeignExchange;
+import org.fede.calculator.money.ForeignExchanges;
+import org.fede.calculator.money.Inflation;
+import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.NoSeriesDataFoundException;
+
+/**
+ * Contiguous monthly series of {@link FixedMoneyAmount} stored as a long
+ * array. Used for bulk aggregation; convert to and from
+ * {@link MoneyAmountSeries} at the edges. Every operation throws
+ * {@link ArithmeticException} on overflow.
+ *
+ * @author fede
+ */
+public final class FixedMoneyAmountSeries extends SeriesSupport {
+
+    private final Currency currency;
+    private final String name;
+    private final YearMonth from;
+    private final long[] units;
+
+    public FixedMoneyAmountSeries(Currency currency, String name, YearMonth from, long[] units) {
+        if (units.length == 0) {
+            throw new IllegalArgumentException("Empty fixed point series " + name);
+        }
+        this.currency = currency;
+        this.name = name;
+        this.from = from;
+        this.units = units;
+    }
+
+    /**
+     * Rounds every amount of the series to the currency scale.
+     *
+     * @param series a series with no gaps.
+     * @return
+     * @throws ArithmeticException if any amount does not fit in a long.
+     * @throws NoSeriesDataFoundException if the series has gaps.
+     */
+    public static FixedMoneyAmountSeries of(MoneyAmountSeries series) {
+        final var from = series.getFrom();
+        final var values = new long[months(from, series.getTo())];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = FixedMoneyAmount.of(series.getAmount(from.plusMonths(i))).units();
+        }
+        return new FixedMoneyAmountSeries(series.getCurrency(), series.getName(), from, values);
+    }
+
+    private static int months(YearMonth from, YearMonth to) {
+        return (int) from.until(to, ChronoUnit.MONTHS) + 1;
+    }
+
+    public MoneyAmountSeries toMoneyAmountSeries() {
+        final var answer = new ArrayMoneyAmountSeries(this.currency, this.name, this.from, this.getTo());
+        final int scale = FixedMoneyAmount.scale(this.currency);
+        for (int i = 0; i < this.units.length; i++) {
+            answer.putAmount(
+                    this.from.plusMonths(i),
+                    this.units[i] == 0L
+                    ? MoneyAmount.zero(this.currency)
+                    : new MoneyAmount(BigDecimal.valueOf(this.units[i], scale), this.currency));
+        }
+        return answer;
+    }
+
+    @Override
+    public YearMonth getFrom() {
+        return this.from;
+    }
+
+    @Override
+    public YearMonth getTo() {
+        return this.from.plusMonths(this.units.length - 1);
+    }
+
+    public Currency getCurrency() {
+        return this.currency;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int size() {
+        return this.units.length;
+    }
+
+    /**
+     * @param offset months after {@link #getFrom()}
+     * @return the raw units at the given offset.
+     */
+    public long getUnits(int offset) {
+        return this.units[offset];
+    }
+
+    public FixedMoneyAmount getAmount(YearMonth ym) {
+        final var offset = this.from.until(ym, ChronoUnit.MONTHS);
+        if (offset < 0 || offset >= this.units.length) {
+            throw new NoSeriesDataFoundException("No data for " + ym + " in " + this.name);
+        }
+        return new FixedMoneyAmount(this.units[(int) offset], this.currency);
+    }
+
+    /**
+     * Adds both series. Months present in only one of them count as zero in
+     * the other.
+     *
+     * @param other
+     * @return
+     */
+    public FixedMoneyAmountSeries add(FixedMoneyAmountSeries other) {
+        return this.combine(other, false);
+    }
+
+    public FixedMoneyAmountSeries subtract(FixedMoneyAmountSeries other) {
+        return this.combine(other, true);
+    }
+
+    private FixedMoneyAmountSeries combine(FixedMoneyAmountSeries other, boolean negate) {
+        if (other.getCurrency() != this.currency) {
+            return this.exchangeInto(Currency.USD)
+                    .combine(other.exchangeInto(Currency.USD), negate);
+        }
+        final var start = YearMonthUtil.min(this.from, other.getFrom());
+        final var end = YearMonthUtil.max(this.getTo(), other.getTo());
+        final var values = new long[months(start, end)];
+
+        final int thisOffset = (int) start.until(this.from, ChronoUnit.MONTHS);
+        System.arraycopy(this.units, 0, values, thisOffset, this.units.length);
+
+        final int otherOffset = (int) start.until(other.getFrom(), ChronoUnit.MONTHS);
+        for (int i = 0; i < other.size(); i++) {
+            final int j = otherOffset + i;
+            values[j] = negate
+                    ? Math.subtractExact(values[j], other.getUnits(i))
+                    : Math.addExact(values[j], other.getUnits(i));
+        }
+        return new FixedMoneyAmountSeries(this.currency, this.name, start, values);
+    }
+
+    /**
+     * Converts every amount using the exchange rate of its own month, like
+     * {@link ForeignExchange#exchange(MoneyAmountSeries, Currency)}.
+     *
+     * @param targetCurrency
+     * @return
+     */
+    public FixedMoneyAmountSeries exchangeInto(Currency targetCurrency) {
+        if (targetCurrency == this.currency) {
+            return this;
+        }
+        return this.exchangeInto(ForeignExchanges.getForeignExchange(this.currency, targetCurrency), targetCurrency);
+    }
+
+    /**
+     * Converts every amount using the given exchange.
+     *
+     * @param fx
+     * @param targetCurrency
+     * @return
+     */
+    public FixedMoneyAmountSeries exchangeInto(ForeignExchange fx, Currency targetCurrency) {
+        final var start = fx.maximumFrom(this);
+        final var end = this.getTo();
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("From cannot be after to.");
+        }
+        final int offset = (int) this.from.until(start, ChronoUnit.MONTHS);
+        final var rates = fx.fixedRates(this.currency, targetCurrency, MonthIndex.of(start), MonthIndex.of(end));
+        final var values = new long[rates.length];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new FixedMoneyAmount(this.units[offset + i], this.currency)
+                    .exchange(targetCurrency, rates[i])
+                    .units();
+        }
+        return new FixedMoneyAmountSeries(targetCurrency, this.name, start, values);
+    }
+
+    /**
+     * Adjusts every amount by inflation, like
+     * {@link Inflation#adjust(MoneyAmountSeries, YearMonth)}.
+     *
+     * @param inflation
+     * @param reference
+     * @return
+     */
+    public FixedMoneyAmountSeries adjust(Inflation inflation, YearMonth reference) {
+        final var start = inflation.maximumFrom(this);
+        final var end = this.getTo();
+        final int offset = (int) this.from.until(start, ChronoUnit.MONTHS);
+        final int first = MonthIndex.of(start);
+        final int target = MonthIndex.of(reference);
+        final int low = Math.min(first, target);
+        final var index = inflation.fixedIndex(low, Math.max(MonthIndex.of(end), target));
+        final long factor = index[target - low];
+        final var values = new long[months(start, end)];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = FixedMoneyAmount.mulDiv(this.units[offset + i], factor, index[first + i - low]);
+        }
+        return new FixedMoneyAmountSeries(inflation.getCurrency(), this.name, start, values);
+    }
+
+}
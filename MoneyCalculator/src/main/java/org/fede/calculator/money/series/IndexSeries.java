@@ -29,4 +29,12 @@ public interface IndexSeries extends Series {
     BigDecimal getIndex(LocalDate day);
 
     BigDecimal getIndex(YearMonth ym);
+
+    /**
+     * @param month a {@link MonthIndex}.
+     * @return
+     */
+    default BigDecimal getIndex(int month) {
+        return this.getIndex(MonthIndex.yearMonth(month));
+    }
 }
@@ -43,6 +43,11 @@ public abstract class IndexSeriesSupport extends SeriesSupport implements IndexS
             return BigDecimal.ONE;
         }
 
+        @Override
+        public BigDecimal getIndex(int month) {
+            return BigDecimal.ONE;
+        }
+
         @Override
         public int hashCode() {
             return Objects.hashCode(this);
@@ -57,7 +62,7 @@ public abstract class IndexSeriesSupport extends SeriesSupport implements IndexS
 
     @Override
     public final BigDecimal getIndex(LocalDate day) {
-        return this.getIndex(YearMonth.from(day));
+        return this.getIndex(MonthIndex.of(day));
     }
 
 }
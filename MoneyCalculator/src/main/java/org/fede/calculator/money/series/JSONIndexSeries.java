@@ -23,12 +23,18 @@ import java.util.Map;
 import java.util.SequencedCollection;
 
 /**
+ * Index values in an array by {@link MonthIndex}, from the first to the last
+ * data point. Months without a value get the last one.
  *
  * @author fede
  */
 public class JSONIndexSeries extends IndexSeriesSupport {
 
-    private final Map<YearMonth, BigDecimal> data;
+    private final BigDecimal[] values;
+    // month index of values[0]
+    private final int base;
+    // values put outside of the range
+    private final Map<Integer, BigDecimal> outside = new HashMap<>();
     private final YearMonth from;
     private final YearMonth to;
     private final BigDecimal lastValue;
@@ -39,18 +45,29 @@ public class JSONIndexSeries extends IndexSeriesSupport {
         JSONDataPoint last = datapoints.getLast();
         this.to = last.yearMonth();
 
-        this.data = HashMap.newHashMap(datapoints.size());
+        this.base = MonthIndex.of(this.from);
+        this.values = new BigDecimal[Math.max(0, MonthIndex.of(this.to) - this.base + 1)];
 
         for (var d : datapoints) {
-            this.data.put(d.yearMonth(), d.value());
+            this.put(d.yearMonth(), d.value());
         }
-        this.lastValue = this.data.get(this.to);
+        this.lastValue = this.getIndex(this.to);
     }
 
     @Override
     public BigDecimal getIndex(YearMonth ym) {
-        return this.data.getOrDefault(ym, this.lastValue);
+        return this.getIndex(MonthIndex.of(ym));
+    }
 
+    @Override
+    public BigDecimal getIndex(int month) {
+        final int i = month - this.base;
+        final var value = i >= 0 && i < this.values.length
+                ? this.values[i]
+                : this.outside.get(month);
+        return value == null
+                ? this.lastValue
+                : value;
     }
 
     @Override
@@ -64,9 +81,13 @@ public class JSONIndexSeries extends IndexSeriesSupport {
     }
 
     public void put(YearMonth ym, BigDecimal value) {
-
-        this.data.put(ym, value);
-
+        final int month = MonthIndex.of(ym);
+        final int i = month - this.base;
+        if (i >= 0 && i < this.values.length) {
+            this.values[i] = value;
+        } else {
+            this.outside.put(month, value);
+        }
     }
 
 }
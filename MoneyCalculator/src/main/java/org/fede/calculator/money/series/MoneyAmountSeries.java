@@ -36,14 +36,38 @@ public interface MoneyAmountSeries extends Series {
 
     MoneyAmount getAmount(YearMonth moment);
 
+    /**
+     * @param month a {@link MonthIndex}.
+     * @return
+     */
+    default MoneyAmount getAmount(int month) {
+        return this.getAmount(MonthIndex.yearMonth(month));
+    }
+
     MoneyAmount getAmountOrElseZero(YearMonth moment);
 
+    /**
+     * @param month a {@link MonthIndex}.
+     * @return
+     */
+    default MoneyAmount getAmountOrElseZero(int month) {
+        return this.getAmountOrElseZero(MonthIndex.yearMonth(month));
+    }
+
     default void putAmount(int year, int month, MoneyAmount amount) {
         this.putAmount(YearMonth.of(year, month), amount);
     }
 
     void putAmount(YearMonth ym, MoneyAmount amount);
 
+    /**
+     * @param month a {@link MonthIndex}.
+     * @param amount
+     */
+    default void putAmount(int month, MoneyAmount amount) {
+        this.putAmount(MonthIndex.yearMonth(month), amount);
+    }
+
     Currency getCurrency();
 
     void forEach(BiConsumer<YearMonth, MoneyAmount> consumer);
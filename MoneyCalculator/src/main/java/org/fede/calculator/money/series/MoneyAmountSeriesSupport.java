@@ -43,7 +43,7 @@ public abstract class MoneyAmountSeriesSupport extends SeriesSupport implements
 
     @Override
     public final MoneyAmount getAmount(LocalDate day) {
-        return this.getAmount(YearMonth.from(day));
+        return this.getAmount(MonthIndex.of(day));
     }
 
     @Override
@@ -95,6 +95,17 @@ public abstract class MoneyAmountSeriesSupport extends SeriesSupport implements
 
     protected abstract MoneyAmount getAmountOrNull(YearMonth ym);
 
+    /**
+     * Implementations indexed by month should override this to avoid
+     * creating a YearMonth.
+     *
+     * @param month a {@link MonthIndex}.
+     * @return
+     */
+    protected MoneyAmount getAmountOrNull(int month) {
+        return this.getAmountOrNull(MonthIndex.yearMonth(month));
+    }
+
     @Override
     public final boolean equals(Object obj) {
         if (!(obj instanceof MoneyAmountSeries)) {
@@ -108,12 +119,11 @@ public abstract class MoneyAmountSeriesSupport extends SeriesSupport implements
             return false;
         }
 
-        var current = this.getFrom();
-        while (current.compareTo(this.getTo()) <= 0) {
-            if (!Objects.equals(this.getAmount(current), other.getAmount(current))) {
+        final int to = this.toIndex();
+        for (int month = this.fromIndex(); month <= to; month++) {
+            if (!Objects.equals(this.getAmount(month), other.getAmount(month))) {
                 return false;
             }
-            current = current.plusMonths(1);
         }
         return true;
     }
@@ -121,11 +131,10 @@ public abstract class MoneyAmountSeriesSupport extends SeriesSupport implements
     @Override
     public final int hashCode() {
 
-        var current = this.getFrom();
+        final int to = this.toIndex();
         int valueHash = 13;
-        while (current.compareTo(this.getTo()) <= 0) {
-            valueHash += 37 * Objects.hash(this.getAmount(current), current);
-            current = current.plusMonths(1);
+        for (int month = this.fromIndex(); month <= to; month++) {
+            valueHash += 37 * (31 * Objects.hashCode(this.getAmount(month)) + month);
         }
 
         return 37 * Objects.hash(this.getCurrency(), this.getFrom(), this.getTo()) + valueHash;
@@ -140,6 +149,15 @@ public abstract class MoneyAmountSeriesSupport extends SeriesSupport implements
         return answer;
     }
 
+    @Override
+    public final MoneyAmount getAmount(int month) {
+        MoneyAmount answer = this.getAmountOrNull(month);
+        if (answer == null) {
+            throw new NoSeriesDataFoundException(MessageFormat.format("No data specified for year {0} and month {1}.", MonthIndex.year(month), MonthIndex.yearMonth(month).getMonth()));
+        }
+        return answer;
+    }
+
     @Override
     public final MoneyAmount getAmountOrElseZero(YearMonth moment) {
         MoneyAmount amount = this.getAmountOrNull(moment);
@@ -149,6 +167,15 @@ public abstract class MoneyAmountSeriesSupport extends SeriesSupport implements
                 : MoneyAmount.zero(this.currency);
     }
 
+    @Override
+    public final MoneyAmount getAmountOrElseZero(int month) {
+        MoneyAmount amount = this.getAmountOrNull(month);
+
+        return amount != null
+                ? amount
+                : MoneyAmount.zero(this.currency);
+    }
+
     protected abstract boolean hasValue(YearMonth moment);
 
     @Override
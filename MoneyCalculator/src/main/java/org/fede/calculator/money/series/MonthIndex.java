@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Months as plain ints, year * 12 + month - 1, so consecutive months are
+ * consecutive ints. Loops over months can use an int counter and series can
+ * be looked up without allocating a {@link YearMonth} for every step.
+ *
+ * @author fede
+ */
+public final class MonthIndex {
+
+    private MonthIndex() {
+    }
+
+    public static int of(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    public static int of(YearMonth ym) {
+        return of(ym.getYear(), ym.getMonthValue());
+    }
+
+    public static int of(LocalDate day) {
+        return of(day.getYear(), day.getMonthValue());
+    }
+
+    public static int year(int month) {
+        return Math.floorDiv(month, 12);
+    }
+
+    /**
+     * @param month
+     * @return from 1 to 12.
+     */
+    public static int monthValue(int month) {
+        return Math.floorMod(month, 12) + 1;
+    }
+
+    public static YearMonth yearMonth(int month) {
+        return YearMonth.of(year(month), monthValue(month));
+    }
+
+    public static LocalDate atEndOfMonth(int month) {
+        return yearMonth(month).atEndOfMonth();
+    }
+}
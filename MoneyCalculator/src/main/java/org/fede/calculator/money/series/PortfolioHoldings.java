@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.ForeignExchanges;
+import org.fede.calculator.money.Inflation;
+import org.fede.calculator.money.MathConstants;
+import org.fede.calculator.money.MoneyAmount;
+
+/**
+ * Month end holdings of a list of investments, by asset currency. The in and
+ * out events are sorted once and swept forward, so the holdings of every
+ * month cost O(events + months × currencies) instead of filtering every
+ * investment with {@link Investment#isCurrent} month by month. An investment
+ * is held at the end of a month when it was bought on or before that day and
+ * not sold yet, exactly like isCurrent.
+ *
+ * Instances are immutable and do not see later changes to the list they were
+ * built from. Owners compute them once and keep them.
+ *
+ * @author fede
+ */
+public final class PortfolioHoldings {
+
+    private final List<Event> events;
+    private final YearMonth from;
+    private final YearMonth to;
+    // month indexes of from and to
+    private final int first;
+    private final int last;
+    private final Map<Currency, BigDecimal[]> holdings;
+
+    private record Event(YearMonth ym, Investment investment, boolean in) {
+
+    }
+
+    private PortfolioHoldings(Collection<Investment> investments) {
+
+        final List<Event> list = new ArrayList<>(investments.size() * 2);
+        for (var i : investments) {
+            list.add(new Event(YearMonth.from(i.getIn().getDate()), i, true));
+            if (i.getOut() != null) {
+                list.add(new Event(YearMonth.from(i.getOut().getDate()), i, false));
+            }
+        }
+        // stable sort keeps the list order for events of the same month
+        list.sort(Comparator.comparing(Event::ym));
+        this.events = list;
+
+        this.holdings = new EnumMap<>(Currency.class);
+
+        if (list.isEmpty()) {
+            this.from = null;
+            this.to = null;
+            this.first = 0;
+            this.last = -1;
+            return;
+        }
+
+        this.from = list.getFirst().ym();
+        this.to = list.getLast().ym();
+        this.first = MonthIndex.of(this.from);
+        this.last = MonthIndex.of(this.to);
+
+        final int months = this.last - this.first + 1;
+
+        for (var e : list) {
+            final var amount = e.investment().getMoneyAmount();
+            final var deltas = this.holdings.computeIfAbsent(amount.currency(), c -> new BigDecimal[months]);
+            final int offset = MonthIndex.of(e.ym()) - this.first;
+            final var delta = e.in()
+                    ? amount.amount()
+                    : amount.amount().negate();
+            deltas[offset] = deltas[offset] == null
+                    ? delta
+                    : deltas[offset].add(delta, MathConstants.C);
+        }
+
+        for (var values : this.holdings.values()) {
+            var acc = BigDecimal.ZERO;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    acc = acc.add(values[i], MathConstants.C);
+                }
+                values[i] = acc;
+            }
+        }
+    }
+
+    /**
+     * The holdings of the given investments.
+     *
+     * @param investments
+     * @return
+     */
+    public static PortfolioHoldings of(List<Investment> investments) {
+        return new PortfolioHoldings(investments);
+    }
+
+    public boolean isEmpty() {
+        return this.from == null;
+    }
+
+    /**
+     * @return the month of the first buy.
+     */
+    public YearMonth getFrom() {
+        return this.from;
+    }
+
+    /**
+     * @return the month of the last buy or sell. Holdings do not change after
+     * it.
+     */
+    public YearMonth getLastEvent() {
+        return this.to;
+    }
+
+    public Set<Currency> getCurrencies() {
+        return Collections.unmodifiableSet(this.holdings.keySet());
+    }
+
+    /**
+     * @param currency an asset currency.
+     * @param ym
+     * @return the total amount held at the end of the month.
+     */
+    public MoneyAmount getAmount(Currency currency, YearMonth ym) {
+        return this.getAmount(currency, MonthIndex.of(ym));
+    }
+
+    /**
+     * @param currency an asset currency.
+     * @param month a {@link MonthIndex}.
+     * @return the total amount held at the end of the month.
+     */
+    public MoneyAmount getAmount(Currency currency, int month) {
+        final var values = this.holdings.get(currency);
+        if (values == null || month < this.first) {
+            return MoneyAmount.zero(currency);
+        }
+        final var value = month > this.last
+                ? values[values.length - 1]
+                : values[month - this.first];
+        return value.signum() == 0
+                ? MoneyAmount.zero(currency)
+                : new MoneyAmount(value, currency);
+    }
+
+    /**
+     * Values the holdings of the month in a single currency. Every asset
+     * currency is exchanged once, no matter how many positions hold it.
+     *
+     * @param targetCurrency
+     * @param ym
+     * @param nominal false to adjust by USD inflation up to its last month.
+     * @return
+     */
+    public MoneyAmount value(Currency targetCurrency, YearMonth ym, boolean nominal) {
+        return this.value(targetCurrency, MonthIndex.of(ym), nominal);
+    }
+
+    /**
+     * @param targetCurrency
+     * @param month a {@link MonthIndex}.
+     * @param nominal false to adjust by USD inflation up to its last month.
+     * @return
+     */
+    public MoneyAmount value(Currency targetCurrency, int month, boolean nominal) {
+        var total = MoneyAmount.zero(targetCurrency);
+        for (var e : this.holdings.entrySet()) {
+            final var amount = this.getAmount(e.getKey(), month);
+            if (!amount.isZero()) {
+                total = total.add(ForeignExchanges.getForeignExchange(e.getKey(), targetCurrency).exchange(amount, targetCurrency, month));
+            }
+        }
+        return nominal
+                ? total
+                : Inflation.usdInflation().adjust(total, month, Inflation.usdInflation().toIndex());
+    }
+
+    /**
+     * Sweeps the months in order handing out the positions open at the end
+     * of each one. The collection is updated in place between calls, so
+     * consumers must not keep it.
+     *
+     * @param start
+     * @param end
+     * @param consumer
+     */
+    public void forEachMonth(YearMonth start, YearMonth end, BiConsumer<YearMonth, Collection<Investment>> consumer) {
+        final Set<Investment> open = new LinkedHashSet<>();
+        final var view = Collections.unmodifiableSet(open);
+        int next = 0;
+        for (var ym = start; !ym.isAfter(end); ym = ym.plusMonths(1)) {
+            while (next < this.events.size() && !this.events.get(next).ym().isAfter(ym)) {
+                final var e = this.events.get(next++);
+                if (e.in()) {
+                    open.add(e.investment());
+                } else {
+                    open.remove(e.investment());
+                }
+            }
+            consumer.accept(ym, view);
+        }
+    }
+
+}
@@ -31,4 +31,18 @@ public interface Series {
     YearMonth minimumTo(Series other);
 
     YearMonth maximumFrom(Series other);
+
+    /**
+     * @return the {@link MonthIndex} of the first month.
+     */
+    default int fromIndex() {
+        return MonthIndex.of(this.getFrom());
+    }
+
+    /**
+     * @return the {@link MonthIndex} of the last month.
+     */
+    default int toIndex() {
+        return MonthIndex.of(this.getTo());
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ *
+ * @author fede
+ */
+@Name("org.fede.SeriesRead")
+@Label("Series Read")
+@Category({"MoneyCalculator", "I/O"})
+@Description("A data file read and parsed, or its snapshot read.")
+final class SeriesReadEvent extends Event {
+
+    @Label("File")
+    String file;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Parse Time")
+    @Timespan
+    long parseTime;
+
+    @Label("Snapshot")
+    boolean snapshot;
+
+    static void commit(String file, long bytes, long parseNanos, boolean snapshot) {
+        final var event = new SeriesReadEvent();
+        event.file = file;
+        event.bytes = bytes;
+        event.parseTime = parseNanos;
+        event.snapshot = snapshot;
+        event.commit();
+    }
+}
@@ -21,17 +21,24 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import org.fede.calculator.money.MoneyAmount;
 import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.FlightRecording;
 import static org.fede.calculator.money.Currency.USD;
+import org.fede.util.SingleFlightCache;
 import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.DeserializationFeature;
 import tools.jackson.databind.ObjectMapper;
@@ -43,47 +50,86 @@ import tools.jackson.databind.json.JsonMapper;
  */
 public class SeriesReader {
 
-    public static final String APP_RESOURCES = System.getProperty("user.home") + File.separator + "Documents" + File.separator + "app-resources" + File.separator;
+    /**
+     * Documents/app-resources under the user home, unless the appResources
+     * system property names another directory.
+     */
+    public static final String APP_RESOURCES = appResources();
 
     public static final String SECRETS = APP_RESOURCES + "ppi-secrets.properties";
 
     private static final String ENV = APP_RESOURCES + "environment.properties";
 
-    private static final Map<String, BigDecimal> PROPERTY_CACHE = HashMap.newHashMap(32);
-    private static final Map<String, Boolean> BOOL_PROPERTY_CACHE = HashMap.newHashMap(32);
+    private static final Map<String, BigDecimal> PROPERTY_CACHE = new ConcurrentHashMap<>(32);
+    private static final Map<String, Boolean> BOOL_PROPERTY_CACHE = new ConcurrentHashMap<>(32);
 
-    private static final Map<String, Integer> INT_PROPERTY_CACHE = HashMap.newHashMap(32);
+    private static final Map<String, Integer> INT_PROPERTY_CACHE = new ConcurrentHashMap<>(32);
 
     private static final ObjectMapper OM = JsonMapper.builder()
             .disable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
             .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
             .build();
 
-    private static final Map<String, JSONIndexSeries> CACHE = HashMap.newHashMap(128);
+    private static final SingleFlightCache<String, JSONIndexSeries> CACHE = new SingleFlightCache<>(128, SeriesReader::createIndexSeries);
+
+    /**
+     * The index series used by
+     * {@link InterpolationStrategy#USD_INFLATION_INTERPOLATION}.
+     */
+    static final String USD_INFLATION_SERIES = "index/bls.json";
 
     public static final TypeReference<List<JSONDataPoint>> INDEX_SERIES_TYPE_REFERENCE = new TypeReference<List<JSONDataPoint>>() {
     };
 
-    private static final Map<String, MoneyAmountSeries> MACACHE = HashMap.newHashMap(128);
+    private static final SingleFlightCache<String, MoneyAmountSeries> MACACHE = new SingleFlightCache<>(128, SeriesReader::read);
+
+    private static final List<Consumer<String>> INVALIDATION_LISTENERS = new CopyOnWriteArrayList<>();
 
-    private static Properties ENVIRONMENT = null;
+    private static volatile Properties ENVIRONMENT = null;
 
     private static JSONIndexSeries createIndexSeries(String name) {
-        return new JSONIndexSeries(read(name, INDEX_SERIES_TYPE_REFERENCE));
+        final long start = System.nanoTime();
+        return new JSONIndexSeries(SeriesSnapshot.readIndexSeries(name)
+                .map(dataPoints -> {
+                    readEvent(name, start, true);
+                    return dataPoints;
+                })
+                .orElseGet(() -> {
+                    final var stamps = SeriesSnapshot.stamps(List.of(name));
+                    final var dataPoints = read(name, INDEX_SERIES_TYPE_REFERENCE);
+                    stamps.ifPresent(s -> SeriesSnapshot.write(name, dataPoints, s));
+                    return dataPoints;
+                }));
+    }
+
+    private static String appResources() {
+        final var dir = System.getProperty(
+                "appResources",
+                System.getProperty("user.home") + File.separator + "Documents" + File.separator + "app-resources");
+        return dir.endsWith(File.separator)
+                ? dir
+                : dir + File.separator;
     }
 
     public static Properties readEnvironment() {
-        if (ENVIRONMENT == null) {
-            try (var is = new BufferedInputStream(new FileInputStream(SeriesReader.ENV), 16 * 1024)) {
-                ENVIRONMENT = new Properties();
-                ENVIRONMENT.load(is);
-            } catch (IOException ex) {
-                System.err.println("Error reading env. " + ex.getMessage());
-                ex.printStackTrace(System.err);
-                throw new RuntimeException(ex);
+        var env = ENVIRONMENT;
+        if (env == null) {
+            synchronized (SeriesReader.class) {
+                env = ENVIRONMENT;
+                if (env == null) {
+                    try (var is = new BufferedInputStream(new FileInputStream(SeriesReader.ENV), 16 * 1024)) {
+                        env = new Properties();
+                        env.load(is);
+                        ENVIRONMENT = env;
+                    } catch (IOException ex) {
+                        System.err.println("Error reading env. " + ex.getMessage());
+                        ex.printStackTrace(System.err);
+                        throw new RuntimeException(ex);
+                    }
+                }
             }
         }
-        return ENVIRONMENT;
+        return env;
     }
 
     public static boolean readBoolean(String key) {
@@ -117,12 +163,15 @@ public class SeriesReader {
     }
 
     public static IndexSeries readIndexSeries(String name) {
-        return CACHE.computeIfAbsent(name, SeriesReader::createIndexSeries);
+        return CACHE.get(name);
     }
 
     public static <T> T read(String name, TypeReference<T> typeReference) {
+        final long start = System.nanoTime();
         try (InputStream in = new BufferedInputStream(new FileInputStream(APP_RESOURCES + name), 16 * 1024);) {
-            return OM.readValue(in, typeReference);
+            final T answer = OM.readValue(in, typeReference);
+            readEvent(name, start, false);
+            return answer;
         } catch (IOException ex) {
             System.err.println("Unexpected error. " + ex.getMessage());
             ex.printStackTrace(System.err);
@@ -131,7 +180,82 @@ public class SeriesReader {
     }
 
     public static MoneyAmountSeries readSeries(String name) {
-        return MACACHE.computeIfAbsent(name, (seriesName) -> read(seriesName));
+        return MACACHE.get(name);
+    }
+
+    /**
+     * Forgets the cached series read from the given file and notifies every
+     * invalidation listener.
+     *
+     * @param name the file name relative to {@link #APP_RESOURCES}.
+     */
+    public static void invalidate(String name) {
+        if (ENV.equals(APP_RESOURCES + name)) {
+            synchronized (SeriesReader.class) {
+                ENVIRONMENT = null;
+                PROPERTY_CACHE.clear();
+                BOOL_PROPERTY_CACHE.clear();
+                INT_PROPERTY_CACHE.clear();
+            }
+        }
+        CACHE.invalidate(name::equals);
+        if (USD_INFLATION_SERIES.equals(name)) {
+            // money series may be interpolated with inflation
+            MACACHE.invalidateAll();
+        } else {
+            MACACHE.invalidate(name::equals);
+        }
+        INVALIDATION_LISTENERS.forEach(listener -> listener.accept(name));
+    }
+
+    /**
+     * Forgets every snapshot and invalidates every file under
+     * {@link #APP_RESOURCES}, for when it is not known which ones changed.
+     */
+    public static void invalidateAll() {
+        SeriesSnapshot.deleteAll();
+        final var root = Path.of(APP_RESOURCES);
+        try (var files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+                    .map(path -> root.relativize(path).toString().replace(File.separator, "/"))
+                    .filter(name -> !name.startsWith("."))
+                    .filter(name -> name.endsWith(".json") || name.endsWith(".properties"))
+                    .forEach(SeriesReader::invalidate);
+        } catch (IOException | UncheckedIOException ex) {
+            System.err.println("Could not list " + APP_RESOURCES + ". " + ex.getMessage());
+        }
+        // files that were deleted are not listed
+        CACHE.invalidateAll();
+        MACACHE.invalidateAll();
+    }
+
+    /**
+     * Invalidates the file and reads it again if it was loaded.
+     *
+     * @param name the file name relative to {@link #APP_RESOURCES}.
+     */
+    public static void reload(String name) {
+        final boolean index = CACHE.contains(name);
+        final boolean series = MACACHE.contains(name);
+        invalidate(name);
+        if (index) {
+            readIndexSeries(name);
+        }
+        if (series) {
+            readSeries(name);
+        }
+    }
+
+    public static void addInvalidationListener(Consumer<String> listener) {
+        INVALIDATION_LISTENERS.add(listener);
+    }
+
+    public static SingleFlightCache.Stats indexSeriesCacheStats() {
+        return CACHE.stats();
+    }
+
+    public static SingleFlightCache.Stats seriesCacheStats() {
+        return MACACHE.stats();
     }
 
     private static MoneyAmount moneyAmount(BigDecimal value, Currency currency) {
@@ -142,13 +266,38 @@ public class SeriesReader {
     }
 
     private static MoneyAmountSeries read(String name) {
+        final long start = System.nanoTime();
+        return SeriesSnapshot.readMoneyAmountSeries(name)
+                .map(series -> {
+                    readEvent(name, start, true);
+                    return series;
+                })
+                .orElseGet(() -> parse(name));
+    }
 
+    private static void readEvent(String name, long start, boolean snapshot) {
+        if (FlightRecording.enabled()) {
+            SeriesReadEvent.commit(
+                    name,
+                    new File(APP_RESOURCES + name).length(),
+                    System.nanoTime() - start,
+                    snapshot);
+        }
+    }
+
+    private static MoneyAmountSeries parse(String name) {
+
+        final long start = System.nanoTime();
+        // stamped before reading so a change while parsing makes the snapshot stale
+        final var stamps = SeriesSnapshot.stamps(List.of(name, USD_INFLATION_SERIES));
         try (InputStream is = new BufferedInputStream(new FileInputStream(APP_RESOURCES + name), 16 * 1024)) {
 
             JSONSeries series = OM.readValue(is, JSONSeries.class);
 
             final Currency currency = series.currency();
-            final var maSeries = new SortedMapMoneyAmountSeries(currency, name);
+            final YearMonth from = series.data().stream().map(JSONDataPoint::yearMonth).min(YearMonth::compareTo).get();
+            final YearMonth to = series.data().stream().map(JSONDataPoint::yearMonth).max(YearMonth::compareTo).get();
+            final var maSeries = new ArrayMoneyAmountSeries(currency, name, from, to);
 
             for (JSONDataPoint dp : series.data()) {
                 maSeries.putAmount(dp.yearMonth(), moneyAmount(dp.value(), currency));
@@ -166,6 +315,15 @@ public class SeriesReader {
                 }
                 ym = next;
             }
+
+            // the parse time does not include writing the snapshot
+            readEvent(name, start, false);
+
+            stamps.map(s -> strategy == InterpolationStrategy.USD_INFLATION_INTERPOLATION
+                    ? s
+                    : s.subList(0, 1))
+                    .ifPresent(s -> SeriesSnapshot.write(name, maSeries, s));
+
             return maSeries;
 
         } catch (IOException ex) {
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.MoneyAmount;
+
+/**
+ * Binary snapshots of the series under {@link SeriesReader#APP_RESOURCES}.
+ * Each JSON file gets a snapshot file with its already interpolated values
+ * stored column by column: month indexes, BigDecimal scales and unscaled
+ * values. The header lists the files the values were computed from, with
+ * their modification time and size, so a snapshot is only used while all of
+ * them are unchanged. Callers take the {@link #stamps(List) stamps} before
+ * reading the sources, and a snapshot whose sources changed while it was being
+ * computed is dropped after writing it. Set the seriesSnapshots system property to false to
+ * always parse the JSON files.
+ *
+ * @author fede
+ */
+final class SeriesSnapshot {
+
+    private static final int MAGIC = 0x4D435331; // MCS1
+    private static final byte MONEY_AMOUNT_SERIES = 0;
+    private static final byte INDEX_SERIES = 1;
+
+    private static final String SNAPSHOT_DIR = SeriesReader.APP_RESOURCES + ".snapshot" + File.separator;
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("seriesSnapshots", "true"));
+
+    private SeriesSnapshot() {
+    }
+
+    private record Point(int month, BigDecimal value) {
+
+    }
+
+    private record Snapshot(byte kind, String currency, List<Point> points) {
+
+    }
+
+    /**
+     * The modification time and size of a source file.
+     */
+    record Stamp(String source, long lastModified, long size) {
+
+    }
+
+    private static Path snapshotPath(String name) {
+        return Path.of(SNAPSHOT_DIR + name + ".bin");
+    }
+
+    static Optional<MoneyAmountSeries> readMoneyAmountSeries(String name) {
+        return read(name, MONEY_AMOUNT_SERIES)
+                .map(snapshot -> {
+                    final var currency = Currency.valueOf(snapshot.currency());
+                    final var points = snapshot.points();
+                    final var answer = new ArrayMoneyAmountSeries(
+                            currency,
+                            name,
+                            MonthIndex.yearMonth(points.getFirst().month()),
+                            MonthIndex.yearMonth(points.getLast().month()));
+                    for (var p : points) {
+                        answer.putAmount(
+                                MonthIndex.yearMonth(p.month()),
+                                p.value().signum() == 0
+                                ? MoneyAmount.zero(currency)
+                                : new MoneyAmount(p.value(), currency));
+                    }
+                    return answer;
+                });
+    }
+
+    static Optional<List<JSONDataPoint>> readIndexSeries(String name) {
+        return read(name, INDEX_SERIES)
+                .map(snapshot -> snapshot.points()
+                .stream()
+                .map(p -> new JSONDataPoint(MonthIndex.yearMonth(p.month()), p.value()))
+                .toList());
+    }
+
+    /**
+     * Stamps the given files.
+     *
+     * @param sources file names relative to {@link SeriesReader#APP_RESOURCES}.
+     * @return the stamps, or empty if snapshots are disabled or a file can not
+     * be stamped.
+     */
+    static Optional<List<Stamp>> stamps(List<String> sources) {
+        if (!ENABLED) {
+            return Optional.empty();
+        }
+        try {
+            final List<Stamp> answer = new ArrayList<>(sources.size());
+            for (var source : sources) {
+                final var path = Path.of(SeriesReader.APP_RESOURCES + source);
+                answer.add(new Stamp(source, Files.getLastModifiedTime(path).toMillis(), Files.size(path)));
+            }
+            return Optional.of(answer);
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    static void write(String name, MoneyAmountSeries series, List<Stamp> sources) {
+        write(name,
+                new Snapshot(
+                        MONEY_AMOUNT_SERIES,
+                        series.getCurrency().name(),
+                        series.items()
+                                .map(item -> new Point(MonthIndex.of(item.ym()), item.amount().amount()))
+                                .toList()),
+                sources);
+    }
+
+    static void write(String name, List<JSONDataPoint> dataPoints, List<Stamp> sources) {
+        write(name,
+                new Snapshot(
+                        INDEX_SERIES,
+                        "",
+                        dataPoints.stream()
+                                .map(dp -> new Point(MonthIndex.of(dp.yearMonth()), dp.value()))
+                                .toList()),
+                sources);
+    }
+
+    private static Optional<Snapshot> read(String name, byte kind) {
+        if (!ENABLED) {
+            return Optional.empty();
+        }
+        final var path = snapshotPath(name);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.get() != kind) {
+                return Optional.empty();
+            }
+
+            final int sourceCount = buffer.getInt();
+            for (int i = 0; i < sourceCount; i++) {
+                final var source = Path.of(SeriesReader.APP_RESOURCES + string(buffer));
+                final long lastModified = buffer.getLong();
+                final long size = buffer.getLong();
+                if (!Files.isRegularFile(source)
+                        || Files.getLastModifiedTime(source).toMillis() != lastModified
+                        || Files.size(source) != size) {
+                    return Optional.empty();
+                }
+            }
+
+            final var currency = string(buffer);
+            final int count = buffer.getInt();
+            if (count == 0) {
+                return Optional.empty();
+            }
+
+            final var months = new int[count];
+            buffer.asIntBuffer().get(months);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+
+            final var scales = new int[count];
+            buffer.asIntBuffer().get(scales);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+
+            final var unscaled = new long[count];
+            buffer.asLongBuffer().get(unscaled);
+
+            final List<Point> points = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                points.add(new Point(months[i], BigDecimal.valueOf(unscaled[i], scales[i])));
+            }
+            return Optional.of(new Snapshot(kind, currency, points));
+
+        } catch (IOException | RuntimeException ex) {
+            // a broken snapshot is just a stale one
+            return Optional.empty();
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        final var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void write(String name, Snapshot snapshot, List<Stamp> sources) {
+        if (!ENABLED || snapshot.points().isEmpty()) {
+            return;
+        }
+        // values that do not fit in a long are rare enough to always read the JSON
+        for (var p : snapshot.points()) {
+            if (p.value().unscaledValue().bitLength() >= Long.SIZE) {
+                return;
+            }
+        }
+        final var path = snapshotPath(name);
+        Path tmp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 16 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeByte(snapshot.kind());
+
+                out.writeInt(sources.size());
+                for (var source : sources) {
+                    writeString(out, source.source());
+                    out.writeLong(source.lastModified());
+                    out.writeLong(source.size());
+                }
+
+                writeString(out, snapshot.currency());
+
+                final var points = snapshot.points();
+                out.writeInt(points.size());
+                for (var p : points) {
+                    out.writeInt(p.month());
+                }
+                for (var p : points) {
+                    out.writeInt(p.value().scale());
+                }
+                for (var p : points) {
+                    out.writeLong(p.value().unscaledValue().longValue());
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            if (!stamps(sources.stream().map(Stamp::source).toList()).filter(sources::equals).isPresent()) {
+                // a source changed while the values were computed
+                deleteQuietly(path);
+            }
+        } catch (IOException ex) {
+            System.err.println("Could not write snapshot for " + name + ". " + ex.getMessage());
+            deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Deletes every snapshot.
+     */
+    static void deleteAll() {
+        final var dir = Path.of(SNAPSHOT_DIR);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (var files = Files.walk(dir)) {
+            files.filter(Files::isRegularFile).forEach(SeriesSnapshot::deleteQuietly);
+        } catch (IOException | UncheckedIOException ex) {
+            System.err.println("Could not delete snapshots. " + ex.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                // nothing else to do
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches {@link SeriesReader#APP_RESOURCES} and its sub directories for
+ * changed files. Each changed file is invalidated, which also reaches the
+ * derived values listening to {@link SeriesReader}, and the ones that were
+ * loaded are parsed again in the background so a long running session stays
+ * warm without a restart. When events were lost the changed files are not
+ * known, so every file and snapshot is invalidated.
+ *
+ * @author fede
+ */
+public final class SeriesWatcher implements AutoCloseable {
+
+    // editors write a file in several steps, wait for them to settle
+    private static final long SETTLE_MILLIS = 200L;
+
+    private final Path root;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>(16);
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(r -> daemon(r, "series-reloader"));
+    private final Thread thread;
+
+    private SeriesWatcher(Path root) throws IOException {
+        this.root = root;
+        this.watchService = root.getFileSystem().newWatchService();
+        try (Stream<Path> dirs = Files.walk(root)) {
+            dirs.filter(Files::isDirectory)
+                    .filter(dir -> !this.ignored(dir))
+                    .forEach(this::register);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        this.thread = daemon(this::watch, "series-watcher");
+    }
+
+    /**
+     * Starts watching the app resources.
+     *
+     * @return the watcher, close it to stop, or null if the app resources can
+     * not be watched.
+     */
+    public static SeriesWatcher start() {
+        try {
+            final var answer = new SeriesWatcher(Path.of(SeriesReader.APP_RESOURCES));
+            answer.thread.start();
+            return answer;
+        } catch (IOException | UncheckedIOException ex) {
+            System.err.println("Not watching " + SeriesReader.APP_RESOURCES + " for changes. " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        final var answer = new Thread(runnable, name);
+        answer.setDaemon(true);
+        return answer;
+    }
+
+    private boolean ignored(Path path) {
+        // the snapshots are written by SeriesReader itself
+        return this.root.relativize(path).toString().startsWith(".");
+    }
+
+    private void register(Path dir) {
+        try {
+            this.directories.put(
+                    dir.register(
+                            this.watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY,
+                            StandardWatchEventKinds.ENTRY_DELETE),
+                    dir);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                final Set<String> changed = new LinkedHashSet<>();
+                boolean overflow = this.collect(this.watchService.take(), changed);
+
+                WatchKey key;
+                while ((key = this.watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= this.collect(key, changed);
+                }
+
+                if (overflow) {
+                    this.reloader.execute(SeriesWatcher::invalidateAll);
+                } else if (!changed.isEmpty()) {
+                    this.reloader.execute(() -> changed.forEach(SeriesWatcher::reload));
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // closed
+        }
+    }
+
+    /**
+     * @return true if events were lost.
+     */
+    private boolean collect(WatchKey key, Set<String> changed) {
+        boolean overflow = false;
+        final var dir = this.directories.get(key);
+        for (var event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+            final var path = dir.resolve((Path) event.context());
+            if (this.ignored(path)) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    this.register(path);
+                } catch (UncheckedIOException ex) {
+                    // removed or unreadable, its changes are lost like on overflow
+                    System.err.println("Not watching " + path + " for changes. " + ex.getCause().getMessage());
+                    overflow = true;
+                }
+                continue;
+            }
+            final var name = this.root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+            if (name.endsWith(".json") || name.endsWith(".properties")) {
+                changed.add(name);
+            }
+        }
+        if (!key.reset()) {
+            this.directories.remove(key);
+        }
+        return overflow;
+    }
+
+    private static void invalidateAll() {
+        try {
+            SeriesReader.invalidateAll();
+        } catch (RuntimeException ex) {
+            System.err.println("Could not invalidate the series. " + ex.getMessage());
+        }
+    }
+
+    private static void reload(String name) {
+        try {
+            SeriesReader.reload(name);
+        } catch (RuntimeException ex) {
+            // probably a file being edited, it will be read again on next use
+            System.err.println("Could not reload " + name + ". " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.thread.interrupt();
+        this.reloader.shutdownNow();
+        this.watchService.close();
+    }
+
+}
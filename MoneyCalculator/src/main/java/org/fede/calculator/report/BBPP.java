@@ -440,14 +440,7 @@ public class BBPP {
 
         final var ym = YearMonth.of(yc.year, 12).atEndOfMonth();
 
-        final var totalAmount = this.series.getInvestments()
-                .stream()
-                .filter(Investment::isETF)
-                .filter(inv -> inv.isCurrent(ym))
-                .filter(inv -> inv.getCurrency() == yc.currency)
-                .map(Investment::getInvestment)
-                .map(InvestmentAsset::getAmount)
-                .reduce(ZERO, BigDecimal::add);
+        final var totalAmount = this.series.lotLedger().quantity(yc.currency, ym);
 
         return new BBPPStatus(yc, includedAmount, totalAmount);
     }
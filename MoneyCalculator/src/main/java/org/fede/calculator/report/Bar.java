@@ -35,9 +35,11 @@ import org.fede.calculator.money.MoneyAmount;
 import org.fede.calculator.money.series.MoneyAmountSeries;
 import java.time.YearMonth;
 import org.fede.calculator.money.Inflation;
-import static org.fede.calculator.money.MathConstants.C;
+import org.fede.calculator.money.Precision;
 
 /**
+ * Bars only need whole characters, so widths and percents are computed in
+ * the {@link Precision} analytics tier.
  *
  * @author fede
  */
@@ -76,7 +78,7 @@ public class Bar {
         final var relativeAmounts = amounts
                 .stream()
                 .filter(p -> !p.amount().isZero())
-                .map(p -> new AmountAndColor(new MoneyAmount(p.amount().amount().divide(total, C).movePointRight(2).setScale(0, RoundingMode.HALF_EVEN), p.amount().currency()), p.color()))
+                .map(p -> new AmountAndColor(new MoneyAmount(this.percent(p.amount().amount(), total).setScale(0, RoundingMode.HALF_EVEN), p.amount().currency()), p.color()))
                 .collect(Collectors.toList());
 
         final var relativeTotal = relativeAmounts
@@ -90,10 +92,10 @@ public class Bar {
 
             final var firstAmount = first.amount().amount();
 
-            var difference = relativeTotal.subtract(HUNDRED, C).negate(C);
+            var difference = HUNDRED.subtract(relativeTotal);
 
             relativeAmounts.set(0,
-                    new AmountAndColor(new MoneyAmount(firstAmount.add(difference, C), first.amount().currency()), first.color()));
+                    new AmountAndColor(new MoneyAmount(firstAmount.add(difference), first.amount().currency()), first.color()));
 
         }
 
@@ -116,7 +118,7 @@ public class Bar {
     public String pctBar(BigDecimal value, BigDecimal total) {
         return Optional.of(total)
                 .filter(t -> t.signum() != 0)
-                .map(t -> pctBar(value.divide(t, C)))
+                .map(t -> pctBar(Precision.analytics("Bar.pctBar", mc -> value.divide(t, mc))))
                 .orElse("");
     }
 
@@ -150,9 +152,9 @@ public class Bar {
         final var maxLengh = 21;
         final var partLength = (maxLengh - 3) / 2;
 
-        final var steps = value.movePointRight(2)
+        final var steps = Precision.analytics("Bar.smallPctBar", mc -> value.movePointRight(2)
                 .abs()
-                .divide(BigDecimal.valueOf(5l), C)
+                .divide(BigDecimal.valueOf(5l), mc))
                 .intValue();
 
         final var bar = steps < maxLengh
@@ -178,10 +180,7 @@ public class Bar {
 
         final var valueStr = valueFormat.apply(value).trim();
 
-        final var end = value.abs()
-                .divide(BigDecimal.valueOf(scale), C)
-                .setScale(0, RoundingMode.HALF_UP)
-                .intValue();
+        final var end = this.width(value, scale);
 
         if (end > valueStr.length()) {
 
@@ -196,6 +195,12 @@ public class Bar {
         return Ansi.colorize(" ".repeat(end), new AnsiFormat(color));
     }
 
+    private int width(BigDecimal value, int scale) {
+        return Precision.analytics("Bar.width", mc -> value.abs().divide(BigDecimal.valueOf(scale), mc))
+                .setScale(0, RoundingMode.HALF_UP)
+                .intValue();
+    }
+
     private boolean isDarkColor(Attribute color) {
         var parts = color.toString().split(";");
         if (parts.length < 3) {
@@ -211,7 +216,7 @@ public class Bar {
                 : GREEN;
 
         return Ansi.colorize(
-                symbol.repeat(value.abs().divide(BigDecimal.valueOf(scale), C).setScale(0, RoundingMode.HALF_UP).intValue()),
+                symbol.repeat(this.width(value, scale)),
                 fmt);
     }
 
@@ -227,8 +232,8 @@ public class Bar {
         var bar2 = this.asPct(two, total);
         var bar3 = this.asPct(three, total);
 
-        if (bar1.add(bar2, C).add(bar3, C).compareTo(HUNDRED) != 0) {
-            bar1 = HUNDRED.subtract(bar2.add(bar3, C), C);
+        if (bar1.add(bar2).add(bar3).compareTo(HUNDRED) != 0) {
+            bar1 = HUNDRED.subtract(bar2.add(bar3));
         }
         return this.bar(ym, bar1, bar2, bar3, 1);
     }
@@ -251,12 +256,15 @@ public class Bar {
     }
 
     private BigDecimal asPct(MoneyAmount ma, MoneyAmount total) {
-        return ma.amount()
-                .divide(total.amount(), C)
-                .movePointRight(2)
+        return this.percent(ma.amount(), total.amount())
                 .setScale(0, RoundingMode.HALF_UP);
     }
 
+    private BigDecimal percent(BigDecimal value, BigDecimal total) {
+        return Precision.analytics("Bar.percent", mc -> value.divide(total, mc))
+                .movePointRight(2);
+    }
+
     public void evolution(String name, MoneyAmountSeries s, int scale) {
         final var limit = Inflation.usdInflation().getTo();
 
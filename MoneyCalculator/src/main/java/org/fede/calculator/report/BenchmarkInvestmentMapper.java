@@ -34,6 +34,7 @@ import org.fede.calculator.money.series.SeriesReader;
 import java.time.YearMonth;
 import static org.fede.calculator.money.MathConstants.C;
 import org.fede.calculator.money.series.InvestmentEvent;
+import org.fede.util.Lazy;
 import tools.jackson.core.type.TypeReference;
 
 /**
@@ -42,10 +43,27 @@ import tools.jackson.core.type.TypeReference;
  */
 public class BenchmarkInvestmentMapper implements Function<Investment, Investment> {
 
-    private static final Map<Currency, List<SeenPrice>> SP = SeriesReader.read(
-            "index/seen-prices.json",
+    private static final String SEEN_PRICES = "index/seen-prices.json";
+
+    private static final Lazy<Map<Currency, List<SeenPrice>>> SP = new Lazy<>(() -> SeriesReader.read(
+            SEEN_PRICES,
             new TypeReference<Map<Currency, List<SeenPrice>>>() {
-    });
+    }));
+
+    static {
+        SeriesReader.addInvalidationListener(name -> {
+            if (name.equals(SEEN_PRICES)) {
+                SP.reset();
+            }
+        });
+    }
+
+    /**
+     * Reads the seen prices ahead of the first mapper.
+     */
+    public static void preload() {
+        SP.get();
+    }
 
     private final DateTimeFormatter dmy = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
@@ -76,7 +94,7 @@ public class BenchmarkInvestmentMapper implements Function<Investment, Investmen
                 .collect(toMap(this::dmy, BenchmarkInvestmentMapper::price, (x, y) -> x));
 
         this.seenUSDPrices.putAll(
-                SP.getOrDefault(benchmark, Collections.emptyList())
+                SP.get().getOrDefault(benchmark, Collections.emptyList())
                         .stream()
                         .collect(toMap(SeenPrice::dmy, SeenPrice::price)));
     }
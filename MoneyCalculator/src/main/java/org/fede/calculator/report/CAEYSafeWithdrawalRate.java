@@ -17,6 +17,7 @@
 package org.fede.calculator.report;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import static java.math.BigDecimal.ONE;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
@@ -34,12 +35,15 @@ import org.fede.calculator.chart.ValueFormat;
 import org.fede.calculator.money.Currency;
 import static org.fede.calculator.money.Currency.USD;
 import org.fede.calculator.money.ForeignExchanges;
-import static org.fede.calculator.money.MathConstants.C;
+import org.fede.calculator.money.Precision;
 import org.fede.calculator.money.MoneyAmount;
 import org.fede.calculator.money.series.SeriesReader;
+import org.fede.util.Lazy;
 import org.jfree.data.xy.XYSeries;
 
 /**
+ * A withdrawal rate estimate, computed in the {@link Precision} analytics
+ * tier unless another math context is given.
  *
  * @author fede
  */
@@ -50,14 +54,9 @@ public class CAEYSafeWithdrawalRate {
     private static final BigDecimal CAPE_MAX = BigDecimal.valueOf(45L);
     private static final BigDecimal CAPE_STEP = BigDecimal.valueOf(5L);
     private static final BigDecimal MONTHS_IN_A_YEAR = BigDecimal.valueOf(12L);
-    private static final NumberFormat PCT_FORMAT2 = NumberFormat.getPercentInstance();
     private static final int RETIREMENT_AGE = 65;
     private static final int LIFE_EXPECTANCY = 90;
 
-    static {
-        PCT_FORMAT2.setMinimumFractionDigits(2);
-    }
-
     private final BigDecimal cashRealYield;
     private final BigDecimal bondsRealYield;
     private final BigDecimal cape;
@@ -71,6 +70,8 @@ public class CAEYSafeWithdrawalRate {
 
     private final CAEYSWRParams params;
 
+    private final MathContext mc;
+
     public CAEYSafeWithdrawalRate(
             BigDecimal expectedInflation,
             BigDecimal bondsNominalYield,
@@ -93,16 +94,44 @@ public class CAEYSafeWithdrawalRate {
             BigDecimal capeExUs,
             BigDecimal capeEmerging,
             BigDecimal capeB) {
-        this.cashRealYield = expectedInflation.negate(C);
-        this.bondsRealYield = bondsNominalYield.subtract(expectedInflation, C);
+        this(
+                expectedInflation,
+                bondsNominalYield,
+                cape,
+                capeExUs,
+                capeEmerging,
+                capeB,
+                Precision.ANALYTICS);
+    }
+
+    /**
+     * @param expectedInflation
+     * @param bondsNominalYield
+     * @param cape
+     * @param capeExUs
+     * @param capeEmerging
+     * @param capeB
+     * @param mc every input and estimate is computed with it.
+     */
+    public CAEYSafeWithdrawalRate(
+            BigDecimal expectedInflation,
+            BigDecimal bondsNominalYield,
+            BigDecimal cape,
+            BigDecimal capeExUs,
+            BigDecimal capeEmerging,
+            BigDecimal capeB,
+            MathContext mc) {
+        this.mc = mc;
+        this.cashRealYield = expectedInflation.negate(this.mc);
+        this.bondsRealYield = bondsNominalYield.subtract(expectedInflation, this.mc);
         this.cape = cape;
         this.capeExUs = capeExUs;
         this.capeEmerging = capeEmerging;
 
         final var dob = SeriesReader.readDate("dob");
 
-        final var age = BigDecimal.valueOf(ChronoUnit.MONTHS.between(dob, LocalDate.now())).divide(MONTHS_IN_A_YEAR, C);
-        final var yearsLeft = BigDecimal.ONE.movePointRight(2).subtract(age, C);
+        final var age = BigDecimal.valueOf(ChronoUnit.MONTHS.between(dob, LocalDate.now())).divide(MONTHS_IN_A_YEAR, this.mc);
+        final var yearsLeft = BigDecimal.ONE.movePointRight(2).subtract(age, this.mc);
 
         final var pensionDiscountRate = SeriesReader.readPercent("pensionDiscountRate");
 
@@ -114,18 +143,18 @@ public class CAEYSafeWithdrawalRate {
                         SeriesReader.readUSD("longTermCare")
                                 .adjust(ONE, MONTHS_IN_A_YEAR)
                                 .amount()
-                                .negate(C),
-                        SeriesReader.readBigDecimal("longTermCare.age").subtract(age, C),
+                                .negate(this.mc),
+                        SeriesReader.readBigDecimal("longTermCare.age").subtract(age, this.mc),
                         SeriesReader.readInt("longTermCare.years"),
                         pensionDiscountRate));
 
         final var baseCapeA = new BigDecimal("0.02")
                 .min(ONE
-                        .divide(yearsLeft, C).multiply(BigDecimal.valueOf(80).movePointLeft(2), C));
+                        .divide(yearsLeft, this.mc).multiply(BigDecimal.valueOf(80).movePointLeft(2), this.mc));
         this.capeA = baseCapeA
-                .add(pensionCapeADelta, C)
-                .add(futureIncomeCapeADelta, C)
-                .add(longTermCare, C);
+                .add(pensionCapeADelta, this.mc)
+                .add(futureIncomeCapeADelta, this.mc)
+                .add(longTermCare, this.mc);
         this.capeB = capeB;
         this.params = new CAEYSWRParams(
                 cashRealYield, 
@@ -140,6 +169,36 @@ public class CAEYSafeWithdrawalRate {
                 capeB);
     }
 
+    /**
+     * Same inputs, computed with the same math context, with a different
+     * CAPE for every region.
+     */
+    private CAEYSafeWithdrawalRate(CAEYSafeWithdrawalRate base, BigDecimal cape) {
+        this.mc = base.mc;
+        this.cashRealYield = base.cashRealYield;
+        this.bondsRealYield = base.bondsRealYield;
+        this.cape = cape;
+        this.capeExUs = cape;
+        this.capeEmerging = cape;
+        this.capeA = base.capeA;
+        this.capeB = base.capeB;
+        this.params = new CAEYSWRParams(
+                base.params.cashRealYield(),
+                base.params.bondsRealYield(),
+                cape,
+                cape,
+                cape,
+                base.params.capeA(),
+                base.params.pensionCapeADelta(),
+                base.params.futureIncomeCapeADelta(),
+                base.params.longTermCareDelta(),
+                base.params.capeB());
+    }
+
+    private CAEYSafeWithdrawalRate withCape(BigDecimal cape) {
+        return new CAEYSafeWithdrawalRate(this, cape);
+    }
+
     private BigDecimal pensionDeltaA(BigDecimal age, BigDecimal pensionDiscountRate) {
         final var now = YearMonth.now();
 
@@ -148,10 +207,10 @@ public class CAEYSafeWithdrawalRate {
                         new MoneyAmount(
                                 SeriesReader.readBigDecimal("min.pension"), Currency.ARS),
                         USD,
-                        now).adjust(ONE, MONTHS_IN_A_YEAR.add(ONE, C));
+                        now).adjust(ONE, MONTHS_IN_A_YEAR.add(ONE, this.mc));
 
         final var yearsToStartPension = BigDecimal.valueOf(RETIREMENT_AGE)
-                .subtract(age, C)
+                .subtract(age, this.mc)
                 .max(BigDecimal.ZERO);
 
         final int yearsReceivingPension = LIFE_EXPECTANCY - RETIREMENT_AGE;
@@ -176,18 +235,18 @@ public class CAEYSafeWithdrawalRate {
             BigDecimal discountRate) {
 
         // (1 + r)
-        final var rateBase = ONE.add(discountRate, C);
+        final var rateBase = ONE.add(discountRate, this.mc);
 
         // (1 + r)^durationYears
-        final var positivePower = rateBase.pow(durationYears, C);
+        final var positivePower = rateBase.pow(durationYears, this.mc);
 
         // (1 + r)^-durationYears
-        final var presentValueFactorTerm = ONE.divide(positivePower, C);
+        final var presentValueFactorTerm = ONE.divide(positivePower, this.mc);
 
         // [1 - (1 + r)^-n] / r
         final var annuityFactor = ONE
-                .subtract(presentValueFactorTerm, C)
-                .divide(discountRate, C);
+                .subtract(presentValueFactorTerm, this.mc)
+                .divide(discountRate, this.mc);
 
         // Descuento desde el inicio de la anualidad hasta hoy
         final var discountFactor = BigDecimal.valueOf(
@@ -196,16 +255,16 @@ public class CAEYSafeWithdrawalRate {
                         yearsUntilStart.doubleValue()));
 
         return annualAmount
-                .multiply(annuityFactor, C)
-                .multiply(discountFactor, C);
+                .multiply(annuityFactor, this.mc)
+                .multiply(discountFactor, this.mc);
     }
 
     private BigDecimal deltaA(BigDecimal presentValue, YearMonth now) {
         final var cashAmount = LastAmounts.lastCashUSD(now);
         final var futureIncomeWithdrawalRate = SeriesReader.readPercent("futureIncomeWithdrawalRate");
         return presentValue
-                .divide(this.last.last().total().add(cashAmount).amount(), C)
-                .multiply(futureIncomeWithdrawalRate, C);
+                .divide(this.last.last().total().add(cashAmount).amount(), this.mc)
+                .multiply(futureIncomeWithdrawalRate, this.mc);
     }
 
     public CAEYSafeWithdrawalRate() {
@@ -229,9 +288,9 @@ public class CAEYSafeWithdrawalRate {
                 .reduce(ZERO_USD, MoneyAmount::add);
 
         return this.capeA
-                .add(this.capeB.multiply(caey, C))
-                .add(this.bondsRealYield.multiply(bonds.adjust(totalPortfolioValue.amount(), ONE).amount(), C))
-                .add(this.cashRealYield.multiply(cash.adjust(totalPortfolioValue.amount(), ONE).amount(), C));
+                .add(this.capeB.multiply(caey, this.mc))
+                .add(this.bondsRealYield.multiply(bonds.adjust(totalPortfolioValue.amount(), ONE).amount(), this.mc))
+                .add(this.cashRealYield.multiply(cash.adjust(totalPortfolioValue.amount(), ONE).amount(), this.mc));
     }
 
     private SafeWithdrawal monthlySafeWithdrawal(
@@ -246,12 +305,42 @@ public class CAEYSafeWithdrawalRate {
 
         final var rate = this.capeWR(usEquity, devExUs, emerging, bonds, cash);
         final var amount = totalPortfolioValue.amount()
-                .multiply(rate, C)
-                .divide(MONTHS_IN_A_YEAR, C);
+                .multiply(rate, this.mc)
+                .divide(MONTHS_IN_A_YEAR, this.mc);
 
         return new SafeWithdrawal(rate, amount);
     }
 
+    /**
+     * Probability of not running out of money withdrawing the safe amount
+     * every month.
+     *
+     * @param usEquity
+     * @param devExUs
+     * @param emerging
+     * @param bonds
+     * @param cash
+     * @param years
+     * @return
+     */
+    public double successProbability(
+            MoneyAmount usEquity,
+            MoneyAmount devExUs,
+            MoneyAmount emerging,
+            MoneyAmount bonds,
+            MoneyAmount cash,
+            int years) {
+
+        final var totalPortfolioValue = Stream.of(usEquity, devExUs, emerging, cash, bonds)
+                .reduce(ZERO_USD, MoneyAmount::add);
+
+        final var monthly = this.monthlySafeWithdrawal(usEquity, devExUs, emerging, bonds, cash);
+
+        return new RetirementSimulation(totalPortfolioValue)
+                .withdrawal(new MoneyAmount(monthly.amount(), USD), years)
+                .successProbability();
+    }
+
     private String swrChartLabel(SafeWithdrawal monthly, Function<BigDecimal, String> currencyFormatter) {
         return MessageFormat.format("{0} {1}",
                 currencyFormatter.apply(monthly.amount()),
@@ -270,21 +359,30 @@ public class CAEYSafeWithdrawalRate {
 
         final var bonds = series.realSavings("BO").getAmountOrElseZero(now);
 
-        final var expectedInflation = SeriesReader.readPercent("expectedInflation");
-        final var bondsNominalYield = SeriesReader.readPercent("bond10");
+        final Function<MathContext, CAEYSafeWithdrawalRate> swr = mathContext -> new CAEYSafeWithdrawalRate(
+                SeriesReader.readPercent("expectedInflation"),
+                SeriesReader.readPercent("bond10"),
+                SeriesReader.readBigDecimal("cape"),
+                SeriesReader.readBigDecimal("cape.exus"),
+                SeriesReader.readBigDecimal("cape.em"),
+                capeBValue,
+                mathContext);
+        final var currentSwr = swr.apply(Precision.ANALYTICS);
+        // the inputs are computed again in the accounting tier, only when verifying
+        final var accountingSwr = new Lazy<>(() -> swr.apply(Precision.ACCOUNTING));
 
+        // only the CAPE changes, the other inputs are computed once
         final var byCape = new XYSeries("Monthly Safe Withdrawal by CAPE");
         Stream.iterate(CAPE_MIN, capeVal -> capeVal.compareTo(CAPE_MAX) <= 0, capeVal -> capeVal.add(CAPE_STEP))
                 .forEach(capeVal -> {
-                    var swr = new CAEYSafeWithdrawalRate(
-                            expectedInflation,
-                            bondsNominalYield,
-                            capeVal,
-                            capeVal,
-                            capeVal,
-                            capeBValue
-                    );
-                    var monthly = swr.monthlySafeWithdrawal(equity.us(), equity.exUs(), equity.em(), bonds, cash);
+                    var monthly = currentSwr.withCape(capeVal)
+                            .monthlySafeWithdrawal(equity.us(), equity.exUs(), equity.em(), bonds, cash);
+                    Precision.verify(
+                            "CAEYSafeWithdrawalRate.byCape",
+                            monthly.amount(),
+                            () -> accountingSwr.get().withCape(capeVal)
+                                    .monthlySafeWithdrawal(equity.us(), equity.exUs(), equity.em(), bonds, cash)
+                                    .amount());
                     byCape.add(new LabeledXYDataItem(
                             capeVal,
                             monthly.amount(),
@@ -292,15 +390,7 @@ public class CAEYSafeWithdrawalRate {
                 });
 
         // current 
-        final var currentSwr = new CAEYSafeWithdrawalRate(
-                SeriesReader.readPercent("expectedInflation"),
-                SeriesReader.readPercent("bond10"),
-                SeriesReader.readBigDecimal("cape"),
-                SeriesReader.readBigDecimal("cape.exus"),
-                SeriesReader.readBigDecimal("cape.em"),
-                capeBValue);
-
-        final var currentCape = ONE.divide(currentSwr.caey(equity.us(), equity.exUs(), equity.em()), C);
+        final var currentCape = ONE.divide(currentSwr.caey(equity.us(), equity.exUs(), equity.em()), this.mc);
         final var currentMonthly = currentSwr.monthlySafeWithdrawal(equity.us(), equity.exUs(), equity.em(), bonds, cash);
 
         final var current = this.xySeries("Current", currentCape, currentMonthly, currencyFormatter);
@@ -342,14 +432,16 @@ public class CAEYSafeWithdrawalRate {
     }
 
     private String reportTitle(BigDecimal b) {
+        // formats are not thread safe and charts are drawn concurrently
+        final var pct = ValueFormat.PERCENTAGE.format();
         return MessageFormat.format(
                 "Safe Withdrawal ({0} + {1} + {2} - {3} + {4} / {5})",
-                PCT_FORMAT2.format(this.params.capeA),
-                PCT_FORMAT2.format(this.params.pensionCapeADelta),
-                PCT_FORMAT2.format(this.params.futureIncomeCapeADelta),
-                PCT_FORMAT2.format(this.params.longTermCareDelta.negate(C)),
+                pct.format(this.params.capeA),
+                pct.format(this.params.pensionCapeADelta),
+                pct.format(this.params.futureIncomeCapeADelta),
+                pct.format(this.params.longTermCareDelta.negate(this.mc)),
                 NumberFormat.getNumberInstance().format(b),
-                ONE.divide(this.caey(this.last.last()), C));
+                ONE.divide(this.caey(this.last.last()), this.mc));
     }
 
     private MoneyAmount currentlyEstimatedSavings() {
@@ -359,7 +451,7 @@ public class CAEYSafeWithdrawalRate {
                         SeriesReader.readBigDecimal("currentGoldTrOz")
                                 .multiply(BigDecimal.valueOf(75)
                                         .movePointLeft(2),
-                                        C));
+                                        this.mc));
     }
 
     private BigDecimal caey(
@@ -370,9 +462,9 @@ public class CAEYSafeWithdrawalRate {
     }
 
     private BigDecimal caey(Equity eq) {
-        return ONE.divide(this.cape, C).multiply(eq.usWeight(), C)
-                .add(ONE.divide(this.capeExUs, C).multiply(eq.exUsWeight(), C))
-                .add(ONE.divide(this.capeEmerging, C).multiply(eq.emWeight(), C));
+        return ONE.divide(this.cape, this.mc).multiply(eq.usWeight(), this.mc)
+                .add(ONE.divide(this.capeExUs, this.mc).multiply(eq.exUsWeight(), this.mc))
+                .add(ONE.divide(this.capeEmerging, this.mc).multiply(eq.emWeight(), this.mc));
     }
 
     private record SafeWithdrawal(BigDecimal rate, BigDecimal amount) {
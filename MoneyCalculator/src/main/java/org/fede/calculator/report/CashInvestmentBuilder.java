@@ -18,10 +18,10 @@ package org.fede.calculator.report;
 
 import java.math.BigDecimal;
 import static java.math.BigDecimal.ZERO;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
-import java.util.Objects;
 import java.util.function.Supplier;
 import org.fede.calculator.money.MathConstants;
 import static org.fede.calculator.money.Currency.USD;
@@ -30,6 +30,7 @@ import org.fede.calculator.money.series.InvestmentAsset;
 import org.fede.calculator.money.series.InvestmentEvent;
 import org.fede.calculator.money.series.InvestmentType;
 import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.MonthIndex;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 
@@ -56,19 +57,16 @@ public class CashInvestmentBuilder {
             this.data = new ArrayList<>((int) cashInvesments.getFrom()
                     .until(cashInvesments.getTo(), ChronoUnit.MONTHS));
             
-            for (var ym = cashInvesments.getFrom(); ym.compareTo(cashInvesments.getTo()) <= 0; ym = ym.plusMonths(1)) {
-
-                var currentSavedUSD = cashInvesments.getAmountOrElseZero(ym).amount();
-                var total = this.total(this.data);
-                if (currentSavedUSD.compareTo(total) > 0) {
-                    this.data.add(this.newInvestment(currentSavedUSD.subtract(total, MathConstants.C), ym));
-                } else if (currentSavedUSD.compareTo(total) < 0) {
-
-                    this.sellUntilBelow(currentSavedUSD, this.data, ym);
-                    total = this.total(this.data);
-                    if (currentSavedUSD.compareTo(total) > 0) {
-                        this.data.add(this.newInvestment(currentSavedUSD.subtract(total, MathConstants.C), ym));
-                    }
+            final var lots = new OpenLots();
+            final int to = cashInvesments.toIndex();
+            for (int month = cashInvesments.fromIndex(); month <= to; month++) {
+
+                var currentSavedUSD = cashInvesments.getAmountOrElseZero(month).amount();
+                if (currentSavedUSD.compareTo(lots.total) < 0) {
+                    this.sellUntilBelow(currentSavedUSD, lots, MonthIndex.yearMonth(month));
+                }
+                if (currentSavedUSD.compareTo(lots.total) > 0) {
+                    this.add(this.newInvestment(currentSavedUSD.subtract(lots.total, MathConstants.C), MonthIndex.yearMonth(month)), lots);
                 }
             }
         }
@@ -77,13 +75,29 @@ public class CashInvestmentBuilder {
 
     }
 
-    private void sellUntilBelow(BigDecimal amount, List<Investment> investments, YearMonth ym) {
+    /**
+     * Lots are bought in date order, so the oldest open lot is always the
+     * first one and every lot is added and sold once.
+     */
+    private static final class OpenLots {
+
+        private final Deque<Investment> lots = new ArrayDeque<>();
+        private BigDecimal total = ZERO;
+
+    }
+
+    private void add(Investment investment, OpenLots lots) {
+        this.data.add(investment);
+        lots.lots.addLast(investment);
+        lots.total = lots.total.add(investment.getInvestment().getAmount());
+    }
+
+    private void sellUntilBelow(BigDecimal amount, OpenLots lots, YearMonth ym) {
 
-        while (total(investments).compareTo(amount) > 0) {
-            investments.stream()
-                    .filter(i -> Objects.isNull(i.getOut()))
-                    .min(Comparator.comparing(Investment::getInitialDate))
-                    .ifPresent(i -> this.sellInvestment(i, ym));
+        while (lots.total.compareTo(amount) > 0) {
+            final var oldest = lots.lots.removeFirst();
+            this.sellInvestment(oldest, ym);
+            lots.total = lots.total.subtract(oldest.getInvestment().getAmount());
         }
     }
 
@@ -116,12 +130,4 @@ public class CashInvestmentBuilder {
         return inv;
     }
 
-    private BigDecimal total(List<Investment> investments) {
-        return investments.stream()
-                .filter(i -> i.getOut() == null)
-                .map(Investment::getInvestment)
-                .map(InvestmentAsset::getAmount)
-                .reduce(ZERO, BigDecimal::add);
-    }
-
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import org.fede.calculator.money.Precision;
+
+/**
+ * Runs chart jobs concurrently. Each job declares the jobs it depends on,
+ * which must be added before it, and starts as soon as all of them are done.
+ * Jobs that only compute shared data are added the same way so the charts
+ * that need it wait for one computation instead of repeating it.
+ *
+ * @author fede
+ */
+final class ChartScheduler {
+
+    @FunctionalInterface
+    interface ChartJob {
+
+        void run() throws IOException;
+    }
+
+    record Timing(String name, long nanos, Throwable error) {
+
+    }
+
+    private record Job(String name, ChartJob job, List<String> dependencies) {
+
+    }
+
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    ChartScheduler add(String name, ChartJob job, String... dependencies) {
+        for (var d : dependencies) {
+            if (!this.jobs.containsKey(d)) {
+                throw new IllegalArgumentException("Unknown dependency " + d + " of " + name);
+            }
+        }
+        if (this.jobs.putIfAbsent(name, new Job(name, job, List.of(dependencies))) != null) {
+            throw new IllegalArgumentException("Duplicate chart job " + name);
+        }
+        return this;
+    }
+
+    /**
+     * Runs every job. A failed job does not stop the others, only the ones
+     * depending on it.
+     *
+     * @param threads
+     * @return the timing of every job, slowest first.
+     */
+    List<Timing> run(int threads) {
+
+        final Map<String, Timing> timings = new ConcurrentHashMap<>(this.jobs.size());
+        final Map<String, CompletableFuture<Void>> futures = LinkedHashMap.newLinkedHashMap(this.jobs.size());
+
+        try (var executor = Executors.newFixedThreadPool(Math.max(1, threads))) {
+
+            for (var job : this.jobs.values()) {
+                final var dependencies = job.dependencies()
+                        .stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+
+                futures.put(job.name(),
+                        CompletableFuture.allOf(dependencies)
+                                .thenRunAsync(Precision.bind(() -> this.run(job, timings)), executor));
+            }
+
+            // wait before closing the executor, dependent jobs are submitted as their dependencies finish
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .exceptionally(ex -> null)
+                    .join();
+        }
+
+        final List<Timing> answer = new ArrayList<>(this.jobs.size());
+        for (var job : this.jobs.values()) {
+            final var timing = timings.get(job.name());
+            answer.add(timing != null
+                    ? timing
+                    : new Timing(job.name(), 0L, new IllegalStateException("A dependency failed.")));
+        }
+        answer.sort(Comparator.comparingLong(Timing::nanos).reversed());
+        return answer;
+    }
+
+    private void run(Job job, Map<String, Timing> timings) {
+        final long start = System.nanoTime();
+        try {
+            job.job().run();
+            timings.put(job.name(), new Timing(job.name(), System.nanoTime() - start, null));
+        } catch (IOException | RuntimeException ex) {
+            timings.put(job.name(), new Timing(job.name(), System.nanoTime() - start, ex));
+            throw new CompletionException(ex);
+        }
+    }
+
+}
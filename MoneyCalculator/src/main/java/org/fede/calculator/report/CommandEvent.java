@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *
+ * @author fede
+ */
+@Name("org.fede.Command")
+@Label("Command")
+@Category({"MoneyCalculator", "Report"})
+@Description("A report command, from begin to end.")
+final class CommandEvent extends Event {
+
+    @Label("Command")
+    String command;
+
+    @Label("Arguments")
+    String arguments;
+
+    static CommandEvent start(String[] args) {
+        final var event = new CommandEvent();
+        event.command = args[0];
+        event.arguments = String.join(" ", args);
+        event.begin();
+        return event;
+    }
+
+    void finish() {
+        this.commit();
+    }
+}
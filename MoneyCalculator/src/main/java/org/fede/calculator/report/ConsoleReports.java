@@ -19,6 +19,8 @@ package org.fede.calculator.report;
 import org.fede.calculator.chart.TimeSeriesDatapoint;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
@@ -67,6 +69,9 @@ import org.fede.calculator.money.MathConstants;
 import org.fede.calculator.money.MoneyAmount;
 import org.fede.calculator.money.Accumulator;
 import org.fede.calculator.money.CPIInflation;
+import org.fede.calculator.money.FlightRecording;
+import org.fede.calculator.money.ForeignExchanges;
+import org.fede.calculator.money.Precision;
 import static org.fede.calculator.money.Currency.EMIM;
 import org.fede.calculator.money.SingleHttpClientSupplier;
 import org.fede.calculator.money.SlidingWindow;
@@ -74,8 +79,10 @@ import org.fede.calculator.money.series.JSONDataPoint;
 import org.fede.calculator.money.series.JSONIndexSeries;
 import org.fede.calculator.money.series.MoneyAmountSeries;
 import org.fede.calculator.money.series.SeriesReader;
+import org.fede.calculator.money.series.SeriesWatcher;
 import org.fede.calculator.money.series.YearMonthUtil;
 import org.fede.util.Pair;
+import org.fede.util.SingleFlightCache;
 import org.jfree.data.time.TimeSeries;
 import org.jline.reader.EndOfFileException;
 import org.jline.reader.LineReader;
@@ -100,6 +107,10 @@ public class ConsoleReports {
 
     private static final List<CmdParam> COMMANDS = commandParams().toList();
 
+    // local reports only, no network and no files written
+    private static final List<String> TRAINING = List.of(
+            "p", "pos", "inv", "invested", "mdr", "xirr", "savings", "income", "expenses", "eras");
+
     private static boolean nominal(Map<String, String> params) {
         return Boolean.parseBoolean(params.getOrDefault("nominal", "false"));
     }
@@ -191,6 +202,14 @@ public class ConsoleReports {
             case "re" ->
                 () -> new Fire(format, series, console)
                 .reReport(Integer.parseInt(me.paramsValue(args, "re").getOrDefault("m", "12")));
+            case "backtest" ->
+                () -> new Fire(format, series, console)
+                .backtest(Integer.parseInt(me.paramsValue(args, "backtest").getOrDefault("y", SeriesReader.readEnvironment().getProperty("retirementHorizon", "30"))));
+            case "mc" ->
+                () -> new Fire(format, series, console)
+                .monteCarlo(
+                        Integer.parseInt(me.paramsValue(args, "mc").getOrDefault("m", "12")),
+                        Integer.parseInt(me.paramsValue(args, "mc").getOrDefault("w", "0")));
 
             case "savings" ->
                 () -> me.savings(args, "savings");
@@ -347,7 +366,13 @@ public class ConsoleReports {
                 new BigDecimal(me.paramsValue(args, "buy").getOrDefault("usd", "0").replaceAll(",", ".")),
                 new BigDecimal(me.paramsValue(args, "buy").getOrDefault("eur", "0").replaceAll(",", ".")),
                 new BigDecimal(me.paramsValue(args, "buy").getOrDefault("transfer", "50").replaceAll(",", ".")),
-                Boolean.parseBoolean(me.paramsValue(args, "buy").getOrDefault("detail", "false"))
+                Boolean.parseBoolean(me.paramsValue(args, "buy").getOrDefault("detail", "false")),
+                new RebalancingSolver.Constraints(
+                        Double.parseDouble(me.paramsValue(args, "buy").getOrDefault("min", "0").replaceAll(",", ".")),
+                        Boolean.parseBoolean(me.paramsValue(args, "buy").getOrDefault("sell", "false")),
+                        Double.parseDouble(me.paramsValue(args, "buy").getOrDefault("fee", "0").replaceAll(",", ".")),
+                        Double.parseDouble(me.paramsValue(args, "buy").getOrDefault("maxFees", "Infinity").replaceAll(",", ".")),
+                        SeriesReader.readPercent("capitalGainsTaxRate").doubleValue())
                 );
 
             case "sell" ->
@@ -361,6 +386,12 @@ public class ConsoleReports {
                 () -> new Investments(console, format, bar, series)
                 .ppiTransfer(me.paramsValue(args, "ppi").getOrDefault("type", "full"));
 
+            case "cache" ->
+                me::cacheStats;
+
+            case "startup" ->
+                me::startup;
+
             default ->
                 () -> console.appendLine("Unknown parameter.");
 
@@ -378,16 +409,21 @@ public class ConsoleReports {
                 new CmdParam("fire", "m=12"),
                 new CmdParam("fi", "m=12"),
                 new CmdParam("re", "m=12"),
+                new CmdParam("mc", "m=12 w=0"),
+                new CmdParam("backtest", "y=retirementHorizon"),
                 new CmdParam("p-type-evo"),
                 new CmdParam("p-type-evo-pct"),
                 new CmdParam("condo"),
                 new CmdParam("ccl"),
-                new CmdParam("buy", "usd=9970 eur=0 transfer=50 detail=false"),
+                new CmdParam("buy", "usd=9970 eur=0 transfer=50 detail=false sell=false min=0 fee=0 maxFees=Infinity"),
                 new CmdParam("sell", "usd=9970 oversell=false detail=false"),
                 new CmdParam("lti"),
                 new CmdParam("bbpp-evo"),
                 new CmdParam("routes"),
                 new CmdParam("help"),
+                new CmdParam("cache"),
+                new CmdParam("startup"),
+                new CmdParam(":profile", "on|off"),
                 new CmdParam("balances"),
                 new CmdParam("all-charts"),
                 new CmdParam("cash"),
@@ -441,7 +477,7 @@ public class ConsoleReports {
 
     }
 
-    private static void handleCommand(String[] args, ConsoleReports me, Format format, Bar bar, Series series, Console console) throws IOException {
+    static void handleCommand(String[] args, ConsoleReports me, Format format, Bar bar, Series series, Console console) throws IOException {
 
         final var params = Arrays.stream(args)
                 .map(String::toLowerCase)
@@ -451,7 +487,22 @@ public class ConsoleReports {
             help(me);
         } else {
 
-            getAction(args, me, format, bar, series, console).run();
+            final long start = System.nanoTime();
+            final var event = FlightRecording.enabled()
+                    ? CommandEvent.start(args)
+                    : null;
+            // divergences of this command only, the daemon runs several at once
+            final var verification = new Precision.Verification();
+            Precision.run(verification, getAction(args, me, format, bar, series, console));
+            if (event != null) {
+                event.finish();
+            }
+            if (Startup.command(args[0], System.nanoTime() - start) && Startup.reporting()) {
+                me.startup();
+            }
+            if (Precision.verifying()) {
+                me.precisionDivergences(verification);
+            }
             me.appendLine("");
         }
         console.printReport();
@@ -461,16 +512,26 @@ public class ConsoleReports {
     public static void main(String[] args) {
         try {
 
+            Startup.warmup();
+
             final var console = new FastConsole();
             final var format = new Format();
             final var bar = new Bar(console, format);
             final var series = new Series();
             final var me = new ConsoleReports(console, format, bar, series);
 
-            if (args.length > 0) {
+            if (args.length > 0 && args[0].equals("daemon")) {
+                ReportDaemon.serve(series);
+            } else if (args.length > 0 && args[0].equals("train")) {
+                train(me, series, console);
+            } else if (args.length > 0) {
                 handleCommand(args, me, format, bar, series, console);
             } else {
 
+                final var watcher = Boolean.parseBoolean(System.getProperty("watchSeries", "true"))
+                        ? SeriesWatcher.start()
+                        : null;
+
                 LineReader reader = LineReaderBuilder.builder()
                         .terminal(TerminalBuilder.builder()
                                 .system(true)
@@ -484,6 +545,8 @@ public class ConsoleReports {
                                                 .toList()))
                         .build();
 
+                Profiler profiler = null;
+
                 while (true) {
 
                     String line;
@@ -497,9 +560,26 @@ public class ConsoleReports {
                             || line.trim().equalsIgnoreCase("exit")) {
                         break;
                     }
+                    if (line.trim().startsWith(":profile")) {
+                        profiler = line.trim().equalsIgnoreCase(":profile on")
+                                ? new Profiler()
+                                : null;
+                        console.appendLine(profiler == null ? "Profiling off." : "Profiling on.");
+                        console.printReport();
+                        continue;
+                    }
+                    final var sample = profiler == null
+                            ? null
+                            : profiler.start();
                     handleCommand(line.split("\\s+"), me, format, bar, series, console);
+                    if (sample != null) {
+                        sample.report(console, format);
+                    }
 
                 }
+                if (watcher != null) {
+                    watcher.close();
+                }
                 new Positions(console, format, series).checkConsistency();
             }
 
@@ -509,6 +589,79 @@ public class ConsoleReports {
         }
     }
 
+    /**
+     * Runs the training commands against a discarding console and waits for
+     * the warmup, so a run with -XX:AOTCacheOutput archives the classes and
+     * profiles of a typical session.
+     */
+    private static void train(ConsoleReports me, Series series, Console console) throws IOException {
+        Startup.awaitWarmup();
+        final var quiet = new FastConsole(OutputStream.nullOutputStream());
+        final var format = new Format();
+        final var bar = new Bar(quiet, format);
+        final var reports = new ConsoleReports(quiet, format, bar, series);
+        for (var command : TRAINING) {
+            try {
+                handleCommand(command.split("\\s+"), reports, format, bar, series, quiet);
+            } catch (RuntimeException ex) {
+                System.err.println("Training command " + command + " failed. " + ex.getMessage());
+            }
+        }
+        me.startup();
+        console.printReport();
+    }
+
+    private void startup() {
+        final var warmup = Startup.awaitWarmup();
+        this.appendLine(this.format.title("Startup"));
+        this.appendLine(format("Before main: {0} ms.", Startup.beforeMain().toMillis()));
+        this.appendLine(format("Warmup: {0} ms, tasks in parallel.", warmup.toMillis()));
+        Startup.timings().forEach(t -> this.appendLine(format(" - {0}, {1}: {2} ms{3}.",
+                t.name(),
+                t.phase().description(),
+                t.nanos() / 1_000_000L,
+                t.failed() ? ", failed" : "")));
+        this.appendLine(this.format.subtitle("Breakdown"));
+        this.appendLine(format("Class loading: {0} ms, {1} classes loaded.",
+                Startup.beforeMain().toMillis() + Startup.nanos(Startup.Phase.CLASS_LOADING) / 1_000_000L,
+                ManagementFactory.getClassLoadingMXBean().getLoadedClassCount()));
+        this.appendLine(format("I/O: {0} ms, {1} ms of them reading series.",
+                Startup.nanos(Startup.Phase.IO) / 1_000_000L,
+                (SeriesReader.indexSeriesCacheStats().loadNanos() + SeriesReader.seriesCacheStats().loadNanos()) / 1_000_000L));
+        this.appendLine(format("Compute: {0} ms.",
+                Startup.nanos(Startup.Phase.COMPUTE) / 1_000_000L));
+    }
+
+    private void precisionDivergences(Precision.Verification verification) {
+        final var divergences = verification.divergences();
+        this.appendLine(this.format.subtitle("Precision"));
+        this.appendLine(format("{0} analytics values verified, {1} above tolerance.",
+                verification.checks(),
+                divergences.size()));
+        divergences.forEach(d -> this.appendLine(format("{0}: {1} analytics, {2} accounting, {3} error.",
+                d.name(),
+                d.analytics().toString(),
+                d.accounting().toString(),
+                d.error().toString())));
+    }
+
+    private void cacheStats() {
+        this.appendLine(this.format.title("Series Cache"));
+        this.cacheStats("Index series", SeriesReader.indexSeriesCacheStats());
+        this.cacheStats("Money series", SeriesReader.seriesCacheStats());
+        this.cacheStats("FX routes", ForeignExchanges.routeCacheStats());
+        this.cacheStats("Derived series", SeriesGraph.shared().stats());
+    }
+
+    private void cacheStats(String name, SingleFlightCache.Stats stats) {
+        this.appendLine(format("{0}: {1} entries, {2} hits, {3} misses, {4} ms loading.",
+                name,
+                stats.size(),
+                stats.hits(),
+                stats.misses(),
+                stats.loadNanos() / 1_000_000L));
+    }
+
     private void routes(String[] args, String param) {
         this.console.appendLine(this.format.title("Exit Routes"));
 
@@ -925,59 +1078,82 @@ public class ConsoleReports {
         return s;
     }
 
+    private Investments chartInvestments() {
+        final var chartFormat = new Format();
+        return new Investments(this.console, chartFormat, new Bar(this.console, chartFormat), this.series);
+    }
+
+    private Savings chartSavings() {
+        final var chartFormat = new Format();
+        return new Savings(chartFormat, this.series, new Bar(this.console, chartFormat), this.console);
+    }
+
     private void allCharts() {
-        try {
-            final var inv = new Investments(this.console, this.format, this.bar, this.series);
-            final var pos = new Positions(console, format, series);
-            final var savings = new Savings(format, series, bar, console);
-            final var fire = new Fire(format, series, console);
-
-            this.expensesChart(12, true);
-            this.incomeAccChart();
-            this.savingsEvoChart();
-            this.savingsARSEvoChart();
-            savings.netAvgSavingSpentChart(12);
-            savings.netAvgSavingSpentChart(3);
-            inv.mdrChart(true);
-            inv.mdrChart(false);
-            inv.mdrByYearChart();
-            pos.portfolioChartByGeography(false, "pct", usdInflation().getTo().getYear(), usdInflation().getTo().getMonthValue());
-            this.savingsChart();
-            inv.savingsInvestmentsPercentChart();
-            savings.savingsByIncomeChart();
-            savings.spendingByRegularIncomeChart();
-            savings.spendingByYear();
-            inv.savedAndInvestedChart();
-            inv.investmentsByClassChart();
-            fire.fireChartFuture();
-            fire.fireChartBudgets(12);
-            fire.fireChartBudgets(24);
-
-            final var swr = new CAEYSafeWithdrawalRate();
-
-            Function<BigDecimal, String> shortFormat = this.format::currencyShort;
-            
-            swr.monthlySafeWithdrawalByCapeChart("swr-by-cape-050", new BigDecimal("0.5"), shortFormat);
-            swr.monthlySafeWithdrawalByCapeChart("swr-by-cape-060", new BigDecimal("0.6"), shortFormat);
-            swr.monthlySafeWithdrawalByCapeChart("swr-by-cape-065", new BigDecimal("0.65"), shortFormat);
-            swr.monthlySafeWithdrawalByCapeChart("swr-by-cape-070", new BigDecimal("0.7"), shortFormat);
-            swr.monthlySafeWithdrawalByCapeChart("swr-by-cape-075", new BigDecimal("0.75"), shortFormat);
-
-            savings.savingRate(12);
-            savings.savingRate(24);
-            savings.savingRate(6);
-            this.averageSpendingPortfolioPercent();
-            //this.inflation();
-            inv.benchmarks();
-            this.averageMonthsSavedInCash(12);
-            //this.ripte();
-            pos.investedChart(false, "all");
-
-        } catch (IOException ex) {
-
-            System.err.println("Error generating charts. " + ex.getMessage());
-            ex.printStackTrace(System.err);
+
+        // every job gets its own report objects, Format is not thread safe
+        final var jobs = new ChartScheduler()
+                .add("investments", () -> this.series.getInvestments())
+                .add("income", () -> this.series.realIncome())
+                .add("regular-income", () -> this.series.realRegularIncome())
+                .add("net-savings", () -> this.series.realNetSavings())
+                .add("savings", () -> this.series.realSavings(null))
+                .add("expenses", () -> this.series.getRealUSDExpensesByType(), "income", "net-savings")
+                .add("expenses-chart", () -> this.expensesChart(12, true), "expenses")
+                .add("income-acc", this::incomeAccChart)
+                .add("savings-evo", this::savingsEvoChart, "savings")
+                .add("savings-ars-evo", this::savingsARSEvoChart, "savings")
+                .add("net-avg-saving-spent-12", () -> this.chartSavings().netAvgSavingSpentChart(12), "net-savings", "expenses")
+                .add("net-avg-saving-spent-3", () -> this.chartSavings().netAvgSavingSpentChart(3), "net-savings", "expenses")
+                .add("mdr-nominal", () -> this.chartInvestments().mdrChart(true), "investments", "savings")
+                .add("mdr-real", () -> this.chartInvestments().mdrChart(false), "investments", "savings")
+                .add("mdr-by-year", () -> this.chartInvestments().mdrByYearChart(), "investments")
+                .add("portfolio-by-geography", () -> new Positions(this.console, new Format(), this.series)
+                .portfolioChartByGeography(false, "pct", usdInflation().getTo().getYear(), usdInflation().getTo().getMonthValue()), "investments")
+                .add("savings-chart", this::savingsChart, "net-savings")
+                .add("savings-investments-percent", () -> this.chartInvestments().savingsInvestmentsPercentChart(), "income", "savings", "investments")
+                .add("savings-by-income", () -> this.chartSavings().savingsByIncomeChart(), "regular-income", "net-savings", "expenses")
+                .add("spending-by-regular-income", () -> this.chartSavings().spendingByRegularIncomeChart(), "income", "regular-income", "net-savings", "expenses")
+                .add("spending-by-year", () -> this.chartSavings().spendingByYear(), "income", "net-savings", "expenses")
+                .add("saved-and-invested", () -> this.chartInvestments().savedAndInvestedChart(), "income", "savings", "investments")
+                .add("investments-by-class", () -> this.chartInvestments().investmentsByClassChart(), "savings", "investments")
+                .add("fire-future", () -> new Fire(new Format(), this.series, this.console).fireChartFuture(), "savings", "expenses")
+                .add("fire-budgets-12", () -> new Fire(new Format(), this.series, this.console).fireChartBudgets(12), "savings", "expenses")
+                .add("fire-budgets-24", () -> new Fire(new Format(), this.series, this.console).fireChartBudgets(24), "savings", "expenses");
+
+        for (var pct : List.of("050", "060", "065", "070", "075")) {
+            final var equity = new BigDecimal(pct).movePointLeft(2);
+            jobs.add("swr-by-cape-" + pct, () -> new CAEYSafeWithdrawalRate()
+                    .monthlySafeWithdrawalByCapeChart("swr-by-cape-" + pct, equity, new Format()::currencyShort));
         }
+
+        jobs.add("saving-rate-12", () -> this.chartSavings().savingRate(12), "regular-income", "expenses")
+                .add("saving-rate-24", () -> this.chartSavings().savingRate(24), "regular-income", "expenses")
+                .add("saving-rate-6", () -> this.chartSavings().savingRate(6), "regular-income", "expenses")
+                .add("average-spending-portfolio-percent", this::averageSpendingPortfolioPercent, "savings", "expenses")
+                .add("benchmarks", () -> this.chartInvestments().benchmarks(), "investments")
+                .add("average-months-saved-in-cash", () -> this.averageMonthsSavedInCash(12), "expenses")
+                .add("invested-all", () -> new Positions(this.console, new Format(), this.series).investedChart(false, "all"), "investments");
+
+        final long start = System.nanoTime();
+        final var timings = jobs.run(Integer.getInteger("chartThreads", Runtime.getRuntime().availableProcessors()));
+        final long elapsed = System.nanoTime() - start;
+
+        this.appendLine(this.format.title("Chart Timing"));
+        for (var t : timings) {
+            this.appendLine(
+                    this.format.text(t.name(), 36),
+                    this.format.number(BigDecimal.valueOf(t.nanos() / 1_000_000L), 10),
+                    " ms",
+                    t.error() == null ? "" : " FAILED " + t.error().getMessage());
+            if (t.error() != null) {
+                System.err.println("Error generating chart " + t.name() + ". " + t.error().getMessage());
+                t.error().printStackTrace(System.err);
+            }
+        }
+        this.appendLine(format("{0} jobs in {1} ms, {2} ms of work.",
+                timings.size(),
+                elapsed / 1_000_000L,
+                timings.stream().mapToLong(ChartScheduler.Timing::nanos).sum() / 1_000_000L));
     }
 
     public static record CmdParam(String name, String argsDesc) {
@@ -994,13 +1170,11 @@ public class ConsoleReports {
 
     private void savingsChart() throws IOException {
 
-        var ss = IntStream.of(12, 24, 36)
-                .mapToObj(m -> {
-                    var s = new SlidingWindow(m).average(this.series.realNetSavings());
-                    s.setName(m + " months");
-                    return s;
-                })
-                .toList();
+        final int[] months = {12, 24, 36};
+        final var ss = SlidingWindow.average(this.series.realNetSavings(), months);
+        for (int i = 0; i < months.length; i++) {
+            ss.get(i).setName(months[i] + " months");
+        }
 
         new TimeSeriesChart().create(
                 "Savings Average",
@@ -1115,13 +1289,14 @@ public class ConsoleReports {
 
     }
 
-    private void buy(BigDecimal usd, BigDecimal eur, BigDecimal transfer, boolean detail) {
+    private void buy(BigDecimal usd, BigDecimal eur, BigDecimal transfer, boolean detail, RebalancingSolver.Constraints constraints) {
         RebalancingReport.equity(format, series, console)
                 .buy(
                         new MoneyAmount(usd, USD),
                         new MoneyAmount(eur, Currency.EUR),
                         new MoneyAmount(transfer, USD),
-                        detail);
+                        detail,
+                        constraints);
     }
 
     private void sell(BigDecimal usd, boolean allowOversell, boolean detail) {
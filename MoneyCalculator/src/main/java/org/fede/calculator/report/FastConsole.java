@@ -18,7 +18,9 @@ package org.fede.calculator.report;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 
 /**
  *
@@ -29,15 +31,11 @@ public class FastConsole implements Console {
     private final BufferedWriter out;
 
     public FastConsole() {
-        try {
-            this.out = new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8"), 16 * 1024);
-        } catch (IOException ioEx) {
-
-            System.err.println("Could not initialize output buffer. " + ioEx.getMessage());
-            ioEx.printStackTrace(System.err);
+        this(System.out);
+    }
 
-            throw new RuntimeException(ioEx);
-        }
+    public FastConsole(OutputStream os) {
+        this.out = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 16 * 1024);
     }
 
     @Override
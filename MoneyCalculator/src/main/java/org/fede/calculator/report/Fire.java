@@ -28,6 +28,7 @@ import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
@@ -43,14 +44,17 @@ import org.fede.calculator.chart.ValueFormat;
 import org.fede.calculator.money.Currency;
 import org.fede.calculator.money.MoneyAmount;
 import static org.fede.calculator.money.Currency.USD;
+import org.fede.calculator.money.ForeignExchange;
 import org.fede.calculator.money.ForeignExchanges;
 import static org.fede.calculator.money.MathConstants.C;
 import org.fede.calculator.money.PortfolioProjections;
 import org.fede.calculator.money.SlidingWindow;
+import org.fede.calculator.money.WithdrawalBacktest;
 import static org.fede.calculator.report.Series.ESSENTIAL;
 import static org.fede.calculator.report.Series.OTHER;
 import static org.fede.calculator.report.Series.IRREGULAR;
 import static org.fede.calculator.report.Series.DISCRETIONARY;
+import org.fede.calculator.money.series.IndexSeries;
 import org.fede.calculator.money.series.MoneyAmountSeries;
 import org.fede.calculator.money.series.SeriesReader;
 import static org.fede.calculator.money.series.SeriesReader.readBigDecimal;
@@ -382,6 +386,188 @@ public class Fire {
 
     }
 
+    /**
+     * Monte Carlo success probabilities of the spending budgets over the
+     * retirement horizon, after saving the current monthly saving for the
+     * working years.
+     *
+     * @param months months of spending to average.
+     * @param workingYears years before retiring, 0 to retire today.
+     */
+    public void monteCarlo(int months, int workingYears) {
+
+        this.console.appendLine(this.format.title("Monte Carlo"));
+
+        final var years = SeriesReader.readInt("retirementHorizon");
+        final var budgets = this.budgets(months);
+        final var totalSavings = this.series.currentSavingsUSD();
+        final var swr = new CAEYSafeWithdrawalRate();
+
+        final List<String> labels = new ArrayList<>(8);
+        final List<MoneyAmount> spending = new ArrayList<>(8);
+
+        labels.add("Current Avg. " + months + " months");
+        spending.add(budgets.current());
+        labels.add("Current + Health - CGT");
+        spending.add(budgets.currentWithHealth());
+        labels.add("Essential");
+        spending.add(budgets.essentialWithoutRent());
+        labels.add("Everything");
+        spending.add(budgets.everythingWithoutRent());
+        if (!SeriesReader.readUSD("futureRent").isZero()) {
+            labels.add("Essential + Rent");
+            spending.add(budgets.essentialWithRent());
+            labels.add("Everything + Rent");
+            spending.add(budgets.everythingWithRent());
+        }
+        labels.add("Safe Withdrawal");
+        spending.add(totalSavings.adjust(BigDecimal.valueOf(12L), this.withdrawalRate(swr)));
+
+        final var simulation = new RetirementSimulation(totalSavings);
+        final var results = simulation.withdrawals(spending, budgets.saving(), workingYears, years);
+
+        this.console.appendLine(MessageFormat.format(
+                "{0} paths, {1} years. Assets: {2}.",
+                results.get(0).paths(),
+                years,
+                String.join(", ", simulation.assetNames())));
+        if (workingYears > 0) {
+            this.console.appendLine(MessageFormat.format(
+                    "Saving {0} a month for {1} years first.",
+                    this.format.currency(budgets.saving().amount()),
+                    workingYears));
+        }
+        this.console.appendLine("");
+        this.console.appendLine(MessageFormat.format("{0}{1}{2}{3}{4}",
+                this.format.text("", 24),
+                this.format.text("Spending", 14),
+                this.format.text("Success", 10),
+                this.format.text("Final P10", 16),
+                this.format.text("Final P50", 16)));
+
+        for (int i = 0; i < results.size(); i++) {
+            final var result = results.get(i);
+            this.console.appendLine(MessageFormat.format("{0}{1}{2}{3}{4}",
+                    this.format.text(labels.get(i), 24),
+                    this.format.currency(spending.get(i), 14),
+                    this.format.percent(BigDecimal.valueOf(result.successProbability()), 10),
+                    this.format.currency(new MoneyAmount(BigDecimal.valueOf(result.finalPercentile(0.1d)), USD), 16),
+                    this.format.currency(new MoneyAmount(BigDecimal.valueOf(result.finalPercentile(0.5d)), USD), 16)));
+        }
+    }
+
+    /**
+     * Replays the withdrawal rules over every window of the monthly real
+     * returns of the current allocation.
+     *
+     * @param years the horizon.
+     */
+    public void backtest(int years) {
+
+        this.console.appendLine(this.format.title("Historical Backtest"));
+
+        final var totalSavings = this.series.currentSavingsUSD();
+        final var equity = this.last.last();
+        final var total = totalSavings.amount().doubleValue();
+        final var us = equity.us().amount().doubleValue() / total;
+        final var exUs = equity.exUs().amount().doubleValue() / total;
+        final var em = equity.em().amount().doubleValue() / total;
+        final var cash = Math.max(0d, 1d - us - exUs - em);
+
+        final var usPrices = ForeignExchanges.getForeignExchange(Currency.CSPX, USD);
+        final var exUsPrices = ForeignExchanges.getForeignExchange(Currency.MEUD, USD);
+        final var emPrices = ForeignExchanges.getForeignExchange(Currency.EIMI, USD);
+
+        final var indexes = Stream.of("index/bls.json", "index/CSPX-USD.json", "index/MEUD-EUR.json", "index/USD-EUR.json", "index/EIMI-USD.json")
+                .map(SeriesReader::readIndexSeries)
+                .toList();
+        final var from = indexes.stream()
+                .map(IndexSeries::getFrom)
+                .max(Comparator.naturalOrder())
+                .get();
+        final var to = indexes.stream()
+                .map(IndexSeries::getTo)
+                .min(Comparator.naturalOrder())
+                .get();
+
+        final var cpi = indexes.get(0);
+        final int historyMonths = (int) from.until(to, ChronoUnit.MONTHS);
+        if (historyMonths < 1) {
+            this.console.appendLine("Not enough history.");
+            return;
+        }
+
+        // monthly rebalanced real growth of the allocation, no BigDecimal past here
+        final double[] growth = new double[historyMonths];
+        var ym = from;
+        for (int i = 0; i < historyMonths; i++) {
+            final var next = ym.plusMonths(1);
+            final double inflation = cpi.getIndex(next).doubleValue() / cpi.getIndex(ym).doubleValue();
+            growth[i] = (us * priceChange(usPrices, Currency.CSPX, ym, next)
+                    + exUs * priceChange(exUsPrices, Currency.MEUD, ym, next)
+                    + em * priceChange(emPrices, Currency.EIMI, ym, next)
+                    + cash) / inflation;
+            ym = next;
+        }
+
+        final int months = years * 12;
+        final var backtest = new WithdrawalBacktest(growth);
+        if (backtest.windows(months) == 0) {
+            this.console.appendLine(MessageFormat.format(
+                    "The history from {0} to {1} is shorter than {2} years, there are no complete windows. The longest horizon it covers is {3} years.",
+                    from,
+                    to,
+                    years,
+                    historyMonths / 12));
+            return;
+        }
+
+        final var rate = this.withdrawalRate().doubleValue();
+        final var rules = List.of(
+                WithdrawalBacktest.Rule.fixed("Fixed", rate),
+                WithdrawalBacktest.Rule.fixed("Fixed 4%", 0.04d),
+                WithdrawalBacktest.Rule.variable("CAEY", rate),
+                WithdrawalBacktest.Rule.guardrails("Guardrails", rate, 0.2d, 0.1d));
+
+        final var results = backtest.run(total, rules, years);
+
+        this.console.appendLine(MessageFormat.format(
+                "{0} complete windows of {1} years, from {2} to {3}. Withdrawal rate {4}.",
+                backtest.windows(months),
+                years,
+                from,
+                to,
+                this.format.percent(BigDecimal.valueOf(rate))));
+        this.console.appendLine("");
+        this.console.appendLine(MessageFormat.format("{0}{1}{2}{3}{4}{5}",
+                this.format.text("", 12),
+                this.format.text("Failed", 10),
+                this.format.text("Ending P10", 16),
+                this.format.text("Ending P50", 16),
+                this.format.text("Ending P90", 16),
+                this.format.text("Worst start", 14)));
+
+        for (var result : results) {
+            final var worst = result.worst(1);
+            this.console.appendLine(MessageFormat.format("{0}{1}{2}{3}{4}{5}",
+                    this.format.text(result.rule().name(), 12),
+                    this.format.percent(BigDecimal.valueOf(result.failureRate()), 10),
+                    this.format.currency(BigDecimal.valueOf(result.endingPercentile(0.1d)), 16),
+                    this.format.currency(BigDecimal.valueOf(result.endingPercentile(0.5d)), 16),
+                    this.format.currency(BigDecimal.valueOf(result.endingPercentile(0.9d)), 16),
+                    this.format.text(worst.isEmpty()
+                            ? ""
+                            : from.plusMonths(worst.get(0).start())
+                            + (worst.get(0).failed() ? " ☠ " + worst.get(0).depletionMonth() / 12 + "y" : ""), 14)));
+        }
+    }
+
+    private static double priceChange(ForeignExchange fx, Currency currency, YearMonth from, YearMonth to) {
+        final var unit = new MoneyAmount(ONE, currency);
+        return fx.exchange(unit, USD, to).amount().doubleValue()
+                / fx.exchange(unit, USD, from).amount().doubleValue();
+    }
+
     public void fire(int months) {
 
         this.console.appendLine(this.format.title("F.I.R.E."));
@@ -475,6 +661,11 @@ public class Fire {
         final var discretionary = this.sumExpenses(DISCRETIONARY, months);
         final var irregular = this.sumExpenses(Series.IRREGULAR, 3 * months);
         final var other = this.sumExpenses(Series.OTHER, months);
+        final var currentSpending = Stream.of(essential, discretionary, irregular, other)
+                .reduce(ZERO_USD, MoneyAmount::add);
+        final var income = new SlidingWindow(months)
+                .average(this.series.realRegularIncome())
+                .getAmountOrElseZero(YearMonth.now().plusMonths(-1));
 
         final var essentialWithoutRent = essential
                 .add(futureHealth)
@@ -499,15 +690,15 @@ public class Fire {
                 //everythingWithoutRent
                 adjustforCapitalGains(everythingWithoutRent, capitalGainsTaxRate, costBasisPct),
                 //current
-                adjustforCapitalGains(Stream.of(essential, discretionary, irregular, other)
-                        .reduce(ZERO_USD, MoneyAmount::add),
-                        capitalGainsTaxRate, costBasisPct),
+                adjustforCapitalGains(currentSpending, capitalGainsTaxRate, costBasisPct),
                 //currentWithHealth
                 essential
                         .add(this.currentHealth())
                         .add(discretionary)
                         .add(irregular)
-                        .add(other));
+                        .add(other),
+                //saving
+                income.subtract(currentSpending).max(ZERO_USD));
     }
 
     private MoneyAmount adjustforCapitalGains(
@@ -25,6 +25,7 @@ import java.text.MessageFormat;
 import java.text.NumberFormat;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.fede.calculator.money.MoneyAmount;
 
 /**
@@ -33,7 +34,7 @@ import org.fede.calculator.money.MoneyAmount;
  */
 public class Format {
 
-    private static final Map<String, MessageFormat> FORMATS = HashMap.newHashMap(16);
+    private static final Map<String, MessageFormat> FORMATS = new ConcurrentHashMap<>(16);
 
     private final BigDecimal ONE_THOUSAND = BigDecimal.ONE.movePointRight(3);
     private final BigDecimal ONE_MILLION = BigDecimal.ONE.movePointRight(6);
@@ -92,8 +93,10 @@ public class Format {
     }
 
     public static String format(String pattern, Object... o) {
-        return FORMATS.computeIfAbsent(pattern, MessageFormat::new)
-                .format(o);
+        final var messageFormat = FORMATS.computeIfAbsent(pattern, MessageFormat::new);
+        synchronized (messageFormat) {
+            return messageFormat.format(o);
+        }
     }
 
     public String currency(BigDecimal value) {
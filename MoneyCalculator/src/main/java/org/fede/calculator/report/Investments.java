@@ -29,13 +29,12 @@ import static java.text.MessageFormat.format;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
-import static java.time.Month.DECEMBER;
-import static java.time.Month.JANUARY;
 import java.time.Period;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import static java.util.Comparator.comparing;
@@ -56,6 +55,7 @@ import static java.util.stream.Collectors.joining;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.FixedMoneyAmount;
 import org.fede.calculator.money.ForeignExchanges;
 import org.fede.calculator.money.Inflation;
 import org.fede.calculator.money.MathConstants;
@@ -80,11 +80,15 @@ import static org.fede.calculator.money.series.InvestmentType.FCI;
 import static org.fede.calculator.money.series.InvestmentType.PF;
 import static org.fede.calculator.money.series.InvestmentType.USD_CASH;
 import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.MonthIndex;
+import org.fede.calculator.money.series.PortfolioHoldings;
 import org.fede.calculator.money.series.SeriesReader;
-import org.fede.calculator.money.series.SortedMapMoneyAmountSeries;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
+import org.fede.calculator.money.series.FixedMoneyAmountSeries;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import org.fede.calculator.money.Accumulator;
 import org.fede.calculator.money.series.YearMonthUtil;
 import org.fede.util.Pair;
@@ -411,16 +415,10 @@ public class Investments {
 
     }
 
-    private LabelAndMDR item(List<Investment> series, boolean nominal, int year) {
-        if (year == 0) {
-            return new LabelAndMDR(
-                    "Total",
-                    new ModifiedDietzReturn(series, nominal).get());
-        }
-
-        return new LabelAndMDR(
-                String.valueOf(year),
-                new ModifiedDietzReturn(series, nominal, LocalDate.of(year, JANUARY, 1), LocalDate.of(year, DECEMBER, 31)).get());
+    private LabelAndMDR item(ReturnCube cube, String name, int year) {
+        return year == ReturnCube.TOTAL
+                ? new LabelAndMDR("Total", cube.get(name, ReturnCube.Measure.MDR, year))
+                : new LabelAndMDR(String.valueOf(year), cube.get(name, ReturnCube.Measure.MDR, year));
     }
 
     public void mdrByYearChart() {
@@ -431,14 +429,12 @@ public class Investments {
                 .toList();
 
         final DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        final var portfolio = ReturnCube.Portfolio.of(inv, false);
 
         for (var year = SeriesReader.readInt("start.year") + 1; year <= to; year++) {
-            final var mdr = new ModifiedDietzReturn(
-                    inv,
-                    false,
+            final var mdr = portfolio.mdr(
                     LocalDate.of(year, Month.JANUARY, 1),
-                    LocalDate.of(year, Month.DECEMBER, 31))
-                    .get();
+                    LocalDate.of(year, Month.DECEMBER, 31));
 
             dataset.addValue(mdr.getMoneyWeighted(), "MDR", String.valueOf(year));
         }
@@ -562,16 +558,11 @@ public class Investments {
         var end = Inflation.usdInflation().getTo();
 
         final List<TimeSeriesDatapoint> ss = new ArrayList<>((int) start.until(end, ChronoUnit.MONTHS));
+        final var portfolio = ReturnCube.Portfolio.of(inv, nominal);
 
         for (var ym = start; ym.compareTo(end) <= 0; ym = ym.plusMonths(1)) {
 
-            var to = ym.atEndOfMonth();
-            var realMdr = new ModifiedDietzReturn(
-                    inv,
-                    nominal,
-                    startLocalDate,
-                    to)
-                    .get();
+            var realMdr = portfolio.mdr(startLocalDate, ym.atEndOfMonth());
             ss.add(new TimeSeriesDatapoint(ym, resultFunction.apply(realMdr)));
 
         }
@@ -647,24 +638,16 @@ public class Investments {
             List<Investment> cashBenchmarkSeries,
             boolean nominal) {
 
-        final Map<String, List<LabelAndMDR>> benchmarkMatrix = Map.of(
-                "Portfolio",
-                this.range()
-                        .mapToObj(year -> item(etfs, nominal, year))
-                        .toList(),
-                "CSPX",
-                this.range()
-                        .mapToObj(year -> item(cspxBenchmarkSeries, nominal, year))
-                        .toList(),
-                "IWDA",
-                this.range()
-                        .mapToObj(year -> item(iwdaBenchmarkSeries, nominal, year))
-                        .toList(),
-                "Cash",
-                this.range()
-                        .mapToObj(year -> item(cashBenchmarkSeries, nominal, year))
-                        .toList()
-        );
+        final var cube = ReturnCube.of(
+                Map.of("Portfolio", etfs, "CSPX", cspxBenchmarkSeries, "IWDA", iwdaBenchmarkSeries, "Cash", cashBenchmarkSeries),
+                nominal);
+
+        final Map<String, List<LabelAndMDR>> benchmarkMatrix = Stream.of("Portfolio", "CSPX", "IWDA", "Cash")
+                .collect(Collectors.toMap(
+                        name -> name,
+                        name -> this.range()
+                                .mapToObj(year -> this.item(cube, name, year))
+                                .toList()));
         this.matrix(benchmarkMatrix, nominal);
 
     }
@@ -864,35 +847,38 @@ public class Investments {
                 .reduce(YearMonthUtil::max)
                 .get();
 
-        final var investmentSeries = new SortedMapMoneyAmountSeries(USD, "investment");
-        final var costSeries = new SortedMapMoneyAmountSeries(USD, "costs");
-        final var totalValuesSeries = new SortedMapMoneyAmountSeries(USD, "total");
-        final var taxesValuesSeries = new SortedMapMoneyAmountSeries(USD, "taxes");
+        if (FixedMoneyAmount.enabled()) {
+            try {
+                return this.fixedPointInvestmentEvolution(inv, start, end, nominal);
+            } catch (ArithmeticException overflow) {
+                // fall back to BigDecimal
+            }
+        }
 
-        var ym = start;
-        while (ym.compareTo(end) <= 0) {
+        final var investmentSeries = new ArrayMoneyAmountSeries(USD, "investment");
+        final var costSeries = new ArrayMoneyAmountSeries(USD, "costs");
+        final var totalValuesSeries = new ArrayMoneyAmountSeries(USD, "total");
+        final var taxesValuesSeries = new ArrayMoneyAmountSeries(USD, "taxes");
 
-            final var moment = ym;
+        PortfolioHoldings.of(inv).forEachMonth(start, end, (moment, open) -> {
 
             final Function<Investment, MoneyAmount> invested = i -> this.asUSD(i.getIn().getMoneyAmount(), i.getInitialDate());
             final Function<Investment, MoneyAmount> realInvested = i -> this.real(i, moment, invested);
 
-            investmentSeries.putAmount(ym, accum(inv, ym, nominal ? invested : realInvested));
+            investmentSeries.putAmount(moment, accum(open, nominal ? invested : realInvested));
 
             final Function<Investment, MoneyAmount> cost = i -> i.getCost(USD);
             final Function<Investment, MoneyAmount> realCost = i -> this.real(i, moment, cost);
 
-            costSeries.putAmount(ym, accum(inv, ym, nominal ? cost : realCost));
+            costSeries.putAmount(moment, accum(open, nominal ? cost : realCost));
 
             final Function<Investment, MoneyAmount> total = i -> this.asUSD(i.getInvestment().getMoneyAmount(), moment);
-            totalValuesSeries.putAmount(ym, accum(inv, ym, total));
+            totalValuesSeries.putAmount(moment, accum(open, total));
 
             final Function<Investment, MoneyAmount> taxes = i -> this.tax(i, invested, total);
 
-            taxesValuesSeries.putAmount(ym, accum(inv, ym, taxes));
-
-            ym = ym.plusMonths(1);
-        }
+            taxesValuesSeries.putAmount(moment, accum(open, taxes));
+        });
 
         return Map.of(
                 "invested", investmentSeries,
@@ -901,6 +887,89 @@ public class Investments {
                 "taxes", taxesValuesSeries);
     }
 
+    /**
+     * An open position in fixed point: what was invested and its cost in USD,
+     * the quantity held and the month it was bought.
+     */
+    private record FixedPosition(int month, long invested, long cost, FixedMoneyAmount quantity) {
+
+    }
+
+    /**
+     * Same as the BigDecimal evolution with every amount in fixed point
+     * units. Positions are converted once, the exchange rates of every
+     * currency and the inflation index are read once for the whole range,
+     * and the monthly totals are long arrays until the series are built.
+     *
+     * @throws ArithmeticException on overflow.
+     */
+    private Map<String, MoneyAmountSeries> fixedPointInvestmentEvolution(List<Investment> inv, YearMonth start, YearMonth end, boolean nominal) {
+
+        final int first = MonthIndex.of(start);
+        final int last = MonthIndex.of(end);
+
+        final Map<Investment, FixedPosition> positions = new IdentityHashMap<>();
+        final Map<Currency, long[]> rates = new EnumMap<>(Currency.class);
+        for (var i : inv) {
+            positions.put(i, new FixedPosition(
+                    MonthIndex.of(i.getInitialDate()),
+                    FixedMoneyAmount.of(this.asUSD(i.getIn().getMoneyAmount(), i.getInitialDate())).units(),
+                    FixedMoneyAmount.of(i.getCost(USD)).units(),
+                    FixedMoneyAmount.of(i.getInvestment().getMoneyAmount())));
+            final var c = i.getCurrency();
+            if (c != USD && !rates.containsKey(c)) {
+                rates.put(c, ForeignExchanges.getForeignExchange(c, USD).fixedRates(c, USD, first, last));
+            }
+        }
+
+        final var inflation = Inflation.usdInflation();
+        // months after the index use its last value
+        final long[] index = nominal
+                ? null
+                : inflation.fixedIndex(first, Math.min(last, MonthIndex.of(inflation.getTo())));
+        final long one = FixedMoneyAmount.rate(ONE);
+        final long taxRate = FixedMoneyAmount.rate(SeriesReader.readPercent("capitalGainsTaxRate"));
+
+        final var invested = new long[last - first + 1];
+        final var cost = new long[invested.length];
+        final var total = new long[invested.length];
+        final var taxes = new long[invested.length];
+
+        PortfolioHoldings.of(inv).forEachMonth(start, end, (moment, open) -> {
+            final int m = MonthIndex.of(moment) - first;
+            for (var i : open) {
+                final var p = positions.get(i);
+
+                long in = p.invested();
+                long c = p.cost();
+                if (!nominal) {
+                    final long factor = index[Math.min(m, index.length - 1)];
+                    final long divisor = index[Math.min(p.month() - first, index.length - 1)];
+                    in = FixedMoneyAmount.mulDiv(in, factor, divisor);
+                    c = FixedMoneyAmount.mulDiv(c, factor, divisor);
+                }
+                invested[m] = Math.addExact(invested[m], in);
+                cost[m] = Math.addExact(cost[m], c);
+
+                final long value = p.quantity().currency() == USD
+                        ? p.quantity().units()
+                        : p.quantity().exchange(USD, rates.get(p.quantity().currency())[m]).units();
+                total[m] = Math.addExact(total[m], value);
+
+                final long gain = Math.subtractExact(value, p.invested());
+                if (gain > 0L) {
+                    taxes[m] = Math.addExact(taxes[m], FixedMoneyAmount.mulDiv(gain, taxRate, one));
+                }
+            }
+        });
+
+        return Map.of(
+                "invested", new FixedMoneyAmountSeries(USD, "investment", start, invested).toMoneyAmountSeries(),
+                "cost", new FixedMoneyAmountSeries(USD, "costs", start, cost).toMoneyAmountSeries(),
+                "total", new FixedMoneyAmountSeries(USD, "total", start, total).toMoneyAmountSeries(),
+                "taxes", new FixedMoneyAmountSeries(USD, "taxes", start, taxes).toMoneyAmountSeries());
+    }
+
     private MoneyAmount real(Investment i, YearMonth moment, Function<Investment, MoneyAmount> extrator) {
         return Inflation.usdInflation()
                 .adjust(extrator.apply(i), YearMonth.from(i.getInitialDate()), moment);
@@ -926,11 +995,9 @@ public class Investments {
         return ForeignExchanges.getMoneyAmountForeignExchange(ma.currency(), USD).apply(ma, ym);
     }
 
-    private MoneyAmount accum(List<Investment> investments, YearMonth yearMonth, Function<Investment, MoneyAmount> extractor) {
+    private MoneyAmount accum(Collection<Investment> openPositions, Function<Investment, MoneyAmount> extractor) {
 
-        return investments.stream()
-                .filter(i -> YearMonth.from(i.getIn().getDate()).compareTo(yearMonth) <= 0)
-                .filter(i -> i.isCurrent(yearMonth.atEndOfMonth()))
+        return openPositions.stream()
                 .map(extractor)
                 .reduce(ZERO_USD, MoneyAmount::add);
     }
@@ -1159,25 +1226,14 @@ public class Investments {
 
         this.console.appendLine(this.format.subtitle("Tax"));
 
-        //bna comprador
-        final Map<String, BigDecimal> bnaFX = Map.of(
-                "2025-04-03", BigDecimal.valueOf(1075),
-                "2025-04-08", BigDecimal.valueOf(107625).movePointLeft(2),
-                "2025-04-14", BigDecimal.valueOf(1198),
-                "2025-04-24", BigDecimal.valueOf(1174),
-                "2025-05-01", BigDecimal.valueOf(1170),
-                "2025-05-09", BigDecimal.valueOf(1136),
-                "2025-05-16", BigDecimal.valueOf(1142),
-                "2025-05-23", BigDecimal.valueOf(11335).movePointLeft(1)
-        );
         final var col2Width = 25;
         final var col1Width = 9;
 
-        final var arsCapitalGain = this.series.getInvestments()
+        final var sales = this.series.lotLedger().realized();
+
+        final var arsCapitalGain = sales
                 .stream()
-                .filter(Investment::isETF)
-                .filter(i -> i.getOut() != null)
-                .map(i -> this.capitalGainARS(i, bnaFX))
+                .map(LotLedger.Realization::taxableGainARS)
                 .reduce(MoneyAmount.zero(ARS), MoneyAmount::add);
 
         final var arsTax = arsCapitalGain
@@ -1192,15 +1248,13 @@ public class Investments {
                 MEUS, "Luxemburg"
         );
 
-        Map<String, MoneyAmount> byCountry = this.series.getInvestments()
+        Map<String, MoneyAmount> byCountry = sales
                 .stream()
-                .filter(Investment::isETF)
-                .filter(i -> i.getOut() != null)
                 .collect(Collectors.groupingBy(
-                        i -> country.getOrDefault(i.getCurrency(), "Ireland"),
+                        r -> country.getOrDefault(r.currency(), "Ireland"),
                         Collectors.reducing(
                                 MoneyAmount.zero(ARS),
-                                i -> this.capitalGainARS(i, bnaFX),
+                                LotLedger.Realization::taxableGainARS,
                                 MoneyAmount::add)
                 ));
 
@@ -1227,83 +1281,49 @@ public class Investments {
                 this.format.center("CG ARS", 21)
         ));
 
-        final Function<Investment, InvestmentGroup> classifier = switch (type) {
+        final Function<LotLedger.Realization, InvestmentGroup> classifier = switch (type) {
             case "group" ->
-                (Investment i) -> new InvestmentGroup(i.getCurrency(), dtf.format(i.getOut().getDate()));
+                (LotLedger.Realization r) -> new InvestmentGroup(r.currency(), dtf.format(r.sellDate()));
             case "groupall" ->
-                (Investment i) -> new InvestmentGroup(i.getCurrency(), "");
+                (LotLedger.Realization r) -> new InvestmentGroup(r.currency(), "");
             default ->
                 null;
         };
 
-        if (classifier != null) {
+        final Collection<LotLedger.Realization> detail = classifier == null
+                ? sales
+                : sales.stream()
+                        .collect(Collectors.groupingBy(
+                                classifier,
+                                Collectors.reducing(LotLedger.Realization::add)))
+                        .values()
+                        .stream()
+                        .map(Optional::get)
+                        .toList();
 
-            Map<InvestmentGroup, Investment> grouped
-                    = this.series.getInvestments()
-                            .stream()
-                            .filter(Investment::isETF)
-                            .filter(i -> i.getOut() != null)
-                            .collect(Collectors.groupingBy(
-                                    classifier,
-                                    Collectors.reducing(null, this::union)
-                            ));
-
-            grouped.values()
-                    .stream()
-                    .sorted(Comparator.comparing((Investment i) -> i.getOut().getDate())
-                            .thenComparing(Comparator.comparing((Investment i) -> i.getCurrency())))
-                    .map(e -> this.sellReport(e, bnaFX))
-                    .forEach(this.console::appendLine);
-        } else {
-            this.series.getInvestments()
-                    .stream()
-                    .filter(Investment::isETF)
-                    .filter(i -> i.getOut() != null)
-                    .sorted(Comparator.comparing((Investment i) -> i.getOut().getDate())
-                            .thenComparing(Comparator.comparing(Investment::getCurrency)))
-                    .map(i -> this.sellReport(i, bnaFX))
-                    .forEach(this.console::appendLine);
-        }
+        detail.stream()
+                .sorted(Comparator.comparing(LotLedger.Realization::sellDate)
+                        .thenComparing(LotLedger.Realization::currency))
+                .map(this::sellReport)
+                .forEachOrdered(this.console::appendLine);
     }
 
     private record InvestmentGroup(Currency currency, String date) {
 
     }
 
-    private Investment union(Investment left, Investment right) {
+    private String sellReport(LotLedger.Realization r) {
 
-        if (left == null) {
-            return right;
-        }
-        if (right == null) {
-            return left;
-        }
-
-        var res = new Investment();
-        res.setIn(this.union(left.getIn(), right.getIn()));
-        res.setOut(this.union(left.getOut(), right.getOut()));
-
-        var c1 = left.getComment();
-        var c2 = right.getComment();
-
-        if (c1 == null && c2 == null) {
-            res.setComment(null);
-        } else {
-            res.setComment(c1 == null ? c2 : c1);
-        }
-        res.setType(left.getType());
-        res.setInvestment(this.union(left.getInvestment(), right.getInvestment()));
-        return res;
-    }
-
-    private InvestmentAsset union(InvestmentAsset left, InvestmentAsset right) {
-
-        InvestmentAsset res = new InvestmentAsset();
-
-        res.setAmount(left.getAmount().add(right.getAmount()));
-        res.setCurrency(left.getCurrency());
-
-        return res;
+        return MessageFormat.format("{0} {1} {2} {3} {4} {5} {6} {7}",
+                DateTimeFormatter.ISO_DATE.format(r.sellDate()),
+                r.currency(),
+                this.format.number(r.quantity(), 8),
+                this.format.currency(r.proceeds(), 18),
+                this.format.currency(r.sellFees(), 16),
+                this.format.currency(r.taxableGain(), 16),
+                this.format.currency(new MoneyAmount(r.arsRate(), ARS), 16),
+                this.format.currency(r.taxableGainARS(), 20)
+        );
     }
 
     private InvestmentEvent union(InvestmentEvent left, InvestmentEvent right) {
@@ -1333,37 +1353,6 @@ public class Investments {
         return res;
     }
 
-    private MoneyAmount capitalGainARS(Investment i, Map<String, BigDecimal> bnaFX) {
-        return new MoneyAmount(i.getOut()
-                .getMoneyAmount()
-                .subtract(this.cost(i))
-                .adjust(ONE, bnaFX.get(dtf.format(i.getOut().getDate()))).amount(),
-                ARS);
-    }
-
-    private String sellReport(Investment i, Map<String, BigDecimal> bnaFX) {
-
-        return MessageFormat.format("{0} {1} {2} {3} {4} {5} {6} {7}",
-                DateTimeFormatter.ISO_DATE.format(
-                        i.getOut().getDate()),
-                i.getCurrency(),
-                this.format.number(i.getInvestment().getAmount(), 8),
-                this.format.currency(i.getOut().getMoneyAmount(), 18),
-                this.format.currency(i.getOut().getFeeMoneyAmount(USD), 16),
-                this.format.currency(i.getOut().getMoneyAmount().subtract(this.cost(i)), 16),
-                this.format.currency(new MoneyAmount(bnaFX.get(dtf.format(i.getOut().getDate())), ARS), 16),
-                this.format.currency(this.capitalGainARS(i, bnaFX), 20)
-        );
-    }
-
-    private MoneyAmount cost(Investment i) {
-
-        var iva = SeriesReader.readPercent("iva").add(ONE);
-
-        return i.getIn().getMoneyAmount(USD)
-                .add(i.getIn().getFeeMoneyAmount(USD).adjust(BigDecimal.ONE, iva));
-    }
-
     private <T> SoldAndBought<T> summarize(
             Function<InvestmentEvent, T> sellMapper,
             Function<InvestmentEvent, T> buyMapper,
@@ -1508,34 +1497,18 @@ public class Investments {
 
     private MoneyAmountSeries portfolioValue(boolean nominal, Predicate<Investment> filter) {
 
-        final var start = this.series.getInvestments()
+        final var holdings = PortfolioHoldings.of(this.series.getInvestments()
                 .stream()
                 .filter(filter)
-                .map(Investment::getIn)
-                .map(InvestmentEvent::getDate)
-                .map(YearMonth::from)
-                .min(YearMonth::compareTo).get();
+                .toList());
 
-        final var valueSeries = new SortedMapMoneyAmountSeries(USD, (nominal ? "Nominal" : "Real") + " Investments");
-        final var end = Inflation.usdInflation().getTo();
+        final int start = MonthIndex.of(holdings.getFrom());
+        final int end = Inflation.usdInflation().toIndex();
 
-        for (YearMonth ym = start; ym.compareTo(end) <= 0; ym = ym.plusMonths(1)) {
-
-            final var moment = ym.atEndOfMonth();
-            final var momentYm = ym;
+        final var valueSeries = new ArrayMoneyAmountSeries(USD, (nominal ? "Nominal" : "Real") + " Investments", start, end);
 
-            valueSeries.putAmount(ym,
-                    this.series.getInvestments()
-                            .stream()
-                            .filter(filter)
-                            .filter(i -> i.isCurrent(moment))
-                            .map(Investment::getInvestment)
-                            .map(InvestmentAsset::getMoneyAmount)
-                            .map(ma -> ForeignExchanges.getForeignExchange(ma.currency(), USD).exchange(ma, USD, moment))
-                            .map(ma -> nominal
-                            ? ma
-                            : Inflation.usdInflation().adjust(ma, momentYm, end))
-                            .reduce(ZERO_USD, MoneyAmount::add));
+        for (int month = start; month <= end; month++) {
+            valueSeries.putAmount(month, holdings.value(USD, month, nominal));
         }
 
         return valueSeries;
@@ -1567,7 +1540,7 @@ public class Investments {
 
         final var start = contributions.keySet().stream().min(YearMonth::compareTo).get();
 
-        final var accSeries = new SortedMapMoneyAmountSeries(USD, (nominal ? "Nominal" : "Real") + " Contributions");
+        final var accSeries = new ArrayMoneyAmountSeries(USD, (nominal ? "Nominal" : "Real") + " Contributions");
         final var end = YearMonth.now();
 
         var acc = ZERO_USD;
@@ -1651,7 +1624,7 @@ public class Investments {
             double carg,
             double volatility) {
 
-        final var valueSeries = new SortedMapMoneyAmountSeries(USD,
+        final var valueSeries = new ArrayMoneyAmountSeries(USD,
                 " P"
                 + (int) (percentile * 100d));
         valueSeries.putAmount(start, initial);
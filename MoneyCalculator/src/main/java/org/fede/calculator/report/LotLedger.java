@@ -0,0 +1,467 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.math.BigDecimal;
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.ZERO;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.fede.calculator.money.Currency;
+import static org.fede.calculator.money.Currency.ARS;
+import static org.fede.calculator.money.Currency.USD;
+import static org.fede.calculator.money.MathConstants.C;
+import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.series.Investment;
+import org.fede.calculator.money.series.SeriesReader;
+
+/**
+ * Open lots and realized gains by currency. Every currency keeps its open
+ * lots in one ordered set per {@link Selection}, so finding the next lot to
+ * sell, selling part of it or removing it are O(log n). Every sale is
+ * appended to the realized ledger with its proceeds, cost basis and fees in
+ * USD, the ARS gain uses the BNA buying rate of the sale date.
+ *
+ * {@link Series#lotLedger()} replays every ETF investment and is shared by
+ * the reports. The replayed ledger is read only, buying or selling on it
+ * throws, what-if sales go to a {@link #fork()}.
+ *
+ * @author fede
+ */
+public final class LotLedger {
+
+    public enum Selection {
+        FIFO(Comparator.comparing(Lot::date)
+                .thenComparingLong(Lot::sequence)),
+        LIFO(Comparator.comparing(Lot::date)
+                .thenComparingLong(Lot::sequence)
+                .reversed()),
+        HIFO(Comparator.comparing(Lot::costPerShare)
+                .reversed()
+                .thenComparingLong(Lot::sequence));
+
+        private final Comparator<Lot> order;
+
+        Selection(Comparator<Lot> order) {
+            this.order = order;
+        }
+    }
+
+    //bna comprador
+    private static final Map<LocalDate, BigDecimal> BNA_FX = Map.of(
+            LocalDate.of(2025, 4, 3), BigDecimal.valueOf(1075),
+            LocalDate.of(2025, 4, 8), BigDecimal.valueOf(107625).movePointLeft(2),
+            LocalDate.of(2025, 4, 14), BigDecimal.valueOf(1198),
+            LocalDate.of(2025, 4, 24), BigDecimal.valueOf(1174),
+            LocalDate.of(2025, 5, 1), BigDecimal.valueOf(1170),
+            LocalDate.of(2025, 5, 9), BigDecimal.valueOf(1136),
+            LocalDate.of(2025, 5, 16), BigDecimal.valueOf(1142),
+            LocalDate.of(2025, 5, 23), BigDecimal.valueOf(11335).movePointLeft(1));
+
+    /**
+     * An open lot. The quantity goes down with partial sales, everything the
+     * selection orders depend on does not change.
+     */
+    public static final class Lot {
+
+        private final long sequence;
+        private final Investment investment;
+        private final BigDecimal costPerShare;
+        private BigDecimal quantity;
+
+        private Lot(long sequence, Investment investment, BigDecimal costPerShare, BigDecimal quantity) {
+            this.sequence = sequence;
+            this.investment = investment;
+            this.costPerShare = costPerShare;
+            this.quantity = quantity;
+        }
+
+        private long sequence() {
+            return this.sequence;
+        }
+
+        public Investment investment() {
+            return this.investment;
+        }
+
+        public Currency currency() {
+            return this.investment.getCurrency();
+        }
+
+        public LocalDate date() {
+            return this.investment.getInitialDate();
+        }
+
+        public BigDecimal costPerShare() {
+            return this.costPerShare;
+        }
+
+        public BigDecimal quantity() {
+            return this.quantity;
+        }
+
+        public MoneyAmount basis() {
+            return this.basis(this.quantity);
+        }
+
+        private MoneyAmount basis(BigDecimal shares) {
+            return this.share(this.investment.getInitialMoneyAmount(USD), shares);
+        }
+
+        private MoneyAmount buyFees(BigDecimal shares) {
+            final var fee = this.investment.getIn().getFeeMoneyAmount(USD);
+            return fee.isZero()
+                    ? fee
+                    : this.share(fee.adjust(ONE, SeriesReader.readPercent("iva").add(ONE)), shares);
+        }
+
+        private MoneyAmount share(MoneyAmount total, BigDecimal shares) {
+            return total.adjust(this.investment.getInvestment().getAmount(), shares);
+        }
+
+        private Lot copy() {
+            return new Lot(this.sequence, this.investment, this.costPerShare, this.quantity);
+        }
+    }
+
+    /**
+     * A sale of part or all of a lot. Amounts are in USD.
+     *
+     * @param lot the investment of the lot sold.
+     * @param sellDate
+     * @param quantity
+     * @param proceeds
+     * @param basis cost of the quantity sold without fees.
+     * @param buyFees buy fees of the quantity sold, with IVA.
+     * @param sellFees
+     */
+    public record Realization(
+            Investment lot,
+            LocalDate sellDate,
+            BigDecimal quantity,
+            MoneyAmount proceeds,
+            MoneyAmount basis,
+            MoneyAmount buyFees,
+            MoneyAmount sellFees) {
+
+        public Currency currency() {
+            return this.lot.getCurrency();
+        }
+
+        public LocalDate buyDate() {
+            return this.lot.getInitialDate();
+        }
+
+        public MoneyAmount gain() {
+            return this.proceeds.subtract(this.basis);
+        }
+
+        public MoneyAmount taxableGain() {
+            return this.gain().subtract(this.buyFees);
+        }
+
+        /**
+         * @return ARS per USD on the sale date, BNA buying rate.
+         */
+        public BigDecimal arsRate() {
+            final var rate = BNA_FX.get(this.sellDate);
+            if (rate == null) {
+                throw new IllegalArgumentException("No BNA buying rate for the sale date " + this.sellDate + ".");
+            }
+            return rate;
+        }
+
+        public MoneyAmount taxableGainARS() {
+            return new MoneyAmount(
+                    this.taxableGain().amount().multiply(this.arsRate(), C),
+                    ARS);
+        }
+
+        /**
+         * Adds two realizations, keeping the first dates like the grouped
+         * reports do.
+         */
+        public Realization add(Realization other) {
+            return new Realization(
+                    this.buyDate().isAfter(other.buyDate()) ? other.lot : this.lot,
+                    this.sellDate.isAfter(other.sellDate) ? other.sellDate : this.sellDate,
+                    this.quantity.add(other.quantity),
+                    this.proceeds.add(other.proceeds),
+                    this.basis.add(other.basis),
+                    this.buyFees.add(other.buyFees),
+                    this.sellFees.add(other.sellFees));
+        }
+    }
+
+    private static final class Position {
+
+        private final Map<Selection, NavigableSet<Lot>> queues = new EnumMap<>(Selection.class);
+        private final Map<Investment, Lot> byInvestment = new IdentityHashMap<>();
+        private final NavigableMap<LocalDate, BigDecimal> changes = new TreeMap<>();
+        private BigDecimal quantity = ZERO;
+
+        private Position() {
+            for (var selection : Selection.values()) {
+                this.queues.put(selection, new TreeSet<>(selection.order));
+            }
+        }
+
+        private void add(Lot lot) {
+            this.queues.values().forEach(q -> q.add(lot));
+            this.byInvestment.put(lot.investment, lot);
+        }
+
+        private void remove(Lot lot) {
+            this.queues.values().forEach(q -> q.remove(lot));
+            this.byInvestment.remove(lot.investment);
+        }
+
+        private void change(LocalDate date, BigDecimal delta) {
+            this.quantity = this.quantity.add(delta);
+            this.changes.merge(date, delta, BigDecimal::add);
+        }
+    }
+
+    private final Map<Currency, Position> positions = new EnumMap<>(Currency.class);
+    private final List<Realization> realized = new ArrayList<>();
+    private long sequence;
+    private boolean readOnly;
+
+    /**
+     * Replays the buys and sales of every ETF investment in date order.
+     *
+     * @param investments
+     * @return a read only ledger with the lots still open and every sale
+     * realized.
+     */
+    public static LotLedger replay(List<Investment> investments) {
+
+        record Event(LocalDate date, boolean sale, Investment investment) {
+
+        }
+
+        final var ledger = new LotLedger();
+        investments.stream()
+                .filter(Investment::isETF)
+                .flatMap(i -> i.getOut() == null
+                ? Stream.of(new Event(i.getInitialDate(), false, i))
+                : Stream.of(new Event(i.getInitialDate(), false, i), new Event(i.getOut().getDate(), true, i)))
+                .sorted(Comparator.comparing(Event::date)
+                        .thenComparing(Event::sale))
+                .forEachOrdered(e -> {
+                    if (e.sale()) {
+                        final var out = e.investment().getOut();
+                        ledger.sell(
+                                ledger.lot(e.investment()),
+                                e.investment().getInvestment().getAmount(),
+                                out.getMoneyAmount(USD),
+                                out.getFeeMoneyAmount(USD),
+                                out.getDate());
+                    } else {
+                        ledger.buy(e.investment());
+                    }
+                });
+        ledger.readOnly = true;
+        return ledger;
+    }
+
+    /**
+     * @return a ledger that can be bought and sold on, with a copy of the
+     * open lots and no realized gains.
+     */
+    public LotLedger fork() {
+        final var fork = new LotLedger();
+        fork.sequence = this.sequence;
+        for (var e : this.positions.entrySet()) {
+            final var position = new Position();
+            e.getValue().byInvestment.values()
+                    .stream()
+                    .map(Lot::copy)
+                    .forEach(position::add);
+            position.quantity = e.getValue().quantity;
+            position.changes.putAll(e.getValue().changes);
+            fork.positions.put(e.getKey(), position);
+        }
+        return fork;
+    }
+
+    public Lot buy(Investment investment) {
+        this.checkWritable();
+        final var quantity = investment.getInvestment().getAmount();
+        if (quantity.signum() <= 0) {
+            throw new IllegalArgumentException("Lots must have a positive quantity.");
+        }
+        final var lot = new Lot(
+                this.sequence++,
+                investment,
+                investment.getInitialMoneyAmount(USD).amount().divide(quantity, C),
+                quantity);
+        final var position = this.positions.computeIfAbsent(investment.getCurrency(), c -> new Position());
+        position.add(lot);
+        position.change(lot.date(), quantity);
+        return lot;
+    }
+
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("Read only ledger, buy and sell on a fork.");
+        }
+    }
+
+    /**
+     * @param investment
+     * @return the open lot of the investment.
+     */
+    public Lot lot(Investment investment) {
+        return Optional.ofNullable(this.positions.get(investment.getCurrency()))
+                .map(p -> p.byInvestment.get(investment))
+                .orElseThrow(() -> new IllegalArgumentException("No open lot for " + investment.getCurrency() + " bought on " + investment.getInitialDate() + "."));
+    }
+
+    /**
+     * Sells part or all of a specific lot.
+     *
+     * @param lot
+     * @param quantity
+     * @param proceeds in USD.
+     * @param fees in USD.
+     * @param date
+     * @return the realization appended to the ledger.
+     */
+    public Realization sell(Lot lot, BigDecimal quantity, MoneyAmount proceeds, MoneyAmount fees, LocalDate date) {
+        this.checkWritable();
+        final var position = this.positions.get(lot.currency());
+        if (position == null || position.byInvestment.get(lot.investment) != lot) {
+            throw new IllegalArgumentException("Lot is not open in this ledger.");
+        }
+        if (quantity.signum() <= 0 || quantity.compareTo(lot.quantity) > 0) {
+            throw new IllegalArgumentException("Can't sell " + quantity + " of a lot of " + lot.quantity + ".");
+        }
+
+        final var realization = new Realization(
+                lot.investment,
+                date,
+                quantity,
+                proceeds,
+                lot.basis(quantity),
+                lot.buyFees(quantity),
+                fees);
+
+        lot.quantity = lot.quantity.subtract(quantity);
+        if (lot.quantity.signum() == 0) {
+            position.remove(lot);
+        }
+        position.change(date, quantity.negate());
+        this.realized.add(realization);
+        return realization;
+    }
+
+    /**
+     * Sells a quantity of a currency taking lots in the selection order, the
+     * last lot may be partially sold.
+     *
+     * @param currency
+     * @param quantity
+     * @param price USD per share.
+     * @param date
+     * @param selection
+     * @return one realization per lot touched.
+     */
+    public List<Realization> sell(Currency currency, BigDecimal quantity, MoneyAmount price, LocalDate date, Selection selection) {
+        this.checkWritable();
+        if (quantity.compareTo(this.quantity(currency)) > 0) {
+            throw new IllegalArgumentException("Can't sell " + quantity + " " + currency + ", there are " + this.quantity(currency) + ".");
+        }
+        final List<Realization> answer = new ArrayList<>();
+        var left = quantity;
+        while (left.signum() > 0) {
+            final var lot = this.positions.get(currency).queues.get(selection).first();
+            final var sold = left.min(lot.quantity);
+            answer.add(this.sell(lot, sold, price.adjust(ONE, sold), MoneyAmount.zero(USD), date));
+            left = left.subtract(sold);
+        }
+        return answer;
+    }
+
+    /**
+     * @param currency
+     * @param selection
+     * @return the next lot the selection would sell.
+     */
+    public Optional<Lot> next(Currency currency, Selection selection) {
+        return Optional.ofNullable(this.positions.get(currency))
+                .map(p -> p.queues.get(selection))
+                .filter(q -> !q.isEmpty())
+                .map(NavigableSet::first);
+    }
+
+    /**
+     * @param currency
+     * @param selection
+     * @return the open lots in the selection order.
+     */
+    public Stream<Lot> open(Currency currency, Selection selection) {
+        return Optional.ofNullable(this.positions.get(currency))
+                .map(p -> p.queues.get(selection).stream())
+                .orElseGet(Stream::empty);
+    }
+
+    public Set<Currency> currencies() {
+        return Collections.unmodifiableSet(this.positions.keySet());
+    }
+
+    public BigDecimal quantity(Currency currency) {
+        return Optional.ofNullable(this.positions.get(currency))
+                .map(p -> p.quantity)
+                .orElse(ZERO);
+    }
+
+    /**
+     * @param currency
+     * @param date
+     * @return the quantity held at the end of the date.
+     */
+    public BigDecimal quantity(Currency currency, LocalDate date) {
+        return Optional.ofNullable(this.positions.get(currency))
+                .map(p -> p.changes.headMap(date, true)
+                .values()
+                .stream()
+                .reduce(ZERO, BigDecimal::add))
+                .orElse(ZERO);
+    }
+
+    /**
+     * @return every sale in the order it was made.
+     */
+    public List<Realization> realized() {
+        return Collections.unmodifiableList(this.realized);
+    }
+
+}
@@ -27,12 +27,12 @@ import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import org.fede.calculator.money.Currency;
-import org.fede.calculator.money.ForeignExchanges;
 import org.fede.calculator.money.Inflation;
 import org.fede.calculator.money.MoneyAmount;
 import static org.fede.calculator.money.Currency.USD;
 import org.fede.calculator.money.series.Investment;
 import org.fede.calculator.money.series.InvestmentEvent;
+import org.fede.calculator.money.series.PortfolioHoldings;
 import java.time.YearMonth;
 import static org.fede.calculator.money.MathConstants.C;
 
@@ -49,6 +49,7 @@ public class ModifiedDietzReturn {
     private final LocalDate finalMoment;
     private final long daysBetween;
     private final MoneyAmount zeroAmount;
+    private final PortfolioHoldings holdings;
 
     private static LocalDate min(LocalDate l1, LocalDate l2) {
         return l1.compareTo(l2) <= 0
@@ -98,7 +99,12 @@ public class ModifiedDietzReturn {
     }
 
     public ModifiedDietzReturn(List<Investment> investments, Currency currency, boolean nominal, LocalDate initialMoment, LocalDate finalMoment) {
+        this(investments, PortfolioHoldings.of(investments), currency, nominal, initialMoment, finalMoment);
+    }
+
+    private ModifiedDietzReturn(List<Investment> investments, PortfolioHoldings holdings, Currency currency, boolean nominal, LocalDate initialMoment, LocalDate finalMoment) {
         this.investments = investments;
+        this.holdings = holdings;
         this.currency = currency;
         this.zeroAmount = MoneyAmount.zero(this.currency);
         this.nominal = nominal;
@@ -171,14 +177,7 @@ public class ModifiedDietzReturn {
     }
 
     private MoneyAmount portfolioValue(YearMonth ym) {
-        final var toDate = ym.atEndOfMonth();
-        return this.getInvestments()
-                .stream()
-                .filter(i -> i.isCurrent(toDate))
-                .map(Investment::getInvestment)
-                .map(asset -> ForeignExchanges.getMoneyAmountForeignExchange(asset.getCurrency(), currency).apply(asset.getMoneyAmount(), ym))
-                .map(ma -> nominal ? ma : Inflation.usdInflation().adjust(ma, ym, Inflation.usdInflation().getTo()))
-                .reduce(this.zeroAmount, MoneyAmount::add)
+        return this.holdings.value(this.currency, ym, this.nominal)
                 .max(this.zeroAmount);
     }
 
@@ -223,6 +222,7 @@ public class ModifiedDietzReturn {
             final var fn = next.atEndOfMonth();
             monthyMDR.add(new ModifiedDietzReturn(
                     this.investments,
+                    this.holdings,
                     this.currency,
                     this.nominal,
                     st,
@@ -31,7 +31,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.reducing;
 import java.util.stream.IntStream;
@@ -53,6 +52,9 @@ import static org.fede.calculator.money.MathConstants.C;
  */
 public class PortfolioReturns {
 
+    private static final String WITH_CASH = "With Cash";
+    private static final String WITHOUT_CASH = "Without Cash";
+
     private final Series series;
     private final Console console;
     private final Format format;
@@ -90,95 +92,63 @@ public class PortfolioReturns {
         return d.isAfter(LocalDate.of(year, m, day));
     }
 
-    private Map<Integer, ModifiedDietzReturnResult> mdrByYear(Function<ModifiedDietzReturn, ModifiedDietzReturnResult> returnTypeFunction) {
-
-        final Predicate<Investment> sinceYear = i -> after(i.getInitialDate(), 1999, Month.JANUARY, 1);
-        final var inv = Stream.concat(
-                this.cashInvestments.cashInvestments().stream(),
+    private List<Investment> investments(boolean withCash) {
+        return Stream.concat(
+                withCash ? this.cashInvestments.cashInvestments().stream() : Stream.empty(),
                 this.series.getInvestments().stream())
-                .filter(sinceYear)
                 .toList();
+    }
 
-        final var from = inv.stream()
-                .map(Investment::getInitialDate)
-                .reduce(PortfolioReturns::min)
-                .get();
-
-        final var to = inv.stream()
-                .map(i -> Optional.ofNullable(i.getOut()).map(InvestmentEvent::getDate).orElseGet(LocalDate::now))
-                .reduce(PortfolioReturns::max)
-                .get();
+    /**
+     * Both portfolios, with and without cash. Returns are computed when they
+     * are asked for.
+     */
+    private ReturnCube cube(boolean nominal) {
+        return ReturnCube.of(
+                Map.of(WITH_CASH, this.investments(true), WITHOUT_CASH, this.investments(false)),
+                nominal);
+    }
 
-        return this.mdrByYear(inv, from, to, false, returnTypeFunction);
+    private static String portfolio(boolean withCash) {
+        return withCash ? WITH_CASH : WITHOUT_CASH;
     }
 
-    private ModifiedDietzReturnResult mdrResult(int year, boolean nominal, boolean withCash, Function<ModifiedDietzReturn, ModifiedDietzReturnResult> returnTypeFunction) {
+    private Map<Integer, ModifiedDietzReturnResult> mdrByYear() {
 
+        final Predicate<Investment> sinceYear = i -> after(i.getInitialDate(), 1999, Month.JANUARY, 1);
         final var inv = Stream.concat(
-                withCash ? this.cashInvestments.cashInvestments().stream() : Stream.empty(),
+                this.cashInvestments.cashInvestments().stream(),
                 this.series.getInvestments().stream())
+                .filter(sinceYear)
                 .toList();
 
-        var end
-                = inv.stream()
-                        .map(i -> i.getOut() == null ? Inflation.usdInflation().getTo() : YearMonth.from(i.getOut().getDate()))
-                        .max(Comparator.naturalOrder())
-                        .orElse(Inflation.usdInflation().getTo());
-
-        return returnTypeFunction.apply(new ModifiedDietzReturn(
-                inv,
-                USD,
-                nominal,
-                LocalDate.of(year, Month.JANUARY, 1),
-                end.atEndOfMonth()));
+        return ReturnCube.of(Map.of(WITH_CASH, inv), false)
+                .byYear(WITH_CASH, ReturnCube.Measure.MDR);
     }
 
-    private ModifiedDietzReturnResult xirrResult(int year, boolean nominal, boolean withCash) {
-
-        final var inv = Stream.concat(
-                withCash ? this.cashInvestments.cashInvestments().stream() : Stream.empty(),
-                this.series.getInvestments().stream())
-                .toList();
+    private ModifiedDietzReturnResult result(ReturnCube cube, int year, boolean withCash, ReturnCube.Measure measure) {
 
         var end
-                = inv.stream()
+                = this.investments(withCash).stream()
                         .map(i -> i.getOut() == null ? Inflation.usdInflation().getTo() : YearMonth.from(i.getOut().getDate()))
                         .max(Comparator.naturalOrder())
                         .orElse(Inflation.usdInflation().getTo());
 
-        return new XirrReturn(
-                inv,
-                USD,
-                nominal,
-                LocalDate.of(year, Month.JANUARY, 1),
-                end.atEndOfMonth())
-                .get();
+        return cube.portfolio(portfolio(withCash))
+                .get(measure, LocalDate.of(year, Month.JANUARY, 1), end.atEndOfMonth());
     }
 
-    public void modifiedDietzReturn(int startYear, boolean nominal, boolean withCash, Function<ModifiedDietzReturn, ModifiedDietzReturnResult> returnTypeFunction) {
+    private void returnsByYear(ReturnCube cube, int startYear, boolean withCash, ReturnCube.Measure measure) {
 
-        final var modifiedDietzReturn = this.mdrResult(startYear, nominal, withCash, returnTypeFunction);
+        final var modifiedDietzReturn = this.result(cube, startYear, withCash, measure);
 
-        final var inv = Stream.concat(
-                withCash ? this.cashInvestments.cashInvestments().stream() : Stream.empty(),
-                this.series.getInvestments().stream())
-                .toList();
-
-        final var from = inv.stream()
-                .map(Investment::getInitialDate)
-                .reduce(PortfolioReturns::min)
-                .get();
-
-        final var to = inv.stream()
-                .map(i -> Optional.ofNullable(i.getOut()).map(InvestmentEvent::getDate).orElseGet(LocalDate::now))
-                .reduce(PortfolioReturns::max)
-                .get();
+        final var portfolio = cube.portfolio(portfolio(withCash));
 
         this.console.appendLine(
                 format(
                         "From {0} to {1}. Return: {2}. Annualized {3}.",
-                        DateTimeFormatter.ISO_LOCAL_DATE.format(from),
-                        DateTimeFormatter.ISO_LOCAL_DATE.format(to),
+                        DateTimeFormatter.ISO_LOCAL_DATE.format(portfolio.from()),
+                        DateTimeFormatter.ISO_LOCAL_DATE.format(portfolio.to()),
                         this.format.percent(modifiedDietzReturn.getMoneyWeighted()),
                         this.format.percent(modifiedDietzReturn.getAnnualizedMoneyWeighted())));
 
@@ -190,128 +160,54 @@ public class PortfolioReturns {
 
         this.console.appendLine(this.format.text(" ", 10), this.format.text(" Return", 10), this.format.text("    Annualized", 8));
 
-        this.mdrByYear(inv, from, to, nominal, returnTypeFunction)
+        cube.byYear(portfolio(withCash), measure)
                 .entrySet()
                 .stream()
-                .sorted(Map.Entry.comparingByKey())
                 .map(lineFunction)
                 .forEach(this.console::appendLine);
-
-    }
-
-    public void xirrReturn(int startYear, boolean nominal, boolean withCash) {
-
-        final var xirrReturn = this.xirrResult(startYear, nominal, withCash);
-
-        final var inv = Stream.concat(
-                withCash ? this.cashInvestments.cashInvestments().stream() : Stream.empty(),
-                this.series.getInvestments().stream())
-                .toList();
-
-        final var from = inv.stream()
-                .map(Investment::getInitialDate)
-                .reduce(PortfolioReturns::min)
-                .get();
-
-        final var to = inv.stream()
-                .map(i -> Optional.ofNullable(i.getOut()).map(InvestmentEvent::getDate).orElseGet(LocalDate::now))
-                .reduce(PortfolioReturns::max)
-                .get();
-
-        this.console.appendLine(
-                format(
-                        "From {0} to {1}. Return: {2}. Annualized {3}.",
-                        DateTimeFormatter.ISO_LOCAL_DATE.format(from),
-                        DateTimeFormatter.ISO_LOCAL_DATE.format(to),
-                        this.format.percent(xirrReturn.getMoneyWeighted()),
-                        this.format.percent(xirrReturn.getAnnualizedMoneyWeighted())));
-
-        final Function<Map.Entry<Integer, ModifiedDietzReturnResult>, String> lineFunction
-                = (p) -> format("{0} {1} {2}",
-                        this.format.text(String.valueOf(p.getKey()), 10),
-                        this.format.percent(p.getValue().getMoneyWeighted(), 8),
-                        this.bar.pctBar(p.getValue().getAnnualizedMoneyWeighted()));
-
-        this.console.appendLine(this.format.text(" ", 10), this.format.text(" Return", 10), this.format.text("    Annualized", 8));
-
-        this.xirrByYear(inv, from, to, nominal)
-                .entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(lineFunction)
-                .forEach(this.console::appendLine);
-
-    }
-
-    private Map<Integer, ModifiedDietzReturnResult> mdrByYear(List<Investment> inv, LocalDate from, LocalDate to, boolean nominal, Function<ModifiedDietzReturn, ModifiedDietzReturnResult> returnTypeFunction) {
-
-        return IntStream.rangeClosed(from.getYear(), to.getYear())
-                .boxed()
-                .collect(Collectors.toMap(
-                        year -> year,
-                        year -> returnTypeFunction.apply(new ModifiedDietzReturn(inv, USD, nominal, LocalDate.of(year, Month.JANUARY, 1), LocalDate.of(year, Month.DECEMBER, 31)))));
-    }
-
-    private Map<Integer, ModifiedDietzReturnResult> xirrByYear(List<Investment> inv, LocalDate from, LocalDate to, boolean nominal) {
-
-        return IntStream.rangeClosed(from.getYear(), to.getYear())
-                .boxed()
-                .collect(Collectors.toMap(
-                        year -> year,
-                        year -> new XirrReturn(inv, USD, nominal, LocalDate.of(year, Month.JANUARY, 1), LocalDate.of(year, Month.DECEMBER, 31)).get()));
     }
 
     public void returns(boolean nominal, boolean withCash, int startYear, boolean timeWeighted) {
 
         this.console.appendLine(this.format.title((nominal ? "Nominal " : "Real ") + (timeWeighted ? "Time Weighted " : "Money Weighted ") + "Returns" + (withCash ? "" : " Without Cash")));
 
-        Function<ModifiedDietzReturn, ModifiedDietzReturnResult> f
-                = timeWeighted
-                        ? ModifiedDietzReturn::monthlyLinked
-                        : ModifiedDietzReturn::get;
-
-        this.modifiedDietzReturn(startYear, nominal, withCash, f);
-
-        this.console.appendLine(this.format.subtitle("Summary"));
-
-        final var withCashNominal = this.mdrResult(startYear, true, true, f);
-        final var withoutCashNominal = this.mdrResult(startYear, true, false, f);
-        final var withCashReal = this.mdrResult(startYear, false, true, f);
-        final var withoutCashReal = this.mdrResult(startYear, false, false, f);
+        this.summary(nominal, withCash, startYear, timeWeighted ? ReturnCube.Measure.TWR : ReturnCube.Measure.MDR);
+    }
 
-        final var col1 = 14;
-        final var col2 = 18;
-        final var col3 = 18;
+    public void xirrReturns(boolean nominal, boolean withCash, int startYear) {
 
-        this.console.appendLine(MessageFormat.format("{0}{1}{2}",
-                this.format.text("", col1),
-                this.format.text("     Nominal", col2),
-                this.format.text("      Real", col3)));
+        this.console.appendLine(this.format.title((nominal ? "Nominal " : "Real ") + "XIRR Returns" + (withCash ? "" : " Without Cash")));
 
-        this.console.appendLine(MessageFormat.format("{0}{1}{2}",
-                this.format.text("With Cash", col1),
-                this.format.text(this.summaryItem(withCashNominal), col2),
-                this.format.text(this.summaryItem(withCashReal), col3)));
+        this.summary(nominal, withCash, startYear, ReturnCube.Measure.XIRR);
+    }
 
-        this.console.appendLine(MessageFormat.format("{0}{1}{2}",
-                this.format.text("Without Cash", col1),
-                this.format.text(this.summaryItem(withoutCashNominal), col2),
-                this.format.text(this.summaryItem(withoutCashReal), col3)));
+    private void summary(boolean nominal, boolean withCash, int startYear, ReturnCube.Measure measure) {
 
-    }
+        final var cube = this.cube(nominal);
 
-    public void xirrReturns(boolean nominal, boolean withCash, int startYear) {
+        this.returnsByYear(cube, startYear, withCash, measure);
 
-        this.console.appendLine(this.format.title((nominal ? "Nominal " : "Real ") + "XIRR Returns" + (withCash ? "" : " Without Cash")));
+        if (measure == ReturnCube.Measure.XIRR) {
+            final var solutions = cube.xirrSolvers(portfolio(withCash));
 
-        this.xirrReturn(startYear, nominal, withCash);
+            this.console.appendLine(
+                    format("XIRR solver: {0} solves, {1} iterations, {2} evaluations, {3} not converged.",
+                            solutions.size(),
+                            solutions.stream().mapToInt(XirrSolver.Result::iterations).sum(),
+                            solutions.stream().mapToInt(XirrSolver.Result::evaluations).sum(),
+                            solutions.stream().filter(r -> r.status() == XirrSolver.Status.MAX_ITERATIONS).count()));
+        }
 
         this.console.appendLine(this.format.subtitle("Summary"));
 
-        final var withCashNominal = this.xirrResult(startYear, true, true);
-        final var withoutCashNominal = this.xirrResult(startYear, true, false);
-        final var withCashReal = this.xirrResult(startYear, false, true);
-        final var withoutCashReal = this.xirrResult(startYear, false, false);
+        // the summary only needs the measure from the start year of each portfolio
+        final var otherCube = this.cube(!nominal);
+        final var nominalCube = nominal ? cube : otherCube;
+        final var realCube = nominal ? otherCube : cube;
+        final var withCashNominal = this.result(nominalCube, startYear, true, measure);
+        final var withoutCashNominal = this.result(nominalCube, startYear, false, measure);
+        final var withCashReal = this.result(realCube, startYear, true, measure);
+        final var withoutCashReal = this.result(realCube, startYear, false, measure);
 
         final var col1 = 14;
         final var col2 = 18;
@@ -383,7 +279,7 @@ public class PortfolioReturns {
 
         this.console.appendLine(this.format.title("Money Weighted Return"));
 
-        final var mdrByYear = this.mdrByYear(ModifiedDietzReturn::get);
+        final var mdrByYear = this.mdrByYear();
 
         Stream.concat(this.cashInvestments.cashInvestments().stream(), this.series.getInvestments().stream())
                 .flatMap(this::asDayDollarsByYear)
@@ -195,18 +195,16 @@ public class Positions {
                 this.format.currencyPL(totalPnL.amount(), pnlWidth),
                 this.format.percent(totalPnL.amount().divide(totalCostBasis.amount(), C), pnlPctWidth)));
 
-        final var realized = this.series.getInvestments()
+        final var sales = this.series.lotLedger().realized();
+
+        final var realized = sales
                 .stream()
-                .filter(Investment::isETF)
-                .filter(investment -> investment.getOut() != null)
-                .map(i -> this.capitalGain(i, nominal))
+                .map(r -> this.capitalGain(r, nominal))
                 .reduce(ZERO_USD, MoneyAmount::add);
 
-        final var realizedInvestment = this.series.getInvestments()
+        final var realizedInvestment = sales
                 .stream()
-                .filter(Investment::isETF)
-                .filter(investment -> investment.getOut() != null)
-                .map(i -> this.investment(i, nominal))
+                .map(r -> this.investment(r, nominal))
                 .reduce(ZERO_USD, MoneyAmount::add);
 
         this.console.appendLine(MessageFormat.format(
@@ -295,17 +293,13 @@ public class Positions {
         }
     }
 
-    private MoneyAmount capitalGain(Investment i, boolean nominal) {
-
-        var bought = i.getInitialMoneyAmount(USD);
-
-        var sold = i.getOut().getMoneyAmount(USD);
+    private MoneyAmount capitalGain(LotLedger.Realization r, boolean nominal) {
 
         return nominal
-                ? sold.subtract(bought)
+                ? r.gain()
                 : Inflation.usdInflation().adjust(
-                        sold.subtract(bought),
-                        i.getOut().getDate(),
+                        r.gain(),
+                        r.sellDate(),
                         LocalDate.now());
     }
 
@@ -322,16 +316,14 @@ public class Positions {
                 format.currency(new BigDecimal("2500").multiply(tax, C), 9));
     }
 
-    private MoneyAmount investment(Investment i, boolean nominal) {
-
-        final var nominalAmount = i.getInitialMoneyAmount(USD);
+    private MoneyAmount investment(LotLedger.Realization r, boolean nominal) {
 
         return nominal
-                ? nominalAmount
+                ? r.basis()
                 : Inflation.usdInflation().adjust(
-                        nominalAmount,
-                        i.getInitialDate(),
-                        i.getOut().getDate());
+                        r.basis(),
+                        r.buyDate(),
+                        r.sellDate());
     }
 
     // EGR = ratio de ganancia embebida
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import com.sun.management.ThreadMXBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.fede.calculator.money.FlightRecording;
+import static org.fede.calculator.report.Format.format;
+
+/**
+ * Profiles REPL commands, turned on with :profile on. Every command runs in a
+ * Flight Recorder recording of the custom events, dumped to a temporary file
+ * and summarized after the report with the wall time and the allocated bytes.
+ *
+ * @author fede
+ */
+final class Profiler {
+
+    private static final List<String> EVENTS = List.of(
+            "org.fede.Command",
+            "org.fede.SeriesRead",
+            "org.fede.ForeignExchangeLookup");
+
+    private static final int TOP = 10;
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    Profiler() {
+        // starting the recorder takes a while, do it now and not in the first command
+        FlightRecorder.getFlightRecorder();
+    }
+
+    Sample start() {
+        return new Sample();
+    }
+
+    final class Sample {
+
+        private final Recording recording = new Recording();
+        private final long threadBytes;
+        private final long totalBytes;
+        private final long adjustments;
+        private final long start;
+
+        private Sample() {
+            EVENTS.forEach(this.recording::enable);
+            this.recording.start();
+            this.threadBytes = Profiler.this.threads.getCurrentThreadAllocatedBytes();
+            this.totalBytes = Profiler.this.threads.getTotalThreadAllocatedBytes();
+            this.adjustments = FlightRecording.adjustments();
+            this.start = System.nanoTime();
+        }
+
+        void report(Console console, Format format) throws IOException {
+            final long wall = System.nanoTime() - this.start;
+            final long threadBytes = Profiler.this.threads.getCurrentThreadAllocatedBytes() - this.threadBytes;
+            final long totalBytes = Profiler.this.threads.getTotalThreadAllocatedBytes() - this.totalBytes;
+            final long adjustments = FlightRecording.adjustments() - this.adjustments;
+
+            this.recording.stop();
+            final var file = Files.createTempFile("profile", ".jfr");
+            final List<RecordedEvent> events;
+            try {
+                this.recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                this.recording.close();
+                Files.deleteIfExists(file);
+            }
+
+            final var reads = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("org.fede.SeriesRead"))
+                    .toList();
+
+            console.appendLine(format.subtitle("Profile"));
+            console.appendLine(format("Wall time: {0} ms.", wall / 1_000_000L));
+            console.appendLine(format("Allocated: {0} KB on this thread, {1} KB on every thread.",
+                    threadBytes / 1024L,
+                    totalBytes / 1024L));
+            console.appendLine(format("Series read: {0}, {1} KB, {2} ms parsing.",
+                    reads.size(),
+                    reads.stream().mapToLong(e -> e.getLong("bytes")).sum() / 1024L,
+                    reads.stream().mapToLong(e -> e.getDuration("parseTime").toMillis()).sum()));
+            console.appendLine(format("Inflation adjustments: {0}.", adjustments));
+            console.appendLine(format("Foreign exchange lookups: {0}.",
+                    events.stream().filter(e -> e.getEventType().getName().equals("org.fede.ForeignExchangeLookup")).count()));
+            console.appendLine("Top events:");
+            events.stream()
+                    .collect(Collectors.groupingBy(Profiler::key, Collectors.counting()))
+                    .entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                    .limit(TOP)
+                    .forEach(e -> console.appendLine(format(" - {0}: {1}", e.getKey(), e.getValue())));
+            console.printReport();
+        }
+    }
+
+    private static String key(RecordedEvent event) {
+        return switch (event.getEventType().getName()) {
+            case "org.fede.SeriesRead" ->
+                "Series Read " + event.getString("file");
+            case "org.fede.ForeignExchangeLookup" ->
+                format("Foreign Exchange Lookup {0} to {1}, route of {2}",
+                event.getString("from"),
+                event.getString("to"),
+                event.getInt("routeLength"));
+            case "org.fede.Command" ->
+                "Command " + event.getString("command");
+            default ->
+                event.getEventType().getLabel();
+        };
+    }
+}
@@ -20,21 +20,16 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import java.math.BigDecimal;
 import static java.math.BigDecimal.ONE;
 import static java.math.BigDecimal.ZERO;
-import java.math.RoundingMode;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Comparator;
-import java.util.Deque;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -50,10 +45,10 @@ import static org.fede.calculator.money.Currency.XRSU;
 import static org.fede.calculator.money.Currency.MEUD;
 import static org.fede.calculator.money.Currency.USD;
 import static org.fede.calculator.money.Currency.XUSE;
-import org.fede.calculator.money.ForeignExchange;
 import org.fede.calculator.money.ForeignExchanges;
 import static org.fede.calculator.money.MathConstants.C;
 import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.Precision;
 import org.fede.calculator.money.series.Investment;
 import org.fede.calculator.money.series.InvestmentAsset;
 import org.fede.calculator.money.series.InvestmentEvent;
@@ -101,16 +96,17 @@ public class RebalancingReport {
     }
 
     /**
-     * Prints the buy operations based on the current portfolio and the
-     * specified contribution based on the Buy-only Greedy Proportional
-     * Rebalancing.
+     * Prints the buy, and sell if allowed, operations that leave the current
+     * portfolio plus the specified contribution closest to the target
+     * weights.
      *
      * @param usd
      * @param eur
      * @param transfer
      * @param detail
+     * @param constraints
      */
-    public void buy(MoneyAmount usd, MoneyAmount eur, MoneyAmount transfer, boolean detail) {
+    public void buy(MoneyAmount usd, MoneyAmount eur, MoneyAmount transfer, boolean detail, RebalancingSolver.Constraints constraints) {
 
         if (usd.amount().compareTo(ZERO) < 0
                 || eur.amount().compareTo(ZERO) < 0
@@ -136,11 +132,11 @@ public class RebalancingReport {
                         keepFirst(),
                         currencyMapSupplier()));
 
-        this.console.appendLine(this.format.title("Greedy Proportional Rebalancing"));
+        this.console.appendLine(this.format.title("Proportional Rebalancing"));
         this.console.appendLine(this.format.subtitle("Initial State"));
         this.print(virtualValues);
         this.console.appendLine("Contribution: ", this.format.currency(contribution, 16));
-        this.rebalance(weights, virtualValues, prices, contribution, transfer, detail);
+        this.rebalance(weights, virtualValues, prices, contribution, transfer, detail, constraints);
 
     }
 
@@ -157,67 +153,56 @@ public class RebalancingReport {
         this.print(this.virtualPortfolioValues());
         this.console.appendLine("Withdrawal: ", this.format.currency(c, 16));
 
-        var lots = this.lots(LocalDate.now());
+        final var today = LocalDate.now();
+        final var book = this.series.lotLedger().fork();
+        final var values = this.values(book, now);
 
         var sold = ZERO_USD;
 
-        final List<Investment> soldInvestments = new ArrayList<>();
-
         boolean keepGoing = true;
         while (keepGoing
-                && this.hasLotsRemaining(lots)
                 && sold.amount().compareTo(c.amount()) < 0) {
-            Sale bestSale = null;
-            BigDecimal trackingError = null;
-            for (var etf : lots.keySet()) {
-                var sale = this.sellingOldest(etf, lots);
-                if (sale != null) {
-
-                    var v = this.value(
-                            ForeignExchanges.getForeignExchange(sale.soldCurrency, USD),
-                            List.of(sale.soldInvestment()),
-                            now);
-                    var oversold = v.add(sold).amount().compareTo(c.amount()) > 0;
-
-                    var newTE = this.trackingError(this.virtualValues(sale.remainingLots(), now));
+            LotLedger.Lot bestLot = null;
+            MoneyAmount bestValue = null;
+            double trackingError = Double.MAX_VALUE;
+            for (var etf : values.keySet()) {
+                final var next = book.next(etf, LotLedger.Selection.FIFO);
+                if (next.isPresent()) {
+
+                    final var v = this.value(next.get(), now);
+                    final var oversold = v.add(sold).amount().compareTo(c.amount()) > 0;
+
+                    final Map<Currency, MoneyAmount> remaining = new EnumMap<>(values);
+                    remaining.put(etf, values.get(etf).subtract(v));
+                    final var newTE = this.trackingError(this.virtualValues(remaining));
                     if ((!oversold || allowOverSell)
-                            && (trackingError == null || newTE.compareTo(trackingError) < 0)) {
+                            && newTE < trackingError) {
                         trackingError = newTE;
-                        bestSale = sale;
+                        bestLot = next.get();
+                        bestValue = v;
                     }
                 }
             }
 
-            keepGoing = bestSale != null;
+            keepGoing = bestLot != null;
 
-            if (bestSale != null) {
-                var soldValue = this.value(
-                        ForeignExchanges.getForeignExchange(bestSale.soldCurrency, USD),
-                        List.of(bestSale.soldInvestment()),
-                        now);
-
-                lots = bestSale.remainingLots();
-                soldInvestments.add(bestSale.soldInvestment());
-                sold = sold.add(soldValue);
+            if (bestLot != null) {
+                values.put(bestLot.currency(), values.get(bestLot.currency()).subtract(bestValue));
+                book.sell(bestLot, bestLot.quantity(), bestValue, ZERO_USD, today);
+                sold = sold.add(bestValue);
             }
         }
         this.console.appendLine(this.format.subtitle("Final State"));
-        this.print(this.virtualValues(lots, now));
+        this.print(this.virtualValues(values));
         this.console.appendLine("");
         this.console.appendLine("Sold: ", this.format.currency(sold, 16));
 
-        var cgt = ZERO_USD;
         final var cgtr = SeriesReader.readPercent("capitalGainsTaxRate");
-
-        for (var i : soldInvestments) {
-
-            var fx = ForeignExchanges.getForeignExchange(i.getCurrency(), USD);
-            var initial = i.getInitialMoneyAmount(USD);
-
-            var current = fx.exchange(i.getInvestment().getMoneyAmount(), USD, now);
-            cgt = cgt.add(current.subtract(initial).adjust(ONE, cgtr));
-
-        }
+        final var cgt = book.realized()
+                .stream()
+                .map(LotLedger.Realization::gain)
+                .map(gain -> gain.adjust(ONE, cgtr))
+                .reduce(ZERO_USD, MoneyAmount::add);
 
         if (!sold.isZero()) {
             this.console.appendLine(
@@ -233,25 +218,17 @@ public class RebalancingReport {
         }
         this.console.appendLine(this.format.subtitle("Detail"));
 
-        this.console.appendLine(MessageFormat.format("Sell {0} lots.", soldInvestments.size()));
-
-        for (var i : soldInvestments) {
+        this.console.appendLine(MessageFormat.format("Sell {0} lots.", book.realized().size()));
 
-            var fx = ForeignExchanges.getForeignExchange(i.getCurrency(), USD);
+        for (var r : book.realized()) {
 
-            this.console.appendLine(MessageFormat.format("Sell {2} {0} bought on {1} for {3}",
-                    i.getCurrency(),
-                    i.getInitialDate(),
-                    this.format.number(i.getInvestment().getAmount(), 4),
-                    this.format.currency(fx.exchange(i.getInvestment().getMoneyAmount(), USD, now), 16)));
+            this.printSale(r);
 
             if (detail) {
                 var out = new InvestmentEvent();
-                var outCurrency = i.getInitialCurrency();
+                var outCurrency = r.lot().getInitialCurrency();
 
-                var outFx = ForeignExchanges.getForeignExchange(i.getCurrency(), USD);
-
-                var outAmount = outFx.exchange(i.getInvestment().getMoneyAmount(), USD, now);
+                var outAmount = r.proceeds();
 
                 if (outCurrency == Currency.EUR) {
                     outAmount = ForeignExchanges.getMoneyAmountForeignExchange(USD, Currency.EUR)
@@ -275,36 +252,7 @@ public class RebalancingReport {
     }
 
     private Map<Currency, MoneyAmount> virtualPortfolioValues() {
-        final var now = LocalDate.now();
-        final Map<Currency, BigDecimal> quantities = this.series.getInvestments()
-                .stream()
-                .filter(Investment::isETF)
-                .filter(i -> i.isCurrent(now))
-                .collect(Collectors.groupingBy(
-                        Investment::getCurrency,
-                        currencyMapSupplier(),
-                        Collectors.mapping(
-                                i -> i.getInvestment().getAmount(),
-                                Collectors.reducing(ZERO, BigDecimal::add))));
-
-        final Map<Currency, MoneyAmount> values = new EnumMap<>(Currency.class);
-        for (var e : quantities.entrySet()) {
-            final Currency curr = e.getKey();
-            values.put(
-                    curr,
-                    ForeignExchanges.getForeignExchange(curr, USD)
-                            .exchange(new MoneyAmount(e.getValue(), curr), USD, now));
-        }
-
-        final var virtualValues = new EnumMap<Currency, MoneyAmount>(Currency.class);
-
-        for (var e : currencyEquivalences.entrySet()) {
-            final Currency curr = e.getKey();
-            virtualValues.put(
-                    curr,
-                    sum(e.getValue().stream().map(c -> values.get(c))));
-        }
-        return virtualValues;
+        return this.virtualValues(this.values(this.series.lotLedger(), YearMonth.now()));
     }
 
     private void rebalance(
@@ -313,87 +261,65 @@ public class RebalancingReport {
             Map<Currency, MoneyAmount> p,
             MoneyAmount c,
             MoneyAmount transferFee,
-            boolean detail) {
-
-        final MoneyAmount totalFuturePortfolioValue = sum(v)
-                .add(c);
-
-        final Map<Currency, MoneyAmount> targetValue = w.entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> totalFuturePortfolioValue.adjust(ONE, e.getValue()),
-                        keepFirst(),
-                        currencyMapSupplier()));
-
-        final Map<Currency, MoneyAmount> deficits = new EnumMap<>(Currency.class);
-        for (var curr : targetValue.keySet()) {
-            var deficit = targetValue.get(curr).subtract(v.get(curr));
-            if (deficit.amount().compareTo(ZERO) > 0) {
-                deficits.put(curr, deficit);
+            boolean detail,
+            RebalancingSolver.Constraints constraints) {
+
+        final var ledger = this.series.lotLedger();
+
+        final List<Currency> currencies = List.copyOf(w.keySet());
+        final var solution = RebalancingSolver.solve(
+                currencies.stream()
+                        .map(curr -> new RebalancingSolver.Asset(
+                        curr.name(),
+                        v.get(curr).amount().doubleValue(),
+                        p.get(curr).amount().doubleValue(),
+                        w.get(curr).doubleValue(),
+                        constraints.allowSell()
+                        ? this.solverLots(curr, ledger)
+                        : List.of()))
+                        .toList(),
+                c.amount().doubleValue(),
+                constraints);
+
+        final Map<Currency, BigDecimal> shares = new EnumMap<>(Currency.class);
+        final Map<Currency, BigDecimal> sales = new EnumMap<>(Currency.class);
+        for (int i = 0; i < currencies.size(); i++) {
+            final var quantity = solution.shares()[i];
+            if (quantity > 0L) {
+                shares.put(currencies.get(i), BigDecimal.valueOf(quantity));
+            } else if (quantity < 0L) {
+                sales.put(currencies.get(i), BigDecimal.valueOf(-quantity));
             }
         }
+        final Map<Currency, BigDecimal> trades = new EnumMap<>(shares);
+        sales.forEach((curr, quantity) -> trades.put(curr, quantity.negate()));
 
-        final var deficitsSum = sum(deficits);
-        final Map<Currency, MoneyAmount> allocation = deficits.entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> c.adjust(ONE,
-                                e.getValue()
-                                        .amount()
-                                        .divide(deficitsSum.amount(), C)),
-                        keepFirst(),
-                        currencyMapSupplier()));
-
-        final Map<Currency, BigDecimal> shares = allocation.entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> e.getValue()
-                                .amount()
-                                .divide(p.get(e.getKey()).amount(), C)
-                                .setScale(0, RoundingMode.DOWN),
-                        keepFirst(),
-                        currencyMapSupplier()));
-
-        var remainder = this.remainder(shares, p, c);
-
-        var keepImproving = true;
-        while (keepImproving && this.canBuyAtLeastOneMore(p, remainder)) {
-
-            final BigDecimal te = this.trackingError(this.newValues(shares, v, p));
-            BigDecimal delta = ZERO;
-            Currency max = null;
-            for (var curr : p.keySet()) {
-
-                if (p.get(curr).amount().compareTo(remainder.amount()) < 0) {
-
-                    final Map<Currency, BigDecimal> withOneMoreShare = new EnumMap<>(Currency.class);
-                    withOneMoreShare.putAll(shares);
-                    withOneMoreShare.put(curr, withOneMoreShare.getOrDefault(curr, ZERO).add(ONE));
-
-                    var newTe = this.trackingError(this.newValues(withOneMoreShare, v, p));
-                    var d2 = te.subtract(newTe);
-                    if (d2.compareTo(delta) > 0) {
-                        delta = d2;
-                        max = curr;
-                    }
-                }
-            }
-            keepImproving = max != null;
+        final var taxes = new MoneyAmount(BigDecimal.valueOf(solution.taxes()), USD);
+        final var fees = new MoneyAmount(BigDecimal.valueOf(solution.fees()), USD);
+        final var remainder = this.remainder(trades, p, c)
+                .subtract(taxes)
+                .subtract(fees);
+        final var bought = c.subtract(this.remainder(shares, p, c));
 
-            if (keepImproving) {
-                // add one. update things
-                shares.put(max, shares.getOrDefault(max, ZERO).add(ONE));
-                remainder = remainder(shares, p, c);
-            }
-        }
         this.console.appendLine(this.format.subtitle("Result"));
-        this.print(this.newValues(shares, v, p));
+        this.print(this.newValues(trades, v, p));
         this.console.appendLine(this.format.subtitle("Buy"));
         this.printBigDecimal(shares);
+        if (!sales.isEmpty()) {
+            this.console.appendLine(this.format.subtitle("Sell"));
+            this.printBigDecimal(sales);
+            this.console.appendLine("Capital Gains Tax: ", this.format.currency(taxes, 16));
+            this.realize(ledger, sales, p).forEach(this::printSale);
+        }
+        if (!fees.isZero()) {
+            this.console.appendLine("Order Fees: ", this.format.currency(fees, 16));
+        }
         this.console.appendLine("Remainder: ", this.format.currency(remainder, 16));
+        this.console.appendLine(MessageFormat.format(
+                "Tracking error {0}. {1} nodes{2}.",
+                this.format.number(BigDecimal.valueOf(solution.trackingError()), 8),
+                solution.nodes(),
+                solution.optimal() ? "" : ", search cut short"));
 
         if (shares.values().stream().anyMatch(quantity -> quantity.signum() > 0)) {
 
@@ -401,7 +327,7 @@ public class RebalancingReport {
             for (var curr : shares.keySet()) {
                 final var proportion = shares.get(curr)
                         .multiply(p.get(curr).amount(), C)
-                        .divide(c.subtract(remainder).amount(), C);
+                        .divide(bought.amount(), C);
                 feeAttrbution.put(
                         curr,
                         transferFee.adjust(ONE, proportion));
@@ -459,12 +385,6 @@ public class RebalancingReport {
         return i;
     }
 
-    private boolean canBuyAtLeastOneMore(Map<Currency, MoneyAmount> p, MoneyAmount remainder) {
-        return p.values()
-                .stream()
-                .anyMatch(price -> price.amount().compareTo(remainder.amount()) <= 0);
-    }
-
     private MoneyAmount remainder(
             Map<Currency, BigDecimal> shares,
             Map<Currency, MoneyAmount> p,
@@ -492,16 +412,32 @@ public class RebalancingReport {
         return newValues;
     }
 
-    private BigDecimal trackingError(Map<Currency, MoneyAmount> values) {
+    /**
+     * Only used to rank candidate sales, so it is computed with doubles in the
+     * {@link Precision} analytics tier.
+     */
+    private double trackingError(Map<Currency, MoneyAmount> values) {
         final var sum = sum(values);
 
         if (sum.isZero()) {
-            return ZERO;
+            return 0d;
         }
-        return values.entrySet()
-                .stream()
-                .map(e -> this.squaredError(e.getKey(), e.getValue(), sum))
-                .reduce(ZERO, BigDecimal::add);
+        return Precision.analytics(
+                "RebalancingReport.trackingError",
+                () -> this.trackingError(values, sum.amount().doubleValue()),
+                () -> values.entrySet()
+                        .stream()
+                        .map(e -> this.squaredError(e.getKey(), e.getValue(), sum))
+                        .reduce(ZERO, BigDecimal::add));
+    }
+
+    private double trackingError(Map<Currency, MoneyAmount> values, double total) {
+        double answer = 0d;
+        for (var e : values.entrySet()) {
+            final double error = this.weights.get(e.getKey()).doubleValue() - e.getValue().amount().doubleValue() / total;
+            answer += error * error;
+        }
+        return answer;
     }
 
     private BigDecimal squaredError(
@@ -516,82 +452,87 @@ public class RebalancingReport {
                 .pow(2, C);
     }
 
-    private boolean hasLotsRemaining(Map<Currency, Deque<Investment>> lots) {
-        return !lots.isEmpty()
-                && lots.values().stream().anyMatch(Predicate.not(Collection::isEmpty));
-    }
-
-    private MoneyAmount value(
-            ForeignExchange fx,
-            Collection<Investment> inv,
-            YearMonth ym) {
-        return sum(inv.stream()
-                .map(Investment::getInvestment)
-                .map(InvestmentAsset::getMoneyAmount)
-                .map(ma -> fx.exchange(ma, USD, ym)));
+    private Map<Currency, MoneyAmount> values(LotLedger ledger, YearMonth now) {
 
+        final Map<Currency, MoneyAmount> values = new EnumMap<>(Currency.class);
+        for (var curr : ledger.currencies()) {
+            final var quantity = ledger.quantity(curr);
+            if (quantity.signum() > 0) {
+                values.put(
+                        curr,
+                        ForeignExchanges.getForeignExchange(curr, USD)
+                                .exchange(new MoneyAmount(quantity, curr), USD, now));
+            }
+        }
+        return values;
     }
 
-    private Map<Currency, MoneyAmount> virtualValues(Map<Currency, Deque<Investment>> lots, YearMonth now) {
-
-        final Map<Currency, MoneyAmount> newValues = new EnumMap<>(Currency.class);
+    private MoneyAmount value(LotLedger.Lot lot, YearMonth now) {
+        return ForeignExchanges.getForeignExchange(lot.currency(), USD)
+                .exchange(new MoneyAmount(lot.quantity(), lot.currency()), USD, now);
+    }
 
-        for (var e : lots.entrySet()) {
-            var curr = e.getKey();
-            var fx = ForeignExchanges.getForeignExchange(curr, USD);
-            newValues.put(
-                    curr,
-                    this.value(fx, e.getValue(), now)
-            );
-        }
+    private Map<Currency, MoneyAmount> virtualValues(Map<Currency, MoneyAmount> values) {
 
-        final Map<Currency, MoneyAmount> virtualNewValues = new EnumMap<>(Currency.class);
+        final Map<Currency, MoneyAmount> virtualValues = new EnumMap<>(Currency.class);
 
         for (var e : currencyEquivalences.entrySet()) {
-            Currency curr = e.getKey();
-            virtualNewValues.put(
-                    curr,
+            virtualValues.put(
+                    e.getKey(),
                     sum(e.getValue()
                             .stream()
-                            .map(c -> newValues.getOrDefault(c, ZERO_USD))));
-
+                            .map(c -> values.getOrDefault(c, ZERO_USD))));
         }
 
-        return virtualNewValues;
+        return virtualValues;
     }
 
-    private Sale sellingOldest(Currency c, Map<Currency, Deque<Investment>> lots) {
+    private List<RebalancingSolver.Lot> solverLots(Currency virtualCurrency, LotLedger ledger) {
+        return this.currencyEquivalences.get(virtualCurrency)
+                .stream()
+                .flatMap(curr -> ledger.open(curr, LotLedger.Selection.FIFO))
+                .sorted(Comparator.comparing(LotLedger.Lot::date))
+                .map(lot -> new RebalancingSolver.Lot(
+                lot.quantity().doubleValue(),
+                lot.costPerShare().doubleValue()))
+                .toList();
+    }
 
-        final Map<Currency, Deque<Investment>> newLots = new EnumMap<>(Currency.class);
+    /**
+     * Sells the solver shares of every virtual currency on a fork of the
+     * ledger, oldest lot first among its equivalent currencies like the
+     * solver does, the last lot partially.
+     */
+    private List<LotLedger.Realization> realize(
+            LotLedger ledger,
+            Map<Currency, BigDecimal> sales,
+            Map<Currency, MoneyAmount> p) {
 
-        for (var e : lots.entrySet()) {
-            newLots.put(e.getKey(), new ArrayDeque<>(e.getValue()));
-        }
-        var lot = newLots.get(c);
-        if (lot.isEmpty()) {
-            return null;
+        final var book = ledger.fork();
+        final var today = LocalDate.now();
+        for (var e : sales.entrySet()) {
+            var left = e.getValue();
+            while (left.signum() > 0) {
+                final var lot = this.currencyEquivalences.get(e.getKey())
+                        .stream()
+                        .map(curr -> book.next(curr, LotLedger.Selection.FIFO))
+                        .flatMap(Optional::stream)
+                        .min(Comparator.comparing(LotLedger.Lot::date))
+                        .orElseThrow(() -> new IllegalArgumentException("Not enough " + e.getKey() + " lots to sell."));
+                final var quantity = left.min(lot.quantity());
+                book.sell(lot, quantity, p.get(e.getKey()).adjust(ONE, quantity), ZERO_USD, today);
+                left = left.subtract(quantity);
+            }
         }
-        return new Sale(c, newLots, lot.removeFirst());
+        return book.realized();
     }
 
-    private Map<Currency, Deque<Investment>> lots(LocalDate now) {
-
-        return this.series.getInvestments()
-                .stream()
-                .filter(Investment::isETF)
-                .filter(i -> i.isCurrent(now))
-                .collect(Collectors.groupingBy(Investment::getCurrency))
-                .entrySet()
-                .stream()
-                .collect(
-                        Collectors.toMap(
-                                Map.Entry::getKey,
-                                e -> this.asDeque(e.getValue()),
-                                keepFirst(),
-                                currencyMapSupplier()
-                        )
-                );
-
+    private void printSale(LotLedger.Realization r) {
+        this.console.appendLine(MessageFormat.format("Sell {2} {0} bought on {1} for {3}",
+                r.currency(),
+                r.buyDate(),
+                this.format.number(r.quantity(), 4),
+                this.format.currency(r.proceeds(), 16)));
     }
 
     private void print(Currency c, MoneyAmount m, MoneyAmount total) {
@@ -632,14 +573,6 @@ public class RebalancingReport {
         return (a, b) -> a;
     }
 
-    private Deque<Investment> asDeque(List<Investment> i) {
-        final Deque<Investment> deque = new ArrayDeque<>(i.size());
-        i.stream()
-                .sorted(Comparator.comparing(Investment::getInitialDate))
-                .forEachOrdered(deque::addLast);
-        return deque;
-    }
-
     private static MoneyAmount sum(Map<?, MoneyAmount> m) {
         return sum(m.values().stream());
     }
@@ -647,11 +580,4 @@ public class RebalancingReport {
     private static MoneyAmount sum(Stream<MoneyAmount> s) {
         return s.reduce(ZERO_USD, MoneyAmount::add);
     }
-
-    private record Sale(
-            Currency soldCurrency,
-            Map<Currency, Deque<Investment>> remainingLots,
-            Investment soldInvestment) {
-
-    }
 }
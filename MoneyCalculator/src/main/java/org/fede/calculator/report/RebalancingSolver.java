@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the whole number of shares to buy, or sell, of every asset that
+ * leaves the portfolio closest to its target weights. The portfolio total T
+ * is the current value plus the cash, so the error is the sum of
+ * (value + shares · price - weight · T)², one independent term per asset,
+ * and cash left unspent counts as distance to the targets.
+ *
+ * The search is a depth first branch and bound over the share counts, most
+ * expensive asset first, trying counts from the closest to each target
+ * outwards. Partial solutions are discarded when their error plus a lower
+ * bound of the error of the remaining assets is not better than the best
+ * solution found. Everything is computed in doubles.
+ *
+ * Sales take the oldest lots first and pay capital gains tax, which reduces
+ * the cash they bring.
+ *
+ * @author fede
+ */
+public final class RebalancingSolver {
+
+    private static final long MAX_NODES = 10_000_000L;
+
+    /**
+     * @param minTrade smallest value of a buy or sell, in the cash currency.
+     * @param allowSell whether shares can be sold.
+     * @param orderFee fee paid for every asset bought or sold.
+     * @param feeBudget the most that can be paid in fees.
+     * @param taxRate capital gains tax rate paid on sales.
+     */
+    public record Constraints(double minTrade, boolean allowSell, double orderFee, double feeBudget, double taxRate) {
+
+        public static Constraints buyOnly() {
+            return new Constraints(0d, false, 0d, Double.POSITIVE_INFINITY, 0d);
+        }
+    }
+
+    /**
+     * A lot that can be sold, oldest first.
+     *
+     * @param quantity
+     * @param costPerShare
+     */
+    public record Lot(double quantity, double costPerShare) {
+
+    }
+
+    /**
+     * @param name
+     * @param value current value.
+     * @param price price of one share.
+     * @param weight target weight, the weights of all assets add up to one.
+     * @param lots the lots that can be sold, oldest first.
+     */
+    public record Asset(String name, double value, double price, double weight, List<Lot> lots) {
+
+    }
+
+    /**
+     * @param shares shares to buy, negative to sell, in the order of the
+     * assets.
+     * @param cash cash left.
+     * @param fees
+     * @param taxes
+     * @param trackingError sum of the squared differences between the final
+     * and the target weights.
+     * @param nodes partial solutions explored.
+     * @param optimal false when the search was cut short.
+     */
+    public record Solution(long[] shares, double cash, double fees, double taxes, double trackingError, long nodes, boolean optimal) {
+
+    }
+
+    private final Asset[] assets;
+    private final Constraints constraints;
+    private final double total;
+
+    // in search order
+    private final int[] order;
+    private final double[] prices;
+    // target value minus current value
+    private final double[] targets;
+    private final long[] maxSell;
+    // sellProceeds[i][k] net proceeds of selling k shares, oldest lots first
+    private final double[][] sellProceeds;
+    // suffixSell[k] proceeds of selling everything from the k-th asset on
+    private final double[] suffixSell;
+    // value of selling everything, and target above it
+    private final double[] lower;
+    private final double[] room;
+    private final int[] byRoom;
+
+    private final long[] current;
+    private long[] best;
+    private double bestError;
+    private double bestCash;
+    private double bestFees;
+    private long nodes;
+
+    private RebalancingSolver(List<Asset> assets, double cash, Constraints constraints) {
+        this.assets = assets.toArray(Asset[]::new);
+        this.constraints = constraints;
+        this.total = assets.stream().mapToDouble(Asset::value).sum() + cash;
+
+        final int n = this.assets.length;
+        this.order = IntStream.range(0, n)
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> this.assets[i].price()).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.prices = new double[n];
+        this.targets = new double[n];
+        this.maxSell = new long[n];
+        this.sellProceeds = new double[n][];
+        this.suffixSell = new double[n + 1];
+        this.lower = new double[n];
+        this.room = new double[n];
+        for (int k = 0; k < n; k++) {
+            final var asset = this.assets[this.order[k]];
+            if (!(asset.price() > 0d)) {
+                throw new IllegalArgumentException("Price of " + asset.name() + " must be positive.");
+            }
+            this.prices[k] = asset.price();
+            this.targets[k] = asset.weight() * this.total - asset.value();
+            this.sellProceeds[k] = constraints.allowSell()
+                    ? proceeds(asset, constraints.taxRate())
+                    : new double[]{0d};
+            this.maxSell[k] = this.sellProceeds[k].length - 1;
+            this.lower[k] = -this.maxSell[k] * this.prices[k];
+            this.room[k] = this.targets[k] - this.lower[k];
+        }
+        this.byRoom = IntStream.range(0, n)
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer k) -> this.room[k]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        for (int k = n - 1; k >= 0; k--) {
+            this.suffixSell[k] = this.suffixSell[k + 1] + this.sellProceeds[k][(int) this.maxSell[k]];
+        }
+        this.current = new long[n];
+        this.bestError = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Net proceeds of selling every whole number of shares, consuming the
+     * lots in order. Gains and losses of the shares sold offset each other.
+     */
+    private static double[] proceeds(Asset asset, double taxRate) {
+        final long held = (long) Math.floor(asset.lots().stream().mapToDouble(Lot::quantity).sum() + 1e-9d);
+        final double[] answer = new double[(int) held + 1];
+        int lot = 0;
+        double leftInLot = asset.lots().isEmpty() ? 0d : asset.lots().get(0).quantity();
+        double cost = 0d;
+        for (int k = 1; k <= held; k++) {
+            double needed = 1d;
+            while (needed > 1e-12d && lot < asset.lots().size()) {
+                final double taken = Math.min(needed, leftInLot);
+                cost += taken * asset.lots().get(lot).costPerShare();
+                needed -= taken;
+                leftInLot -= taken;
+                if (leftInLot <= 1e-12d && ++lot < asset.lots().size()) {
+                    leftInLot = asset.lots().get(lot).quantity();
+                }
+            }
+            final double gross = k * asset.price();
+            answer[k] = gross - taxRate * Math.max(0d, gross - cost);
+        }
+        return answer;
+    }
+
+    /**
+     * @param assets
+     * @param cash cash available to buy.
+     * @param constraints
+     * @return
+     */
+    public static Solution solve(List<Asset> assets, double cash, Constraints constraints) {
+        if (cash < 0d) {
+            throw new IllegalArgumentException("Only positive amounts.");
+        }
+        return new RebalancingSolver(assets, cash, constraints).solve(cash);
+    }
+
+    private Solution solve(double cash) {
+        this.search(0, cash, 0d, 0d);
+
+        final int n = this.assets.length;
+        final long[] shares = new long[n];
+        double taxes = 0d;
+        for (int k = 0; k < n; k++) {
+            final long s = this.best == null ? 0L : this.best[k];
+            shares[this.order[k]] = s;
+            if (s < 0L) {
+                taxes += -s * this.prices[k] - this.sellProceeds[k][(int) -s];
+            }
+        }
+        final double error = this.best == null ? Double.NaN : this.bestError / (this.total * this.total);
+        return new Solution(
+                shares,
+                this.best == null ? cash : this.bestCash,
+                this.bestFees,
+                taxes,
+                error,
+                this.nodes,
+                this.nodes < MAX_NODES);
+    }
+
+    private double term(int k, long shares) {
+        final double d = shares * this.prices[k] - this.targets[k];
+        return d * d;
+    }
+
+    private long closest(int k) {
+        return Math.round(this.targets[k] / this.prices[k]);
+    }
+
+    /**
+     * Smallest error of the assets from k on, the largest of two bounds.
+     * Each asset on its own can not do better than its closest count within
+     * what can be spent. And since sales never bring more
+     * than shares · price, the values of the assets can not grow more than
+     * the budget; relaxing that constraint with a multiplier μ, every
+     * asset is left on its own and its best whole count is the closest to
+     * target - μ / 2, so Σ min((n · p - t)² + μ · n · p) - μ · budget can
+     * not be more than the error of any solution. μ is taken from the
+     * fractional solution, that takes the same amount μ / 2 from every target
+     * above its lower limit.
+     */
+    private double bound(int k, double budget) {
+        final double half = this.waterLevel(k, budget);
+        final double available = budget + this.suffixSell[k];
+        double independent = 0d;
+        double relaxed = -2d * half * budget;
+        for (int j = k; j < this.prices.length; j++) {
+            final double p = this.prices[j];
+            final long lo = -this.maxSell[j];
+            final long hi = (long) Math.floor(Math.max(0d, available) / p);
+            independent += this.term(j, Math.max(lo, Math.min(hi, this.closest(j))));
+            final long n = Math.max(lo, Math.min(hi, Math.round((this.targets[j] - half) / p)));
+            relaxed += this.term(j, n) + 2d * half * n * p;
+        }
+        return Math.max(independent, relaxed);
+    }
+
+    /**
+     * @return the amount taken from every target so the fractional solution
+     * spends the budget, zero if the budget reaches every target.
+     */
+    private double waterLevel(int k, double budget) {
+        double limits = 0d;
+        double activeTargets = 0d;
+        int active = 0;
+        for (int j = k; j < this.prices.length; j++) {
+            if (this.room[j] > 0d) {
+                activeTargets += this.targets[j];
+                active++;
+            } else {
+                limits += this.lower[j];
+            }
+        }
+        if (active == 0 || activeTargets + limits <= budget) {
+            return 0d;
+        }
+        // the assets with the least room hit their limit first
+        double level = (activeTargets + limits - budget) / active;
+        for (int i = this.byRoom.length - 1; i >= 0 && active > 1; i--) {
+            final int j = this.byRoom[i];
+            if (j < k || this.room[j] <= 0d) {
+                continue;
+            }
+            if (level < this.room[j]) {
+                break;
+            }
+            activeTargets -= this.targets[j];
+            limits += this.lower[j];
+            active--;
+            level = (activeTargets + limits - budget) / active;
+        }
+        return level;
+    }
+
+    private void search(int k, double budget, double fees, double error) {
+
+        if (++this.nodes > MAX_NODES) {
+            return;
+        }
+
+        if (k == this.prices.length) {
+            if (budget >= 0d && error < this.bestError) {
+                this.bestError = error;
+                this.bestCash = budget;
+                this.bestFees = fees;
+                this.best = this.current.clone();
+            }
+            return;
+        }
+
+        final double price = this.prices[k];
+        final long lo = -this.maxSell[k];
+        // later sales can pay for this purchase
+        final double available = budget + this.suffixSell[k + 1];
+        // buying past the target only leaves less for the rest, unless the
+        // target is below the smallest trade
+        final long hi = Math.min(
+                (long) Math.ceil(Math.max(Math.max(0d, this.targets[k]), this.constraints.minTrade()) / price),
+                (long) Math.floor(Math.max(0d, available - this.constraints.orderFee()) / price));
+        final long start = Math.max(lo, Math.min(hi, this.closest(k)));
+        // the rest of the assets can not do better than this, whatever this one does
+        final double rest = this.bound(k + 1, budget + this.sellProceeds[k][(int) this.maxSell[k]]);
+
+        long up = start;
+        long down = start - 1;
+        boolean goUp = up <= hi;
+        boolean goDown = down >= lo;
+        while (goUp || goDown) {
+            final long shares;
+            if (goUp && (!goDown || this.term(k, up) <= this.term(k, down))) {
+                shares = up++;
+                goUp = up <= hi;
+            } else {
+                shares = down--;
+                goDown = down >= lo;
+            }
+
+            final double candidate = error + this.term(k, shares);
+            if (candidate + rest >= this.bestError) {
+                // counts further away are worse
+                if (shares >= start) {
+                    goUp = false;
+                } else {
+                    goDown = false;
+                }
+                continue;
+            }
+
+            if (shares != 0L && Math.abs(shares) * price < this.constraints.minTrade()) {
+                continue;
+            }
+            final double fee = shares == 0L ? 0d : this.constraints.orderFee();
+            if (fees + fee > this.constraints.feeBudget()) {
+                continue;
+            }
+            final double left = shares >= 0L
+                    ? budget - shares * price - fee
+                    : budget + this.sellProceeds[k][(int) -shares] - fee;
+            if (left + this.suffixSell[k + 1] < 0d
+                    || candidate + this.bound(k + 1, left) >= this.bestError) {
+                // buying more leaves less for the rest, with the same fee
+                if (shares > 0L && shares >= start) {
+                    goUp = false;
+                }
+                continue;
+            }
+
+            this.current[k] = shares;
+            this.search(k + 1, left, fees + fee, candidate);
+            this.current[k] = 0L;
+            if (k == this.prices.length - 1 && left >= 0d) {
+                // counts are tried from the best, the first one that fits wins
+                return;
+            }
+        }
+    }
+
+}
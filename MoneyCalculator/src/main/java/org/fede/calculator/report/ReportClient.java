@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Thin client for {@link ReportDaemon}. Forwards the command line and prints
+ * the report. Runs the report in this JVM when no daemon is listening.
+ *
+ * @author fede
+ */
+public final class ReportClient {
+
+    private ReportClient() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || !Files.exists(ReportDaemon.socket()) || !forward(args)) {
+            ConsoleReports.main(args);
+        }
+    }
+
+    private static boolean forward(String[] args) {
+        final SocketChannel channel;
+        try {
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(ReportDaemon.socket()));
+        } catch (IOException ex) {
+            // stale socket file, the daemon is gone
+            return false;
+        }
+        try (channel) {
+            final var request = ByteBuffer.wrap((String.join("\n", args) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+            channel.shutdownOutput();
+            Channels.newInputStream(channel).transferTo(System.out);
+            System.out.flush();
+        } catch (IOException ex) {
+            System.err.println("Could not read report from daemon. " + ex.getMessage());
+            ex.printStackTrace(System.err);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import static org.fede.calculator.report.ConsoleReports.CACHE_DIR;
+import org.fede.calculator.money.series.SeriesWatcher;
+
+/**
+ * Keeps a JVM with warm caches listening on a Unix domain socket. A request is
+ * the command line, one argument per line, ended by closing the output side of
+ * the connection. The report is written back and the connection closed.
+ * Requests run concurrently, each on its own virtual thread with its own
+ * console and format, sharing the series.
+ *
+ * Anyone who can connect can run reports, so the socket lives in a directory
+ * only its owner can enter. The daemon creates it that way and does not
+ * start if the directory is open to other users.
+ *
+ * From a shell: printf 'p\ntype=pct\n' | nc -NU ~/Downloads/.console-reports/daemon.sock
+ *
+ * @author fede
+ */
+public final class ReportDaemon {
+
+    private static final Path SOCKET = Path.of(System.getProperty("daemonSocket", CACHE_DIR + "/.console-reports/daemon.sock"))
+            .toAbsolutePath();
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private ReportDaemon() {
+    }
+
+    public static Path socket() {
+        return SOCKET;
+    }
+
+    /**
+     * Serves requests until the JVM is stopped.
+     *
+     * @param series shared by every request.
+     * @throws IOException
+     */
+    public static void serve(Series series) throws IOException {
+
+        if (listening()) {
+            System.err.println("A daemon is already serving reports on " + SOCKET);
+            return;
+        }
+        if (!ownerOnly(SOCKET.getParent())) {
+            System.err.println("Not serving reports, other users can enter " + SOCKET.getParent()
+                    + ". Run chmod 700 on it or choose another -DdaemonSocket.");
+            return;
+        }
+
+        // nothing answered, so the socket file was left behind by a daemon that was killed
+        Files.deleteIfExists(SOCKET);
+
+        Startup.warmup();
+
+        final var watcher = Boolean.parseBoolean(System.getProperty("watchSeries", "true"))
+                ? SeriesWatcher.start()
+                : null;
+
+        try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(SOCKET));
+            Runtime.getRuntime().addShutdownHook(new Thread(ReportDaemon::deleteSocket, "daemon-cleanup"));
+            System.err.println("Serving reports on " + SOCKET);
+
+            while (true) {
+                final var channel = server.accept();
+                Thread.ofVirtual().name("report-request").start(() -> handle(channel, series));
+            }
+        } finally {
+            if (watcher != null) {
+                watcher.close();
+            }
+            deleteSocket();
+        }
+    }
+
+    private static boolean listening() {
+        try (var channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(SOCKET));
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the directory for its owner only if it does not exist.
+     *
+     * @return whether only the owner can use the directory.
+     */
+    private static boolean ownerOnly(Path directory) throws IOException {
+        try {
+            if (Files.notExists(directory)) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            }
+            return OWNER_ONLY.containsAll(Files.getPosixFilePermissions(directory));
+        } catch (UnsupportedOperationException ex) {
+            System.err.println("Could not check the permissions of " + directory + ". " + ex.getMessage());
+            Files.createDirectories(directory);
+            return true;
+        }
+    }
+
+    private static void handle(SocketChannel channel, Series series) {
+        try (channel) {
+            final var args = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8))
+                    .lines()
+                    .map(String::trim)
+                    .filter(arg -> !arg.isEmpty())
+                    .toArray(String[]::new);
+
+            final var console = new FastConsole(Channels.newOutputStream(channel));
+            final var format = new Format();
+            final var bar = new Bar(console, format);
+            final var me = new ConsoleReports(console, format, bar, series);
+            try {
+                ConsoleReports.handleCommand(args, me, format, bar, series, console);
+            } catch (RuntimeException ex) {
+                console.appendLine("Unexpected error. " + ex.getMessage());
+                console.printReport();
+                System.err.println("Unexpected error serving " + String.join(" ", args) + ". " + ex.getMessage());
+                ex.printStackTrace(System.err);
+            }
+        } catch (IOException ex) {
+            System.err.println("Could not serve request. " + ex.getMessage());
+        }
+    }
+
+    private static void deleteSocket() {
+        try {
+            Files.deleteIfExists(SOCKET);
+        } catch (IOException ex) {
+            System.err.println("Could not delete " + SOCKET + ". " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.fede.calculator.money.Currency;
+import static org.fede.calculator.money.Currency.USD;
+import org.fede.calculator.money.ForeignExchanges;
+import static org.fede.calculator.money.MathConstants.C;
+import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.MonteCarloSimulation;
+import org.fede.calculator.money.series.IndexSeries;
+import org.fede.calculator.money.series.SeriesReader;
+
+/**
+ * Monte Carlo simulation of the current portfolio. The equity sleeves are
+ * weighted with their current value, with volatilities and correlations
+ * estimated from the monthly USD returns of their index series and the
+ * expected real return futureReturn - expectedInflation. The rest of the
+ * portfolio is cash losing expectedInflation every year.
+ *
+ * The number of paths and the seed are the system properties monteCarloPaths
+ * and monteCarloSeed.
+ *
+ * @author fede
+ */
+public final class RetirementSimulation {
+
+    private record Sleeve(String name, Currency currency, List<Currency> holdings, List<String> files) {
+
+    }
+
+    private record History(double[] volatilities, double[][] correlations) {
+
+    }
+
+    private static final List<Sleeve> SLEEVES = List.of(
+            new Sleeve("CSPX", Currency.CSPX, List.of(Currency.CSPX), List.of("index/CSPX-USD.json")),
+            new Sleeve("EIMI", Currency.EIMI, List.of(Currency.EIMI), List.of("index/EIMI-USD.json")),
+            new Sleeve("MEUD", Currency.MEUD, List.of(Currency.MEUD, Currency.XUSE), List.of("index/MEUD-EUR.json", "index/USD-EUR.json")),
+            new Sleeve("XRSU", Currency.XRSU, List.of(Currency.XRSU), List.of("index/XRSU-USD.json")),
+            new Sleeve("RTWO", Currency.RTWO, List.of(Currency.RTWO), List.of("index/RTWO-USD.json")));
+
+    private static final int PATHS = Integer.getInteger("monteCarloPaths", 20_000);
+    private static final long SEED = Long.getLong("monteCarloSeed", 1L);
+
+    private final MonteCarloSimulation simulation;
+    private final MoneyAmount portfolio;
+
+    /**
+     * @param portfolio total portfolio value in USD, it should include the
+     * equity sleeves.
+     */
+    public RetirementSimulation(MoneyAmount portfolio) {
+        this.portfolio = portfolio;
+
+        final var history = SeriesGraph.shared().get(
+                "monte carlo sleeves",
+                files(),
+                RetirementSimulation::history);
+
+        final var realReturn = SeriesReader.readPercent("futureReturn")
+                .subtract(SeriesReader.readPercent("expectedInflation"), C)
+                .doubleValue();
+
+        final var last = new LastAmounts();
+        final List<MonteCarloSimulation.Asset> assets = new ArrayList<>(SLEEVES.size() + 1);
+        var equity = MoneyAmount.zero(USD);
+        for (int i = 0; i < SLEEVES.size(); i++) {
+            final var sleeve = SLEEVES.get(i);
+            final var value = sleeve.holdings()
+                    .stream()
+                    .map(last::lastAmount)
+                    .reduce(MoneyAmount.zero(USD), MoneyAmount::add);
+            equity = equity.add(value);
+            assets.add(new MonteCarloSimulation.Asset(
+                    sleeve.name(),
+                    value.amount().doubleValue(),
+                    realReturn,
+                    history.volatilities()[i]));
+        }
+        assets.add(new MonteCarloSimulation.Asset(
+                "Cash",
+                Math.max(0d, portfolio.subtract(equity).amount().doubleValue()),
+                SeriesReader.readPercent("expectedInflation").negate().doubleValue(),
+                0d));
+
+        final int n = assets.size();
+        final double[][] correlations = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                correlations[i][j] = i < n - 1 && j < n - 1
+                        ? history.correlations()[i][j]
+                        : i == j ? 1d : 0d;
+            }
+        }
+        this.simulation = new MonteCarloSimulation(assets, correlations);
+    }
+
+    private static List<String> files() {
+        return SLEEVES.stream()
+                .flatMap(s -> s.files().stream())
+                .distinct()
+                .toList();
+    }
+
+    private static History history() {
+
+        final var from = files().stream()
+                .map(SeriesReader::readIndexSeries)
+                .map(IndexSeries::getFrom)
+                .max(Comparator.naturalOrder())
+                .get();
+
+        final var to = files().stream()
+                .map(SeriesReader::readIndexSeries)
+                .map(IndexSeries::getTo)
+                .min(Comparator.naturalOrder())
+                .get();
+
+        final int months = (int) from.until(to, ChronoUnit.MONTHS);
+        if (months < 2) {
+            throw new IllegalArgumentException("Not enough common history between " + from + " and " + to + ".");
+        }
+
+        final double[][] logReturns = new double[months][SLEEVES.size()];
+        for (int j = 0; j < SLEEVES.size(); j++) {
+            final var currency = SLEEVES.get(j).currency();
+            final var fx = ForeignExchanges.getForeignExchange(currency, USD);
+            final var unit = new MoneyAmount(BigDecimal.ONE, currency);
+            double previous = fx.exchange(unit, USD, from).amount().doubleValue();
+            YearMonth ym = from;
+            for (int i = 0; i < months; i++) {
+                ym = ym.plusMonths(1);
+                final double price = fx.exchange(unit, USD, ym).amount().doubleValue();
+                logReturns[i][j] = Math.log(price / previous);
+                previous = price;
+            }
+        }
+
+        return new History(
+                MonteCarloSimulation.annualVolatilities(logReturns),
+                MonteCarloSimulation.correlations(logReturns));
+    }
+
+    public List<String> assetNames() {
+        return this.simulation.assetNames();
+    }
+
+    /**
+     * Simulates every monthly withdrawal on the same paths.
+     *
+     * @param monthlyWithdrawals in USD.
+     * @param years
+     * @return one result per withdrawal, in the same order.
+     */
+    public List<MonteCarloSimulation.Result> withdrawals(List<MoneyAmount> monthlyWithdrawals, int years) {
+        return this.withdrawals(monthlyWithdrawals, MoneyAmount.zero(USD), 0, years);
+    }
+
+    /**
+     * Simulates every monthly withdrawal on the same paths, each one after
+     * the same contributions.
+     *
+     * @param monthlyWithdrawals in USD.
+     * @param monthlyContribution in USD, added every month of the working
+     * years.
+     * @param workingYears years of contributions before the withdrawals.
+     * @param years years of withdrawals.
+     * @return one result per withdrawal, in the same order, covering the
+     * working years and the withdrawal years.
+     */
+    public List<MonteCarloSimulation.Result> withdrawals(
+            List<MoneyAmount> monthlyWithdrawals,
+            MoneyAmount monthlyContribution,
+            int workingYears,
+            int years) {
+        return this.simulation.run(
+                this.portfolio.amount().doubleValue(),
+                monthlyWithdrawals.stream()
+                        .map(ma -> new MonteCarloSimulation.Plan(
+                        monthlyContribution.amount().doubleValue(),
+                        workingYears * 12,
+                        ma.amount().doubleValue()))
+                        .toList(),
+                workingYears + years,
+                PATHS,
+                SEED);
+    }
+
+    public MonteCarloSimulation.Result withdrawal(MoneyAmount monthlyWithdrawal, int years) {
+        return this.withdrawals(List.of(monthlyWithdrawal), years).get(0);
+    }
+
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.math.BigDecimal;
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.ZERO;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import org.fede.calculator.money.Inflation;
+import org.fede.calculator.money.MoneyAmount;
+import static org.fede.calculator.money.Currency.USD;
+import static org.fede.calculator.money.MathConstants.C;
+import org.fede.calculator.money.series.Investment;
+import org.fede.calculator.money.series.InvestmentEvent;
+import org.fede.calculator.money.series.PortfolioHoldings;
+
+/**
+ * Modified Dietz, monthly linked and XIRR returns of several portfolios for
+ * every calendar year and for their whole history. The cash flows of each
+ * portfolio are valued and sorted once, with prefix sums of the amounts and
+ * of the amounts times their day, so the flows of any period are two binary
+ * searches away. Month end values are computed once per month.
+ *
+ * Nothing is computed until it is asked for: a portfolio is valued the
+ * first time one of its returns is needed and every cell is computed once.
+ * The first XIRR cell of a portfolio solves every year of it in a single
+ * batch.
+ *
+ * Results are the same {@link ModifiedDietzReturn} and {@link XirrReturn}
+ * give for the same investments and period.
+ *
+ * @author fede
+ */
+public final class ReturnCube {
+
+    /**
+     * The year of the whole history cells.
+     */
+    public static final int TOTAL = 0;
+
+    public enum Measure {
+        /**
+         * Modified Dietz money weighted return.
+         */
+        MDR,
+        /**
+         * Monthly Modified Dietz returns linked into a time weighted one.
+         */
+        TWR,
+        XIRR
+    }
+
+    private record Cell(String portfolio, Measure measure, int year) {
+
+    }
+
+    private final Map<String, List<Investment>> investments;
+    private final boolean nominal;
+    private final Map<String, Portfolio> portfolios = new HashMap<>();
+    private final Map<Cell, ModifiedDietzReturnResult> cells = new HashMap<>();
+    private final Map<Cell, XirrSolver.Result> solvers = new HashMap<>();
+    // portfolios whose years were solved in a batch
+    private final Set<String> xirrSolved = new HashSet<>();
+
+    /**
+     * Every portfolio gets the years from its first buy to its last sale, or
+     * this year if it still has open positions. Other years can be asked for
+     * with {@link #get(String, Measure, int)}.
+     *
+     * @param portfolios investments by portfolio name.
+     * @param nominal
+     * @return
+     */
+    public static ReturnCube of(Map<String, List<Investment>> portfolios, boolean nominal) {
+        return new ReturnCube(portfolios, nominal);
+    }
+
+    private ReturnCube(Map<String, List<Investment>> investments, boolean nominal) {
+        this.investments = Map.copyOf(investments);
+        this.nominal = nominal;
+    }
+
+    private List<Integer> years(String portfolio) {
+        final var p = this.portfolio(portfolio);
+        return IntStream.rangeClosed(p.from().getYear(), p.to().getYear())
+                .boxed()
+                .toList();
+    }
+
+    private Portfolio.Period period(String portfolio, int year) {
+        final var p = this.portfolio(portfolio);
+        return year == TOTAL
+                ? p.period(p.from(), p.to())
+                : p.period(LocalDate.of(year, Month.JANUARY, 1), LocalDate.of(year, Month.DECEMBER, 31));
+    }
+
+    /**
+     * @param portfolio
+     * @param measure
+     * @param year a calendar year or {@link #TOTAL}.
+     * @return
+     */
+    public ModifiedDietzReturnResult get(String portfolio, Measure measure, int year) {
+        final var cell = new Cell(portfolio, measure, year);
+        final var answer = this.cells.get(cell);
+        if (answer != null) {
+            return answer;
+        }
+        switch (measure) {
+            case MDR ->
+                this.cells.put(cell, this.portfolio(portfolio).mdr(this.period(portfolio, year)));
+            case TWR ->
+                this.cells.put(cell, this.portfolio(portfolio).twr(this.period(portfolio, year)));
+            case XIRR -> {
+                if (this.xirrSolved.add(portfolio)) {
+                    this.solveXirr(portfolio, concat(this.years(portfolio), TOTAL));
+                }
+                if (!this.cells.containsKey(cell)) {
+                    this.solveXirr(portfolio, List.of(year));
+                }
+            }
+        }
+        return this.cells.get(cell);
+    }
+
+    /**
+     * Solves the XIRR of the years in one batch.
+     */
+    private void solveXirr(String portfolio, List<Integer> years) {
+        final var p = this.portfolio(portfolio);
+        final var periods = years.stream()
+                .map(year -> this.period(portfolio, year))
+                .toList();
+        final var results = XirrSolver.solveAll(periods.stream().map(p::cashFlows).toList());
+        for (int i = 0; i < results.size(); i++) {
+            final var cell = new Cell(portfolio, Measure.XIRR, years.get(i));
+            this.cells.put(cell, XirrReturn.solution(results.get(i), periods.get(i).days()).result());
+            this.solvers.put(cell, results.get(i));
+        }
+    }
+
+    private static List<Integer> concat(List<Integer> years, int year) {
+        final List<Integer> answer = new ArrayList<>(years.size() + 1);
+        answer.addAll(years);
+        answer.add(year);
+        return answer;
+    }
+
+    /**
+     * @param portfolio
+     * @param measure
+     * @return the return of every year, without the total.
+     */
+    public Map<Integer, ModifiedDietzReturnResult> byYear(String portfolio, Measure measure) {
+        final Map<Integer, ModifiedDietzReturnResult> answer = new TreeMap<>();
+        for (var year : this.years(portfolio)) {
+            answer.put(year, this.get(portfolio, measure, year));
+        }
+        return answer;
+    }
+
+    /**
+     * @param portfolio
+     * @return how the XIRR of every year was found.
+     */
+    public List<XirrSolver.Result> xirrSolvers(String portfolio) {
+        return this.years(portfolio)
+                .stream()
+                .map(year -> {
+                    this.get(portfolio, Measure.XIRR, year);
+                    return this.solvers.get(new Cell(portfolio, Measure.XIRR, year));
+                })
+                .toList();
+    }
+
+    /**
+     * @param name
+     * @return the portfolio, for returns of periods that are not calendar
+     * years.
+     */
+    public Portfolio portfolio(String name) {
+        final var answer = this.portfolios.get(name);
+        if (answer != null) {
+            return answer;
+        }
+        final var portfolio = new Portfolio(
+                Objects.requireNonNull(this.investments.get(name), () -> "Unknown portfolio " + name + "."),
+                this.nominal);
+        this.portfolios.put(name, portfolio);
+        return portfolio;
+    }
+
+    /**
+     * The sorted cash flows of a list of investments.
+     */
+    public static final class Portfolio {
+
+        private record Period(LocalDate initial, LocalDate last, long days) {
+
+        }
+
+        private record Flow(long day, BigDecimal amount) {
+
+        }
+
+        private final PortfolioHoldings holdings;
+        private final boolean nominal;
+        private final LocalDate from;
+        private final LocalDate to;
+        // epoch days of the flows, sorted
+        private final long[] days;
+        // buys positive, sales negative
+        private final BigDecimal[] amounts;
+        // sums[i] of the first i amounts
+        private final BigDecimal[] sums;
+        // daySums[i] of the first i amounts times their day
+        private final BigDecimal[] daySums;
+        private final Map<YearMonth, MoneyAmount> values = new HashMap<>();
+
+        /**
+         * A single portfolio, for period queries outside of any cube.
+         *
+         * @param investments
+         * @param nominal
+         * @return
+         */
+        public static Portfolio of(List<Investment> investments, boolean nominal) {
+            return new Portfolio(investments, nominal);
+        }
+
+        private Portfolio(List<Investment> investments, boolean nominal) {
+            this.holdings = PortfolioHoldings.of(investments);
+            this.nominal = nominal;
+
+            this.from = investments
+                    .stream()
+                    .map(Investment::getInitialDate)
+                    .min(Comparator.naturalOrder())
+                    .orElseThrow(() -> new IllegalArgumentException("A portfolio needs investments."));
+
+            this.to = investments.stream().map(Investment::getOut).anyMatch(Objects::isNull)
+                    ? LocalDate.now()
+                    : investments
+                            .stream()
+                            .map(Investment::getOut)
+                            .map(InvestmentEvent::getDate)
+                            .max(Comparator.naturalOrder())
+                            .get();
+
+            final List<Flow> flows = new ArrayList<>(investments.size() * 2);
+            for (var i : investments) {
+                flows.add(new Flow(i.getIn().getDate().toEpochDay(), this.cashFlowAmount(i.getIn())));
+                if (i.getOut() != null) {
+                    flows.add(new Flow(i.getOut().getDate().toEpochDay(), this.cashFlowAmount(i.getOut()).negate()));
+                }
+            }
+            flows.sort(Comparator.comparingLong(Flow::day));
+
+            final int n = flows.size();
+            this.days = new long[n];
+            this.amounts = new BigDecimal[n];
+            this.sums = new BigDecimal[n + 1];
+            this.daySums = new BigDecimal[n + 1];
+            this.sums[0] = ZERO;
+            this.daySums[0] = ZERO;
+            for (int i = 0; i < n; i++) {
+                final var flow = flows.get(i);
+                this.days[i] = flow.day();
+                this.amounts[i] = flow.amount();
+                this.sums[i + 1] = this.sums[i].add(flow.amount(), C);
+                this.daySums[i + 1] = this.daySums[i].add(flow.amount().multiply(BigDecimal.valueOf(flow.day()), C), C);
+            }
+        }
+
+        /**
+         * @return the date of the first buy.
+         */
+        public LocalDate from() {
+            return this.from;
+        }
+
+        /**
+         * @return the date of the last sale, or today if there are open
+         * positions.
+         */
+        public LocalDate to() {
+            return this.to;
+        }
+
+        private BigDecimal cashFlowAmount(InvestmentEvent ie) {
+
+            final var fx = ie.getMoneyAmount(USD);
+
+            return this.nominal
+                    ? fx.amount()
+                    : Inflation.usdInflation().adjust(fx, YearMonth.from(ie.getDate()), Inflation.usdInflation().getTo()).amount();
+        }
+
+        private MoneyAmount value(YearMonth ym) {
+            return this.values.computeIfAbsent(ym, month -> this.holdings.value(USD, month, this.nominal)
+                    .max(MoneyAmount.zero(USD)));
+        }
+
+        private Period period(LocalDate initialMoment, LocalDate finalMoment) {
+            final var initial = initialMoment.isAfter(this.from) ? initialMoment : this.from;
+            final var now = LocalDate.now();
+            final var last = finalMoment.isBefore(now) ? finalMoment : now;
+            return new Period(initial, last, ChronoUnit.DAYS.between(initial, last));
+        }
+
+        // first flow on or after the day
+        private int lowerBound(long day) {
+            int lo = 0;
+            int hi = this.days.length;
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (this.days[mid] < day) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // first flow after the day
+        private int upperBound(long day) {
+            return this.lowerBound(day + 1);
+        }
+
+        public ModifiedDietzReturnResult mdr(LocalDate initialMoment, LocalDate finalMoment) {
+            return this.mdr(this.period(initialMoment, finalMoment));
+        }
+
+        public ModifiedDietzReturnResult twr(LocalDate initialMoment, LocalDate finalMoment) {
+            return this.twr(this.period(initialMoment, finalMoment));
+        }
+
+        public XirrReturn.Solution xirr(LocalDate initialMoment, LocalDate finalMoment) {
+            final var period = this.period(initialMoment, finalMoment);
+            return XirrReturn.solution(XirrSolver.current().solve(this.cashFlows(period)), period.days());
+        }
+
+        public ModifiedDietzReturnResult get(Measure measure, LocalDate initialMoment, LocalDate finalMoment) {
+            return switch (measure) {
+                case MDR ->
+                    this.mdr(initialMoment, finalMoment);
+                case TWR ->
+                    this.twr(initialMoment, finalMoment);
+                case XIRR ->
+                    this.xirr(initialMoment, finalMoment).result();
+            };
+        }
+
+        private ModifiedDietzReturnResult mdr(Period period) {
+
+            final var v1 = this.value(YearMonth.from(period.last()));
+            final var v0 = this.value(YearMonth.from(period.initial()).minusMonths(1));
+
+            final int lo = this.lowerBound(period.initial().toEpochDay());
+            final int hi = this.upperBound(period.last().toEpochDay());
+
+            var cashFlowSum = ZERO;
+            var adjustedCashFlowSum = ZERO;
+            if (lo < hi) {
+                // sum of amount * (last - day) / days
+                cashFlowSum = this.sums[hi].subtract(this.sums[lo], C);
+                adjustedCashFlowSum = cashFlowSum
+                        .multiply(BigDecimal.valueOf(period.last().toEpochDay()), C)
+                        .subtract(this.daySums[hi].subtract(this.daySums[lo], C), C)
+                        .divide(BigDecimal.valueOf(Math.max(1L, period.days())), C);
+            }
+
+            if (v0.isZero() && adjustedCashFlowSum.signum() == 0) {
+                return new ModifiedDietzReturnResult(ZERO, ZERO);
+            }
+
+            final var result = v1.amount()
+                    .subtract(v0.amount(), C)
+                    .subtract(cashFlowSum, C)
+                    .divide(v0.amount().add(adjustedCashFlowSum, C), C)
+                    .max(ONE.negate());
+
+            return new ModifiedDietzReturnResult(result, annualized(result, period.days()));
+        }
+
+        private ModifiedDietzReturnResult twr(Period period) {
+
+            final var from = YearMonth.from(period.initial()).minusMonths(1);
+            final var to = YearMonth.from(period.last());
+
+            var value = ONE;
+            for (var ym = from; ym.compareTo(to) < 0; ym = ym.plusMonths(1)) {
+                final var month = this.mdr(this.period(ym.atEndOfMonth(), ym.plusMonths(1).atEndOfMonth()));
+                value = value.multiply(ONE.add(month.getMoneyWeighted(), C), C);
+            }
+            value = value.subtract(ONE, C);
+
+            return new ModifiedDietzReturnResult(value, annualized(value, period.days()));
+        }
+
+        private XirrSolver.CashFlows cashFlows(Period period) {
+
+            final var solver = XirrSolver.current().clear();
+
+            if (period.days() == 0) {
+                return solver.toCashFlows();
+            }
+
+            final var initialValue = this.value(YearMonth.from(period.initial()).minusMonths(1));
+            if (!initialValue.isZero()) {
+                solver.add(0.0d, initialValue.amount().negate().doubleValue());
+            }
+
+            final long start = period.initial().toEpochDay();
+            final int hi = this.upperBound(period.last().toEpochDay());
+            for (int i = this.lowerBound(start); i < hi; i++) {
+                solver.add((this.days[i] - start) / 365.0d, this.amounts[i].negate().doubleValue());
+            }
+
+            final var finalValue = this.value(YearMonth.from(period.last()));
+            if (!finalValue.isZero()) {
+                solver.add(period.days() / 365.0d, finalValue.amount().doubleValue());
+            }
+
+            return solver.toCashFlows();
+        }
+
+        private static BigDecimal annualized(BigDecimal value, long days) {
+
+            if (days == 0) {
+                return ZERO;
+            }
+
+            return BigDecimal.valueOf(Math.pow(1.0d + value.doubleValue(), 365.0d / (double) days) - 1.0d);
+        }
+    }
+
+}
@@ -409,13 +409,13 @@ public class Savings {
 
         final int[] years = new int[]{1, 2, 4, 6, 8, 10, 12, 14, 16};
 
-        final var incomes = IntStream.of(years)
-                .mapToObj(i -> Map.entry(i, this.incomeAverage(i)))
-                .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
+        final var incomes = this.series.getIncomeSeries()
+                .stream()
+                .collect(reducing(MoneyAmountSeries::add))
+                .map(income -> this.averages(income, years))
+                .orElseGet(() -> IntStream.of(years).boxed().collect(toMap(y -> y, y -> ZERO_USD)));
 
-        final var savings = IntStream.of(years)
-                .mapToObj(i -> Map.entry(i, this.savingsAverage(i)))
-                .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
+        final var savings = this.averages(this.series.realNetSavings(), years);
 
         this.console.appendLine(this.format.title("Average Income / Spending"));
         this.console.appendLine(
@@ -451,20 +451,17 @@ public class Savings {
                         .map(this.format::percent))));
     }
 
-    private MoneyAmount incomeAverage(int years) {
+    /**
+     * The latest average of each number of years, all windows in one pass.
+     */
+    private Map<Integer, MoneyAmount> averages(MoneyAmountSeries series, int[] years) {
 
-        return this.series.getIncomeSeries()
-                .stream()
-                .collect(reducing(MoneyAmountSeries::add))
-                .map(new SlidingWindow(years * 12)::average)
-                .map(allRealUSDIncome -> allRealUSDIncome.getAmount(usdInflation().getTo()))
-                .orElse(ZERO_USD);
-    }
-
-    private MoneyAmount savingsAverage(int years) {
-        return new SlidingWindow(years * 12)
-                .average(this.series.realNetSavings())
-                .getAmount(usdInflation().getTo());
+        final var averages = SlidingWindow.average(series, IntStream.of(years).map(y -> y * 12).toArray());
+        final Map<Integer, MoneyAmount> answer = HashMap.newHashMap(years.length);
+        for (int i = 0; i < years.length; i++) {
+            answer.put(years[i], averages.get(i).getAmount(usdInflation().getTo()));
+        }
+        return answer;
     }
 
     public void yearSavingsIncomeTable() {
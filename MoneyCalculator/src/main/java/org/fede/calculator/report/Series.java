@@ -17,7 +17,10 @@
 package org.fede.calculator.report;
 
 import static java.math.BigDecimal.ONE;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -26,15 +29,17 @@ import static java.util.stream.Collectors.mapping;
 import java.util.stream.Stream;
 import org.fede.calculator.money.Cost;
 import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.FixedMoneyAmount;
 import org.fede.calculator.money.ForeignExchanges;
 import org.fede.calculator.money.Inflation;
 import org.fede.calculator.money.MathConstants;
 import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.series.FixedMoneyAmountSeries;
 import org.fede.calculator.money.series.Investment;
 import org.fede.calculator.money.series.MoneyAmountSeries;
 import org.fede.calculator.money.series.SeriesReader;
 import static org.fede.calculator.money.series.SeriesReader.readSeries;
-import org.fede.calculator.money.series.SortedMapMoneyAmountSeries;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import org.fede.calculator.money.SlidingWindow;
@@ -43,6 +48,10 @@ import static org.fede.util.Pair.of;
 import tools.jackson.core.type.TypeReference;
 
 /**
+ * Real USD series derived from the data files. Derived series are nodes of a
+ * {@link SeriesGraph}, so every instance sharing the graph computes each of
+ * them once. Series that used to be computed on every call are still handed
+ * out as copies, callers are free to rename them.
  *
  * @author fede
  */
@@ -59,168 +68,296 @@ public class Series {
     private static final TypeReference<List<BBPPYear>> BBPP_TR = new TypeReference<List<BBPPYear>>() {
     };
 
-    private List<Investment> investments;
-
-    private Map<String, List<MoneyAmountSeries>> realUSDSavingsByType;
-    private Map<String, List<MoneyAmountSeries>> realUSDExpensesByType;
-
-    private MoneyAmountSeries realUSDCondoExpenses;
+    private static final String INVESTMENTS = "investments.json";
+
+    private static final String ENVIRONMENT = "environment.properties";
+
+    private static final List<String> CONDO_EXPENSES = List.of(
+            "consorcio-administracion",
+            "consorcio-ascensor",
+            "consorcio-bomba",
+            "consorcio-gasto-administrativo",
+            "consorcio-limpieza",
+            "consorcio-internet",
+            "consorcio-luz",
+            "consorcio-matafuegos",
+            "consorcio-reparaciones",
+            "consorcio-seguros",
+            "absa");
+
+    private static final List<Pair<String, String>> EXPENSES_BY_TYPE = List.of(
+            of(ESSENTIAL, "bbpp"),
+            of(ESSENTIAL, "inmobiliario-43"),
+            of(ESSENTIAL, "monotributo-angeles"),
+            of(ESSENTIAL, "monotributo"),
+            of(ESSENTIAL, "municipal-43"),
+            of(ESSENTIAL, "salud"),
+            of(ESSENTIAL, "contadora"),
+            of(ESSENTIAL, "emergencia"),
+            of(ESSENTIAL, "ioma"),
+            of(ESSENTIAL, "seguro"),
+            of(ESSENTIAL, "comida"),
+            of(ESSENTIAL, "gas"),
+            of(ESSENTIAL, "luz"),
+            of(ESSENTIAL, "expensas"),
+            of(DISCRETIONARY, "celular-a"),
+            of(DISCRETIONARY, "celular-f"),
+            of(DISCRETIONARY, "telefono-43"),
+            of(DISCRETIONARY, "santander"),
+            of(DISCRETIONARY, "box"),
+            of(DISCRETIONARY, "cablevision"),
+            of(DISCRETIONARY, "comida-disc"),
+            of(DISCRETIONARY, "sellos"),
+            of(DISCRETIONARY, "limpieza"),
+            of(DISCRETIONARY, "netflix"),
+            of(DISCRETIONARY, "suscripciones-usd"),
+            of(DISCRETIONARY, "suscripciones-ars"),
+            of(DISCRETIONARY, "viajes"),
+            of(DISCRETIONARY, "viajes-usd"),
+            of(DISCRETIONARY, "xbox"),
+            of(DISCRETIONARY, "atlantico"),
+            of(DISCRETIONARY, "itau-uy"),
+            of(IRREGULAR, "other"),
+            of(IRREGULAR, "other-usd"),
+            of(IRREGULAR, "colon"),
+            of(IRREGULAR, "reparaciones"));
+
+    private static final List<String> EXPENSES = List.of(
+            "bbpp",
+            "inmobiliario-43",
+            "monotributo-angeles",
+            "monotributo",
+            "municipal-43",
+            "contadora",
+            "celular-a",
+            "celular-f",
+            "telefono-43",
+            "emergencia",
+            "ioma",
+            "comida",
+            "sellos",
+            "salud",
+            "seguro",
+            "gas",
+            "luz",
+            "colon",
+            "cablevision",
+            "santander",
+            "box",
+            "comida-disc",
+            "other",
+            "other-usd",
+            "reparaciones",
+            "limpieza",
+            "expensas",
+            "netflix",
+            "suscripciones-usd",
+            "suscripciones-ars",
+            "viajes",
+            "xbox",
+            "atlantico",
+            "itau-uy");
+
+    private static final List<String> SAVINGS = List.of(
+            "ahorros-ay24",
+            "ahorros-conbala",
+            "ahorros-uva",
+            "ahorros-dolar-ON",
+            "ahorros-lecap",
+            "ahorros-lete",
+            "ahorros-caplusa",
+            "ahorros-dolar-banco",
+            "ahorros-dolar-pf",
+            "ahorros-peso",
+            "ahorros-dolar-liq",
+            "ahorros-euro",
+            "ahorros-euro-liq",
+            "ahorros-dai",
+            "ahorros-cspx",
+            "ahorros-rtwo",
+            "ahorros-xuse",
+            "ahorros-eimi",
+            "ahorros-meud",
+            "ahorros-conaafa",
+            "ahorros-xrsu");
+
+    private static final List<String> INCOME = List.of(
+            "lifia",
+            "unlp",
+            "other-ars",
+            "other-usd",
+            "other-eur",
+            "despegar",
+            "despegar-split");
+
+    private static final List<String> REGULAR_INCOME = List.of(
+            "lifia",
+            "unlp",
+            "despegar",
+            "despegar-split");
+
+    private static final List<String> CASH = List.of(
+            "ahorros-peso",
+            "ahorros-dolar-banco",
+            "ahorros-dolar-liq",
+            "ahorros-euro",
+            "ahorros-uva",
+            "ahorros-caplusa",
+            "ahorros-dolar-pf",
+            "ahorros-euro-liq",
+            "ahorros-dai");
+
+    private static final List<String> INVESTED = List.of(
+            "ahorros-cspx",
+            "ahorros-eimi",
+            "ahorros-rtwo",
+            "ahorros-meud",
+            "ahorros-xrsu",
+            "ahorros-xuse",
+            "ahorros-ay24",
+            "ahorros-conaafa",
+            "ahorros-conbala",
+            "ahorros-dolar-ON",
+            "ahorros-lecap",
+            "ahorros-lete");
+
+    // node names
+    private static final String INVESTING_EXPENSES = "investing expenses";
+    private static final String REAL_USD_EXPENSES_BY_TYPE = "real USD expenses by type";
+    private static final String REAL_USD_SAVINGS_BY_TYPE = "real USD savings by type";
+    private static final String REAL_INCOME = "real income";
+    private static final String REAL_NET_SAVINGS = "real net savings";
+    private static final String INCOME_SERIES = "income series";
+    private static final String REGULAR_INCOME_SERIES = "regular income series";
+
+    private final SeriesGraph graph;
+
+    public Series() {
+        this(SeriesGraph.shared());
+    }
 
-    private List<MoneyAmountSeries> incomeSeries;
+    public Series(SeriesGraph graph) {
+        this.graph = graph;
+    }
 
-    private List<MoneyAmountSeries> regularIncomeSeries;
+    private static List<String> files(String prefix, Collection<String> names) {
+        return names.stream()
+                .map(name -> prefix + name + ".json")
+                .toList();
+    }
 
-    private MoneyAmountSeries realNetSavings;
+    private static MoneyAmountSeries copy(MoneyAmountSeries series) {
+        return series.map((ym, ma) -> ma);
+    }
 
-    private MoneyAmountSeries realIncome;
-    private MoneyAmountSeries realRegularIncome;
+    private static List<MoneyAmountSeries> copy(List<MoneyAmountSeries> series) {
+        return series.stream()
+                .map(Series::copy)
+                .toList();
+    }
 
-    private MoneyAmountSeries realExpense;
+    private static Map<String, List<MoneyAmountSeries>> copy(Map<String, List<MoneyAmountSeries>> series) {
+        final Map<String, List<MoneyAmountSeries>> answer = new LinkedHashMap<>();
+        series.forEach((key, value) -> answer.put(key, copy(value)));
+        return answer;
+    }
 
-    private MoneyAmountSeries realOtherExpenses;
+    private static Map<String, List<MoneyAmountSeries>> unmodifiable(Map<String, List<MoneyAmountSeries>> series) {
+        final Map<String, List<MoneyAmountSeries>> answer = new LinkedHashMap<>();
+        series.forEach((key, value) -> answer.put(key, List.copyOf(value)));
+        return Collections.unmodifiableMap(answer);
+    }
 
     public List<Investment> getInvestments() {
-        if (this.investments == null) {
-            this.investments = SeriesReader.read("investments.json", TR);
-        }
+        return this.graph.get(
+                "investments",
+                List.of(INVESTMENTS),
+                () -> SeriesReader.read(INVESTMENTS, TR));
+    }
 
-        return investments;
+    /**
+     * @return the read only lots and realized gains of every ETF investment,
+     * what-if sales go to a fork.
+     */
+    public LotLedger lotLedger() {
+        return this.graph.get(
+                "lot ledger",
+                List.of(INVESTMENTS, ENVIRONMENT),
+                () -> LotLedger.replay(this.getInvestments()));
     }
 
     public MoneyAmountSeries getRealUSDCondoExpenses() {
-        if (this.realUSDCondoExpenses == null) {
-            this.realUSDCondoExpenses = Stream.of(
-                    "consorcio-administracion",
-                    "consorcio-ascensor",
-                    "consorcio-bomba",
-                    "consorcio-gasto-administrativo",
-                    "consorcio-limpieza",
-                    "consorcio-internet",
-                    "consorcio-luz",
-                    "consorcio-matafuegos",
-                    "consorcio-reparaciones",
-                    "consorcio-seguros",
-                    "absa")
-                    .map(p -> this.asRealUSDSeries("expense/", p))
-                    .reduce(MoneyAmountSeries::add)
-                    .get();
-        }
-        return this.realUSDCondoExpenses;
+        return this.graph.get(
+                "real USD condo expenses",
+                files("expense/", CONDO_EXPENSES),
+                () -> CONDO_EXPENSES.stream()
+                        .map(p -> this.asRealUSDSeries("expense/", p))
+                        .reduce(MoneyAmountSeries::add)
+                        .get());
     }
 
     public Map<String, List<MoneyAmountSeries>> getRealUSDExpensesByType() {
+        return copy(this.sharedRealUSDExpensesByType());
+    }
 
-        if (this.realUSDExpensesByType == null) {
-
-            this.realUSDExpensesByType = Stream.of(
-                    of(ESSENTIAL, "bbpp"),
-                    of(ESSENTIAL, "inmobiliario-43"),
-                    of(ESSENTIAL, "monotributo-angeles"),
-                    of(ESSENTIAL, "monotributo"),
-                    of(ESSENTIAL, "municipal-43"),
-                    of(ESSENTIAL, "salud"),
-                    of(ESSENTIAL, "contadora"),
-                    of(ESSENTIAL, "emergencia"),
-                    of(ESSENTIAL, "ioma"),
-                    of(ESSENTIAL, "seguro"),
-                    of(ESSENTIAL, "comida"),
-                    of(ESSENTIAL, "gas"),
-                    of(ESSENTIAL, "luz"),
-                    of(ESSENTIAL, "expensas"),
-                    of(DISCRETIONARY, "celular-a"),
-                    of(DISCRETIONARY, "celular-f"),
-                    of(DISCRETIONARY, "telefono-43"),
-                    of(DISCRETIONARY, "santander"),
-                    of(DISCRETIONARY, "box"),
-                    of(DISCRETIONARY, "cablevision"),
-                    of(DISCRETIONARY, "comida-disc"),
-                    of(DISCRETIONARY, "sellos"),
-                    of(DISCRETIONARY, "limpieza"),
-                    of(DISCRETIONARY, "netflix"),
-                    of(DISCRETIONARY, "suscripciones-usd"),
-                    of(DISCRETIONARY, "suscripciones-ars"),
-                    of(DISCRETIONARY, "viajes"),
-                    of(DISCRETIONARY, "viajes-usd"),
-                    of(DISCRETIONARY, "xbox"),
-                    of(DISCRETIONARY, "atlantico"),
-                    of(DISCRETIONARY, "itau-uy"),
-                    of(IRREGULAR, "other"),
-                    of(IRREGULAR, "other-usd"),
-                    of(IRREGULAR, "colon"),
-                    of(IRREGULAR, "reparaciones")
-            ).collect(groupingBy(
-                    Pair::first,
-                    mapping(p -> this.asRealUSDSeries("expense/", p.second()),
-                            Collectors.toList())));
-
-            this.realUSDExpensesByType.get(IRREGULAR)
-                    .add(this.investingExpenses());
-
-            final var income = this.realIncome();
-            final var netSaving = this.realNetSavings();
-            final var spending = this.realUSDExpensesByType.values()
-                    .stream()
-                    .flatMap(Collection::stream)
-                    .reduce(MoneyAmountSeries::add)
-                    .get();
-
-            final var otherSpending = income
-                    .subtract(spending)
-                    .subtract(netSaving);
-            otherSpending.setName("Other spending");
-            this.realOtherExpenses = otherSpending;
-
-            this.realUSDExpensesByType.put(OTHER, List.of(this.realOtherExpenses));
-        }
+    private Map<String, List<MoneyAmountSeries>> sharedRealUSDExpensesByType() {
 
-        return realUSDExpensesByType;
+        final List<String> inputs = new ArrayList<>(files("expense/", EXPENSES_BY_TYPE.stream().map(Pair::second).toList()));
+        inputs.addAll(List.of(INVESTING_EXPENSES, REAL_INCOME, REAL_NET_SAVINGS));
+
+        return this.graph.get(REAL_USD_EXPENSES_BY_TYPE, inputs, this::realUSDExpensesByType);
+    }
+
+    private Map<String, List<MoneyAmountSeries>> realUSDExpensesByType() {
+
+        final Map<String, List<MoneyAmountSeries>> answer = EXPENSES_BY_TYPE.stream()
+                .collect(groupingBy(
+                        Pair::first,
+                        mapping(p -> this.asRealUSDSeries("expense/", p.second()),
+                                Collectors.toList())));
+
+        answer.get(IRREGULAR)
+                .add(this.investingExpenses());
+
+        final var income = this.realIncome();
+        final var netSaving = this.realNetSavings();
+        final var spending = answer.values()
+                .stream()
+                .flatMap(Collection::stream)
+                .reduce(MoneyAmountSeries::add)
+                .get();
+
+        final var otherSpending = income
+                .subtract(spending)
+                .subtract(netSaving);
+        otherSpending.setName("Other spending");
+
+        answer.put(OTHER, List.of(otherSpending));
+        return unmodifiable(answer);
     }
 
     public List<MoneyAmountSeries> getRealUSDExpenses() {
 
-        return Stream.concat(
-                Stream.of(
-                        "bbpp",
-                        "inmobiliario-43",
-                        "monotributo-angeles",
-                        "monotributo",
-                        "municipal-43",
-                        "contadora",
-                        "celular-a",
-                        "celular-f",
-                        "telefono-43",
-                        "emergencia",
-                        "ioma",
-                        "comida",
-                        "sellos",
-                        "salud",
-                        "seguro",
-                        "gas",
-                        "luz",
-                        "colon",
-                        "cablevision",
-                        "santander",
-                        "box",
-                        "comida-disc",
-                        "other",
-                        "other-usd",
-                        "reparaciones",
-                        "limpieza",
-                        "expensas",
-                        "netflix",
-                        "suscripciones-usd",
-                        "suscripciones-ars",
-                        "viajes",
-                        "xbox",
-                        "atlantico",
-                        "itau-uy")
-                        .map(p -> this.asRealUSDSeries("expense/", p)),
-                Stream.of(this.investingExpenses()))
-                .collect(Collectors.toList());
+        final List<String> inputs = new ArrayList<>(files("expense/", EXPENSES));
+        inputs.add(INVESTING_EXPENSES);
 
+        return copy(this.graph.get(
+                "real USD expenses",
+                inputs,
+                () -> Stream.concat(
+                        EXPENSES.stream().map(p -> this.asRealUSDSeries("expense/", p)),
+                        Stream.of(this.investingExpenses()))
+                        .toList()));
     }
 
     public MoneyAmountSeries investingExpenses() {
+        return copy(this.graph.get(
+                INVESTING_EXPENSES,
+                List.of("investments", ENVIRONMENT),
+                this::computeInvestingExpenses));
+    }
+
+    private MoneyAmountSeries computeInvestingExpenses() {
 
         final List<Cost> buyCost
                 = this.getInvestments()
@@ -254,7 +391,7 @@ public class Series {
                                 Cost::ym,
                                 Collectors.reducing(zero, Cost::amount, MoneyAmount::add)));
 
-        final var expenseSeries = new SortedMapMoneyAmountSeries(Currency.USD, "investing");
+        final var expenseSeries = new ArrayMoneyAmountSeries(Currency.USD, "investing");
 
         for (YearMonth ym = YearMonth.of(2016, 1); ym.until(Inflation.usdInflation().getTo(), ChronoUnit.MONTHS) >= 0; ym = ym.plusMonths(1)) {
             expenseSeries.putAmount(ym, feesByMonth.getOrDefault(ym, zero));
@@ -268,216 +405,205 @@ public class Series {
         if (nominal) {
             return this.readSeriesInUSD("expense/", name);
         }
-        return this.asRealUSDSeries("expense/", name);
+        return copy(this.asRealUSDSeries("expense/", name));
     }
 
     private Stream<MoneyAmountSeries> savingsSeries() {
-        return Stream.of("ahorros-ay24",
-                "ahorros-conbala",
-                "ahorros-uva",
-                "ahorros-dolar-ON",
-                "ahorros-lecap",
-                "ahorros-lete",
-                "ahorros-caplusa",
-                "ahorros-dolar-banco",
-                "ahorros-dolar-pf",
-                "ahorros-peso",
-                "ahorros-dolar-liq",
-                "ahorros-euro",
-                "ahorros-euro-liq",
-                "ahorros-dai",
-                "ahorros-cspx",
-                "ahorros-rtwo",
-                "ahorros-xuse",
-                "ahorros-eimi",
-                "ahorros-meud",
-                "ahorros-conaafa",
-                "ahorros-xrsu")
-                .map(f -> "saving/" + f + ".json")
+        return files("saving/", SAVINGS)
+                .stream()
                 .map(SeriesReader::readSeries);
     }
 
     public MoneyAmountSeries realExpense() {
-        if (this.realExpense == null) {
-            final var negationFactor = ONE.negate(MathConstants.C);
-            this.realExpense = this.realIncome()
-                    .add(this.realNetSavings().map((ym, ma) -> ma.adjust(ONE, negationFactor)));
-        }
-        return this.realExpense;
+        return this.graph.get(
+                "real expense",
+                List.of(REAL_INCOME, REAL_NET_SAVINGS),
+                () -> {
+                    final var negationFactor = ONE.negate(MathConstants.C);
+                    return this.realIncome()
+                            .add(this.realNetSavings().map((ym, ma) -> ma.adjust(ONE, negationFactor)));
+                });
     }
 
     public MoneyAmountSeries realIncome() {
-        if (this.realIncome == null) {
-            this.realIncome = this.getIncomeSeries()
-                    .stream()
-                    .reduce(MoneyAmountSeries::add)
-                    .get();
-        }
-        return this.realIncome;
+        return this.graph.get(
+                REAL_INCOME,
+                List.of(INCOME_SERIES),
+                () -> this.sharedIncomeSeries()
+                        .stream()
+                        .reduce(MoneyAmountSeries::add)
+                        .get());
     }
 
     public MoneyAmountSeries realRegularIncome() {
-        if (this.realRegularIncome == null) {
-            this.realRegularIncome = this.getRegularIncomeSeries()
-                    .stream()
-                    .reduce(MoneyAmountSeries::add)
-                    .get();
-        }
-        return this.realRegularIncome;
+        return this.graph.get(
+                "real regular income",
+                List.of(REGULAR_INCOME_SERIES),
+                () -> this.sharedRegularIncomeSeries()
+                        .stream()
+                        .reduce(MoneyAmountSeries::add)
+                        .get());
     }
 
     public MoneyAmountSeries realNetSavings() {
+        final List<String> inputs = new ArrayList<>(files("saving/", SAVINGS));
+        // the fixedPointMath switch
+        inputs.add(ENVIRONMENT);
+        return this.graph.get(
+                REAL_NET_SAVINGS,
+                inputs,
+                this::computeRealNetSavings);
+    }
 
-        if (this.realNetSavings == null) {
+    private MoneyAmountSeries computeRealNetSavings() {
 
-            final var limit = Inflation.usdInflation().getTo();
+        final var limit = Inflation.usdInflation().getTo();
 
-            this.realNetSavings = this.savingsSeries()
-                    .map(new SlidingWindow(1)::change)
-                    .map(series -> series.exchangeInto(Currency.USD))
-                    .map(usdSeries -> Inflation.usdInflation().adjust(usdSeries, limit))
-                    .reduce(MoneyAmountSeries::add)
-                    .get();
+        if (FixedMoneyAmount.enabled()) {
+            try {
+                return this.fixedPointRealNetSavings(limit);
+            } catch (ArithmeticException overflow) {
+                // fall back to BigDecimal
+            }
         }
-        return this.realNetSavings;
+
+        return this.savingsSeries()
+                .map(new SlidingWindow(1)::change)
+                .map(series -> series.exchangeInto(Currency.USD))
+                .map(usdSeries -> Inflation.usdInflation().adjust(usdSeries, limit))
+                .reduce(MoneyAmountSeries::add)
+                .get();
+    }
+
+    private MoneyAmountSeries fixedPointRealNetSavings(YearMonth limit) {
+        final var window = new SlidingWindow(1);
+        return this.savingsSeries()
+                .map(FixedMoneyAmountSeries::of)
+                .map(window::change)
+                .map(series -> series.exchangeInto(Currency.USD))
+                .map(usdSeries -> usdSeries.adjust(Inflation.usdInflation(), limit))
+                .reduce(FixedMoneyAmountSeries::add)
+                .get()
+                .toMoneyAmountSeries();
     }
 
     public MoneyAmountSeries incomeSource(String name) {
-        return Inflation.usdInflation().adjust(
-                readSeries("income/" + name + ".json")
-                        .exchangeInto(Currency.USD),
-                Inflation.usdInflation().getTo());
+        return copy(this.asRealUSDSeries("income/", name));
     }
 
     public List<MoneyAmountSeries> getIncomeSeries() {
+        return copy(this.sharedIncomeSeries());
+    }
 
-        if (this.incomeSeries == null) {
-
-            final var limit = Inflation.usdInflation().getTo();
-            this.incomeSeries = Stream.of(
-                    readSeries("income/lifia.json"),
-                    readSeries("income/unlp.json"),
-                    readSeries("income/other-ars.json"),
-                    readSeries("income/other-usd.json"),
-                    readSeries("income/other-eur.json"),
-                    readSeries("income/despegar.json"),
-                    readSeries("income/despegar-split.json"))
-                    .map(is -> is.exchangeInto(Currency.USD))
-                    .map(usdSeries -> Inflation.usdInflation().adjust(usdSeries, limit))
-                    .toList();
-        }
-        return this.incomeSeries;
+    private List<MoneyAmountSeries> sharedIncomeSeries() {
+        return this.graph.get(
+                INCOME_SERIES,
+                files("income/", INCOME),
+                () -> INCOME.stream()
+                        .map(name -> this.asRealUSDSeries("income/", name))
+                        .toList());
     }
 
     public List<MoneyAmountSeries> getRegularIncomeSeries() {
+        return copy(this.sharedRegularIncomeSeries());
+    }
 
-        if (this.regularIncomeSeries == null) {
-
-            final var limit = Inflation.usdInflation().getTo();
-            this.regularIncomeSeries = Stream.of(
-                    readSeries("income/lifia.json"),
-                    readSeries("income/unlp.json"),
-                    readSeries("income/despegar.json"),
-                    readSeries("income/despegar-split.json"))
-                    .map(is -> is.exchangeInto(Currency.USD))
-                    .map(usdSeries -> Inflation.usdInflation().adjust(usdSeries, limit))
-                    .toList();
-        }
-        return this.regularIncomeSeries;
+    private List<MoneyAmountSeries> sharedRegularIncomeSeries() {
+        return this.graph.get(
+                REGULAR_INCOME_SERIES,
+                files("income/", REGULAR_INCOME),
+                () -> REGULAR_INCOME.stream()
+                        .map(name -> this.asRealUSDSeries("income/", name))
+                        .toList());
+    }
+
+    private MoneyAmountSeries sharedNominalSavings() {
+        return this.graph.get(
+                "nominal savings",
+                files("saving/", SAVINGS),
+                () -> this.savingsSeriesNames()
+                        .map(Pair::second)
+                        .map(name -> this.readSeriesInUSD("saving/", name))
+                        .reduce(MoneyAmountSeries::add)
+                        .get());
     }
 
     public MoneyAmountSeries nominalSavings() {
-        return this.savingsSeriesNames()
-                .map(Pair::second)
-                .map(name -> this.readSeriesInUSD("saving/", name))
-                .reduce(MoneyAmountSeries::add)
-                .get();
+        return copy(this.sharedNominalSavings());
     }
 
     public MoneyAmount currentSavingsUSD() {
-        return this.nominalSavings().getAmount(Inflation.usdInflation().getTo());
+        return this.sharedNominalSavings().getAmount(Inflation.usdInflation().getTo());
     }
 
-    public MoneyAmountSeries realSavings(String type) {
-
-        if (this.realUSDSavingsByType == null) {
+    private Map<String, List<MoneyAmountSeries>> realUSDSavingsByType() {
+        return this.graph.get(
+                REAL_USD_SAVINGS_BY_TYPE,
+                files("saving/", SAVINGS),
+                () -> unmodifiable(this.savingsSeriesNames()
+                        .collect(groupingBy(
+                                Pair::first,
+                                mapping(p -> this.asRealUSDSeries(p.second()),
+                                        Collectors.toList())))));
+    }
 
-            this.realUSDSavingsByType = this.savingsSeriesNames()
-                    .collect(groupingBy(
-                            Pair::first,
-                            mapping(p -> this.asRealUSDSeries(p.second()),
-                                    Collectors.toList())));
-        }
+    public MoneyAmountSeries realSavings(String type) {
 
-        return this.realUSDSavingsByType.entrySet().stream()
-                .filter(e -> type == null || e.getKey().equals(type))
-                .map(Map.Entry::getValue)
-                .flatMap(Collection::stream)
-                .reduce(MoneyAmountSeries::add)
-                .get();
+        return copy(this.graph.get(
+                "real USD savings " + (type == null ? "all" : type),
+                List.of(REAL_USD_SAVINGS_BY_TYPE),
+                () -> this.realUSDSavingsByType().entrySet().stream()
+                        .filter(e -> type == null || e.getKey().equals(type))
+                        .map(Map.Entry::getValue)
+                        .flatMap(Collection::stream)
+                        .reduce(MoneyAmountSeries::add)
+                        .get()));
     }
 
     public MoneyAmountSeries realOtherExpenses() {
-        if (this.realOtherExpenses == null) {
-            // initializes realOtherExpenses
-            this.getRealUSDExpensesByType();
-        }
-        return this.realOtherExpenses;
-
+        return copy(this.sharedRealUSDExpensesByType().get(OTHER).getFirst());
     }
 
     public MoneyAmountSeries realCash() {
-        return Stream.of(
-                "ahorros-peso",
-                "ahorros-dolar-banco",
-                "ahorros-dolar-liq",
-                "ahorros-euro",
-                "ahorros-uva",
-                "ahorros-caplusa",
-                "ahorros-dolar-pf",
-                "ahorros-euro-liq",
-                "ahorros-dai")
-                .map(this::asRealUSDSeries)
-                .reduce(MoneyAmountSeries::add)
-                .get();
+        return copy(this.graph.get(
+                "real cash",
+                files("saving/", CASH),
+                () -> CASH.stream()
+                        .map(this::asRealUSDSeries)
+                        .reduce(MoneyAmountSeries::add)
+                        .get()));
     }
 
     public MoneyAmountSeries ripteInRealUSD() {
 
-        var ripte = this.asRealUSDSeries("income/", "ripte");
+        var ripte = copy(this.asRealUSDSeries("income/", "ripte"));
         ripte.setName("RIPTE Real USD");
         return ripte;
     }
 
     public MoneyAmountSeries realInvested() {
-        return Stream.of(
-                "ahorros-cspx",
-                "ahorros-eimi",
-                "ahorros-rtwo",
-                "ahorros-meud",
-                "ahorros-xrsu",
-                "ahorros-xuse",
-                "ahorros-ay24",
-                "ahorros-conaafa",
-                "ahorros-conbala",
-                "ahorros-dolar-ON",
-                "ahorros-lecap",
-                "ahorros-lete")
-                .map(this::asRealUSDSeries)
-                .reduce(MoneyAmountSeries::add)
-                .get();
+        return copy(this.graph.get(
+                "real invested",
+                files("saving/", INVESTED),
+                () -> INVESTED.stream()
+                        .map(this::asRealUSDSeries)
+                        .reduce(MoneyAmountSeries::add)
+                        .get()));
     }
 
     public MoneyAmountSeries realExpenses(String type) {
 
-        return this.getRealUSDExpensesByType().entrySet()
-                .stream()
-                .filter(e -> type == null || e.getKey().equals(type))
-                .filter(e -> !e.getKey().equals(OTHER))
-                .map(Map.Entry::getValue)
-                .flatMap(Collection::stream)
-                .reduce(MoneyAmountSeries::add)
-                .get();
+        return copy(this.graph.get(
+                "real USD expenses " + (type == null ? "all" : type),
+                List.of(REAL_USD_EXPENSES_BY_TYPE),
+                () -> this.sharedRealUSDExpensesByType().entrySet()
+                        .stream()
+                        .filter(e -> type == null || e.getKey().equals(type))
+                        .filter(e -> !e.getKey().equals(OTHER))
+                        .map(Map.Entry::getValue)
+                        .flatMap(Collection::stream)
+                        .reduce(MoneyAmountSeries::add)
+                        .get()));
     }
 
     private MoneyAmountSeries asRealUSDSeries(String fileName) {
@@ -485,7 +611,11 @@ public class Series {
     }
 
     private MoneyAmountSeries asRealUSDSeries(String prefix, String fileName) {
-        return Inflation.usdInflation().adjust(this.readSeriesInUSD(prefix, fileName), Inflation.usdInflation().getTo());
+        final var file = prefix + fileName + ".json";
+        return this.graph.get(
+                "real USD " + file,
+                List.of(file),
+                () -> Inflation.usdInflation().adjust(this.readSeriesInUSD(prefix, fileName), Inflation.usdInflation().getTo()));
     }
 
     private MoneyAmountSeries readSeriesInUSD(String prefix, String fileName) {
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.fede.calculator.money.series.SeriesReader;
+import org.fede.util.SingleFlightCache;
+
+/**
+ * Memoized derived values shared by every report. Each node has a name and
+ * declares its inputs, which are the files it reads and the other nodes it
+ * uses. A node is computed once and kept until one of its input files is
+ * invalidated in {@link SeriesReader}; then it is forgotten together with
+ * every node depending on it. Index files feed every exchanged or inflation
+ * adjusted value, so invalidating one of them forgets all nodes.
+ *
+ * The first definition of a node wins, later calls only read its value. A
+ * later definition with other inputs is a second node under the same name
+ * and is rejected.
+ *
+ * @author fede
+ */
+public final class SeriesGraph {
+
+    private static final SeriesGraph SHARED = new SeriesGraph();
+
+    static {
+        SeriesReader.addInvalidationListener(SHARED::invalidate);
+    }
+
+    private final Map<String, Set<String>> inputs = new ConcurrentHashMap<>(64);
+    private final Map<String, Supplier<?>> computations = new ConcurrentHashMap<>(64);
+    private final SingleFlightCache<String, Object> values = new SingleFlightCache<>(64, this::compute);
+
+    public static SeriesGraph shared() {
+        return SHARED;
+    }
+
+    private Object compute(String node) {
+        return this.computations.get(node).get();
+    }
+
+    /**
+     * The value of the node, computing it if it is not known.
+     *
+     * @param <T>
+     * @param node the node name.
+     * @param inputs file names and node names the computation uses.
+     * @param computation
+     * @return
+     * @throws IllegalStateException if the node is known with other inputs.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String node, Collection<String> inputs, Supplier<T> computation) {
+        final var known = this.inputs.get(node);
+        if (known == null) {
+            final var declared = this.inputs.putIfAbsent(node, Set.copyOf(inputs));
+            if (declared != null) {
+                checkInputs(node, declared, inputs);
+            }
+        } else {
+            checkInputs(node, known, inputs);
+        }
+        this.computations.putIfAbsent(node, computation);
+        return (T) this.values.get(node);
+    }
+
+    private static void checkInputs(String node, Set<String> known, Collection<String> inputs) {
+        if (!known.equals(Set.copyOf(inputs))) {
+            throw new IllegalStateException("Node " + node + " is already defined with inputs " + known + ".");
+        }
+    }
+
+    /**
+     * Forgets every node depending, directly or not, on the input.
+     *
+     * @param input a file or node name.
+     */
+    public void invalidate(String input) {
+        if (input.startsWith("index/")) {
+            this.invalidateAll();
+            return;
+        }
+        final Set<String> stale = new HashSet<>();
+        this.dependents(input, stale);
+        if (!stale.isEmpty()) {
+            this.values.invalidate(stale::contains);
+        }
+    }
+
+    private void dependents(String input, Set<String> stale) {
+        this.inputs.forEach((node, nodeInputs) -> {
+            if (nodeInputs.contains(input) && stale.add(node)) {
+                this.dependents(node, stale);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        this.values.invalidateAll();
+    }
+
+    public SingleFlightCache.Stats stats() {
+        return this.values.stats();
+    }
+
+}
@@ -21,6 +21,8 @@ import java.util.stream.Stream;
 import org.fede.calculator.money.MoneyAmount;
 
 /**
+ * Monthly spending budgets, and the monthly saving that goes into the
+ * portfolio while still working.
  *
  * @author fede
  */
@@ -30,7 +32,8 @@ public record SpendingBudgets(
         MoneyAmount everythingWithRent,
         MoneyAmount everythingWithoutRent,
         MoneyAmount current,
-        MoneyAmount currentWithHealth
+        MoneyAmount currentWithHealth,
+        MoneyAmount saving
         ) {
 
     public Stream<BigDecimal> asStream() {
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.fede.calculator.money.ForeignExchanges;
+import org.fede.calculator.money.Inflation;
+import org.fede.calculator.money.series.SeriesReader;
+
+/**
+ * Startup work that used to happen in class initializers, as explicit tasks
+ * run in parallel on virtual threads. Every task is timed and the timings,
+ * with the time before main and the first command, make the startup
+ * breakdown shown by the startup command or with -Dstartup=true.
+ *
+ * @author fede
+ */
+public final class Startup {
+
+    public enum Phase {
+        CLASS_LOADING("class loading"),
+        IO("I/O"),
+        COMPUTE("compute");
+
+        private final String description;
+
+        private Phase(String description) {
+            this.description = description;
+        }
+
+        public String description() {
+            return this.description;
+        }
+    }
+
+    public record Timing(String name, Phase phase, long nanos, boolean failed) {
+
+    }
+
+    private record Task(String name, Phase phase, Runnable work) {
+
+    }
+
+    private static final boolean REPORT = Boolean.parseBoolean(System.getProperty("startup", "false"));
+
+    // the most used report classes, their initializers build the JSON mapper and the formats
+    private static final List<Class<?>> CLASSES = List.of(
+            SeriesReader.class,
+            Series.class,
+            SeriesGraph.class,
+            Format.class,
+            Bar.class,
+            Investments.class,
+            Positions.class,
+            PortfolioReturns.class,
+            ReturnCube.class,
+            LotLedger.class,
+            CAEYSafeWithdrawalRate.class);
+
+    private static final List<Task> TASKS = List.of(
+            new Task("report classes", Phase.CLASS_LOADING, Startup::initializeClasses),
+            new Task("exchange rates", Phase.IO, ForeignExchanges::preload),
+            new Task("USD inflation", Phase.IO, Inflation::preload),
+            new Task("seen prices", Phase.IO, BenchmarkInvestmentMapper::preload));
+
+    private static final Duration BEFORE_MAIN = ProcessHandle.current()
+            .info()
+            .startInstant()
+            .map(start -> Duration.between(start, Instant.now()))
+            .orElse(Duration.ZERO);
+
+    private static final List<Timing> TIMINGS = new CopyOnWriteArrayList<>();
+    private static final AtomicBoolean COMMAND = new AtomicBoolean();
+
+    private static final FutureTask<Duration> WARMUP = new FutureTask<>(Startup::runTasks);
+
+    private Startup() {
+    }
+
+    public static boolean reporting() {
+        return REPORT;
+    }
+
+    /**
+     * Starts the warmup tasks in the background. Work they have not finished
+     * is done by the first command that needs it, the caches load every
+     * series only once.
+     */
+    public static void warmup() {
+        // a task that already ran or is running does nothing
+        Thread.ofVirtual().name("warmup").start(WARMUP);
+    }
+
+    /**
+     * Runs the warmup tasks, if they were not started, and waits for them.
+     *
+     * @return the warmup wall time.
+     */
+    public static Duration awaitWarmup() {
+        WARMUP.run();
+        try {
+            return WARMUP.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return Duration.ZERO;
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Warmup failed.", ex.getCause());
+        }
+    }
+
+    private static Duration runTasks() {
+        final long start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            TASKS.forEach(task -> executor.submit(() -> run(task)));
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private static void run(Task task) {
+        final long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            task.work().run();
+        } catch (RuntimeException ex) {
+            // the command that needs it will fail with a proper message
+            failed = true;
+        }
+        TIMINGS.add(new Timing(task.name(), task.phase(), System.nanoTime() - start, failed));
+    }
+
+    private static void initializeClasses() {
+        final var loader = Startup.class.getClassLoader();
+        for (var type : CLASSES) {
+            try {
+                Class.forName(type.getName(), true, loader);
+            } catch (ClassNotFoundException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    /**
+     * Records the time of the first command.
+     *
+     * @param name the command.
+     * @param nanos
+     * @return true if it was the first command.
+     */
+    public static boolean command(String name, long nanos) {
+        final boolean first = COMMAND.compareAndSet(false, true);
+        if (first) {
+            TIMINGS.add(new Timing("first command, " + name, Phase.COMPUTE, nanos, false));
+        }
+        return first;
+    }
+
+    /**
+     * @return time from the process start to the first use of this class.
+     */
+    public static Duration beforeMain() {
+        return BEFORE_MAIN;
+    }
+
+    public static List<Timing> timings() {
+        return List.copyOf(TIMINGS);
+    }
+
+    public static long nanos(Phase phase) {
+        return TIMINGS.stream()
+                .filter(t -> t.phase() == phase)
+                .mapToLong(Timing::nanos)
+                .sum();
+    }
+}
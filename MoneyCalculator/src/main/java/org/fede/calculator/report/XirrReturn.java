@@ -24,15 +24,13 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import org.apache.commons.math3.analysis.solvers.BrentSolver;
-import org.apache.commons.math3.exception.NoBracketingException;
 import org.fede.calculator.money.Currency;
 import static org.fede.calculator.money.Currency.USD;
-import org.fede.calculator.money.ForeignExchanges;
 import org.fede.calculator.money.Inflation;
 import org.fede.calculator.money.MoneyAmount;
 import org.fede.calculator.money.series.Investment;
 import org.fede.calculator.money.series.InvestmentEvent;
+import org.fede.calculator.money.series.PortfolioHoldings;
 
 /**
  *
@@ -40,12 +38,6 @@ import org.fede.calculator.money.series.InvestmentEvent;
  */
 public class XirrReturn {
 
-    private static final double[] RATE_BRACKETS = {
-        -0.999999999d, -0.99d, -0.90d, -0.75d, -0.50d, -0.25d,
-        0.0d, 0.10d, 0.25d, 0.50d, 1.0d, 2.0d, 5.0d, 10.0d,
-        20.0d, 50.0d, 100.0d, 1_000.0d
-    };
-
     private final List<Investment> investments;
     private final Currency currency;
     private final boolean nominal;
@@ -53,6 +45,7 @@ public class XirrReturn {
     private final LocalDate finalMoment;
     private final long daysBetween;
     private final MoneyAmount zeroAmount;
+    private final PortfolioHoldings holdings;
 
     private static LocalDate min(LocalDate l1, LocalDate l2) {
         return l1.compareTo(l2) <= 0
@@ -108,6 +101,7 @@ public class XirrReturn {
 
     public XirrReturn(List<Investment> investments, Currency currency, boolean nominal, LocalDate initialMoment, LocalDate finalMoment) {
         this.investments = investments;
+        this.holdings = PortfolioHoldings.of(investments);
         this.currency = currency;
         this.zeroAmount = MoneyAmount.zero(this.currency);
         this.nominal = nominal;
@@ -124,14 +118,7 @@ public class XirrReturn {
     }
 
     private MoneyAmount portfolioValue(YearMonth ym) {
-        final var toDate = ym.atEndOfMonth();
-        return this.investments
-                .stream()
-                .filter(i -> i.isCurrent(toDate))
-                .map(Investment::getInvestment)
-                .map(asset -> ForeignExchanges.getMoneyAmountForeignExchange(asset.getCurrency(), currency).apply(asset.getMoneyAmount(), ym))
-                .map(ma -> nominal ? ma : Inflation.usdInflation().adjust(ma, ym, Inflation.usdInflation().getTo()))
-                .reduce(this.zeroAmount, MoneyAmount::add)
+        return this.holdings.value(this.currency, ym, this.nominal)
                 .max(this.zeroAmount);
     }
 
@@ -146,89 +133,99 @@ public class XirrReturn {
                 : Inflation.usdInflation().adjust(fx, ym, Inflation.usdInflation().getTo()).amount();
     }
 
-    private List<CashFlow> cashFlows() {
+    private double time(LocalDate date) {
+        return ChronoUnit.DAYS.between(this.initialMoment, date) / 365.0d;
+    }
+
+    private XirrSolver cashFlows(XirrSolver solver) {
+
+        solver.clear();
 
-        final List<CashFlow> cashFlows = new ArrayList<>();
+        if (this.daysBetween == 0) {
+            return solver;
+        }
 
         final var initialValue = this.portfolioValue(YearMonth.from(this.initialMoment).plusMonths(-1));
         if (!initialValue.isZero()) {
-            cashFlows.add(new CashFlow(this.initialMoment, initialValue.amount().negate()));
+            solver.add(0.0d, initialValue.amount().negate().doubleValue());
         }
 
         this.investments
                 .stream()
                 .map(Investment::getIn)
                 .filter(ie -> between(ie.getDate(), this.initialMoment, this.finalMoment))
-                .map(ie -> new CashFlow(ie.getDate(), this.cashFlowAmount(ie).negate()))
-                .forEach(cashFlows::add);
+                .forEach(ie -> solver.add(this.time(ie.getDate()), this.cashFlowAmount(ie).negate().doubleValue()));
 
         this.investments
                 .stream()
                 .map(Investment::getOut)
                 .filter(Objects::nonNull)
                 .filter(ie -> between(ie.getDate(), this.initialMoment, this.finalMoment))
-                .map(ie -> new CashFlow(ie.getDate(), this.cashFlowAmount(ie)))
-                .forEach(cashFlows::add);
+                .forEach(ie -> solver.add(this.time(ie.getDate()), this.cashFlowAmount(ie).doubleValue()));
 
         final var finalValue = this.portfolioValue(YearMonth.from(this.finalMoment));
         if (!finalValue.isZero()) {
-            cashFlows.add(new CashFlow(this.finalMoment, finalValue.amount()));
+            solver.add(this.time(this.finalMoment), finalValue.amount().doubleValue());
         }
 
-        return cashFlows;
+        return solver;
     }
 
     public ModifiedDietzReturnResult get() {
+        return this.solve().result();
+    }
 
-        if (this.daysBetween == 0) {
-            return new ModifiedDietzReturnResult(ZERO, ZERO);
-        }
-
-        final var cashFlows = this.cashFlows();
+    /**
+     * Like {@link #get()} but also tells how the rate was found.
+     *
+     * @return
+     */
+    public Solution solve() {
+        return this.solution(this.cashFlows(XirrSolver.current()).solve());
+    }
 
-        final var hasPositive = cashFlows.stream().map(CashFlow::amount).anyMatch(amount -> amount.signum() > 0);
-        final var hasNegative = cashFlows.stream().map(CashFlow::amount).anyMatch(amount -> amount.signum() < 0);
+    /**
+     * Builds the cash flows of every return and solves all of them at once.
+     *
+     * @param returns
+     * @return the solutions in the same order.
+     */
+    public static List<Solution> solveAll(List<XirrReturn> returns) {
 
-        if (!hasPositive || !hasNegative) {
-            return new ModifiedDietzReturnResult(ZERO, ZERO);
-        }
+        final var solver = XirrSolver.current();
+        final var cashFlows = returns.stream()
+                .map(r -> r.cashFlows(solver).toCashFlows())
+                .toList();
 
-        final var xirr = this.solve(cashFlows);
-        final var totalReturn = Math.pow(1.0d + xirr, (double) this.daysBetween / 365.0d) - 1.0d;
+        final var results = XirrSolver.solveAll(cashFlows);
 
-        return new ModifiedDietzReturnResult(BigDecimal.valueOf(totalReturn), BigDecimal.valueOf(xirr));
+        final List<Solution> answer = new ArrayList<>(returns.size());
+        for (int i = 0; i < returns.size(); i++) {
+            answer.add(returns.get(i).solution(results.get(i)));
+        }
+        return answer;
     }
 
-    private double solve(List<CashFlow> cashFlows) {
+    private Solution solution(XirrSolver.Result result) {
+        return solution(result, this.daysBetween);
+    }
 
-        final var solver = new BrentSolver(1.0e-12d, 1.0e-10d);
+    static Solution solution(XirrSolver.Result result, long daysBetween) {
 
-        for (int i = 0; i < RATE_BRACKETS.length - 1; i++) {
-            try {
-                return solver.solve(
-                        1_000,
-                        rate -> this.netPresentValue(cashFlows, rate),
-                        RATE_BRACKETS[i],
-                        RATE_BRACKETS[i + 1]);
-            } catch (NoBracketingException e) {
-                // Try the next interval. Some cash-flow series only bracket at
-                // very high gains or deep losses.
-            }
+        if (result.status() == XirrSolver.Status.NO_SIGN_CHANGE || result.status() == XirrSolver.Status.NOT_BRACKETED) {
+            return new Solution(new ModifiedDietzReturnResult(ZERO, ZERO), result);
         }
 
-        return ZERO.doubleValue();
-    }
-
-    private double netPresentValue(List<CashFlow> cashFlows, double rate) {
+        final var xirr = result.rate();
+        final var totalReturn = Math.pow(1.0d + xirr, (double) daysBetween / 365.0d) - 1.0d;
 
-        return cashFlows
-                .stream()
-                .mapToDouble(cashFlow -> cashFlow.amount().doubleValue()
-                / Math.pow(1.0d + rate, ChronoUnit.DAYS.between(this.initialMoment, cashFlow.date()) / 365.0d))
-                .sum();
+        return new Solution(
+                new ModifiedDietzReturnResult(BigDecimal.valueOf(totalReturn), BigDecimal.valueOf(xirr)),
+                result);
     }
 
-    private record CashFlow(LocalDate date, BigDecimal amount) {
+    public record Solution(ModifiedDietzReturnResult result, XirrSolver.Result solver) {
+
     }
 
 }
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solves XIRR on primitive arrays. Cash flows are packed as parallel arrays
+ * of times, in years since the first moment, and amounts. The root is first
+ * bracketed scanning a fixed list of rates from deep losses to huge gains,
+ * so the lowest bracketed root wins, and then refined with Newton steps
+ * using the analytic derivative. Steps that leave the bracket or do not
+ * halve it fall back to bisection, so every iteration makes progress.
+ *
+ * An instance keeps growable scratch buffers for {@link #add} and
+ * {@link #solve()} and is not thread safe.
+ *
+ * @author fede
+ */
+public final class XirrSolver {
+
+    private static final double[] RATE_BRACKETS = {
+        -0.999999999d, -0.99d, -0.90d, -0.75d, -0.50d, -0.25d,
+        0.0d, 0.10d, 0.25d, 0.50d, 1.0d, 2.0d, 5.0d, 10.0d,
+        20.0d, 50.0d, 100.0d, 1_000.0d
+    };
+
+    private static final int MAX_ITERATIONS = 200;
+    private static final double RELATIVE_ACCURACY = 1.0e-12d;
+    private static final double ABSOLUTE_ACCURACY = 1.0e-10d;
+
+    private static final ThreadLocal<XirrSolver> SOLVERS = ThreadLocal.withInitial(XirrSolver::new);
+
+    public enum Status {
+        CONVERGED,
+        /**
+         * All cash flows have the same sign, there is no rate of return.
+         */
+        NO_SIGN_CHANGE,
+        /**
+         * No bracket of the rate list has a sign change.
+         */
+        NOT_BRACKETED,
+        MAX_ITERATIONS
+    }
+
+    /**
+     * @param rate the annual rate, zero unless converged.
+     * @param iterations refining iterations, not counting the bracket scan.
+     * @param evaluations net present value evaluations, including the
+     * bracket scan.
+     * @param status
+     */
+    public record Result(double rate, int iterations, int evaluations, Status status) {
+
+        public boolean converged() {
+            return this.status == Status.CONVERGED;
+        }
+    }
+
+    /**
+     * Packed cash flows for {@link #solveAll(List)}.
+     *
+     * @param times years since the first moment.
+     * @param amounts
+     */
+    public record CashFlows(double[] times, double[] amounts) {
+
+        public CashFlows {
+            if (times.length != amounts.length) {
+                throw new IllegalArgumentException("Times and amounts must have the same length.");
+            }
+        }
+    }
+
+    private double[] times = new double[16];
+    private double[] amounts = new double[16];
+    private int size;
+
+    // value and derivative of the last evaluation
+    private double value;
+    private double derivative;
+    private int evaluations;
+
+    /**
+     * @return the solver of the current thread.
+     */
+    public static XirrSolver current() {
+        return SOLVERS.get();
+    }
+
+    public XirrSolver clear() {
+        this.size = 0;
+        return this;
+    }
+
+    public XirrSolver add(double time, double amount) {
+        if (this.size == this.times.length) {
+            this.times = Arrays.copyOf(this.times, this.size * 2);
+            this.amounts = Arrays.copyOf(this.amounts, this.size * 2);
+        }
+        this.times[this.size] = time;
+        this.amounts[this.size] = amount;
+        this.size++;
+        return this;
+    }
+
+    /**
+     * @return a copy of the cash flows added since the last clear.
+     */
+    public CashFlows toCashFlows() {
+        return new CashFlows(
+                Arrays.copyOf(this.times, this.size),
+                Arrays.copyOf(this.amounts, this.size));
+    }
+
+    /**
+     * Solves the cash flows added since the last clear.
+     *
+     * @return
+     */
+    public Result solve() {
+        return this.solve(this.times, this.amounts, this.size);
+    }
+
+    public Result solve(CashFlows cashFlows) {
+        return this.solve(cashFlows.times(), cashFlows.amounts(), cashFlows.times().length);
+    }
+
+    /**
+     * Solves every problem, in parallel, each thread with its own solver.
+     *
+     * @param problems
+     * @return the results in the same order.
+     */
+    public static List<Result> solveAll(List<CashFlows> problems) {
+        return problems
+                .parallelStream()
+                .map(p -> current().solve(p))
+                .toList();
+    }
+
+    public Result solve(double[] t, double[] a, int n) {
+
+        this.evaluations = 0;
+
+        boolean positive = false;
+        boolean negative = false;
+        for (int i = 0; i < n; i++) {
+            positive |= a[i] > 0d;
+            negative |= a[i] < 0d;
+        }
+        if (!positive || !negative) {
+            return new Result(0d, 0, 0, Status.NO_SIGN_CHANGE);
+        }
+
+        // same scan as the former solver: first sub-interval with a sign change
+        double lo = RATE_BRACKETS[0];
+        double fLo = this.evaluate(t, a, n, lo);
+        int bracket = -1;
+        double fHi = Double.NaN;
+        for (int i = 1; i < RATE_BRACKETS.length; i++) {
+            fHi = this.evaluate(t, a, n, RATE_BRACKETS[i]);
+            if (fLo == 0d) {
+                return new Result(RATE_BRACKETS[i - 1], 0, this.evaluations, Status.CONVERGED);
+            }
+            if (Math.signum(fLo) != Math.signum(fHi)) {
+                bracket = i;
+                break;
+            }
+            lo = RATE_BRACKETS[i];
+            fLo = fHi;
+        }
+        if (bracket < 0) {
+            return new Result(0d, 0, this.evaluations, Status.NOT_BRACKETED);
+        }
+        double hi = RATE_BRACKETS[bracket];
+        if (fHi == 0d) {
+            return new Result(hi, 0, this.evaluations, Status.CONVERGED);
+        }
+
+        // orient so that f(neg) < 0 < f(pos)
+        double neg = fLo < 0d ? lo : hi;
+        double pos = fLo < 0d ? hi : lo;
+
+        double x = 0.5d * (lo + hi);
+        double previousStep = Math.abs(hi - lo);
+        double step = previousStep;
+        if (this.evaluate(t, a, n, x) == 0d) {
+            return new Result(x, 0, this.evaluations, Status.CONVERGED);
+        }
+        if (this.value < 0d) {
+            neg = x;
+        } else {
+            pos = x;
+        }
+
+        for (int iteration = 1; iteration <= MAX_ITERATIONS; iteration++) {
+
+            final double newton = x - this.value / this.derivative;
+            final boolean outside = Double.isNaN(newton)
+                    || Double.isInfinite(newton)
+                    || (newton - neg) * (newton - pos) >= 0d;
+            final boolean slow = Math.abs(2d * this.value) > Math.abs(previousStep * this.derivative);
+
+            previousStep = step;
+            final double next;
+            if (outside || slow) {
+                next = 0.5d * (neg + pos);
+            } else {
+                next = newton;
+            }
+            step = next - x;
+            x = next;
+
+            if (Math.abs(step) <= ABSOLUTE_ACCURACY + RELATIVE_ACCURACY * Math.abs(x)) {
+                return new Result(x, iteration, this.evaluations, Status.CONVERGED);
+            }
+
+            this.evaluate(t, a, n, x);
+            if (this.value == 0d) {
+                return new Result(x, iteration, this.evaluations, Status.CONVERGED);
+            }
+            if (this.value < 0d) {
+                neg = x;
+            } else {
+                pos = x;
+            }
+        }
+        return new Result(x, MAX_ITERATIONS, this.evaluations, Status.MAX_ITERATIONS);
+    }
+
+    /**
+     * Net present value and its derivative, sharing one exp per cash flow.
+     *
+     * @return the net present value.
+     */
+    private double evaluate(double[] t, double[] a, int n, double rate) {
+        this.evaluations++;
+        final double logGrowth = Math.log1p(rate);
+        double npv = 0d;
+        double dnpv = 0d;
+        for (int i = 0; i < n; i++) {
+            final double discounted = a[i] * Math.exp(-t[i] * logGrowth);
+            npv += discounted;
+            dnpv -= t[i] * discounted;
+        }
+        this.value = npv;
+        this.derivative = dnpv / (1d + rate);
+        return npv;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.util;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A value computed once, on first use, and safely published to every thread.
+ * Reads after initialization are a single volatile read. Concurrent first
+ * uses wait for one computation. A reset waits for a computation in progress
+ * so a value loaded before the reset is never kept.
+ *
+ * @author fede
+ * @param <T>
+ */
+public final class Lazy<T> implements Supplier<T> {
+
+    private final Supplier<T> supplier;
+    private volatile T value;
+
+    public Lazy(Supplier<T> supplier) {
+        this.supplier = Objects.requireNonNull(supplier);
+    }
+
+    @Override
+    public T get() {
+        var answer = this.value;
+        if (answer == null) {
+            synchronized (this) {
+                answer = this.value;
+                if (answer == null) {
+                    answer = Objects.requireNonNull(this.supplier.get());
+                    this.value = answer;
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Forgets the value, the next get computes it again.
+     */
+    public synchronized void reset() {
+        this.value = null;
+    }
+
+    public boolean isLoaded() {
+        return this.value != null;
+    }
+
+}
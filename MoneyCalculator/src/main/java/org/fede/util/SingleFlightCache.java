@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Thread safe memoizing cache. Concurrent requests for a key that is not
+ * loaded yet wait for a single load instead of loading it once each. Loaders
+ * may use other caches, or other keys of this one. A loader that asks for the
+ * key it is loading, directly or through other loads on its thread, gets an
+ * {@link IllegalStateException} instead of waiting for itself forever. Loads
+ * on different threads waiting for each other in a cycle still deadlock.
+ *
+ * @author fede
+ * @param <K>
+ * @param <V>
+ */
+public final class SingleFlightCache<K, V> {
+
+    private final ConcurrentMap<K, Load<V>> values;
+    private final Function<K, V> loader;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public SingleFlightCache(int initialCapacity, Function<K, V> loader) {
+        this.values = new ConcurrentHashMap<>(initialCapacity);
+        this.loader = loader;
+    }
+
+    public V get(K key) {
+        var task = this.values.get(key);
+        if (task == null) {
+            final var newTask = new Load<V>(() -> this.load(key));
+            task = this.values.putIfAbsent(key, newTask);
+            if (task == null) {
+                this.misses.increment();
+                task = newTask;
+                task.run();
+            } else {
+                this.hits.increment();
+            }
+        } else {
+            this.hits.increment();
+        }
+        if (task.owner == Thread.currentThread()) {
+            throw new IllegalStateException("Recursive load of " + key);
+        }
+        return this.await(key, task);
+    }
+
+    private V load(K key) {
+        final long start = System.nanoTime();
+        try {
+            return this.loader.apply(key);
+        } finally {
+            this.loadNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private V await(K key, Load<V> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    // let the next caller try again
+                    this.values.remove(key, task);
+                    if (ex.getCause() instanceof RuntimeException re) {
+                        throw re;
+                    }
+                    if (ex.getCause() instanceof Error e) {
+                        throw e;
+                    }
+                    throw new IllegalStateException(ex.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @param key
+     * @return true if the key is loaded or being loaded.
+     */
+    public boolean contains(K key) {
+        return this.values.containsKey(key);
+    }
+
+    /**
+     * Forgets the value of every key matching the predicate. The next get
+     * loads it again.
+     *
+     * @param keys
+     */
+    public void invalidate(Predicate<K> keys) {
+        this.values.keySet().removeIf(keys);
+    }
+
+    public void invalidateAll() {
+        this.values.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(this.hits.sum(), this.misses.sum(), this.loadNanos.sum(), this.values.size());
+    }
+
+    /**
+     * A load that knows the thread running it.
+     */
+    private static final class Load<V> extends FutureTask<V> {
+
+        private volatile Thread owner;
+
+        Load(Callable<V> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            this.owner = Thread.currentThread();
+            try {
+                super.run();
+            } finally {
+                this.owner = null;
+            }
+        }
+    }
+
+    public record Stats(long hits, long misses, long loadNanos, int size) {
+
+        public Stats plus(Stats other) {
+            return new Stats(
+                    this.hits + other.hits(),
+                    this.misses + other.misses(),
+                    this.loadNanos + other.loadNanos(),
+                    this.size + other.size());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
+import org.fede.calculator.money.series.JSONDataPoint;
+import org.fede.calculator.money.series.JSONIndexSeries;
+import org.fede.calculator.money.series.MonthIndex;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class CPIInflationTest {
+
+    private static final YearMonth FROM = YearMonth.of(2010, 1);
+    private static final int MONTHS = 120;
+
+    private static JSONIndexSeries index() {
+        final List<JSONDataPoint> points = new ArrayList<>(MONTHS);
+        var value = new BigDecimal("217.431");
+        for (int i = 0; i < MONTHS; i++) {
+            points.add(new JSONDataPoint(FROM.plusMonths(i), value));
+            value = value.multiply(new BigDecimal("1.00" + (i % 7)), MathConstants.C).setScale(3, RoundingMode.HALF_EVEN);
+        }
+        return new JSONIndexSeries(points);
+    }
+
+    private static MoneyAmount usd(String value) {
+        return new MoneyAmount(new BigDecimal(value), Currency.USD);
+    }
+
+    @Test
+    public void matchesIndexDivision() {
+        final var series = index();
+        final var cpi = new CPIInflation(series, Currency.USD);
+        final var amount = usd("1234.56");
+        for (int i = 0; i < MONTHS; i += 7) {
+            for (int j = 0; j < MONTHS; j += 5) {
+                final var from = FROM.plusMonths(i);
+                final var to = FROM.plusMonths(j);
+                final var expected = amount.adjust(series.getIndex(from), series.getIndex(to));
+                assertEquals(expected, cpi.adjust(amount, from, to));
+                assertEquals(expected, cpi.adjust(amount, MonthIndex.of(from), MonthIndex.of(to)));
+            }
+        }
+    }
+
+    @Test
+    public void seriesMatchesAmounts() {
+        final var cpi = new CPIInflation(index(), Currency.USD);
+        final var series = new ArrayMoneyAmountSeries(Currency.USD, "test", FROM.plusMonths(3), FROM.plusMonths(50));
+        for (var ym = FROM.plusMonths(3); !ym.isAfter(FROM.plusMonths(50)); ym = ym.plusMonths(1)) {
+            series.putAmount(ym, usd(String.valueOf(ym.getMonthValue() * 10)));
+        }
+        final var reference = FROM.plusMonths(100);
+        final var adjusted = cpi.adjust(series, reference);
+        series.forEachNonZero((ym, amount) -> assertEquals(cpi.adjust(amount, ym, reference), adjusted.getAmount(ym)));
+    }
+
+    @Test
+    public void adjustsToTheLastMonthWithOneMultiplication() {
+        final var series = index();
+        final var cpi = new CPIInflation(series, Currency.USD);
+        final var last = cpi.getTo();
+        final var amount = usd("1234.56");
+        for (int i = 0; i < MONTHS; i += 3) {
+            final var from = FROM.plusMonths(i);
+            final var factor = series.getIndex(last).divide(series.getIndex(from), MathConstants.C);
+            assertEquals(factor, cpi.factor(from, last));
+            final var expected = amount.adjust(BigDecimal.ONE, factor);
+            assertEquals(expected, cpi.adjust(amount, from, last));
+            assertEquals(expected, cpi.adjust(amount, from, last.plusMonths(6)));
+            // the same value as dividing, but for the last digit
+            final var divided = amount.adjust(series.getIndex(from), series.getIndex(last));
+            assertEquals(0d, expected.amount().subtract(divided.amount()).doubleValue(), 1e-28d);
+        }
+
+        final var amounts = new ArrayMoneyAmountSeries(Currency.USD, "test", FROM, last);
+        for (var ym = FROM; !ym.isAfter(last); ym = ym.plusMonths(1)) {
+            amounts.putAmount(ym, amount);
+        }
+        final var adjusted = cpi.adjust(amounts, last);
+        amounts.forEachNonZero((ym, a) -> assertEquals(cpi.adjust(a, ym, last), adjusted.getAmount(ym)));
+    }
+
+    @Test
+    public void monthsAfterTheSeriesUseTheLastValue() {
+        final var cpi = new CPIInflation(index(), Currency.USD);
+        final var last = FROM.plusMonths(MONTHS - 1);
+        final var amount = usd("100");
+        assertEquals(cpi.adjust(amount, FROM, last), cpi.adjust(amount, FROM, last.plusMonths(6)));
+    }
+
+    @Test
+    public void monthsBeforeTheSeriesThrow() {
+        final var cpi = new CPIInflation(index(), Currency.USD);
+        final var before = FROM.minusMonths(1);
+        assertThrows(NoSeriesDataFoundException.class, () -> cpi.adjust(usd("100"), before, FROM));
+        // also when nothing would change
+        assertThrows(NoSeriesDataFoundException.class, () -> cpi.adjust(MoneyAmount.zero(Currency.USD), before, FROM));
+        assertThrows(NoSeriesDataFoundException.class, () -> cpi.adjust(usd("100"), before, before));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2025 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
+import org.fede.calculator.money.series.FixedMoneyAmountSeries;
+import org.fede.calculator.money.series.JSONDataPoint;
+import org.fede.calculator.money.series.JSONIndexSeries;
+import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class FixedMoneyAmountTest {
+
+    private static final YearMonth FROM = YearMonth.of(2010, 1);
+    private static final int MONTHS = 180;
+
+    // fixed point results may differ from BigDecimal by the rounding of the rate
+    // to 12 decimals, relative, plus the rounding of each step to a unit
+    private static final BigDecimal RELATIVE_TOLERANCE = new BigDecimal("1E-9");
+    private static final BigDecimal ABSOLUTE_TOLERANCE = new BigDecimal("0.000003");
+
+    private static BigInteger exact(long a, long b, long c) {
+        return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+                .divide(BigDecimal.valueOf(c), 0, RoundingMode.HALF_EVEN)
+                .toBigIntegerExact();
+    }
+
+    @Test
+    public void mulDivRoundsHalfEven() {
+        assertEquals(2L, FixedMoneyAmount.mulDiv(5L, 1L, 2L));
+        assertEquals(4L, FixedMoneyAmount.mulDiv(7L, 1L, 2L));
+        assertEquals(-2L, FixedMoneyAmount.mulDiv(-5L, 1L, 2L));
+        assertEquals(-4L, FixedMoneyAmount.mulDiv(7L, -1L, 2L));
+        assertEquals(3L, FixedMoneyAmount.mulDiv(5L, 2L, 3L));
+    }
+
+    @Test
+    public void mulDivMatchesBigInteger() {
+        final var random = new Random(42L);
+        for (int i = 0; i < 100_000; i++) {
+            final long a = random.nextLong() >> random.nextInt(63);
+            final long b = random.nextLong() >> random.nextInt(63);
+            final long c = Math.max(1L, Math.abs(random.nextLong() >> random.nextInt(63)));
+            final var expected = exact(a, b, c);
+            if (expected.bitLength() < 64) {
+                assertEquals(a + " * " + b + " / " + c, expected.longValueExact(), FixedMoneyAmount.mulDiv(a, b, c));
+            } else {
+                assertThrows(ArithmeticException.class, () -> FixedMoneyAmount.mulDiv(a, b, c));
+            }
+        }
+    }
+
+    @Test
+    public void mulDivPastDoublePrecision() {
+        // 2^53 + 1 is not a double, the product needs more than 64 bits
+        final long units = (1L << 53) + 1L;
+        assertEquals(units * 3L, FixedMoneyAmount.mulDiv(units, 3_000_000_000_000L, 1_000_000_000_000L));
+        assertEquals(Long.MAX_VALUE, FixedMoneyAmount.mulDiv(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE));
+        assertThrows(ArithmeticException.class, () -> FixedMoneyAmount.mulDiv(Long.MAX_VALUE, 2L, 1L));
+    }
+
+    private static JSONIndexSeries index(double start, double monthlyChange, int decimals) {
+        final List<JSONDataPoint> points = new ArrayList<>(MONTHS);
+        double value = start;
+        for (int i = 0; i < MONTHS; i++) {
+            points.add(new JSONDataPoint(FROM.plusMonths(i), BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_EVEN)));
+            value *= monthlyChange;
+        }
+        return new JSONIndexSeries(points);
+    }
+
+    private static MoneyAmountSeries pesos() {
+        final var random = new Random(7L);
+        final var answer = new ArrayMoneyAmountSeries(Currency.ARS, "pesos", FROM, FROM.plusMonths(MONTHS - 1));
+        for (int i = 0; i < MONTHS; i++) {
+            answer.putAmount(
+                    FROM.plusMonths(i),
+                    new MoneyAmount(BigDecimal.valueOf(random.nextLong(-50_000_000_000L, 5_000_000_000_000L), 2), Currency.ARS));
+        }
+        return answer;
+    }
+
+    @Test
+    public void fixedPointMatchesBigDecimal() {
+        final var pesosPerDollar = index(3.1234, 1.021, 4);
+        final ForeignExchange fx = new MaterializedForeignExchange(
+                new SimpleForeignExchange(() -> pesosPerDollar, Currency.USD, Currency.ARS),
+                Currency.ARS,
+                Currency.USD);
+        final var cpi = new CPIInflation(index(217.431, 1.0023, 3), Currency.USD);
+        final var reference = FROM.plusMonths(MONTHS - 1);
+        final var pesos = pesos();
+
+        final var expected = cpi.adjust(fx.exchange(pesos, Currency.USD), reference);
+        final var actual = FixedMoneyAmountSeries.of(pesos)
+                .exchangeInto(fx, Currency.USD)
+                .adjust(cpi, reference);
+
+        assertEquals(expected.getFrom(), actual.getFrom());
+        assertEquals(expected.getTo(), actual.getTo());
+        for (int i = 0; i < MONTHS; i++) {
+            final var ym = FROM.plusMonths(i);
+            final var big = expected.getAmount(ym).amount();
+            final var fixed = actual.getAmount(ym).toMoneyAmount().amount();
+            final var tolerance = big.abs().multiply(RELATIVE_TOLERANCE).add(ABSOLUTE_TOLERANCE);
+            assertTrue(ym + ": " + fixed + " vs " + big, fixed.subtract(big).abs().compareTo(tolerance) <= 0);
+        }
+    }
+
+    @Test
+    public void exchangeRescalesUnits() {
+        final var dollars = new FixedMoneyAmount(1_500_000L, Currency.USD);
+        final var pesos = dollars.exchange(Currency.ARS, FixedMoneyAmount.rate(new BigDecimal("1234.5")));
+        assertEquals(new FixedMoneyAmount(1_851_750_000L, Currency.ARS), pesos);
+        final var cspx = dollars.exchange(Currency.CSPX, FixedMoneyAmount.rate(new BigDecimal("0.002")));
+        assertEquals(new FixedMoneyAmount(300_000L, Currency.CSPX), cspx);
+    }
+}
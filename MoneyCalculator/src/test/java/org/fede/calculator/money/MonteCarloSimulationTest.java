@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class MonteCarloSimulationTest {
+
+    private static final double[][] UNCORRELATED = {{1d, 0d}, {0d, 1d}};
+
+    private static MonteCarloSimulation riskless(double annualReturn) {
+        return new MonteCarloSimulation(
+                List.of(new MonteCarloSimulation.Asset("cash", 1d, annualReturn, 0d)),
+                new double[][]{{1d}});
+    }
+
+    private static MonteCarloSimulation risky() {
+        return new MonteCarloSimulation(
+                List.of(
+                        new MonteCarloSimulation.Asset("equity", 0.7d, 0.07d, 0.18d),
+                        new MonteCarloSimulation.Asset("bonds", 0.3d, 0.02d, 0.06d)),
+                UNCORRELATED);
+    }
+
+    @Test
+    public void withoutVolatilityEveryPathGrowsTheSame() {
+        final var result = riskless(0.12d).run(1000d, MonteCarloSimulation.Plan.withdrawal(0d), 2, 100, 1L);
+        final double expected = 1000d * Math.exp(0.24d);
+        assertEquals(1d, result.successProbability(), 0d);
+        assertEquals(expected, result.finalPercentile(0d), 1e-9);
+        assertEquals(expected, result.finalPercentile(1d), 1e-9);
+        assertEquals(1000d * Math.exp(0.12d), result.percentile(1, 0.5d), 1e-9);
+    }
+
+    @Test
+    public void withdrawalsAreTakenMonthly() {
+        final var result = riskless(0d).run(1200d, MonteCarloSimulation.Plan.withdrawal(50d), 1, 10, 1L);
+        assertEquals(600d, result.finalPercentile(0.5d), 1e-9);
+        assertEquals(1d, result.successProbability(), 0d);
+    }
+
+    @Test
+    public void contributionsComeBeforeWithdrawals() {
+        final var results = riskless(0d).run(
+                1000d,
+                List.of(
+                        MonteCarloSimulation.Plan.withdrawal(100d),
+                        new MonteCarloSimulation.Plan(100d, 12, 100d)),
+                2,
+                10,
+                1L);
+        assertEquals(0d, results.get(0).successProbability(), 0d);
+        // the tenth withdrawal leaves nothing
+        assertEquals(0d, results.get(0).depletionProbability(9), 0d);
+        assertEquals(1d, results.get(0).depletionProbability(10), 0d);
+        assertEquals(1d, results.get(1).successProbability(), 0d);
+        assertEquals(2200d, results.get(1).percentile(1, 0.5d), 1e-9);
+        assertEquals(1000d, results.get(1).finalPercentile(0.5d), 1e-9);
+    }
+
+    @Test
+    public void depletedPathsStayAtZero() {
+        final var result = risky().run(1000d, MonteCarloSimulation.Plan.withdrawal(10_000d), 5, 500, 7L);
+        assertEquals(0d, result.successProbability(), 0d);
+        assertEquals(1d, result.depletionProbability(1), 0d);
+        assertEquals(0d, result.finalPercentile(1d), 0d);
+    }
+
+    @Test
+    public void sameSeedSamePaths() {
+        final var plans = List.of(MonteCarloSimulation.Plan.withdrawal(300d), MonteCarloSimulation.Plan.withdrawal(500d));
+        final var a = risky().run(100_000d, plans, 30, 3000, 42L);
+        final var b = risky().run(100_000d, plans, 30, 3000, 42L);
+        for (int p = 0; p < plans.size(); p++) {
+            assertEquals(a.get(p).successProbability(), b.get(p).successProbability(), 0d);
+            for (int year = 0; year <= 30; year++) {
+                assertEquals(a.get(p).percentile(year, 0.1d), b.get(p).percentile(year, 0.1d), 0d);
+                assertEquals(a.get(p).percentile(year, 0.9d), b.get(p).percentile(year, 0.9d), 0d);
+            }
+        }
+        // larger withdrawals on the same paths never do better
+        assertTrue(a.get(1).successProbability() <= a.get(0).successProbability());
+        assertTrue(a.get(1).finalPercentile(0.5d) <= a.get(0).finalPercentile(0.5d));
+    }
+
+    @Test
+    public void selectMatchesSort() {
+        final var random = new SplittableRandom(3L);
+        for (int size : new int[]{1, 2, 3, 10, 101, 1000}) {
+            final var values = random.doubles(size, -1d, 1d).toArray();
+            final var sorted = values.clone();
+            Arrays.sort(sorted);
+            for (int k = 0; k < size; k += Math.max(1, size / 7)) {
+                assertEquals(sorted[k], MonteCarloSimulation.select(values.clone(), k), 0d);
+            }
+            assertEquals(sorted[size - 1], MonteCarloSimulation.select(values.clone(), size - 1), 0d);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class WithdrawalBacktestTest {
+
+    private static double[] history(int months, long seed) {
+        final var random = new SplittableRandom(seed);
+        final var growth = new double[months];
+        for (int i = 0; i < months; i++) {
+            growth[i] = 1d + 0.004d + 0.04d * random.nextGaussian();
+        }
+        return growth;
+    }
+
+    /**
+     * Withdraws the same amount every month, month by month.
+     *
+     * @return the depletion month, or -1 and the ending value.
+     */
+    private static double[] walk(double[] growth, int start, int months, double initialValue, double rate) {
+        final double withdrawal = initialValue * rate / 12d;
+        double value = initialValue;
+        for (int month = 0; month < months; month++) {
+            value -= withdrawal;
+            if (value <= 0d) {
+                return new double[]{month, 0d};
+            }
+            value *= growth[start + month];
+        }
+        return new double[]{-1d, value};
+    }
+
+    @Test
+    public void fixedMatchesMonthByMonth() {
+        final var growth = history(600, 11L);
+        final var backtest = new WithdrawalBacktest(growth);
+        final var rules = List.of(
+                WithdrawalBacktest.Rule.fixed("3%", 0.03d),
+                WithdrawalBacktest.Rule.fixed("6%", 0.06d),
+                WithdrawalBacktest.Rule.fixed("10%", 0.10d));
+        final var results = backtest.run(1_000_000d, rules, 30);
+        for (int r = 0; r < rules.size(); r++) {
+            final var result = results.get(r);
+            assertEquals(241, result.windows());
+            int failures = 0;
+            for (var window : result.worst(result.windows())) {
+                final var expected = walk(growth, window.start(), 360, 1_000_000d, rules.get(r).rate());
+                assertEquals(expected[0], window.depletionMonth(), 0d);
+                assertEquals(expected[1], window.ending(), Math.max(1e-6, expected[1] * 1e-9));
+                if (window.failed()) {
+                    failures++;
+                }
+            }
+            assertEquals(failures, result.failures());
+        }
+    }
+
+    @Test
+    public void variableNeverRunsOut() {
+        final var backtest = new WithdrawalBacktest(history(400, 5L));
+        final var result = backtest.run(1000d, List.of(WithdrawalBacktest.Rule.variable("4%", 0.04d)), 30).get(0);
+        assertEquals(41, result.windows());
+        assertEquals(0, result.failures());
+        assertTrue(result.endingPercentile(0d) > 0d);
+    }
+
+    @Test
+    public void flatHistory() {
+        final var flat = new double[359];
+        Arrays.fill(flat, 1d);
+        final var backtest = new WithdrawalBacktest(flat);
+        final var results = backtest.run(
+                1200d,
+                List.of(
+                        WithdrawalBacktest.Rule.fixed("4%", 0.04d),
+                        WithdrawalBacktest.Rule.fixed("10%", 0.10d),
+                        // the withdrawal is cut every year the value falls
+                        WithdrawalBacktest.Rule.guardrails("guardrails", 0.10d, 0.2d, 0.1d)),
+                20);
+        assertEquals(120, results.get(0).windows());
+        assertEquals(0, results.get(0).failures());
+        assertEquals(240d, results.get(0).endingPercentile(0.5d), 1e-9);
+        assertEquals(120, results.get(1).failures());
+        assertEquals(119, results.get(1).worst(1).get(0).depletionMonth());
+        assertEquals(0, results.get(2).failures());
+    }
+
+    @Test
+    public void shortHistoryHasNoWindows() {
+        final var backtest = new WithdrawalBacktest(history(100, 1L));
+        final var result = backtest.run(1000d, List.of(WithdrawalBacktest.Rule.fixed("4%", 0.04d)), 30).get(0);
+        assertEquals(0, result.windows());
+        assertEquals(0d, result.failureRate(), 0d);
+        assertEquals(0d, result.endingPercentile(0.5d), 0d);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.MoneyAmount;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class MonthIndexTest {
+
+    @Test
+    public void roundTrips() {
+        for (var ym = YearMonth.of(1998, 1); ym.isBefore(YearMonth.of(2031, 1)); ym = ym.plusMonths(1)) {
+            final int month = MonthIndex.of(ym);
+            assertEquals(ym, MonthIndex.yearMonth(month));
+            assertEquals(ym.getYear(), MonthIndex.year(month));
+            assertEquals(ym.getMonthValue(), MonthIndex.monthValue(month));
+            assertEquals(ym.atEndOfMonth(), MonthIndex.atEndOfMonth(month));
+            assertEquals(month, MonthIndex.of(ym.getYear(), ym.getMonthValue()));
+            assertEquals(month, MonthIndex.of(ym.atDay(15)));
+        }
+    }
+
+    @Test
+    public void consecutiveMonthsAreConsecutiveInts() {
+        final var ym = YearMonth.of(2019, 12);
+        assertEquals(MonthIndex.of(ym) + 1, MonthIndex.of(ym.plusMonths(1)));
+        assertEquals(MonthIndex.of(ym) + 13, MonthIndex.of(ym.plusMonths(13)));
+        assertEquals(MonthIndex.of(LocalDate.of(2020, 1, 1)), MonthIndex.of(LocalDate.of(2020, 1, 31)));
+        assertTrue(MonthIndex.of(YearMonth.of(2020, 1)) < MonthIndex.of(YearMonth.of(2020, 2)));
+    }
+
+    @Test
+    public void seriesLookupsMatch() {
+        final var from = YearMonth.of(2018, 11);
+        final var series = new ArrayMoneyAmountSeries(Currency.USD, "test", from, from.plusMonths(30));
+        for (int i = 0; i <= 30; i++) {
+            series.putAmount(from.plusMonths(i), new MoneyAmount(BigDecimal.valueOf(i), Currency.USD));
+        }
+        assertEquals(MonthIndex.of(from), series.fromIndex());
+        assertEquals(MonthIndex.of(from.plusMonths(30)), series.toIndex());
+        for (int month = series.fromIndex(); month <= series.toIndex(); month++) {
+            assertEquals(series.getAmount(MonthIndex.yearMonth(month)), series.getAmount(month));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.money.series;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class SeriesSnapshotTest {
+
+    private static final String NAME = "snapshot-test/index.json";
+
+    private static final List<JSONDataPoint> POINTS = List.of(
+            new JSONDataPoint(YearMonth.of(2020, 1), new BigDecimal("1.5")),
+            new JSONDataPoint(YearMonth.of(2020, 2), new BigDecimal("1.75")));
+
+    private Path source;
+
+    @Before
+    public void setUp() throws IOException {
+        this.source = Path.of(SeriesReader.APP_RESOURCES + NAME);
+        Files.createDirectories(this.source.getParent());
+        Files.writeString(this.source, "[]");
+    }
+
+    private List<SeriesSnapshot.Stamp> stamps() {
+        return SeriesSnapshot.stamps(List.of(NAME)).orElseThrow();
+    }
+
+    @Test
+    public void readsWhatWasWritten() {
+        SeriesSnapshot.write(NAME, POINTS, this.stamps());
+        assertEquals(POINTS, SeriesSnapshot.readIndexSeries(NAME).orElseThrow());
+    }
+
+    @Test
+    public void staleWhenSourceChanges() throws IOException {
+        SeriesSnapshot.write(NAME, POINTS, this.stamps());
+        assertTrue(SeriesSnapshot.readIndexSeries(NAME).isPresent());
+
+        Files.writeString(this.source, "[ ]");
+        assertFalse(SeriesSnapshot.readIndexSeries(NAME).isPresent());
+    }
+
+    @Test
+    public void droppedWhenSourceChangesWhileComputing() throws IOException {
+        final var stamps = this.stamps();
+        Files.writeString(this.source, "[  ]");
+        SeriesSnapshot.write(NAME, POINTS, stamps);
+
+        assertFalse(SeriesSnapshot.readIndexSeries(NAME).isPresent());
+        assertFalse(Files.exists(Path.of(SeriesReader.APP_RESOURCES + ".snapshot", NAME + ".bin")));
+    }
+}
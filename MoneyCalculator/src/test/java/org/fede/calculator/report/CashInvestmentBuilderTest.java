@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.math.BigDecimal;
+import static java.math.BigDecimal.ZERO;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.MathConstants;
+import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.series.ArrayMoneyAmountSeries;
+import org.fede.calculator.money.series.Investment;
+import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class CashInvestmentBuilderTest {
+
+    private static final YearMonth FROM = YearMonth.of(2015, 1);
+
+    private static MoneyAmountSeries savings(BigDecimal... values) {
+        final var series = new ArrayMoneyAmountSeries(Currency.USD, "cash", FROM, FROM.plusMonths(values.length - 1));
+        for (int i = 0; i < values.length; i++) {
+            series.putAmount(FROM.plusMonths(i), new MoneyAmount(values[i], Currency.USD));
+        }
+        return series;
+    }
+
+    /**
+     * A lot bought and sold like the reports see it.
+     */
+    private record Lot(LocalDate in, BigDecimal amount, LocalDate out) {
+
+        private static Lot of(Investment investment) {
+            return new Lot(
+                    investment.getInitialDate(),
+                    investment.getInvestment().getAmount(),
+                    investment.getOut() == null ? null : investment.getOut().getDate());
+        }
+
+        private boolean sameAs(Lot other) {
+            return this.in.equals(other.in)
+                    && this.amount.compareTo(other.amount) == 0
+                    && Objects.equals(this.out, other.out);
+        }
+    }
+
+    /**
+     * Scans every lot for the open total and the oldest open lot, month by
+     * month.
+     */
+    private static List<Lot> scanning(MoneyAmountSeries series) {
+        final var lots = new ArrayList<Lot>();
+        for (var ym = series.getFrom(); ym.compareTo(series.getTo()) <= 0; ym = ym.plusMonths(1)) {
+            final var saved = series.getAmountOrElseZero(ym).amount();
+            while (openTotal(lots).compareTo(saved) > 0) {
+                final var oldest = lots.stream()
+                        .filter(l -> l.out() == null)
+                        .min(Comparator.comparing(Lot::in))
+                        .orElseThrow();
+                lots.set(lots.indexOf(oldest), new Lot(oldest.in(), oldest.amount(), ym.plusMonths(-1).atEndOfMonth()));
+            }
+            final var total = openTotal(lots);
+            if (saved.compareTo(total) > 0) {
+                lots.add(new Lot(ym.atDay(1), saved.subtract(total, MathConstants.C), null));
+            }
+        }
+        return lots;
+    }
+
+    private static BigDecimal openTotal(List<Lot> lots) {
+        return lots.stream()
+                .filter(l -> l.out() == null)
+                .map(Lot::amount)
+                .reduce(ZERO, BigDecimal::add);
+    }
+
+    private static void assertSameLots(MoneyAmountSeries series) {
+        final var expected = scanning(series);
+        final var actual = new CashInvestmentBuilder(() -> series).cashInvestments().stream().map(Lot::of).toList();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(expected.get(i) + " " + actual.get(i), expected.get(i).sameAs(actual.get(i)));
+        }
+    }
+
+    @Test
+    public void buysTheIncreaseAndSellsOldestFirst() {
+        final var lots = new CashInvestmentBuilder(() -> savings(
+                new BigDecimal("100"),
+                new BigDecimal("150"),
+                new BigDecimal("120"),
+                new BigDecimal("120"),
+                new BigDecimal("200")))
+                .cashInvestments()
+                .stream()
+                .map(Lot::of)
+                .toList();
+
+        assertEquals(4, lots.size());
+        // the first lot is sold when savings drop, the second one stays
+        assertTrue(lots.get(0).sameAs(new Lot(LocalDate.of(2015, 1, 1), new BigDecimal("100"), LocalDate.of(2015, 2, 28))));
+        assertTrue(lots.get(1).sameAs(new Lot(LocalDate.of(2015, 2, 1), new BigDecimal("50"), null)));
+        assertTrue(lots.get(2).sameAs(new Lot(LocalDate.of(2015, 3, 1), new BigDecimal("70"), null)));
+        assertTrue(lots.get(3).sameAs(new Lot(LocalDate.of(2015, 5, 1), new BigDecimal("80"), null)));
+    }
+
+    @Test
+    public void matchesScanningEveryLot() {
+        final var random = new SplittableRandom(5L);
+        for (int run = 0; run < 20; run++) {
+            final var values = new BigDecimal[120];
+            var value = ZERO;
+            for (int i = 0; i < values.length; i++) {
+                value = value.add(BigDecimal.valueOf(random.nextInt(-300, 500))).max(ZERO);
+                values[i] = value;
+            }
+            assertSameLots(savings(values));
+        }
+    }
+
+    @Test
+    public void cachesTheLots() {
+        final var builder = new CashInvestmentBuilder(() -> savings(BigDecimal.ONE, BigDecimal.TEN));
+        assertSame(builder.cashInvestments(), builder.cashInvestments());
+    }
+}
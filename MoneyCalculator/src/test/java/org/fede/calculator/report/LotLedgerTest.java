@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.fede.calculator.money.Currency;
+import static org.fede.calculator.money.Currency.CSPX;
+import static org.fede.calculator.money.Currency.USD;
+import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.series.Investment;
+import org.fede.calculator.money.series.InvestmentAsset;
+import org.fede.calculator.money.series.InvestmentEvent;
+import org.fede.calculator.money.series.InvestmentType;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class LotLedgerTest {
+
+    private static InvestmentEvent event(LocalDate date, String usd) {
+        final var event = new InvestmentEvent();
+        event.setDate(date);
+        event.setAmount(new BigDecimal(usd));
+        event.setCurrency(USD);
+        return event;
+    }
+
+    private static Investment etf(Currency currency, String quantity, LocalDate date, String cost) {
+        final var asset = new InvestmentAsset();
+        asset.setCurrency(currency);
+        asset.setAmount(new BigDecimal(quantity));
+        final var investment = new Investment();
+        investment.setType(InvestmentType.ETF);
+        investment.setInvestment(asset);
+        investment.setIn(event(date, cost));
+        return investment;
+    }
+
+    private static Investment sold(Investment investment, LocalDate date, String proceeds) {
+        investment.setOut(event(date, proceeds));
+        return investment;
+    }
+
+    private static MoneyAmount usd(String amount) {
+        return new MoneyAmount(new BigDecimal(amount), USD);
+    }
+
+    private static void assertAmount(String expected, MoneyAmount actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual.amount()));
+    }
+
+    private static LotLedger ledger() {
+        return LotLedger.replay(List.of(
+                etf(CSPX, "10", LocalDate.of(2020, 1, 10), "1000"),
+                etf(CSPX, "10", LocalDate.of(2021, 1, 10), "3000"),
+                sold(etf(CSPX, "5", LocalDate.of(2022, 1, 10), "2000"), LocalDate.of(2023, 1, 10), "2500")));
+    }
+
+    @Test
+    public void replayRealizesRecordedSales() {
+        final var realized = ledger().realized();
+        assertEquals(1, realized.size());
+        assertEquals(LocalDate.of(2022, 1, 10), realized.get(0).buyDate());
+        assertAmount("500", realized.get(0).gain());
+    }
+
+    @Test
+    public void fifoSellsOldestLotsFirst() {
+        final var fork = ledger().fork();
+        assertTrue(fork.realized().isEmpty());
+
+        final var sales = fork.sell(CSPX, new BigDecimal("15"), usd("400"), LocalDate.of(2024, 1, 10), LotLedger.Selection.FIFO);
+
+        assertEquals(2, sales.size());
+        assertEquals(LocalDate.of(2020, 1, 10), sales.get(0).buyDate());
+        assertEquals(0, BigDecimal.TEN.compareTo(sales.get(0).quantity()));
+        assertAmount("4000", sales.get(0).proceeds());
+        assertAmount("1000", sales.get(0).basis());
+        assertAmount("3000", sales.get(0).gain());
+
+        assertEquals(LocalDate.of(2021, 1, 10), sales.get(1).buyDate());
+        assertEquals(0, new BigDecimal("5").compareTo(sales.get(1).quantity()));
+        assertAmount("2000", sales.get(1).proceeds());
+        assertAmount("1500", sales.get(1).basis());
+        assertAmount("500", sales.get(1).gain());
+
+        assertEquals(0, new BigDecimal("5").compareTo(fork.quantity(CSPX)));
+        assertEquals(LocalDate.of(2021, 1, 10), fork.next(CSPX, LotLedger.Selection.FIFO).orElseThrow().date());
+        assertEquals(0, new BigDecimal("5").compareTo(fork.next(CSPX, LotLedger.Selection.FIFO).orElseThrow().quantity()));
+        assertEquals(sales, fork.realized());
+    }
+
+    @Test
+    public void hifoSellsMostExpensiveFirst() {
+        final var fork = ledger().fork();
+        final var sales = fork.sell(CSPX, new BigDecimal("12"), usd("400"), LocalDate.of(2024, 1, 10), LotLedger.Selection.HIFO);
+        assertEquals(2, sales.size());
+        assertEquals(LocalDate.of(2021, 1, 10), sales.get(0).buyDate());
+        assertEquals(LocalDate.of(2020, 1, 10), sales.get(1).buyDate());
+        assertAmount("200", sales.get(1).basis());
+    }
+
+    @Test
+    public void forksDoNotChangeTheReplayedLedger() {
+        final var ledger = ledger();
+        ledger.fork().sell(CSPX, new BigDecimal("20"), usd("400"), LocalDate.of(2024, 1, 10), LotLedger.Selection.FIFO);
+        assertEquals(0, new BigDecimal("20").compareTo(ledger.quantity(CSPX)));
+        assertEquals(1, ledger.realized().size());
+        assertEquals(0, new BigDecimal("25").compareTo(ledger.quantity(CSPX, LocalDate.of(2022, 12, 31))));
+    }
+
+    @Test
+    public void arsGainUsesTheBnaRateOfTheSaleDate() {
+        final var sale = ledger().fork()
+                .sell(CSPX, new BigDecimal("5"), usd("400"), LocalDate.of(2025, 4, 3), LotLedger.Selection.FIFO)
+                .get(0);
+        assertEquals(0, new BigDecimal("1075").compareTo(sale.arsRate()));
+        assertAmount("1612500", sale.taxableGainARS());
+
+        final var unknown = ledger().realized().get(0);
+        final var e = assertThrows(IllegalArgumentException.class, unknown::taxableGainARS);
+        assertTrue(e.getMessage().contains("2023-01-10"));
+    }
+
+    @Test
+    public void replayedLedgerIsReadOnly() {
+        final var ledger = ledger();
+        assertThrows(UnsupportedOperationException.class,
+                () -> ledger.sell(CSPX, BigDecimal.ONE, usd("400"), LocalDate.of(2024, 1, 10), LotLedger.Selection.FIFO));
+        assertThrows(UnsupportedOperationException.class,
+                () -> ledger.buy(etf(CSPX, "1", LocalDate.of(2024, 1, 10), "400")));
+    }
+}
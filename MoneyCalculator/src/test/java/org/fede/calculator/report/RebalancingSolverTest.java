@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class RebalancingSolverTest {
+
+    private static final class BruteForce {
+
+        private final List<RebalancingSolver.Asset> assets;
+        private final RebalancingSolver.Constraints constraints;
+        private final double total;
+        private final long[] shares;
+        private double best = Double.POSITIVE_INFINITY;
+
+        private BruteForce(List<RebalancingSolver.Asset> assets, double cash, RebalancingSolver.Constraints constraints) {
+            this.assets = assets;
+            this.constraints = constraints;
+            this.total = assets.stream().mapToDouble(RebalancingSolver.Asset::value).sum() + cash;
+            this.shares = new long[assets.size()];
+        }
+
+        private double search(int i, double cash) {
+            if (i == this.assets.size()) {
+                this.best = Math.min(this.best, error(this.assets, this.shares, this.total));
+                return this.best;
+            }
+            final var asset = this.assets.get(i);
+            final long held = this.constraints.allowSell() ? held(asset) : 0L;
+            final long most = (long) Math.floor(this.total * 4d / asset.price());
+            for (long n = -held; n <= most; n++) {
+                this.shares[i] = n;
+                if (feasible(this.assets, this.shares, i + 1, cash, this.constraints)) {
+                    this.search(i + 1, cash);
+                }
+            }
+            this.shares[i] = 0L;
+            return this.best;
+        }
+    }
+
+    private static long held(RebalancingSolver.Asset asset) {
+        return (long) Math.floor(asset.lots().stream().mapToDouble(RebalancingSolver.Lot::quantity).sum() + 1e-9d);
+    }
+
+    /**
+     * Net proceeds of selling the shares, oldest lots first.
+     */
+    private static double proceeds(RebalancingSolver.Asset asset, long count, double taxRate) {
+        double cost = 0d;
+        double needed = count;
+        for (var lot : asset.lots()) {
+            final double taken = Math.min(needed, lot.quantity());
+            cost += taken * lot.costPerShare();
+            needed -= taken;
+        }
+        final double gross = count * asset.price();
+        return gross - taxRate * Math.max(0d, gross - cost);
+    }
+
+    /**
+     * Whether the first assets can be traded, leaving what the rest could
+     * still sell aside.
+     */
+    private static boolean feasible(List<RebalancingSolver.Asset> assets, long[] shares, int count, double cash, RebalancingSolver.Constraints constraints) {
+        double left = cash;
+        double fees = 0d;
+        for (int i = 0; i < assets.size(); i++) {
+            final var asset = assets.get(i);
+            if (i >= count) {
+                if (constraints.allowSell()) {
+                    left += asset.price() * held(asset);
+                }
+                continue;
+            }
+            final long n = shares[i];
+            if (n == 0L) {
+                continue;
+            }
+            if (Math.abs(n) * asset.price() < constraints.minTrade()) {
+                return false;
+            }
+            fees += constraints.orderFee();
+            left -= constraints.orderFee();
+            left += n > 0L
+                    ? -n * asset.price()
+                    : proceeds(asset, -n, constraints.taxRate());
+        }
+        return fees <= constraints.feeBudget() && left >= -1e-9d;
+    }
+
+    private static double error(List<RebalancingSolver.Asset> assets, long[] shares, double total) {
+        double error = 0d;
+        for (int i = 0; i < assets.size(); i++) {
+            final var asset = assets.get(i);
+            final double w = (asset.value() + shares[i] * asset.price()) / total - asset.weight();
+            error += w * w;
+        }
+        return error;
+    }
+
+    private static List<RebalancingSolver.Asset> randomAssets(SplittableRandom random, int count) {
+        final var weights = random.doubles(count, 0.1d, 1d).toArray();
+        final double sum = Arrays.stream(weights).sum();
+        final var assets = new ArrayList<RebalancingSolver.Asset>(count);
+        for (int i = 0; i < count; i++) {
+            final double price = random.nextInt(20, 400);
+            final var lots = new ArrayList<RebalancingSolver.Lot>();
+            double quantity = 0d;
+            for (int l = random.nextInt(0, 3); l > 0; l--) {
+                final double q = random.nextInt(1, 5);
+                lots.add(new RebalancingSolver.Lot(q, price * random.nextDouble(0.5d, 1.5d)));
+                quantity += q;
+            }
+            assets.add(new RebalancingSolver.Asset("A" + i, quantity * price, price, weights[i] / sum, lots));
+        }
+        return assets;
+    }
+
+    private static void assertOptimal(List<RebalancingSolver.Asset> assets, double cash, RebalancingSolver.Constraints constraints) {
+        final var solution = RebalancingSolver.solve(assets, cash, constraints);
+        final double expected = new BruteForce(assets, cash, constraints).search(0, cash);
+        assertTrue(solution.optimal());
+        assertTrue(feasible(assets, solution.shares(), assets.size(), cash, constraints));
+        final double total = assets.stream().mapToDouble(RebalancingSolver.Asset::value).sum() + cash;
+        assertEquals(error(assets, solution.shares(), total), solution.trackingError(), 1e-12d);
+        assertEquals(expected, solution.trackingError(), 1e-12d);
+    }
+
+    @Test
+    public void buyOnlyIsOptimal() {
+        final var random = new SplittableRandom(17L);
+        for (int i = 0; i < 40; i++) {
+            assertOptimal(randomAssets(random, 3), random.nextInt(0, 1500), RebalancingSolver.Constraints.buyOnly());
+        }
+    }
+
+    @Test
+    public void sellingWithTaxesAndFeesIsOptimal() {
+        final var random = new SplittableRandom(29L);
+        for (int i = 0; i < 40; i++) {
+            final var constraints = new RebalancingSolver.Constraints(
+                    random.nextInt(0, 100),
+                    true,
+                    random.nextInt(0, 10),
+                    random.nextBoolean() ? 15d : Double.POSITIVE_INFINITY,
+                    0.15d);
+            assertOptimal(randomAssets(random, 3), random.nextInt(0, 800), constraints);
+        }
+    }
+
+    @Test
+    public void minTradeAboveTheTargetIsOptimal() {
+        final var constraints = new RebalancingSolver.Constraints(1000d, false, 0d, Double.POSITIVE_INFINITY, 0d);
+        final var assets = List.of(
+                new RebalancingSolver.Asset("A", 0d, 100d, 0.08d, List.<RebalancingSolver.Lot>of()),
+                new RebalancingSolver.Asset("B", 9000d, 10000d, 0.92d, List.<RebalancingSolver.Lot>of()));
+        assertOptimal(assets, 1000d, constraints);
+        assertEquals(10L, RebalancingSolver.solve(assets, 1000d, constraints).shares()[0]);
+
+        final var random = new SplittableRandom(41L);
+        for (int i = 0; i < 40; i++) {
+            final var sell = new RebalancingSolver.Constraints(
+                    random.nextInt(200, 1200),
+                    random.nextBoolean(),
+                    random.nextInt(0, 10),
+                    Double.POSITIVE_INFINITY,
+                    0.15d);
+            assertOptimal(randomAssets(random, 3), random.nextInt(0, 2000), sell);
+        }
+    }
+
+    @Test
+    public void sellsOldestLotsFirst() {
+        final var asset = new RebalancingSolver.Asset(
+                "A",
+                300d,
+                100d,
+                0d,
+                List.of(new RebalancingSolver.Lot(1d, 50d), new RebalancingSolver.Lot(2d, 100d)));
+        final var cashAsset = new RebalancingSolver.Asset("B", 0d, 1000d, 1d, List.of());
+        final var solution = RebalancingSolver.solve(
+                List.of(asset, cashAsset),
+                0d,
+                new RebalancingSolver.Constraints(0d, true, 0d, Double.POSITIVE_INFINITY, 0.2d));
+        assertEquals(-3L, solution.shares()[0]);
+        // only the first lot has a gain of 50
+        assertEquals(10d, solution.taxes(), 1e-9d);
+        assertEquals(290d, solution.cash(), 1e-9d);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import static org.fede.calculator.money.Currency.USD;
+import org.fede.calculator.money.series.Investment;
+import org.fede.calculator.money.series.InvestmentAsset;
+import org.fede.calculator.money.series.InvestmentEvent;
+import org.fede.calculator.money.series.InvestmentType;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class ReturnCubeTest {
+
+    private static final int FIRST_YEAR = 2016;
+    private static final int LAST_YEAR = 2021;
+
+    private static InvestmentEvent event(LocalDate date, BigDecimal amount) {
+        final var event = new InvestmentEvent();
+        event.setDate(date);
+        event.setAmount(amount);
+        event.setCurrency(USD);
+        return event;
+    }
+
+    /**
+     * USD lots sold for more or less than they cost, some still open, so the
+     * returns come from the cash flows without exchange rates or prices.
+     */
+    private static List<Investment> investments(long seed) {
+        final var random = new SplittableRandom(seed);
+        final var answer = new ArrayList<Investment>();
+        for (int i = 0; i < 30; i++) {
+            final var in = LocalDate.of(FIRST_YEAR, 1, 1).plusDays(random.nextInt(0, 365 * 5));
+            final var amount = BigDecimal.valueOf(random.nextInt(100, 10_000));
+            final var asset = new InvestmentAsset();
+            asset.setAmount(amount);
+            asset.setCurrency(USD);
+            final var investment = new Investment();
+            investment.setType(InvestmentType.USD);
+            investment.setInvestment(asset);
+            investment.setIn(event(in, amount));
+            if (random.nextInt(4) > 0) {
+                investment.setOut(event(
+                        in.plusDays(random.nextInt(1, 900)),
+                        amount.multiply(BigDecimal.valueOf(random.nextInt(80, 140))).movePointLeft(2)));
+            }
+            answer.add(investment);
+        }
+        return answer;
+    }
+
+    private static void assertSame(ModifiedDietzReturnResult expected, ModifiedDietzReturnResult actual) {
+        assertEquals(expected.getMoneyWeighted().doubleValue(), actual.getMoneyWeighted().doubleValue(), 1e-12d);
+        assertEquals(expected.getAnnualizedMoneyWeighted().doubleValue(), actual.getAnnualizedMoneyWeighted().doubleValue(), 1e-12d);
+    }
+
+    @Test
+    public void matchesModifiedDietzReturn() {
+        final var portfolios = Map.of("a", investments(1L), "b", investments(2L));
+        final var cube = ReturnCube.of(portfolios, true);
+        for (var e : portfolios.entrySet()) {
+            final var inv = e.getValue();
+            for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+                final var start = LocalDate.of(year, Month.JANUARY, 1);
+                final var end = LocalDate.of(year, Month.DECEMBER, 31);
+                assertSame(new ModifiedDietzReturn(inv, true, start, end).get(), cube.get(e.getKey(), ReturnCube.Measure.MDR, year));
+                assertSame(new ModifiedDietzReturn(inv, true, start, end).monthlyLinked(), cube.get(e.getKey(), ReturnCube.Measure.TWR, year));
+            }
+            final var total = cube.get(e.getKey(), ReturnCube.Measure.MDR, ReturnCube.TOTAL);
+            assertTrue(total.getMoneyWeighted().signum() != 0);
+            assertSame(new ModifiedDietzReturn(inv, true).get(), total);
+            assertSame(new ModifiedDietzReturn(inv, true).monthlyLinked(), cube.get(e.getKey(), ReturnCube.Measure.TWR, ReturnCube.TOTAL));
+        }
+    }
+
+    @Test
+    public void portfolioPeriodsMatchModifiedDietzReturn() {
+        final var inv = investments(3L);
+        final var portfolio = ReturnCube.Portfolio.of(inv, true);
+        final var random = new SplittableRandom(4L);
+        for (int i = 0; i < 20; i++) {
+            final var start = LocalDate.of(FIRST_YEAR, 1, 1).plusDays(random.nextInt(0, 365 * 5));
+            final var end = start.plusDays(random.nextInt(1, 700));
+            assertSame(new ModifiedDietzReturn(inv, true, start, end).get(), portfolio.mdr(start, end));
+            assertSame(new ModifiedDietzReturn(inv, true, start, end).monthlyLinked(), portfolio.twr(start, end));
+        }
+    }
+
+    @Test
+    public void byYearCoversThePortfolioYears() {
+        final var inv = investments(5L);
+        final var cube = ReturnCube.of(Map.of("a", inv), true);
+        final var byYear = cube.byYear("a", ReturnCube.Measure.MDR);
+        final var portfolio = cube.portfolio("a");
+        assertEquals(portfolio.from().getYear(), byYear.keySet().iterator().next().intValue());
+        assertEquals(portfolio.to().getYear() - portfolio.from().getYear() + 1, byYear.size());
+        for (var e : byYear.entrySet()) {
+            assertSame(cube.get("a", ReturnCube.Measure.MDR, e.getKey()), e.getValue());
+        }
+    }
+}
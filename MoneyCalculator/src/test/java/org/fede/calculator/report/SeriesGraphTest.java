@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.report;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class SeriesGraphTest {
+
+    @Test
+    public void invalidatesDependents() {
+        final var graph = new SeriesGraph();
+        final var loads = new AtomicInteger();
+        final var a = graph.get("a", List.of("a.json"), loads::incrementAndGet);
+        final var b = graph.get("b", List.of("a"), () -> loads.incrementAndGet() * 10);
+        final var c = graph.get("c", List.of("c.json"), loads::incrementAndGet);
+        assertEquals(Integer.valueOf(1), a);
+        assertEquals(Integer.valueOf(20), b);
+        assertEquals(Integer.valueOf(3), c);
+
+        graph.invalidate("a.json");
+
+        assertEquals(Integer.valueOf(4), graph.get("a", List.of("a.json"), loads::incrementAndGet));
+        assertEquals(Integer.valueOf(50), graph.get("b", List.of("a"), () -> loads.incrementAndGet() * 10));
+        assertEquals(Integer.valueOf(3), graph.get("c", List.of("c.json"), loads::incrementAndGet));
+    }
+
+    @Test
+    public void rejectsOtherInputsUnderTheSameName() {
+        final var graph = new SeriesGraph();
+        graph.get("a", List.of("a.json", "b.json"), () -> 1);
+        assertEquals(Integer.valueOf(1), graph.get("a", List.of("b.json", "a.json"), () -> 2));
+        assertThrows(IllegalStateException.class, () -> graph.get("a", List.of("a.json"), () -> 3));
+    }
+}
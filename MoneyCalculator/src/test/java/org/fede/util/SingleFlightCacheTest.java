@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author fede
+ */
+public class SingleFlightCacheTest {
+
+    @Test
+    public void loadsOnce() {
+        final var loads = new AtomicInteger();
+        final var cache = new SingleFlightCache<String, Integer>(4, key -> loads.incrementAndGet());
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void loaderMayUseOtherKeys() {
+        final var cache = new AtomicReference<SingleFlightCache<Integer, Integer>>();
+        cache.set(new SingleFlightCache<>(4, n -> n == 0 ? 1 : n * cache.get().get(n - 1)));
+        assertEquals(Integer.valueOf(120), cache.get().get(5));
+    }
+
+    @Test
+    public void recursiveLoadFails() {
+        final var cache = new AtomicReference<SingleFlightCache<Integer, Integer>>();
+        cache.set(new SingleFlightCache<>(4, n -> cache.get().get(n)));
+        assertThrows(IllegalStateException.class, () -> cache.get().get(1));
+        // the failed load is forgotten
+        assertFalse(cache.get().contains(1));
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.series.Investment;
+import org.fede.calculator.money.series.InvestmentAsset;
+import org.fede.calculator.money.series.InvestmentEvent;
+import org.fede.calculator.money.series.InvestmentType;
+
+/**
+ * Synthetic app resources. The files are written to a temporary directory
+ * and the appResources system property points SeriesReader to it, so
+ * {@link #install()} must run before anything reads a series. Values come
+ * from a seeded random walk, every run sees the same data.
+ *
+ * @author fede
+ */
+final class Fixtures {
+
+    static final YearMonth FROM = YearMonth.of(2000, 1);
+    static final YearMonth TO = YearMonth.now();
+
+    static final String USD_SAVINGS = "saving/fixture-usd.json";
+    static final String ARS_SAVINGS = "saving/fixture-ars.json";
+    static final String USD_EUR = "index/USD-EUR.json";
+
+    private static final long SEED = 20260101L;
+
+    private static Path directory;
+
+    private Fixtures() {
+    }
+
+    static synchronized Path install() {
+        if (directory == null) {
+            try {
+                final var dir = Files.createTempDirectory("mc-benchmark");
+                Files.createDirectories(dir.resolve("index"));
+                Files.createDirectories(dir.resolve("saving"));
+
+                final var random = new Random(SEED);
+
+                write(dir, "environment.properties", "fixedPointMath=false\n");
+
+                writeIndex(dir, "index/bls.json", random, 170d, 0.002d, 0.002d);
+                writeIndex(dir, "index/peso-dolar-libre.json", random, 1d, 0.03d, 0.04d);
+                writeIndex(dir, USD_EUR, random, 1.1d, 0d, 0.02d);
+                writeIndex(dir, "index/EIMI-USD.json", random, 20d, 0.005d, 0.05d);
+                writeIndex(dir, "index/CSPX-USD.json", random, 200d, 0.008d, 0.04d);
+                writeIndex(dir, "index/MEUD-EUR.json", random, 150d, 0.006d, 0.04d);
+
+                writeSeries(dir, USD_SAVINGS, Currency.USD, random, 10_000d, 0.01d);
+                writeSeries(dir, ARS_SAVINGS, Currency.ARS, random, 50_000d, 0.03d);
+
+                System.setProperty("appResources", dir.toString());
+                directory = dir;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return directory;
+    }
+
+    /**
+     * Buys spread over the fixture range, half of them sold later.
+     *
+     * @param count
+     * @return
+     */
+    static List<Investment> investments(int count) {
+        final var random = new Random(SEED);
+        final Currency[] currencies = {Currency.USD, Currency.EIMI, Currency.CSPX};
+        final var start = FROM.atDay(1);
+        final int days = (int) (TO.atEndOfMonth().toEpochDay() - start.toEpochDay());
+
+        final List<Investment> answer = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final var in = event(start.plusDays(random.nextInt(days)), random);
+
+            final var asset = new InvestmentAsset();
+            asset.setCurrency(currencies[random.nextInt(currencies.length)]);
+            asset.setAmount(amount(random, 100d));
+
+            final var investment = new Investment();
+            investment.setType(InvestmentType.ETF);
+            investment.setIn(in);
+            investment.setInvestment(asset);
+
+            if (random.nextBoolean()) {
+                final int remaining = (int) (TO.atEndOfMonth().toEpochDay() - in.getDate().toEpochDay());
+                if (remaining > 1) {
+                    investment.setOut(event(in.getDate().plusDays(1 + random.nextInt(remaining - 1)), random));
+                }
+            }
+            answer.add(investment);
+        }
+        return answer;
+    }
+
+    private static InvestmentEvent event(LocalDate date, Random random) {
+        final var event = new InvestmentEvent();
+        event.setDate(date);
+        event.setCurrency(Currency.USD);
+        event.setAmount(amount(random, 5_000d));
+        event.setFee(BigDecimal.ZERO);
+        return event;
+    }
+
+    private static BigDecimal amount(Random random, double max) {
+        return BigDecimal.valueOf(1d + random.nextDouble() * max).setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    private static void writeIndex(Path dir, String name, Random random, double initial, double drift, double volatility) throws IOException {
+        final var json = new StringBuilder(64 * 12 * 30);
+        json.append('[');
+        double value = initial;
+        for (var ym = FROM; !ym.isAfter(TO); ym = ym.plusMonths(1)) {
+            if (ym.isAfter(FROM)) {
+                json.append(',');
+            }
+            dataPoint(json, ym, value);
+            value = Math.max(0.0001d, value * (1d + drift + random.nextGaussian() * volatility));
+        }
+        json.append(']');
+        write(dir, name, json.toString());
+    }
+
+    private static void writeSeries(Path dir, String name, Currency currency, Random random, double initial, double volatility) throws IOException {
+        final var json = new StringBuilder(64 * 12 * 30);
+        json.append("{\"currency\":\"")
+                .append(currency.name())
+                .append("\",\"interpolation\":\"LAST_VALUE_INTERPOLATION\",\"data\":[");
+        double value = initial;
+        for (var ym = FROM; !ym.isAfter(TO); ym = ym.plusMonths(1)) {
+            if (ym.isAfter(FROM)) {
+                json.append(',');
+            }
+            dataPoint(json, ym, value);
+            value = Math.max(0d, value * (1d + random.nextGaussian() * volatility) + random.nextDouble() * initial * 0.01d);
+        }
+        json.append("]}");
+        write(dir, name, json.toString());
+    }
+
+    private static void dataPoint(StringBuilder json, YearMonth ym, double value) {
+        json.append("{\"year\":")
+                .append(ym.getYear())
+                .append(",\"month\":")
+                .append(ym.getMonthValue())
+                .append(",\"value\":")
+                .append(BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_EVEN).toPlainString())
+                .append('}');
+    }
+
+    private static void write(Path dir, String name, String content) throws IOException {
+        Files.writeString(dir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
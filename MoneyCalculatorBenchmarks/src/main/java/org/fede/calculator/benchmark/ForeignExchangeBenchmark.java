@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.benchmark;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.ForeignExchange;
+import org.fede.calculator.money.ForeignExchanges;
+import org.fede.calculator.money.MoneyAmount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exchanging one amount through a direct route (EUR to USD) and through
+ * compound ones (EIMI to EUR and CSPX to ARS go through USD). Each call
+ * uses the next month of the fixture range.
+ *
+ * @author fede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForeignExchangeBenchmark {
+
+    @Param({"EUR-USD", "EIMI-EUR", "CSPX-ARS"})
+    public String route;
+
+    private Currency from;
+    private Currency to;
+    private MoneyAmount amount;
+    private ForeignExchange fx;
+    private ForeignExchange unresolved;
+    private YearMonth[] months;
+    private int month;
+
+    @Setup
+    public void setup() {
+        Fixtures.install();
+        final var currencies = this.route.split("-");
+        this.from = Currency.valueOf(currencies[0]);
+        this.to = Currency.valueOf(currencies[1]);
+        this.amount = new MoneyAmount(new BigDecimal("123.4567"), this.from);
+        this.fx = ForeignExchanges.getForeignExchange(this.from, this.to);
+
+        // the same route without precomputed cross rates in any of its legs
+        this.unresolved = ForeignExchanges.route(this.from, this.to);
+
+        final var start = YearMonth.of(2001, 1);
+        this.months = new YearMonth[(int) start.until(Fixtures.TO, ChronoUnit.MONTHS)];
+        for (int i = 0; i < this.months.length; i++) {
+            this.months[i] = start.plusMonths(i);
+        }
+    }
+
+    private YearMonth nextMonth() {
+        final var ym = this.months[this.month];
+        this.month = (this.month + 1) % this.months.length;
+        return ym;
+    }
+
+    @Benchmark
+    public MoneyAmount lookupAndExchange() {
+        return ForeignExchanges.getForeignExchange(this.from, this.to)
+                .exchange(this.amount, this.to, this.nextMonth());
+    }
+
+    @Benchmark
+    public MoneyAmount exchange() {
+        return this.fx.exchange(this.amount, this.to, this.nextMonth());
+    }
+
+    @Benchmark
+    public MoneyAmount exchangeWithoutCrossRates() {
+        return this.unresolved.exchange(this.amount, this.to, this.nextMonth());
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.Inflation;
+import org.fede.calculator.money.MoneyAmount;
+import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.SeriesReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * USD CPI adjustment of single amounts and of a whole monthly series.
+ *
+ * @author fede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InflationBenchmark {
+
+    private Inflation inflation;
+    private MoneyAmountSeries series;
+    private MoneyAmount amount;
+
+    @Setup
+    public void setup() {
+        Fixtures.install();
+        this.inflation = Inflation.usdInflation();
+        this.series = SeriesReader.readSeries(Fixtures.USD_SAVINGS);
+        this.amount = new MoneyAmount(new BigDecimal("12345.67"), Currency.USD);
+    }
+
+    @Benchmark
+    public MoneyAmount adjustAmount() {
+        return this.inflation.adjust(this.amount, Fixtures.FROM, this.inflation.getTo());
+    }
+
+    @Benchmark
+    public MoneyAmountSeries adjustSeries() {
+        return this.inflation.adjust(this.series, this.inflation.getTo());
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.fede.calculator.money.Currency;
+import org.fede.calculator.money.MoneyAmount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The BigDecimal arithmetic every report ends up in.
+ *
+ * @author fede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyAmountBenchmark {
+
+    private MoneyAmount amount;
+    private MoneyAmount other;
+    private BigDecimal divisor;
+    private BigDecimal factor;
+    private BigDecimal rate;
+
+    @Setup
+    public void setup() {
+        this.amount = new MoneyAmount(new BigDecimal("12345.67"), Currency.USD);
+        this.other = new MoneyAmount(new BigDecimal("890.1234"), Currency.USD);
+        this.divisor = new BigDecimal("231.874");
+        this.factor = new BigDecimal("309.685");
+        this.rate = new BigDecimal("1034.5");
+    }
+
+    @Benchmark
+    public MoneyAmount add() {
+        return this.amount.add(this.other);
+    }
+
+    @Benchmark
+    public MoneyAmount adjust() {
+        return this.amount.adjust(this.divisor, this.factor);
+    }
+
+    @Benchmark
+    public MoneyAmount exchange() {
+        return this.amount.exchange(Currency.ARS, this.rate);
+    }
+
+}
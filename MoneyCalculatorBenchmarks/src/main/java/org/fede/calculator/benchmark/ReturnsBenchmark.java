@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.fede.calculator.money.series.Investment;
+import org.fede.calculator.report.ModifiedDietzReturn;
+import org.fede.calculator.report.ModifiedDietzReturnResult;
+import org.fede.calculator.report.XirrReturn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole portfolio XIRR and Modified Dietz returns, nominal and real.
+ *
+ * @author fede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReturnsBenchmark {
+
+    @Param({"50", "500"})
+    public int investmentCount;
+
+    @Param({"true", "false"})
+    public boolean nominal;
+
+    private List<Investment> investments;
+
+    @Setup
+    public void setup() {
+        Fixtures.install();
+        this.investments = Fixtures.investments(this.investmentCount);
+    }
+
+    @Benchmark
+    public ModifiedDietzReturnResult xirr() {
+        return new XirrReturn(this.investments, this.nominal).get();
+    }
+
+    @Benchmark
+    public ModifiedDietzReturnResult modifiedDietz() {
+        return new ModifiedDietzReturn(this.investments, this.nominal).get();
+    }
+
+}
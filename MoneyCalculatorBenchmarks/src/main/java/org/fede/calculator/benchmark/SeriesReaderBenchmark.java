@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 fede
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fede.calculator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.fede.calculator.money.series.IndexSeries;
+import org.fede.calculator.money.series.MoneyAmountSeries;
+import org.fede.calculator.money.series.SeriesReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading a series from disk, either parsing the JSON or loading its binary
+ * snapshot. Every call forgets the cached series first. The snapshot switch
+ * is read once per JVM, so this benchmark must run forked.
+ *
+ * @author fede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeriesReaderBenchmark {
+
+    @Param({"json", "snapshot"})
+    public String source;
+
+    @Setup
+    public void setup() {
+        System.setProperty("seriesSnapshots", String.valueOf("snapshot".equals(this.source)));
+        Fixtures.install();
+        // writes the snapshots when enabled
+        SeriesReader.readSeries(Fixtures.ARS_SAVINGS);
+        SeriesReader.readIndexSeries(Fixtures.USD_EUR);
+    }
+
+    @Benchmark
+    public MoneyAmountSeries readSeries() {
+        SeriesReader.invalidate(Fixtures.ARS_SAVINGS);
+        return SeriesReader.readSeries(Fixtures.ARS_SAVINGS);
+    }
+
+    @Benchmark
+    public IndexSeries readIndexSeries() {
+        SeriesReader.invalidate(Fixtures.USD_EUR);
+        return SeriesReader.readIndexSeries(Fixtures.USD_EUR);
+    }
+
+}